@@ -1,16 +1,16 @@
 package dev.architectury.loom.extensions;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
-import java.nio.file.FileSystem;
-import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
-import java.nio.file.Path;
 import java.util.Set;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
@@ -23,8 +23,8 @@ import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.task.service.MappingsService;
 import net.fabricmc.loom.util.Constants;
-import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.loom.util.LfWriter;
+import net.fabricmc.loom.util.StagedJarOutput;
 import net.fabricmc.loom.util.aw2at.Aw2At;
 import net.fabricmc.loom.util.service.ServiceFactory;
 
@@ -48,41 +48,38 @@ public final class ModBuildExtensions {
 		}
 	}
 
-	public static void convertAwToAt(ServiceFactory serviceFactory, Set<String> atAccessWideners, Path outputFile, Provider<MappingsService.Options> options) throws IOException {
+	public static void convertAwToAt(ServiceFactory serviceFactory, Set<String> atAccessWideners, StagedJarOutput output, Provider<MappingsService.Options> options) throws IOException {
 		if (atAccessWideners.isEmpty()) {
 			return;
 		}
 
 		AccessTransformSet at = AccessTransformSet.create();
 
-		try (FileSystemUtil.Delegate fileSystem = FileSystemUtil.getJarFileSystem(outputFile, false)) {
-			FileSystem fs = fileSystem.get();
-			Path atPath = fs.getPath(Constants.Forge.ACCESS_TRANSFORMER_PATH);
+		if (output.contains(Constants.Forge.ACCESS_TRANSFORMER_PATH)) {
+			throw new FileAlreadyExistsException("Jar " + output.getPath() + " already contains an access transformer - cannot convert AWs!");
+		}
 
-			if (Files.exists(atPath)) {
-				throw new FileAlreadyExistsException("Jar " + outputFile + " already contains an access transformer - cannot convert AWs!");
+		for (String aw : atAccessWideners) {
+			if (!output.contains(aw)) {
+				throw new NoSuchFileException("Could not find AW '" + aw + "' to convert into AT!");
 			}
 
-			for (String aw : atAccessWideners) {
-				Path awPath = fs.getPath(aw);
-
-				if (Files.notExists(awPath)) {
-					throw new NoSuchFileException("Could not find AW '" + aw + "' to convert into AT!");
-				}
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(output.read(aw)), StandardCharsets.UTF_8))) {
+				at.merge(Aw2At.toAccessTransformSet(reader));
+			}
 
-				try (BufferedReader reader = Files.newBufferedReader(awPath, StandardCharsets.UTF_8)) {
-					at.merge(Aw2At.toAccessTransformSet(reader));
-				}
+			output.remove(aw);
+		}
 
-				Files.delete(awPath);
-			}
+		MappingsService service = serviceFactory.get(options);
+		at = at.remap(service.getMemoryMappingTree(), service.getFrom(), service.getTo());
 
-			MappingsService service = serviceFactory.get(options);
-			at = at.remap(service.getMemoryMappingTree(), service.getFrom(), service.getTo());
+		StringWriter atContent = new StringWriter();
 
-			try (Writer writer = new LfWriter(Files.newBufferedWriter(atPath))) {
-				AccessTransformFormats.FML.write(writer, at);
-			}
+		try (Writer writer = new LfWriter(atContent)) {
+			AccessTransformFormats.FML.write(writer, at);
 		}
+
+		output.add(Constants.Forge.ACCESS_TRANSFORMER_PATH, atContent.toString().getBytes(StandardCharsets.UTF_8));
 	}
 }
@@ -51,6 +51,7 @@ import net.fabricmc.loom.task.LoomTasks;
 import net.fabricmc.loom.task.RemapTaskConfiguration;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.LibraryLocationLogger;
+import net.fabricmc.loom.util.gradle.LoomExecutorService;
 
 public class LoomGradlePlugin implements BootstrappedPlugin {
 	public static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
@@ -104,6 +105,9 @@ public class LoomGradlePlugin implements BootstrappedPlugin {
 		project.getExtensions().create(LoomGradleExtensionAPI.class, "loom", LoomGradleExtensionImpl.class, project, LoomFiles.create(project));
 		project.getExtensions().create("fabricApi", FabricApiExtension.class);
 
+		// Realise the shared executor eagerly, code outside of tasks uses it through LoomExecutorService.executor()
+		LoomExecutorService.register(project).get();
+
 		for (Class<? extends Runnable> jobClass : SETUP_JOBS) {
 			project.getObjects().newInstance(jobClass).run();
 		}
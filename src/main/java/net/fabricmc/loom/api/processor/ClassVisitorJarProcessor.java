@@ -0,0 +1,73 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.api.processor;
+
+import java.io.IOException;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassVisitor;
+
+/**
+ * A {@link MinecraftJarProcessor} that only transforms classes using ASM {@link ClassVisitor}s.
+ *
+ * <p>Adjacent processors implementing this interface are applied together, each class is read and written once with the visitors of all processors chained.
+ * {@link #processJar(java.nio.file.Path, MinecraftJarProcessor.Spec, ProcessorContext)} is not used by Loom for these processors,
+ * implementations should apply the transformer returned by {@link #createClassTransformer(MinecraftJarProcessor.Spec, ProcessorContext)} when it is called directly.
+ */
+public interface ClassVisitorJarProcessor<S extends MinecraftJarProcessor.Spec> extends MinecraftJarProcessor<S> {
+	/**
+	 * @return the transformer to apply to the jar, or null when there is nothing to transform
+	 */
+	@Nullable
+	ClassTransformer createClassTransformer(S spec, ProcessorContext context) throws IOException;
+
+	interface ClassTransformer {
+		/**
+		 * @param className the internal name of the class
+		 * @return true if {@link #createClassVisitor(String, ClassVisitor)} should be called for the class
+		 */
+		boolean shouldTransform(String className);
+
+		/**
+		 * Called concurrently for each class to transform.
+		 *
+		 * @param className the internal name of the class
+		 * @param next the visitor to pass the transformed class to
+		 */
+		ClassVisitor createClassVisitor(String className, ClassVisitor next);
+
+		/**
+		 * Gets a key that identifies how a class is transformed. When a jar is processed again, a class is only transformed again
+		 * if its key has changed, otherwise it is copied from the previously processed jar.
+		 *
+		 * @param className the internal name of a class for which {@link #shouldTransform(String)} returns true
+		 * @return the key, or null when the class must always be transformed again
+		 */
+		@Nullable
+		default String getTransformKey(String className) {
+			return null;
+		}
+	}
+}
@@ -26,53 +26,49 @@ package net.fabricmc.loom.build.nesting;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Collection;
-import java.util.Map;
 import java.util.Comparator;
-import java.util.stream.Collectors;
 
 import com.google.common.base.Preconditions;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import org.gradle.api.UncheckedIOException;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import net.fabricmc.loom.LoomGradlePlugin;
 import net.fabricmc.loom.util.ModPlatform;
-import net.fabricmc.loom.util.Pair;
+import net.fabricmc.loom.util.StagedJarOutput;
 import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.loom.util.fmj.FabricModJsonFactory;
 
 public class JarNester {
-	public static void nestJars(Collection<File> jars, File modJar, ModPlatform platform, Logger logger) {
+	public static void nestJars(Collection<File> jars, StagedJarOutput modJar, ModPlatform platform, Logger logger) {
+		final String modJarName = modJar.getPath().getFileName().toString();
+
 		if (jars.isEmpty()) {
-			logger.debug("Nothing to nest into " + modJar.getName());
+			logger.debug("Nothing to nest into " + modJarName);
 			return;
 		}
 
-		Preconditions.checkArgument(FabricModJsonFactory.isNestableModJar(modJar, platform), "Cannot nest jars into none mod jar " + modJar.getName());
+		Preconditions.checkArgument(FabricModJsonFactory.isNestableModJar(modJar.getPath(), platform), "Cannot nest jars into none mod jar " + modJarName);
 
 		// Ensure deterministic ordering of entries in fabric.mod.json
 		Collection<File> sortedJars = jars.stream().sorted(Comparator.comparing(File::getName)).toList();
 
 		try {
-			ZipUtils.add(modJar.toPath(), sortedJars.stream().map(file -> {
-				try {
-					return new Pair<>("META-INF/jars/" + file.getName(), Files.readAllBytes(file.toPath()));
-				} catch (IOException e) {
-					throw new UncheckedIOException(e);
-				}
-			}).collect(Collectors.toList()));
+			for (File file : sortedJars) {
+				modJar.add("META-INF/jars/" + file.getName(), Files.readAllBytes(file.toPath()));
+			}
 
 			if (platform.isForgeLike()) {
 				handleForgeJarJar(jars, modJar, logger);
 				return;
 			}
 
-			int count = ZipUtils.transformJson(JsonObject.class, modJar.toPath(), platform == ModPlatform.FABRIC ? Map.of("fabric.mod.json", json -> {
+			boolean transformed = platform == ModPlatform.FABRIC ? modJar.transformJson(JsonObject.class, "fabric.mod.json", json -> {
 				JsonArray nestedJars = json.getAsJsonArray("jars");
 
 				if (nestedJars == null || !json.has("jars")) {
@@ -95,13 +91,13 @@ public class JarNester {
 					jsonObject.addProperty("file", nestedJarPath);
 					nestedJars.add(jsonObject);
 
-					logger.debug("Nested " + nestedJarPath + " into " + modJar.getName());
+					logger.debug("Nested " + nestedJarPath + " into " + modJarName);
 				}
 
 				json.add("jars", nestedJars);
 
 				return json;
-			}) : platform == ModPlatform.QUILT ? Map.of("quilt.mod.json", json -> {
+			}) : platform == ModPlatform.QUILT && modJar.transformJson(JsonObject.class, "quilt.mod.json", json -> {
 				JsonObject loader;
 
 				if (json.has("quilt_loader")) {
@@ -130,17 +126,17 @@ public class JarNester {
 
 					nestedJars.add(nestedJarPath);
 
-					logger.debug("Nested " + nestedJarPath + " into " + modJar.getName());
+					logger.debug("Nested " + nestedJarPath + " into " + modJarName);
 				}
 
 				loader.add("jars", nestedJars);
 
 				return json;
-			}) : Map.of());
+			});
 
-			Preconditions.checkState(count > 0, "Failed to transform fabric.mod.json");
+			Preconditions.checkState(transformed, "Failed to transform fabric.mod.json");
 		} catch (IOException e) {
-			throw new java.io.UncheckedIOException("Failed to nest jars into " + modJar.getName(), e);
+			throw new java.io.UncheckedIOException("Failed to nest jars into " + modJarName, e);
 		}
 	}
 
@@ -153,7 +149,7 @@ public class JarNester {
 		}
 	}
 
-	private static void handleForgeJarJar(Collection<File> jars, File modJar, Logger logger) throws IOException {
+	private static void handleForgeJarJar(Collection<File> jars, StagedJarOutput modJar, Logger logger) {
 		JsonObject json = new JsonObject();
 		JsonArray nestedJars = new JsonArray();
 
@@ -187,11 +183,11 @@ public class JarNester {
 			jsonObject.addProperty("path", nestedJarPath);
 			nestedJars.add(jsonObject);
 
-			logger.debug("Nested " + nestedJarPath + " into " + modJar.getName());
+			logger.debug("Nested " + nestedJarPath + " into " + modJar.getPath().getFileName());
 		}
 
 		json.add("jars", nestedJars);
 
-		ZipUtils.add(modJar.toPath(), "META-INF/jarjar/metadata.json", LoomGradlePlugin.GSON.toJson(json));
+		modJar.add("META-INF/jarjar/metadata.json", LoomGradlePlugin.GSON.toJson(json).getBytes(StandardCharsets.UTF_8));
 	}
 }
@@ -33,7 +33,13 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -82,14 +88,18 @@ import net.fabricmc.loom.configuration.providers.minecraft.MinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftSourceSets;
 import net.fabricmc.loom.configuration.providers.minecraft.mapped.AbstractMappedMinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.mapped.IntermediaryMinecraftProvider;
+import net.fabricmc.loom.configuration.providers.minecraft.mapped.MappedMinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.mapped.MojangMappedMinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.mapped.NamedMinecraftProvider;
+import net.fabricmc.loom.configuration.providers.minecraft.mapped.ProcessedNamedMinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.mapped.SrgMinecraftProvider;
 import net.fabricmc.loom.configuration.sources.ForgeSourcesRemapper;
 import net.fabricmc.loom.extension.MixinExtension;
+import net.fabricmc.loom.util.CacheLocks;
 import net.fabricmc.loom.util.Checksum;
 import net.fabricmc.loom.util.ExceptionUtil;
 import net.fabricmc.loom.util.ProcessUtil;
+import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.loom.util.gradle.GradleUtils;
 import net.fabricmc.loom.util.gradle.SourceSetHelper;
 import net.fabricmc.loom.util.gradle.daemon.DaemonUtils;
@@ -195,8 +205,8 @@ public abstract class CompileConfiguration implements Runnable {
 		}
 	}
 
-	// This is not thread safe across getProject()s synchronize it here just to be sure, might be possible to move this further down, but for now this will do.
-	private synchronized void setupMinecraft(ConfigContext configContext) throws Exception {
+	// Projects may be configured in parallel, each step that writes to a shared cache locks the cache artifact it produces.
+	private void setupMinecraft(ConfigContext configContext) throws Exception {
 		final Project project = configContext.project();
 		final LoomGradleExtension extension = configContext.extension();
 
@@ -213,25 +223,31 @@ public abstract class CompileConfiguration implements Runnable {
 		}
 
 		extension.setMinecraftProvider(minecraftProvider);
-		minecraftProvider.provide();
 
-		// Created any layered mapping files.
-		LayeredMappingsFactory.afterEvaluate(configContext);
+		// The layered mappings and the Forge dependencies are also stored in the version's working directory
+		CacheLocks.withLock(minecraftProvider.workingDir().toPath(), () -> {
+			minecraftProvider.provide();
 
-		// This needs to run after MinecraftProvider.initFiles and MinecraftLibraryProvider.provide
-		// but before MinecraftPatchedProvider.provide.
-		setupDependencyProviders(project, extension);
+			// Created any layered mapping files.
+			LayeredMappingsFactory.afterEvaluate(configContext);
+
+			// This needs to run after MinecraftProvider.initFiles and MinecraftLibraryProvider.provide
+			// but before MinecraftPatchedProvider.provide.
+			setupDependencyProviders(project, extension);
+		});
 
 		final DependencyInfo mappingsDep = DependencyInfo.create(getProject(), Configurations.MAPPINGS);
 		final MappingConfiguration mappingConfiguration = MappingConfiguration.create(getProject(), configContext.serviceFactory(), mappingsDep, minecraftProvider);
 		extension.setMappingConfiguration(mappingConfiguration);
 
 		if (extension.isForgeLike()) {
-			ForgeLibrariesProvider.provide(mappingConfiguration, project);
-			((ForgeMinecraftProvider) minecraftProvider).getPatchedProvider().provide();
+			CacheLocks.withLock(ForgeProvider.getForgeCache(project), () -> {
+				ForgeLibrariesProvider.provide(mappingConfiguration, project);
+				((ForgeMinecraftProvider) minecraftProvider).getPatchedProvider().provide();
+			});
 		}
 
-		mappingConfiguration.setupPost(project);
+		CacheLocks.withLock(mappingConfiguration.mappingsWorkingDir(), () -> mappingConfiguration.setupPost(project));
 		mappingConfiguration.applyToProject(getProject(), mappingsDep);
 
 		if (extension.isForgeLike()) {
@@ -239,7 +255,7 @@ public abstract class CompileConfiguration implements Runnable {
 		}
 
 		if (minecraftProvider instanceof ForgeMinecraftProvider patched) {
-			patched.getPatchedProvider().remapJar(configContext.serviceFactory());
+			CacheLocks.withLock(ForgeProvider.getForgeCache(project), () -> patched.getPatchedProvider().remapJar(configContext.serviceFactory()));
 		}
 
 		// Provide the remapped mc jars
@@ -254,25 +270,96 @@ public abstract class CompileConfiguration implements Runnable {
 			namedMinecraftProvider = jarConfiguration.createProcessedNamedMinecraftProvider(namedMinecraftProvider, minecraftJarProcessorManager);
 		}
 
-		final var provideContext = new AbstractMappedMinecraftProvider.ProvideContext(true, extension.refreshDeps(), configContext);
+		// Dependencies are applied once all jars have been provided, as the providers run concurrently
+		final var provideContext = new AbstractMappedMinecraftProvider.ProvideContext(false, extension.refreshDeps(), configContext);
+		final List<AbstractMappedMinecraftProvider<?>> mappedProviders = new ArrayList<>();
 
 		extension.setIntermediaryMinecraftProvider(intermediaryMinecraftProvider);
-		intermediaryMinecraftProvider.provide(provideContext);
-
 		extension.setNamedMinecraftProvider(namedMinecraftProvider);
-		namedMinecraftProvider.provide(provideContext);
+		mappedProviders.add(intermediaryMinecraftProvider);
+		mappedProviders.add(namedMinecraftProvider);
 
 		if (extension.isSrgForgeLike()) {
 			final SrgMinecraftProvider<?> srgMinecraftProvider = jarConfiguration.createSrgMinecraftProvider(project);
 			extension.setSrgMinecraftProvider(srgMinecraftProvider);
-			srgMinecraftProvider.provide(provideContext);
+			mappedProviders.add(srgMinecraftProvider);
 		}
 
 		if (extension.isForgeLike() && extension.getForgeProvider().usesMojangAtRuntime()) {
 			final MojangMappedMinecraftProvider<?> mojangMappedMinecraftProvider = jarConfiguration.createMojangMappedMinecraftProvider(project);
 			extension.setMojangMappedMinecraftProvider(mojangMappedMinecraftProvider);
-			mojangMappedMinecraftProvider.provide(provideContext);
+			mappedProviders.add(mojangMappedMinecraftProvider);
+		}
+
+		provideMappedMinecraftJars(intermediaryMinecraftProvider, mappedProviders, provideContext);
+
+		for (AbstractMappedMinecraftProvider<?> mappedProvider : mappedProviders) {
+			mappedProvider.applyDependencies();
+		}
+	}
+
+	/**
+	 * Provides the mapped Minecraft jars concurrently. Every mapped jar only depends on the unmapped jars and the mappings,
+	 * apart from the processed named jars as the jar processors use the intermediary jars as their classpath.
+	 * The jar processors may access the project, so the processed jars are provided on the configuring thread.
+	 * Each provider locks its output jars, the names of which include the mappings or the processed jar hash.
+	 */
+	private static void provideMappedMinecraftJars(IntermediaryMinecraftProvider<?> intermediaryMinecraftProvider, List<AbstractMappedMinecraftProvider<?>> mappedProviders, AbstractMappedMinecraftProvider.ProvideContext provideContext) throws Exception {
+		final CompletableFuture<Void> intermediary = provideAsync(intermediaryMinecraftProvider, () -> intermediaryMinecraftProvider.provide(provideContext));
+		final List<CompletableFuture<Void>> futures = new ArrayList<>();
+		final Map<ProcessedNamedMinecraftProvider<?, ?>, CompletableFuture<Void>> processedProviders = new LinkedHashMap<>();
+		futures.add(intermediary);
+
+		for (AbstractMappedMinecraftProvider<?> mappedProvider : mappedProviders) {
+			if (mappedProvider == intermediaryMinecraftProvider) {
+				continue;
+			}
+
+			if (mappedProvider instanceof ProcessedNamedMinecraftProvider<?, ?> processed) {
+				final CompletableFuture<Void> parent = provideAsync(processed.getParentMinecraftProvider(), () -> processed.getParentMinecraftProvider().provide(provideContext));
+				futures.add(parent);
+				processedProviders.put(processed, CompletableFuture.allOf(parent, intermediary));
+			} else {
+				futures.add(provideAsync(mappedProvider, () -> mappedProvider.provide(provideContext)));
+			}
+		}
+
+		final CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+
+		try {
+			for (Map.Entry<ProcessedNamedMinecraftProvider<?, ?>, CompletableFuture<Void>> entry : processedProviders.entrySet()) {
+				final ProcessedNamedMinecraftProvider<?, ?> processed = entry.getKey();
+				join(entry.getValue());
+				CacheLocks.withLock(processed.getMinecraftJarPaths(), () -> processed.provideProcessedJars(provideContext));
+			}
+		} finally {
+			// Don't leave any providers running in the background if processing failed
+			all.handle((unused, throwable) -> null).join();
 		}
+
+		join(all);
+	}
+
+	private static void join(CompletableFuture<Void> future) throws Exception {
+		try {
+			future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof Exception cause) {
+				throw cause;
+			}
+
+			throw e;
+		}
+	}
+
+	private static CompletableFuture<Void> provideAsync(MappedMinecraftProvider provider, ThreadingUtils.UnsafeRunnable runnable) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				CacheLocks.withLock(provider.getMinecraftJarPaths(), runnable);
+			} catch (Throwable t) {
+				throw new CompletionException(t);
+			}
+		}, ThreadingUtils.executor());
 	}
 
 	private void registerGameProcessors(ConfigContext configContext) {
@@ -29,10 +29,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.UncheckedIOException;
-import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,7 +41,6 @@ import com.google.common.io.MoreFiles;
 import dev.architectury.at.AccessTransformSet;
 import dev.architectury.at.io.AccessTransformFormats;
 import dev.architectury.loom.forge.tool.ForgeToolValueSource;
-import dev.architectury.loom.util.TempFiles;
 import org.gradle.api.Project;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.logging.Logger;
@@ -52,10 +49,12 @@ import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
+import net.fabricmc.loom.api.processor.ClassVisitorJarProcessor;
 import net.fabricmc.loom.api.processor.MinecraftJarProcessor;
 import net.fabricmc.loom.api.processor.ProcessorContext;
 import net.fabricmc.loom.api.processor.SpecContext;
 import net.fabricmc.loom.build.IntermediaryNamespaces;
+import net.fabricmc.loom.configuration.processors.JarClassTransformer;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftVersionMeta;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.DependencyDownloader;
@@ -63,7 +62,7 @@ import net.fabricmc.loom.util.ExceptionUtil;
 import net.fabricmc.loom.util.LoomVersions;
 import net.fabricmc.loom.util.fmj.FabricModJson;
 
-public class AccessTransformerJarProcessor implements MinecraftJarProcessor<AccessTransformerJarProcessor.Spec> {
+public class AccessTransformerJarProcessor implements ClassVisitorJarProcessor<AccessTransformerJarProcessor.Spec> {
 	private static final Logger LOGGER = Logging.getLogger(AccessTransformerJarProcessor.class);
 	private final String name;
 	private final Project project;
@@ -114,22 +113,17 @@ public class AccessTransformerJarProcessor implements MinecraftJarProcessor<Acce
 
 	@Override
 	public void processJar(Path jar, Spec spec, ProcessorContext context) throws IOException {
-		try (var tempFiles = new TempFiles()) {
-			LOGGER.lifecycle(":applying project access transformers");
-			final Path tempInput = tempFiles.file("input", ".jar");
-			Files.copy(jar, tempInput, StandardCopyOption.REPLACE_EXISTING);
-			final Path atPath = mergeAndRemapAccessTransformers(context, spec.accessTransformers(), tempFiles);
-
-			executeAt(project, tempInput, jar, args -> {
-				args.add("--atFile");
-				args.add(atPath.toAbsolutePath().toString());
-			});
-		} catch (IOException e) {
-			throw ExceptionUtil.createDescriptiveWrapper(UncheckedIOException::new, "Could not access transform " + jar.toAbsolutePath(), e);
-		}
+		JarClassTransformer.process(this, jar, spec, context);
+	}
+
+	@Override
+	public ClassTransformer createClassTransformer(Spec spec, ProcessorContext context) throws IOException {
+		// The access transformers are applied in process while the jar is rewritten, instead of running the external access transformer tool
+		LOGGER.lifecycle(":applying project access transformers");
+		return new AccessTransformerClassTransformer(mergeAndRemapAccessTransformers(context, spec.accessTransformers()));
 	}
 
-	private Path mergeAndRemapAccessTransformers(ProcessorContext context, List<AccessTransformerEntry> accessTransformers, TempFiles tempFiles) throws IOException {
+	private AccessTransformSet mergeAndRemapAccessTransformers(ProcessorContext context, List<AccessTransformerEntry> accessTransformers) throws IOException {
 		AccessTransformSet accessTransformSet = AccessTransformSet.create();
 
 		for (AccessTransformerEntry entry : accessTransformers) {
@@ -140,17 +134,7 @@ public class AccessTransformerJarProcessor implements MinecraftJarProcessor<Acce
 			}
 		}
 
-		accessTransformSet = accessTransformSet.remap(context.getMappings(), IntermediaryNamespaces.intermediary(project), MappingsNamespace.NAMED.toString());
-
-		final Path accessTransformerPath = tempFiles.file("accesstransformer-merged", ".cfg");
-
-		try {
-			AccessTransformFormats.FML.write(accessTransformerPath, accessTransformSet);
-		} catch (IOException e) {
-			throw new IOException("Could not write access transformers to " + accessTransformerPath, e);
-		}
-
-		return accessTransformerPath;
+		return accessTransformSet.remap(context.getMappings(), IntermediaryNamespaces.intermediary(project), MappingsNamespace.NAMED.toString());
 	}
 
 	@Override
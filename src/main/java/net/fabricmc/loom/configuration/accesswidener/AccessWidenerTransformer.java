@@ -24,61 +24,101 @@
 
 package net.fabricmc.loom.configuration.accesswidener;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Path;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.objectweb.asm.ClassReader;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassVisitor;
-import org.objectweb.asm.ClassWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.fabricmc.accesswidener.AccessWidener;
 import net.fabricmc.accesswidener.AccessWidenerClassVisitor;
+import net.fabricmc.accesswidener.AccessWidenerReader;
+import net.fabricmc.accesswidener.AccessWidenerVisitor;
+import net.fabricmc.loom.api.processor.ClassVisitorJarProcessor;
 import net.fabricmc.loom.util.Constants;
-import net.fabricmc.loom.util.Pair;
-import net.fabricmc.loom.util.ZipUtils;
 
-final class AccessWidenerTransformer {
+final class AccessWidenerTransformer implements ClassVisitorJarProcessor.ClassTransformer {
 	private static final Logger LOGGER = LoggerFactory.getLogger(AccessWidenerTransformer.class);
 
 	private final AccessWidener accessWidener;
+	private final Set<String> targets;
+	private final Map<String, String> transformKeys;
 
-	AccessWidenerTransformer(AccessWidener accessWidener) {
+	AccessWidenerTransformer(AccessWidener accessWidener, Map<String, String> transformKeys) {
 		this.accessWidener = accessWidener;
+		this.transformKeys = transformKeys;
+		this.targets = accessWidener.getTargets().stream()
+				.map(string -> string.replace('.', '/'))
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+	@Override
+	public boolean shouldTransform(String className) {
+		return targets.contains(className);
+	}
+
+	@Override
+	public ClassVisitor createClassVisitor(String className, ClassVisitor next) {
+		LOGGER.debug("Applying access widener to " + className);
+		return AccessWidenerClassVisitor.createClassVisitor(Constants.ASM_VERSION, next, accessWidener);
+	}
+
+	@Override
+	public @Nullable String getTransformKey(String className) {
+		return transformKeys.get(getTopLevelClass(className));
+	}
+
+	private static String getTopLevelClass(String className) {
+		final int index = className.indexOf('$');
+		return index < 0 ? className : className.substring(0, index);
 	}
 
 	/**
-	 * Apply the rules from an access-widener to the given jar or zip file.
+	 * Records the entries that affect each class while reading them into an access widener.
+	 * The entries are grouped by top level class, as the inner class attributes of nested classes are widened too.
 	 */
-	void apply(Path jarFile) {
-		try {
-			ZipUtils.transform(jarFile, getTransformers(accessWidener.getTargets()));
-		} catch (IOException e) {
-			throw new UncheckedIOException("Failed to apply access wideners to %s".formatted(jarFile), e);
+	static final class TransformKeyVisitor implements AccessWidenerVisitor {
+		private final AccessWidenerVisitor delegate;
+		private final Map<String, StringBuilder> keys = new HashMap<>();
+
+		TransformKeyVisitor(AccessWidenerVisitor delegate) {
+			this.delegate = delegate;
 		}
-	}
 
-	private List<Pair<String, ZipUtils.UnsafeUnaryOperator<byte[]>>> getTransformers(Set<String> classes) {
-		return classes.stream()
-				.map(string -> new Pair<>(string.replaceAll("\\.", "/") + ".class", getTransformer(string)))
-				.collect(Collectors.toList());
-	}
+		@Override
+		public void visitHeader(String namespace) {
+			delegate.visitHeader(namespace);
+		}
 
-	private ZipUtils.UnsafeUnaryOperator<byte[]> getTransformer(String className) {
-		return input -> {
-			ClassReader reader = new ClassReader(input);
-			ClassWriter writer = new ClassWriter(0);
-			ClassVisitor classVisitor = AccessWidenerClassVisitor.createClassVisitor(Constants.ASM_VERSION, writer, accessWidener);
+		@Override
+		public void visitClass(String name, AccessWidenerReader.AccessType access, boolean transitive) {
+			delegate.visitClass(name, access, transitive);
+			record(name, "class " + name + " " + access);
+		}
 
-			LOGGER.debug("Applying access widener to " + className);
+		@Override
+		public void visitMethod(String owner, String name, String descriptor, AccessWidenerReader.AccessType access, boolean transitive) {
+			delegate.visitMethod(owner, name, descriptor, access, transitive);
+			record(owner, "method " + owner + " " + name + descriptor + " " + access);
+		}
 
-			reader.accept(classVisitor, 0);
-			return writer.toByteArray();
-		};
+		@Override
+		public void visitField(String owner, String name, String descriptor, AccessWidenerReader.AccessType access, boolean transitive) {
+			delegate.visitField(owner, name, descriptor, access, transitive);
+			record(owner, "field " + owner + " " + name + " " + descriptor + " " + access);
+		}
+
+		private void record(String owner, String entry) {
+			keys.computeIfAbsent(getTopLevelClass(owner.replace('.', '/')), k -> new StringBuilder()).append(entry).append('\n');
+		}
+
+		Map<String, String> getKeys() {
+			return keys.entrySet().stream()
+					.collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue().toString()));
+		}
 	}
 }
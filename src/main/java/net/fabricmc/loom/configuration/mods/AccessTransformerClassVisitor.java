@@ -35,12 +35,18 @@ import org.objectweb.asm.Handle;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 
+/**
+ * Applies an {@link AccessTransformSet} to a class, following the behaviour of Forge's access transformer tool.
+ * Visibility is only ever widened, and calls to private methods of the class that are made accessible are changed to virtual calls.
+ */
 public class AccessTransformerClassVisitor extends ClassVisitor {
+	private static final int VISIBILITY_MASK = Opcodes.ACC_PUBLIC | Opcodes.ACC_PRIVATE | Opcodes.ACC_PROTECTED;
+
 	private final AccessTransformSet accessTransformSet;
 	private String className;
 	private int classAccess;
 
-	AccessTransformerClassVisitor(int api, ClassVisitor classVisitor, AccessTransformSet accessTransformSet) {
+	public AccessTransformerClassVisitor(int api, ClassVisitor classVisitor, AccessTransformSet accessTransformSet) {
 		super(api, classVisitor);
 		this.accessTransformSet = accessTransformSet;
 	}
@@ -52,7 +58,7 @@ public class AccessTransformerClassVisitor extends ClassVisitor {
 
 		super.visit(
 				version,
-				modifyAccess(access, getClassAccess()),
+				modifyAccess(access, getClassAccess(name)),
 				name,
 				signature,
 				superName,
@@ -66,7 +72,7 @@ public class AccessTransformerClassVisitor extends ClassVisitor {
 				name,
 				outerName,
 				innerName,
-				modifyAccess(access, getClassAccess())
+				modifyAccess(access, getClassAccess(name))
 		);
 	}
 
@@ -100,7 +106,7 @@ public class AccessTransformerClassVisitor extends ClassVisitor {
 		@Override
 		public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
 			if (opcode == Opcodes.INVOKESPECIAL && isTargetMethod(owner, name, descriptor)) {
-				opcode = Opcodes.INVOKEVIRTUAL;
+				opcode = isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL;
 			}
 
 			super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
@@ -111,7 +117,8 @@ public class AccessTransformerClassVisitor extends ClassVisitor {
 			for (int i = 0; i < bootstrapMethodArguments.length; i++) {
 				if (bootstrapMethodArguments[i] instanceof Handle handle) {
 					if (handle.getTag() == Opcodes.H_INVOKESPECIAL && isTargetMethod(handle.getOwner(), handle.getName(), handle.getDesc())) {
-						bootstrapMethodArguments[i] = new Handle(Opcodes.H_INVOKEVIRTUAL, handle.getOwner(), handle.getName(), handle.getDesc(), handle.isInterface());
+						final int tag = handle.isInterface() ? Opcodes.H_INVOKEINTERFACE : Opcodes.H_INVOKEVIRTUAL;
+						bootstrapMethodArguments[i] = new Handle(tag, handle.getOwner(), handle.getName(), handle.getDesc(), handle.isInterface());
 					}
 				}
 			}
@@ -124,8 +131,8 @@ public class AccessTransformerClassVisitor extends ClassVisitor {
 		}
 	}
 
-	private AccessTransform getClassAccess() {
-		return accessTransformSet.getClass(className).map(c -> c.get()).orElse(AccessTransform.EMPTY);
+	private AccessTransform getClassAccess(String name) {
+		return accessTransformSet.getClass(name).map(c -> c.get()).orElse(AccessTransform.EMPTY);
 	}
 
 	private AccessTransform getFieldAccess(String name) {
@@ -145,18 +152,29 @@ public class AccessTransformerClassVisitor extends ClassVisitor {
 		AccessChange accessChange = accessTransform.getAccess();
 		ModifierChange modifierChange = accessTransform.getFinal();
 
-		if (accessChange != AccessChange.NONE) {
-			access = (access & ~(Opcodes.ACC_PUBLIC | Opcodes.ACC_PRIVATE | Opcodes.ACC_PROTECTED)) | accessChange.getModifier();
+		// Access transformers never reduce the visibility
+		if (accessChange != AccessChange.NONE && visibility(accessChange.getModifier()) > visibility(access)) {
+			access = (access & ~VISIBILITY_MASK) | accessChange.getModifier();
 		}
 
 		if (modifierChange == ModifierChange.REMOVE) {
 			access &= ~Opcodes.ACC_FINAL;
-		}
-
-		if (modifierChange == ModifierChange.REMOVE) {
+		} else if (modifierChange == ModifierChange.ADD) {
 			access |= Opcodes.ACC_FINAL;
 		}
 
 		return access;
 	}
+
+	private static int visibility(int access) {
+		if ((access & Opcodes.ACC_PUBLIC) != 0) {
+			return 3;
+		} else if ((access & Opcodes.ACC_PROTECTED) != 0) {
+			return 2;
+		} else if ((access & Opcodes.ACC_PRIVATE) != 0) {
+			return 0;
+		}
+
+		return 1; // Package-private
+	}
 }
@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 
 import com.google.common.collect.ImmutableMap;
@@ -182,6 +183,14 @@ public class ModConfigurationRemapper {
 			dependenciesBySourceConfig.put(sourceConfig, modDependencies);
 		});
 
+		final RemappedModCache remappedModCache;
+
+		try {
+			remappedModCache = RemappedModCache.create(project, serviceFactory);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to set up the global mod cache", e);
+		}
+
 		// Round 2: Remapping
 		// Remap all discovered artifacts.
 		configsToRemap.forEach((sourceConfig, remappedConfig) -> {
@@ -196,13 +205,27 @@ public class ModConfigurationRemapper {
 			final boolean refreshDeps = LoomGradleExtension.get(project).refreshDeps();
 			// TODO: With the same artifacts being considered multiple times for their different
 			//   usage attributes, this should probably not process them multiple times even with refreshDeps.
-			final List<ModDependency> toRemap = modDependencies.stream()
-					.filter(dependency -> refreshDeps || dependency.isCacheInvalid(project, null))
-					.toList();
+			final List<ModDependency> toRemap = new ArrayList<>();
+			final Set<String> knownIndyBsms = ModProcessor.getKnownIndyBsms(project, modDependencies);
+			final RemappedModCache batchCache = remappedModCache != null ? remappedModCache.forBatch(knownIndyBsms) : null;
+
+			for (ModDependency dependency : modDependencies) {
+				if (!refreshDeps && !dependency.isCacheInvalid(project, null)) {
+					continue;
+				}
+
+				try {
+					if (batchCache == null || refreshDeps || !batchCache.restore(project, dependency)) {
+						toRemap.add(dependency);
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException("Failed to restore " + dependency + " from the global mod cache", e);
+				}
+			}
 
 			if (!toRemap.isEmpty()) {
 				try {
-					new ModProcessor(project, sourceConfig, serviceFactory).processMods(toRemap);
+					new ModProcessor(project, sourceConfig, serviceFactory, knownIndyBsms, batchCache).processMods(toRemap);
 				} catch (IOException e) {
 					throw new UncheckedIOException("Failed to remap mods", e);
 				}
@@ -24,12 +24,14 @@
 
 package net.fabricmc.loom.configuration.mods;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -38,6 +40,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.jar.Manifest;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -48,8 +51,10 @@ import dev.architectury.loom.util.MappingOption;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.attributes.Usage;
+import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.LoomGradlePlugin;
 import net.fabricmc.loom.api.RemapConfigurationSettings;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
 import net.fabricmc.loom.build.IntermediaryNamespaces;
@@ -57,16 +62,18 @@ import net.fabricmc.loom.configuration.mods.dependency.ModDependency;
 import net.fabricmc.loom.configuration.providers.mappings.MappingConfiguration;
 import net.fabricmc.loom.extension.RemapperExtensionHolder;
 import net.fabricmc.loom.util.Constants;
+import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.loom.util.LoggerFilter;
 import net.fabricmc.loom.util.ModPlatform;
 import net.fabricmc.loom.util.Pair;
+import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.loom.util.TinyRemapperHelper;
-import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.loom.util.kotlin.KotlinClasspathService;
 import net.fabricmc.loom.util.kotlin.KotlinRemapperClassloader;
 import net.fabricmc.loom.util.service.ServiceFactory;
 import net.fabricmc.loom.util.srg.AtRemapper;
 import net.fabricmc.loom.util.srg.CoreModClassRemapper;
+import net.fabricmc.mappingio.tree.MappingTree;
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
 import net.fabricmc.tinyremapper.InputTag;
 import net.fabricmc.tinyremapper.NonClassCopyMode;
@@ -83,11 +90,33 @@ public class ModProcessor {
 	private final Project project;
 	private final Configuration sourceConfiguration;
 	private final ServiceFactory serviceFactory;
-
-	public ModProcessor(Project project, Configuration sourceConfiguration, ServiceFactory serviceFactory) {
+	private final Set<String> knownIndyBsms;
+	@Nullable
+	private final RemappedModCache remappedModCache;
+
+	/**
+	 * @param knownIndyBsms the known indy bootstrap methods of the project and all mods of the configuration, see {@link #getKnownIndyBsms}
+	 */
+	public ModProcessor(Project project, Configuration sourceConfiguration, ServiceFactory serviceFactory, Set<String> knownIndyBsms, @Nullable RemappedModCache remappedModCache) {
 		this.project = project;
 		this.sourceConfiguration = sourceConfiguration;
 		this.serviceFactory = serviceFactory;
+		this.knownIndyBsms = knownIndyBsms;
+		this.remappedModCache = remappedModCache;
+	}
+
+	/**
+	 * Merges the known indy bootstrap methods of the project with those of the mods. All mods of a configuration use the same set,
+	 * so that a remapped mod does not depend on which of the other mods had to be remapped with it.
+	 */
+	public static Set<String> getKnownIndyBsms(Project project, List<ModDependency> mods) {
+		final Set<String> knownIndyBsms = new HashSet<>(LoomGradleExtension.get(project).getKnownIndyBsms().get());
+
+		for (ModDependency modDependency : mods) {
+			knownIndyBsms.addAll(modDependency.getMetadata().knownIdyBsms());
+		}
+
+		return knownIndyBsms;
 	}
 
 	public void processMods(List<ModDependency> remapList) throws IOException {
@@ -126,53 +155,11 @@ public class ModProcessor {
 		return description;
 	}
 
-	private void stripNestedJars(Path path) {
-		try {
-			ZipUtils.deleteIfExists(path, "META-INF/jarjar/metadata.json");
-		} catch (IOException e) {
-			throw new UncheckedIOException("Failed to strip nested jars from %s".formatted(path), e);
-		}
-
-		if (!ZipUtils.contains(path, "fabric.mod.json")) {
-			if (ZipUtils.contains(path, "quilt.mod.json")) {
-				// Strip out all contained jar info as we dont want loader to try and load the jars contained in dev.
-				try {
-					ZipUtils.transformJson(JsonObject.class, path, Map.of("quilt.mod.json", json -> {
-						if (json.has("quilt_loader")) {
-							json.getAsJsonObject("quilt_loader").remove("jars");
-						}
-
-						return json;
-					}));
-				} catch (IOException e) {
-					throw new UncheckedIOException("Failed to strip nested jars from %s".formatted(path), e);
-				}
-			}
-
-			return;
-		}
-
-		// Strip out all contained jar info as we dont want loader to try and load the jars contained in dev.
-		try {
-			ZipUtils.transformJson(JsonObject.class, path, Map.of("fabric.mod.json", json -> {
-				json.remove("jars");
-				return json;
-			}));
-		} catch (IOException e) {
-			throw new UncheckedIOException("Failed to strip nested jars from %s".formatted(path), e);
-		}
-	}
-
 	private void remapJars(List<ModDependency> remapList) throws IOException {
 		final LoomGradleExtension extension = LoomGradleExtension.get(project);
 		final MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
 		String fromM = IntermediaryNamespaces.runtimeIntermediary(project);
 		Stopwatch stopwatch = Stopwatch.createStarted();
-		Set<String> knownIndyBsms = new HashSet<>(extension.getKnownIndyBsms().get());
-
-		for (ModDependency modDependency : remapList) {
-			knownIndyBsms.addAll(modDependency.getMetadata().knownIdyBsms());
-		}
 
 		MappingOption mappingOption = MappingOption.forPlatform(extension);
 		MemoryMappingTree mappings = mappingConfiguration.getMappingsService(project, serviceFactory, mappingOption).getMappingTree();
@@ -296,28 +283,28 @@ public class ModProcessor {
 
 		project.getLogger().lifecycle(":remapped {} mods ({} -> {}) in {}", remapList.size(), fromM, toM, stopwatch.stop());
 
-		for (ModDependency dependency : remapList) {
+		// Resolve the project state here, the fixups run on other threads
+		final FixupContext fixupContext = FixupContext.create(project);
+
+		// The remapped jars are independent of each other, so finish them in parallel
+		ThreadingUtils.run(remapList, dependency -> {
 			outputConsumerMap.get(dependency).close();
 
 			final Path output = getRemappedOutput(dependency);
-			final Pair<byte[], String> accessWidener = accessWidenerMap.get(dependency);
 
-			if (accessWidener != null) {
-				ZipUtils.replace(output, accessWidener.right(), accessWidener.left());
+			try {
+				fixupRemappedJar(output, accessWidenerMap.get(dependency), mappings, fixupContext);
+			} catch (IOException e) {
+				throw new IOException("Failed to process remapped mod " + dependency, e);
 			}
 
-			stripNestedJars(output);
-			remapJarManifestEntries(output);
-
-			if (extension.isForgeLike()) {
-				AtRemapper.remap(project, output, mappings);
-				CoreModClassRemapper.remapJar(project, extension.getPlatform().get(), output, mappings);
+			if (remappedModCache != null) {
+				remappedModCache.store(dependency, output);
 			}
-
-			dependency.copyToCache(project, output, null);
-		}
+		});
 
 		for (ModDependency dependency : remapList) {
+			dependency.copyToCache(project, getRemappedOutput(dependency), null);
 			dependency.deleteWorkingFile();
 		}
 	}
@@ -326,15 +313,90 @@ public class ModProcessor {
 		return dependency.getWorkingFile(null);
 	}
 
-	private void remapJarManifestEntries(Path jar) throws IOException {
-		ZipUtils.transform(jar, Map.of(Constants.Manifest.PATH, bytes -> {
-			var manifest = new Manifest(new ByteArrayInputStream(bytes));
+	/**
+	 * Applies all fixups to a remapped mod jar while it is open, so that it is only rewritten once.
+	 */
+	private static void fixupRemappedJar(Path jar, @Nullable Pair<byte[], String> accessWidener, MappingTree mappings, FixupContext context) throws IOException {
+		try (FileSystemUtil.Delegate fs = FileSystemUtil.getJarFileSystem(jar, false)) {
+			if (accessWidener != null) {
+				final Path accessWidenerPath = fs.getPath(accessWidener.right());
+
+				if (Files.notExists(accessWidenerPath)) {
+					throw new NoSuchFileException(accessWidenerPath.toString());
+				}
+
+				Files.write(accessWidenerPath, accessWidener.left());
+			}
+
+			stripNestedJars(fs);
+			remapJarManifestEntries(fs);
+
+			if (context.platform().isForgeLike()) {
+				AtRemapper.remap(context.logger(), context.platform(), fs, mappings, context.intermediary());
+				CoreModClassRemapper.remapJar(context.logger(), context.platform(), fs, mappings, context.runtimeIntermediary());
+			}
+		}
+	}
+
+	private record FixupContext(org.gradle.api.logging.Logger logger, ModPlatform platform, String intermediary, String runtimeIntermediary) {
+		static FixupContext create(Project project) {
+			return new FixupContext(
+					project.getLogger(),
+					LoomGradleExtension.get(project).getPlatform().get(),
+					IntermediaryNamespaces.intermediary(project),
+					IntermediaryNamespaces.runtimeIntermediary(project)
+			);
+		}
+	}
+
+	private static void stripNestedJars(FileSystemUtil.Delegate fs) throws IOException {
+		Files.deleteIfExists(fs.getPath("META-INF/jarjar/metadata.json"));
+
+		// Strip out all contained jar info as we dont want loader to try and load the jars contained in dev.
+		if (!transformJson(fs, "fabric.mod.json", json -> json.remove("jars"))) {
+			transformJson(fs, "quilt.mod.json", json -> {
+				if (json.has("quilt_loader")) {
+					json.getAsJsonObject("quilt_loader").remove("jars");
+				}
+			});
+		}
+	}
 
-			manifest.getMainAttributes().putValue(Constants.Manifest.MAPPING_NAMESPACE, toM);
+	private static boolean transformJson(FileSystemUtil.Delegate fs, String path, Consumer<JsonObject> transformer) throws IOException {
+		final Path jsonPath = fs.getPath(path);
 
-			ByteArrayOutputStream out = new ByteArrayOutputStream();
-			manifest.write(out);
-			return out.toByteArray();
-		}));
+		if (Files.notExists(jsonPath)) {
+			return false;
+		}
+
+		final JsonObject json;
+
+		try (Reader reader = Files.newBufferedReader(jsonPath, StandardCharsets.UTF_8)) {
+			json = LoomGradlePlugin.GSON.fromJson(reader, JsonObject.class);
+		}
+
+		transformer.accept(json);
+		Files.writeString(jsonPath, LoomGradlePlugin.GSON.toJson(json), StandardCharsets.UTF_8);
+		return true;
+	}
+
+	private static void remapJarManifestEntries(FileSystemUtil.Delegate fs) throws IOException {
+		final Path manifestPath = fs.getPath(Constants.Manifest.PATH);
+
+		if (Files.notExists(manifestPath)) {
+			return;
+		}
+
+		final Manifest manifest;
+
+		try (InputStream inputStream = Files.newInputStream(manifestPath)) {
+			manifest = new Manifest(inputStream);
+		}
+
+		manifest.getMainAttributes().putValue(Constants.Manifest.MAPPING_NAMESPACE, toM);
+
+		try (OutputStream outputStream = Files.newOutputStream(manifestPath)) {
+			manifest.write(outputStream);
+		}
 	}
 }
@@ -0,0 +1,209 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fabricmc.loom.configuration.mods;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import dev.architectury.loom.util.MappingOption;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.LoomGradlePlugin;
+import net.fabricmc.loom.api.remapping.RemapperParameters;
+import net.fabricmc.loom.build.IntermediaryNamespaces;
+import net.fabricmc.loom.configuration.mods.dependency.ModDependency;
+import net.fabricmc.loom.extension.RemapperExtensionHolder;
+import net.fabricmc.loom.util.Constants;
+import net.fabricmc.loom.util.gradle.GradleUtils;
+import net.fabricmc.loom.util.kotlin.KotlinClasspathService;
+import net.fabricmc.loom.util.service.ServiceFactory;
+
+/**
+ * A content addressed cache of remapped mod jars in the Gradle user home, shared by all projects.
+ *
+ * <p>Entries are keyed on the hash of the input jar, the mappings, the Minecraft version, the platform, the remapper
+ * extensions, the Kotlin remapper classpath and the known indy bootstrap methods of the remapped batch of mods.
+ * The rest of the remap classpath is not part of the key, so this cache is opt-in with {@link Constants.Properties#GLOBAL_MOD_CACHE}.
+ */
+public final class RemappedModCache {
+	private static final String CACHE_VERSION = "2";
+	private static final Logger LOGGER = Logging.getLogger(RemappedModCache.class);
+
+	private final Path root;
+	private final String configurationHash;
+	private final Map<Path, String> keys = new ConcurrentHashMap<>();
+
+	@VisibleForTesting
+	RemappedModCache(Path root, String configurationHash) {
+		this.root = root;
+		this.configurationHash = configurationHash;
+	}
+
+	@Nullable
+	public static RemappedModCache create(Project project, ServiceFactory serviceFactory) throws IOException {
+		if (!GradleUtils.getBooleanProperty(project, Constants.Properties.GLOBAL_MOD_CACHE)) {
+			return null;
+		}
+
+		final LoomGradleExtension extension = LoomGradleExtension.get(project);
+		final TreeSet<String> remapperExtensions = new TreeSet<>();
+
+		for (RemapperExtensionHolder holder : extension.getRemapperExtensions().get()) {
+			if (!(holder.getRemapperParameters().getOrNull() instanceof RemapperParameters.None)) {
+				// The parameters cannot be hashed, so the remapped jars could differ for the same key.
+				project.getLogger().info("Not using the global mod cache as the remapper extension {} has parameters", holder.getRemapperExtensionClass().get());
+				return null;
+			}
+
+			remapperExtensions.add(holder.getRemapperExtensionClass().get());
+		}
+
+		final Path mappings = extension.getMappingConfiguration().getMappingsPath(MappingOption.forPlatform(extension));
+		final Hasher hasher = Hashing.sha256().newHasher()
+				.putString(CACHE_VERSION, StandardCharsets.UTF_8)
+				.putString(LoomGradlePlugin.LOOM_VERSION, StandardCharsets.UTF_8)
+				.putString(extension.getMinecraftProvider().minecraftVersion(), StandardCharsets.UTF_8)
+				.putString(extension.getPlatform().get().name(), StandardCharsets.UTF_8)
+				.putString(IntermediaryNamespaces.runtimeIntermediary(project), StandardCharsets.UTF_8)
+				.putBytes(MoreFiles.asByteSource(mappings).hash(Hashing.sha256()).asBytes())
+				.putString(String.join(",", remapperExtensions), StandardCharsets.UTF_8);
+
+		// The Kotlin metadata is remapped with the Kotlin version of the project
+		final KotlinClasspathService kotlinClasspathService = serviceFactory.getOrNull(KotlinClasspathService.createOptions(project));
+
+		if (kotlinClasspathService != null) {
+			hasher.putString(kotlinClasspathService.version(), StandardCharsets.UTF_8);
+
+			for (String url : new TreeSet<>(kotlinClasspathService.classpath().stream().map(URL::toString).toList())) {
+				hasher.putString(url, StandardCharsets.UTF_8);
+			}
+		}
+
+		final Path root = extension.getFiles().getUserCache().toPath().resolve("remapped_mods");
+		return new RemappedModCache(root, hasher.hash().toString());
+	}
+
+	/**
+	 * Returns a cache for a batch of mods that are remapped together, with the known indy bootstrap methods that are merged from all of them.
+	 */
+	public RemappedModCache forBatch(Set<String> knownIndyBsms) {
+		final String batchHash = Hashing.sha256().newHasher()
+				.putString(configurationHash, StandardCharsets.UTF_8)
+				.putString(String.join(",", new TreeSet<>(knownIndyBsms)), StandardCharsets.UTF_8)
+				.hash()
+				.toString();
+		return new RemappedModCache(root, batchHash);
+	}
+
+	/**
+	 * Copies the cached remapped jar of the dependency to the project's local cache.
+	 *
+	 * @return true if the dependency was found in the cache
+	 */
+	public boolean restore(Project project, ModDependency dependency) throws IOException {
+		final Path cached = getCachedJar(dependency.getInputFile());
+
+		if (cached == null) {
+			return false;
+		}
+
+		project.getLogger().info("Restoring remapped {} from the global mod cache", dependency);
+		dependency.copyToCache(project, cached, null);
+		return true;
+	}
+
+	/**
+	 * @return the cached remapped jar of the input jar, or null if it has not been cached
+	 */
+	@VisibleForTesting
+	@Nullable
+	Path getCachedJar(Path inputFile) throws IOException {
+		final Path cached = getCachePath(inputFile);
+		return Files.exists(cached) ? cached : null;
+	}
+
+	/**
+	 * Stores a remapped jar of the dependency in the cache. Failing to store the jar is logged, but does not fail the build.
+	 */
+	public void store(ModDependency dependency, Path remappedJar) {
+		store(dependency.getInputFile(), remappedJar);
+	}
+
+	@VisibleForTesting
+	void store(Path inputFile, Path remappedJar) {
+		Path tempFile = null;
+
+		try {
+			final Path cached = getCachePath(inputFile);
+			Files.createDirectories(cached.getParent());
+
+			// Copy to a temporary file first so that other builds never see a partially written jar
+			tempFile = Files.createTempFile(cached.getParent(), cached.getFileName().toString(), ".tmp");
+			Files.copy(remappedJar, tempFile, StandardCopyOption.REPLACE_EXISTING);
+			// The move can fail when another build has the cached jar open, or the file system does not support atomic moves
+			Files.move(tempFile, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to store the remapped {} in the global mod cache", inputFile, e);
+		} finally {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e) {
+					LOGGER.debug("Failed to delete {}", tempFile, e);
+				}
+			}
+		}
+	}
+
+	private Path getCachePath(Path inputFile) throws IOException {
+		String key = keys.get(inputFile);
+
+		if (key == null) {
+			key = Hashing.sha256().newHasher()
+					.putString(configurationHash, StandardCharsets.UTF_8)
+					.putBytes(MoreFiles.asByteSource(inputFile).hash(Hashing.sha256()).asBytes())
+					.hash()
+					.toString();
+			keys.put(inputFile, key);
+		}
+
+		return root.resolve(key.substring(0, 2)).resolve(key + ".jar");
+	}
+}
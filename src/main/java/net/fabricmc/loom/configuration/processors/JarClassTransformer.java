@@ -0,0 +1,231 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.configuration.processors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiPredicate;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+
+import net.fabricmc.loom.api.processor.ClassVisitorJarProcessor;
+import net.fabricmc.loom.api.processor.MinecraftJarProcessor;
+import net.fabricmc.loom.api.processor.ProcessorContext;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
+import net.fabricmc.loom.util.ThreadingUtils;
+
+/**
+ * Applies {@link ClassVisitorJarProcessor.ClassTransformer}s to a jar in a single pass.
+ * Classes are transformed concurrently, all other entries are copied without being recompressed.
+ */
+public final class JarClassTransformer {
+	private static final int MAX_PENDING_ENTRIES = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+	private JarClassTransformer() {
+	}
+
+	/**
+	 * Applies the transformer of a single processor to the jar in place.
+	 */
+	public static <S extends MinecraftJarProcessor.Spec> void process(ClassVisitorJarProcessor<S> processor, Path jar, S spec, ProcessorContext context) throws IOException {
+		final ClassVisitorJarProcessor.ClassTransformer transformer = processor.createClassTransformer(spec, context);
+
+		if (transformer != null) {
+			apply(jar, List.of(transformer));
+		}
+	}
+
+	/**
+	 * Transforms the jar in place.
+	 *
+	 * @param transformers the transformers to apply, in order
+	 * @return the number of classes that were transformed
+	 */
+	public static int apply(Path jar, List<ClassVisitorJarProcessor.ClassTransformer> transformers) throws IOException {
+		if (transformers.isEmpty()) {
+			return 0;
+		}
+
+		final Path tempJar = jar.resolveSibling(jar.getFileName() + ".tmp");
+		final int transformed;
+
+		try {
+			transformed = apply(jar, tempJar, transformers);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tempJar);
+			throw e;
+		}
+
+		Files.move(tempJar, jar, StandardCopyOption.REPLACE_EXISTING);
+		return transformed;
+	}
+
+	/**
+	 * Writes a transformed copy of the input jar to the output jar.
+	 *
+	 * @param transformers the transformers to apply, in order
+	 * @return the number of classes that were transformed
+	 */
+	public static int apply(Path inputJar, Path outputJar, List<ClassVisitorJarProcessor.ClassTransformer> transformers) throws IOException {
+		return apply(inputJar, outputJar, transformers, null, (className, applicable) -> false);
+	}
+
+	/**
+	 * Writes a transformed copy of the input jar to the output jar, copying the classes that can be reused
+	 * from a previously transformed jar instead of transforming them again.
+	 *
+	 * @param transformers the transformers to apply, in order
+	 * @param previousJar the previously transformed jar, or null
+	 * @param canReuse whether the class in the previous jar was transformed the same way by the applicable transformers,
+	 * called for every class that has applicable transformers, even when there is no previous jar
+	 * @return the number of classes that were transformed
+	 */
+	public static int apply(Path inputJar, Path outputJar, List<ClassVisitorJarProcessor.ClassTransformer> transformers, @Nullable Path previousJar, BiPredicate<String, List<ClassVisitorJarProcessor.ClassTransformer>> canReuse) throws IOException {
+		final Executor executor = ThreadingUtils.executor();
+		int transformed = 0;
+
+		try (RawZipFile input = RawZipFile.open(inputJar);
+				RawZipFile previous = previousJar != null ? RawZipFile.open(previousJar) : null;
+				RawZipWriter writer = new RawZipWriter(outputJar)) {
+			// Entries are written in order, at most MAX_PENDING_ENTRIES are transformed ahead of the writer
+			final Queue<PendingEntry> pending = new ArrayDeque<>(MAX_PENDING_ENTRIES);
+
+			for (RawZipFile.Entry entry : input.entries()) {
+				if (pending.size() >= MAX_PENDING_ENTRIES) {
+					transformed += write(input, previous, writer, pending.remove());
+				}
+
+				final List<ClassVisitorJarProcessor.ClassTransformer> applicable = getTransformers(entry, transformers);
+
+				if (applicable.isEmpty()) {
+					pending.add(new PendingEntry(entry, null, null));
+					continue;
+				}
+
+				final String className = entry.name().substring(0, entry.name().length() - ".class".length());
+				final RawZipFile.Entry previousEntry = previous != null ? previous.getEntry(entry.name()) : null;
+
+				// Always test, so the caller can record how each class is transformed for the next run
+				if (canReuse.test(className, applicable) && previousEntry != null) {
+					pending.add(new PendingEntry(entry, previousEntry, null));
+					continue;
+				}
+
+				pending.add(new PendingEntry(entry, null, CompletableFuture.supplyAsync(() -> {
+					try {
+						return transform(input.readAllBytes(entry), className, applicable);
+					} catch (IOException e) {
+						throw new UncheckedIOException("Failed to transform " + entry.name(), e);
+					}
+				}, executor)));
+			}
+
+			while (!pending.isEmpty()) {
+				transformed += write(input, previous, writer, pending.remove());
+			}
+		}
+
+		return transformed;
+	}
+
+	/**
+	 * @return 1 if the entry was transformed, otherwise 0
+	 */
+	private static int write(RawZipFile input, @Nullable RawZipFile previous, RawZipWriter writer, PendingEntry pending) throws IOException {
+		if (pending.previousEntry() != null) {
+			writer.copy(previous, pending.previousEntry());
+			return 0;
+		}
+
+		if (pending.transformed() == null) {
+			writer.copy(input, pending.entry());
+			return 0;
+		}
+
+		try {
+			writer.write(pending.entry(), pending.transformed().join());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException uioe) {
+				throw uioe.getCause();
+			}
+
+			throw e;
+		}
+
+		return 1;
+	}
+
+	private static List<ClassVisitorJarProcessor.ClassTransformer> getTransformers(RawZipFile.Entry entry, List<ClassVisitorJarProcessor.ClassTransformer> transformers) {
+		if (entry.isDirectory() || !entry.name().endsWith(".class")) {
+			return List.of();
+		}
+
+		final String className = entry.name().substring(0, entry.name().length() - ".class".length());
+		final List<ClassVisitorJarProcessor.ClassTransformer> applicable = new ArrayList<>(transformers.size());
+
+		for (ClassVisitorJarProcessor.ClassTransformer transformer : transformers) {
+			if (transformer.shouldTransform(className)) {
+				applicable.add(transformer);
+			}
+		}
+
+		return applicable;
+	}
+
+	private static byte[] transform(byte[] input, String className, List<ClassVisitorJarProcessor.ClassTransformer> transformers) {
+		final ClassReader reader = new ClassReader(input);
+		final ClassWriter writer = new ClassWriter(0);
+		ClassVisitor visitor = writer;
+
+		// Chain in reverse, so the first transformer sees the original class
+		for (int i = transformers.size() - 1; i >= 0; i--) {
+			visitor = transformers.get(i).createClassVisitor(className, visitor);
+		}
+
+		reader.accept(visitor, 0);
+		return writer.toByteArray();
+	}
+
+	/**
+	 * @param previousEntry the entry to copy from the previously transformed jar, or null
+	 * @param transformed the transformed class, or null when the entry is copied
+	 */
+	private record PendingEntry(RawZipFile.Entry entry, @Nullable RawZipFile.Entry previousEntry, @Nullable CompletableFuture<byte[]> transformed) {
+	}
+}
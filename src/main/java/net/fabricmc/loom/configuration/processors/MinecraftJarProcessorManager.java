@@ -31,9 +31,14 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.gradle.api.Project;
@@ -42,6 +47,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.api.processor.ClassVisitorJarProcessor;
 import net.fabricmc.loom.api.processor.MappingProcessorContext;
 import net.fabricmc.loom.api.processor.MinecraftJarProcessor;
 import net.fabricmc.loom.api.processor.ProcessorContext;
@@ -51,6 +57,7 @@ import net.fabricmc.mappingio.tree.MemoryMappingTree;
 
 public final class MinecraftJarProcessorManager {
 	private static final Logger LOGGER = LoggerFactory.getLogger(MinecraftJarProcessorManager.class);
+	private static final int CLASS_STATE_VERSION = 1;
 
 	private final List<ProcessorEntry<?>> jarProcessors;
 
@@ -132,13 +139,179 @@ public final class MinecraftJarProcessorManager {
 	}
 
 	public void processJar(Path jar, ProcessorContext context) throws IOException {
+		// Adjacent class visitor processors are applied together in a single pass over the jar
+		final List<ProcessorEntry<?>> pending = new ArrayList<>();
+		final List<ClassVisitorJarProcessor.ClassTransformer> pendingTransformers = new ArrayList<>();
+
 		for (ProcessorEntry<?> entry : jarProcessors) {
+			if (entry.processor() instanceof ClassVisitorJarProcessor<?>) {
+				final ClassVisitorJarProcessor.ClassTransformer transformer;
+
+				try {
+					transformer = entry.createClassTransformer(context);
+				} catch (IOException e) {
+					throw new IOException("Failed to process jar when running jar processor: %s".formatted(entry.name()), e);
+				}
+
+				pending.add(entry);
+
+				if (transformer != null) {
+					pendingTransformers.add(transformer);
+				}
+
+				continue;
+			}
+
+			applyTransformers(jar, pending, pendingTransformers);
+
 			try {
 				entry.processJar(jar, context);
 			} catch (IOException e) {
 				throw new IOException("Failed to process jar when running jar processor: %s".formatted(entry.name()), e);
 			}
 		}
+
+		applyTransformers(jar, pending, pendingTransformers);
+	}
+
+	/**
+	 * Processes the input jar into the output jar. Classes that are transformed the same way as in the previously processed jar
+	 * are copied from it, all other classes are transformed again.
+	 *
+	 * <p>Alongside the output jar a state file is written that records the transform key of each class, only jars that have one can be used as the previous jar.
+	 *
+	 * @param previousJar a jar previously processed from the same input, or null
+	 * @return false if the jar processors cannot be applied incrementally, in which case the output jar has not been written
+	 */
+	public boolean processJarIncrementally(Path inputJar, Path outputJar, @Nullable Path previousJar, ProcessorContext context) throws IOException {
+		if (!jarProcessors.stream().allMatch(entry -> entry.processor() instanceof ClassVisitorJarProcessor<?>)) {
+			return false;
+		}
+
+		final List<ClassVisitorJarProcessor.ClassTransformer> transformers = new ArrayList<>();
+		final Map<ClassVisitorJarProcessor.ClassTransformer, String> transformerNames = new IdentityHashMap<>();
+
+		for (ProcessorEntry<?> entry : jarProcessors) {
+			final ClassVisitorJarProcessor.ClassTransformer transformer;
+
+			try {
+				transformer = entry.createClassTransformer(context);
+			} catch (IOException e) {
+				throw new IOException("Failed to process jar when running jar processor: %s".formatted(entry.name()), e);
+			}
+
+			if (transformer != null) {
+				transformers.add(transformer);
+				transformerNames.put(transformer, entry.name());
+			}
+		}
+
+		final String inputState = getInputState(inputJar);
+		final Map<String, String> previousKeys = previousJar != null ? readClassState(getClassStatePath(previousJar), inputState) : Map.of();
+		final Map<String, String> keys = new ConcurrentHashMap<>();
+		final AtomicInteger classes = new AtomicInteger();
+		final Path statePath = getClassStatePath(outputJar);
+		Files.deleteIfExists(statePath);
+
+		final int transformed;
+
+		try {
+			transformed = JarClassTransformer.apply(inputJar, outputJar, transformers, previousKeys.isEmpty() ? null : previousJar, (className, applicable) -> {
+				classes.incrementAndGet();
+				final String key = getTransformKey(className, applicable, transformerNames);
+
+				if (key == null) {
+					return false;
+				}
+
+				keys.put(className, key);
+
+				return key.equals(previousKeys.get(className));
+			});
+		} catch (IOException e) {
+			final String names = jarProcessors.stream().map(ProcessorEntry::name).collect(Collectors.joining(", "));
+			throw new IOException("Failed to process jar when running jar processors: %s".formatted(names), e);
+		}
+
+		writeClassState(statePath, inputState, keys);
+		LOGGER.debug("Transformed {} classes with {} jar processors, reused {} classes from {}", transformed, transformers.size(), classes.get() - transformed, previousJar);
+		return true;
+	}
+
+	@Nullable
+	private static String getTransformKey(String className, List<ClassVisitorJarProcessor.ClassTransformer> applicable, Map<ClassVisitorJarProcessor.ClassTransformer, String> names) {
+		final StringJoiner key = new StringJoiner("\n");
+
+		for (ClassVisitorJarProcessor.ClassTransformer transformer : applicable) {
+			final String transformKey = transformer.getTransformKey(className);
+
+			if (transformKey == null) {
+				return null;
+			}
+
+			key.add(names.get(transformer) + ":" + transformKey);
+		}
+
+		return Checksum.sha1Hex(key.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Path getClassStatePath(Path jar) {
+		return jar.resolveSibling(jar.getFileName() + ".classes");
+	}
+
+	private static String getInputState(Path inputJar) throws IOException {
+		return "%d|%s|%d|%d".formatted(CLASS_STATE_VERSION, inputJar.toAbsolutePath(), Files.size(inputJar), Files.getLastModifiedTime(inputJar).toMillis());
+	}
+
+	private static Map<String, String> readClassState(Path path, String inputState) throws IOException {
+		if (Files.notExists(path)) {
+			return Map.of();
+		}
+
+		final List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+
+		if (lines.isEmpty() || !lines.get(0).equals(inputState)) {
+			LOGGER.debug("{} was processed from a different input, not reusing it", path);
+			return Map.of();
+		}
+
+		final Map<String, String> keys = new HashMap<>();
+
+		for (String line : lines.subList(1, lines.size())) {
+			final int separator = line.indexOf(' ');
+
+			if (separator > 0) {
+				keys.put(line.substring(0, separator), line.substring(separator + 1));
+			}
+		}
+
+		return keys;
+	}
+
+	private static void writeClassState(Path path, String inputState, Map<String, String> keys) throws IOException {
+		final StringJoiner sj = new StringJoiner("\n", "", "\n");
+		sj.add(inputState);
+
+		keys.entrySet().stream()
+				.sorted(Map.Entry.comparingByKey())
+				.forEach(entry -> sj.add(entry.getKey() + " " + entry.getValue()));
+
+		Files.writeString(path, sj.toString(), StandardCharsets.UTF_8);
+	}
+
+	private static void applyTransformers(Path jar, List<ProcessorEntry<?>> entries, List<ClassVisitorJarProcessor.ClassTransformer> transformers) throws IOException {
+		try {
+			if (!transformers.isEmpty()) {
+				final int transformed = JarClassTransformer.apply(jar, transformers);
+				LOGGER.debug("Transformed {} classes with {} jar processors", transformed, transformers.size());
+			}
+		} catch (IOException e) {
+			final String names = entries.stream().map(ProcessorEntry::name).collect(Collectors.joining(", "));
+			throw new IOException("Failed to process jar when running jar processors: %s".formatted(names), e);
+		}
+
+		entries.clear();
+		transformers.clear();
 	}
 
 	public boolean processMappings(MemoryMappingTree mappings, MappingProcessorContext context) {
@@ -163,6 +336,11 @@ public final class MinecraftJarProcessorManager {
 			processor().processJar(jar, spec, context);
 		}
 
+		@Nullable
+		private ClassVisitorJarProcessor.ClassTransformer createClassTransformer(ProcessorContext context) throws IOException {
+			return ((ClassVisitorJarProcessor<S>) processor()).createClassTransformer(spec, context);
+		}
+
 		private boolean processMappings(MemoryMappingTree mappings, MappingProcessorContext context) {
 			if (mappingsProcessor() == null) {
 				return false;
@@ -0,0 +1,189 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.configuration.providers.forge;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.zip.Adler32;
+
+import org.apache.commons.compress.compressors.lzma.LZMACompressorInputStream;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Applies Forge's binary patches in process, as an alternative to running the binpatcher tool.
+ *
+ * <p>The patch file is an LZMA compressed jar of {@code .binpatch} entries. Each entry contains the obfuscated class name,
+ * the Adler-32 checksum of the clean class when it exists, and a GDIFF patch to apply to the clean class.
+ */
+public final class BinaryPatcher {
+	private static final int GDIFF_MAGIC = 0xD1FFD1FF;
+	private static final int GDIFF_VERSION = 4;
+
+	private final Map<String, Patch> patches;
+
+	private BinaryPatcher(Map<String, Patch> patches) {
+		this.patches = patches;
+	}
+
+	/**
+	 * @param prefix only the patches in this directory of the patch file are loaded, or all patches when null
+	 */
+	public static BinaryPatcher load(Path patchFile, @Nullable String prefix) throws IOException {
+		final Map<String, Patch> patches = new HashMap<>();
+
+		try (InputStream in = new LZMACompressorInputStream(new BufferedInputStream(Files.newInputStream(patchFile)));
+				JarInputStream jar = new JarInputStream(in)) {
+			for (JarEntry entry; (entry = jar.getNextJarEntry()) != null;) {
+				final String name = entry.getName();
+
+				if (!name.endsWith(".binpatch") || (prefix != null && !name.startsWith(prefix + "/"))) {
+					continue;
+				}
+
+				final Patch patch = Patch.read(name, jar.readAllBytes());
+				patches.put(patch.obf(), patch);
+			}
+		}
+
+		return new BinaryPatcher(patches);
+	}
+
+	/**
+	 * @return the internal names of all patched classes, including classes that are added by the patches
+	 */
+	public Set<String> getClassNames() {
+		return Collections.unmodifiableSet(patches.keySet());
+	}
+
+	/**
+	 * Patches a class, this is thread safe.
+	 *
+	 * @param className the internal name of the class
+	 * @param clean the bytes of the clean class, or null when it does not exist
+	 * @return the patched class, or null when there is no patch for the class
+	 */
+	public byte @Nullable [] patch(String className, byte @Nullable [] clean) throws IOException {
+		final Patch patch = patches.get(className);
+
+		if (patch == null) {
+			return null;
+		}
+
+		if (patch.exists()) {
+			if (clean == null) {
+				throw new IOException("Patch expected class %s to exist".formatted(className));
+			}
+
+			final Adler32 checksum = new Adler32();
+			checksum.update(clean);
+
+			if ((int) checksum.getValue() != patch.checksum()) {
+				throw new IOException("Patch checksum mismatch for %s: expected %08x, got %08x".formatted(className, patch.checksum(), (int) checksum.getValue()));
+			}
+		} else {
+			clean = new byte[0];
+		}
+
+		return applyGdiff(clean, patch.data());
+	}
+
+	static byte[] applyGdiff(byte[] source, byte[] patch) throws IOException {
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(patch));
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(source.length + patch.length);
+
+		if (in.readInt() != GDIFF_MAGIC || in.readUnsignedByte() != GDIFF_VERSION) {
+			throw new IOException("Invalid GDIFF header");
+		}
+
+		while (true) {
+			final int command = in.readUnsignedByte();
+
+			switch (command) {
+			case 0 -> {
+				return out.toByteArray();
+			}
+			case 247 -> copyData(in, out, in.readUnsignedShort());
+			case 248 -> copyData(in, out, in.readInt());
+			case 249 -> copySource(source, out, in.readUnsignedShort(), in.readUnsignedByte());
+			case 250 -> copySource(source, out, in.readUnsignedShort(), in.readUnsignedShort());
+			case 251 -> copySource(source, out, in.readUnsignedShort(), in.readInt());
+			case 252 -> copySource(source, out, in.readInt(), in.readUnsignedByte());
+			case 253 -> copySource(source, out, in.readInt(), in.readUnsignedShort());
+			case 254 -> copySource(source, out, in.readInt(), in.readInt());
+			case 255 -> copySource(source, out, in.readLong(), in.readInt());
+			default -> copyData(in, out, command);
+			}
+		}
+	}
+
+	private static void copyData(DataInputStream in, ByteArrayOutputStream out, int length) throws IOException {
+		if (length < 0) {
+			throw new IOException("Invalid GDIFF data length " + length);
+		}
+
+		final byte[] data = new byte[length];
+		in.readFully(data);
+		out.write(data);
+	}
+
+	private static void copySource(byte[] source, ByteArrayOutputStream out, long offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > source.length) {
+			throw new IOException("Invalid GDIFF copy of %d bytes at %d, source is %d bytes".formatted(length, offset, source.length));
+		}
+
+		out.write(source, (int) offset, length);
+	}
+
+	private record Patch(String obf, String srg, boolean exists, int checksum, byte[] data) {
+		private static Patch read(String name, byte[] bytes) throws IOException {
+			final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+			final int version = in.readUnsignedByte();
+
+			if (version != 1) {
+				throw new IOException("Unsupported binary patch version %d in %s".formatted(version, name));
+			}
+
+			final String obf = in.readUTF();
+			final String srg = in.readUTF();
+			final boolean exists = in.readBoolean();
+			final int checksum = exists ? in.readInt() : 0;
+			final byte[] data = new byte[in.readInt()];
+			in.readFully(data);
+			return new Patch(obf, srg, exists, checksum, data);
+		}
+	}
+}
@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
@@ -54,6 +55,8 @@ import java.util.stream.Stream;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import dev.architectury.at.AccessTransformSet;
+import dev.architectury.at.io.AccessTransformFormats;
 import dev.architectury.loom.forge.UserdevConfig;
 import dev.architectury.loom.forge.tool.ForgeToolValueSource;
 import dev.architectury.loom.util.MappingOption;
@@ -62,6 +65,7 @@ import net.minecraftforge.fart.api.Transformer;
 import org.gradle.api.Project;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.logging.Logger;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
@@ -71,7 +75,9 @@ import org.objectweb.asm.Opcodes;
 
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.build.IntermediaryNamespaces;
+import net.fabricmc.loom.configuration.accesstransformer.AccessTransformerClassTransformer;
 import net.fabricmc.loom.configuration.accesstransformer.AccessTransformerJarProcessor;
+import net.fabricmc.loom.configuration.processors.JarClassTransformer;
 import net.fabricmc.loom.configuration.providers.forge.legacy.MinecraftLegacyPatchedProvider;
 import net.fabricmc.loom.configuration.providers.forge.mcpconfig.McpConfigProvider;
 import net.fabricmc.loom.configuration.providers.forge.mcpconfig.McpExecutor;
@@ -81,6 +87,8 @@ import net.fabricmc.loom.configuration.providers.minecraft.MinecraftProvider;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.DependencyDownloader;
 import net.fabricmc.loom.util.FileSystemUtil;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
 import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.loom.util.TinyRemapperHelper;
 import net.fabricmc.loom.util.ZipUtils;
@@ -228,7 +236,6 @@ public class MinecraftPatchedProvider {
 
 	private void fillClientExtraJar() throws IOException {
 		Files.deleteIfExists(minecraftClientExtra);
-		FileSystemUtil.getJarFileSystem(minecraftClientExtra, true).close();
 
 		copyNonClassFiles(minecraftProvider.getMinecraftClientJar().toPath(), minecraftClientExtra);
 	}
@@ -285,7 +292,6 @@ public class MinecraftPatchedProvider {
 
 		try (FileSystemUtil.Delegate fs = FileSystemUtil.getJarFileSystem(jarFile, false)) {
 			ThreadingUtils.TaskCompleter completer = ThreadingUtils.taskCompleter();
-			Pattern vignetteParameters = Pattern.compile("p_[0-9a-zA-Z]+_(?:[0-9a-zA-Z]+_)?");
 
 			for (Path file : (Iterable<? extends Path>) Files.walk(fs.getPath("/"))::iterator) {
 				if (!file.toString().endsWith(".class")) continue;
@@ -295,28 +301,7 @@ public class MinecraftPatchedProvider {
 					ClassReader reader = new ClassReader(bytes);
 					ClassWriter writer = new ClassWriter(0);
 
-					reader.accept(new ClassVisitor(Opcodes.ASM9, writer) {
-						@Override
-						public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
-							return new MethodVisitor(Opcodes.ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
-								@Override
-								public void visitParameter(String name, int access) {
-									if (name != null && vignetteParameters.matcher(name).matches()) {
-										super.visitParameter(null, access);
-									} else {
-										super.visitParameter(name, access);
-									}
-								}
-
-								@Override
-								public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
-									if (!vignetteParameters.matcher(name).matches()) {
-										super.visitLocalVariable(name, descriptor, signature, start, end, index);
-									}
-								}
-							};
-						}
-					}, 0);
+					reader.accept(new ParameterNameStripper(writer), 0);
 
 					byte[] out = writer.toByteArray();
 
@@ -332,6 +317,38 @@ public class MinecraftPatchedProvider {
 		logger.info(":deleted parameter names for " + jarFile.toAbsolutePath() + " in " + stopwatch);
 	}
 
+	/**
+	 * Removes the names of parameters and local variables that use the MCP naming scheme ({@code p_1234_1_}).
+	 */
+	private static class ParameterNameStripper extends ClassVisitor {
+		private static final Pattern VIGNETTE_PARAMETERS = Pattern.compile("p_[0-9a-zA-Z]+_(?:[0-9a-zA-Z]+_)?");
+
+		ParameterNameStripper(ClassVisitor classVisitor) {
+			super(Opcodes.ASM9, classVisitor);
+		}
+
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+			return new MethodVisitor(Opcodes.ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+				@Override
+				public void visitParameter(String name, int access) {
+					if (name != null && VIGNETTE_PARAMETERS.matcher(name).matches()) {
+						super.visitParameter(null, access);
+					} else {
+						super.visitParameter(name, access);
+					}
+				}
+
+				@Override
+				public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
+					if (!VIGNETTE_PARAMETERS.matcher(name).matches()) {
+						super.visitLocalVariable(name, descriptor, signature, start, end, index);
+					}
+				}
+			};
+		}
+	}
+
 	private File getForgeJar() {
 		return getExtension().getForgeUniversalProvider().getForge();
 	}
@@ -376,22 +393,45 @@ public class MinecraftPatchedProvider {
 		Path userdevJar = extension.getForgeUserdevProvider().getUserdevJar().toPath();
 		Files.deleteIfExists(target);
 
-		try (
-				TempFiles tempFiles = new TempFiles();
-				FileSystemUtil.Delegate fs = FileSystemUtil.getJarFileSystem(userdevJar)
-		) {
-			AccessTransformerJarProcessor.executeAt(project, input, target, args -> {
-				for (String atFile : extractAccessTransformers(userdevJar, extension.getForgeUserdevProvider().getConfig().ats(), tempFiles)) {
-					args.add("--atFile");
-					args.add(atFile);
-				}
-			});
+		final List<String> accessTransformers = readAccessTransformers(userdevJar, extension.getForgeUserdevProvider().getConfig().ats());
+		final AccessTransformSet accessTransformSet = parseAccessTransformers(project.getLogger(), accessTransformers);
+
+		if (accessTransformSet != null) {
+			JarClassTransformer.apply(input, target, List.of(new AccessTransformerClassTransformer(accessTransformSet)));
+		} else {
+			// Fall back to the external tool for access transformers we cannot parse
+			try (TempFiles tempFiles = new TempFiles()) {
+				AccessTransformerJarProcessor.executeAt(project, input, target, args -> {
+					for (String accessTransformer : accessTransformers) {
+						Path tmpFile = tempFiles.file("at-conf", ".cfg");
+						Files.writeString(tmpFile, accessTransformer, StandardCharsets.UTF_8);
+						args.add("--atFile");
+						args.add(tmpFile.toAbsolutePath().toString());
+					}
+				});
+			}
 		}
 
 		project.getLogger().lifecycle(":access transformed minecraft in " + stopwatch.stop());
 	}
 
-	private static List<String> extractAccessTransformers(Path jar, UserdevConfig.AccessTransformerLocation location, TempFiles tempFiles) throws IOException {
+	@Nullable
+	private static AccessTransformSet parseAccessTransformers(Logger logger, List<String> accessTransformers) {
+		final AccessTransformSet accessTransformSet = AccessTransformSet.create();
+
+		try {
+			for (String accessTransformer : accessTransformers) {
+				accessTransformSet.merge(AccessTransformFormats.FML.read(new StringReader(accessTransformer)));
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.info("Failed to parse access transformers, using the external access transformer tool", e);
+			return null;
+		}
+
+		return accessTransformSet;
+	}
+
+	private static List<String> readAccessTransformers(Path jar, UserdevConfig.AccessTransformerLocation location) throws IOException {
 		final List<String> extracted = new ArrayList<>();
 
 		try (FileSystemUtil.Delegate fs = FileSystemUtil.getJarFileSystem(jar)) {
@@ -409,9 +449,7 @@ public class MinecraftPatchedProvider {
 						.map(line -> line.contains("<") && line.endsWith(")") ? line + "V" : line)
 						.collect(Collectors.joining("\n"));
 
-				Path tmpFile = tempFiles.file("at-conf", ".cfg");
-				Files.writeString(tmpFile, atStr, StandardCharsets.UTF_8);
-				extracted.add(tmpFile.toAbsolutePath().toString());
+				extracted.add(atStr);
 			}
 		}
 
@@ -496,18 +534,115 @@ public class MinecraftPatchedProvider {
 	protected void patchJars(Path input, Path output, Type type) throws Exception {
 		Stopwatch stopwatch = Stopwatch.createStarted();
 		logger.lifecycle(":patching jars");
-		patchJars(input, output, type.patches.apply(getExtension().getPatchProvider(), getExtension().getForgeUserdevProvider()));
+		final Path patches = type.patches.apply(getExtension().getPatchProvider(), getExtension().getForgeUserdevProvider());
+
+		if (!patchJarsInProcess(input, output, patches)) {
+			patchJars(input, output, patches);
 
-		copyMissingClasses(input, output);
-		deleteParameterNames(output);
+			copyMissingClasses(input, output);
+			deleteParameterNames(output);
 
-		if (getExtension().isForgeLikeAndNotOfficial()) {
-			fixParameterAnnotation(output);
+			if (getExtension().isForgeLikeAndNotOfficial()) {
+				fixParameterAnnotation(output);
+			}
 		}
 
 		logger.lifecycle(":patched jars in " + stopwatch.stop());
 	}
 
+	/**
+	 * Patches the clean jar with {@link BinaryPatcher} and writes the output in a single pass. The output contains every class
+	 * of the clean jar, with the parameter names removed and the parameter annotations fixed,
+	 * the same as the binpatcher tool followed by {@link #copyMissingClasses}, {@link #deleteParameterNames} and {@link #fixParameterAnnotation}.
+	 *
+	 * @return false if the binpatcher tool has to be used instead
+	 */
+	private boolean patchJarsInProcess(Path clean, Path output, Path patches) throws IOException {
+		final List<String> args = getExtension().getForgeUserdevProvider().getConfig().binpatcher().args();
+		String prefix = null;
+
+		for (int i = 0; i < args.size(); i++) {
+			switch (args.get(i)) {
+			case "--clean", "--output", "--apply" -> i++;
+			case "--prefix" -> prefix = args.get(++i);
+			default -> {
+				logger.info(":binpatcher argument {} is not supported in process, using the binpatcher tool", args.get(i));
+				return false;
+			}
+			}
+		}
+
+		final BinaryPatcher patcher;
+
+		try {
+			patcher = BinaryPatcher.load(patches, prefix);
+		} catch (IOException e) {
+			logger.warn(":failed to read binary patches, using the binpatcher tool", e);
+			return false;
+		}
+
+		final Transformer annotationFixer = getExtension().isForgeLikeAndNotOfficial() ? Transformer.parameterAnnotationFixerFactory().create(null) : null;
+
+		try (RawZipFile cleanZip = RawZipFile.open(clean)) {
+			final List<RawZipFile.Entry> classes = cleanZip.entries().stream()
+					.filter(entry -> !entry.isDirectory() && entry.name().endsWith(".class"))
+					.toList();
+			final List<String> addedClasses = patcher.getClassNames().stream()
+					.filter(className -> cleanZip.getEntry(className + ".class") == null)
+					.sorted()
+					.toList();
+
+			final List<ThreadingUtils.UnsafeCallable<byte[]>> jobs = new ArrayList<>(classes.size() + addedClasses.size());
+
+			for (RawZipFile.Entry entry : classes) {
+				jobs.add(() -> {
+					final byte[] bytes = cleanZip.readAllBytes(entry);
+					final String className = entry.name().substring(0, entry.name().length() - ".class".length());
+					final byte[] patched = patcher.patch(className, bytes);
+					return postProcessPatchedClass(entry.name(), patched != null ? patched : bytes, annotationFixer);
+				});
+			}
+
+			for (String className : addedClasses) {
+				jobs.add(() -> postProcessPatchedClass(className + ".class", patcher.patch(className, null), annotationFixer));
+			}
+
+			final List<byte[]> results = ThreadingUtils.get(jobs);
+			Files.deleteIfExists(output);
+
+			try (RawZipWriter writer = new RawZipWriter(output)) {
+				for (int i = 0; i < classes.size(); i++) {
+					writer.writeParentDirectories(classes.get(i).name());
+					writer.write(classes.get(i), results.get(i));
+				}
+
+				for (int i = 0; i < addedClasses.size(); i++) {
+					final String name = addedClasses.get(i) + ".class";
+					writer.writeParentDirectories(name);
+					writer.write(name, results.get(classes.size() + i));
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.warn(":failed to apply binary patches in process, using the binpatcher tool", e);
+			Files.deleteIfExists(output);
+			return false;
+		}
+
+		return true;
+	}
+
+	private static byte[] postProcessPatchedClass(String name, byte[] bytes, @Nullable Transformer annotationFixer) {
+		final ClassWriter writer = new ClassWriter(0);
+		new ClassReader(bytes).accept(new ParameterNameStripper(writer), 0);
+		final byte[] stripped = writer.toByteArray();
+
+		if (annotationFixer == null) {
+			return stripped;
+		}
+
+		return annotationFixer.process(Transformer.ClassEntry.create(name, 0, stripped)).getData();
+	}
+
 	private void patchJars(Path clean, Path output, Path patches) {
 		ForgeToolValueSource.exec(project, spec -> {
 			UserdevConfig.BinaryPatcherConfig config = getExtension().getForgeUserdevProvider().getConfig().binpatcher();
@@ -608,13 +743,23 @@ public class MinecraftPatchedProvider {
 		});
 	}
 
+	/**
+	 * Copies the non-class files of the source jar into a new target jar, without recompressing them.
+	 */
 	private void copyNonClassFiles(Path source, Path target) throws IOException {
-		Predicate<Path> filter = file -> {
-			String s = file.toString();
-			return !s.endsWith(".class") && !s.startsWith("/META-INF");
-		};
+		try (RawZipFile sourceZip = RawZipFile.open(source);
+				RawZipWriter writer = new RawZipWriter(target)) {
+			for (RawZipFile.Entry entry : sourceZip.entries()) {
+				final String name = entry.name();
+
+				if (entry.isDirectory() || name.endsWith(".class") || name.startsWith("META-INF")) {
+					continue;
+				}
 
-		walkFileSystems(source, target, filter, this::copyReplacing);
+				writer.writeParentDirectories(name);
+				writer.copy(sourceZip, entry);
+			}
+		}
 	}
 
 	protected void copyReplacing(FileSystem sourceFs, FileSystem targetFs, Path sourcePath, Path targetPath) throws IOException {
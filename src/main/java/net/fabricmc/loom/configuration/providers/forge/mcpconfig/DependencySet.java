@@ -89,20 +89,37 @@ public final class DependencySet {
 			if (!allSteps.containsKey(step) || skipRules.stream().anyMatch(rule -> rule.test(data))) continue;
 			steps.add(step);
 
-			if (!ignoreDependenciesFilter.test(allSteps.get(step))) {
-				allSteps.get(step).config().values().forEach(value -> {
-					if (value instanceof ConfigValue.Variable var) {
-						String name = var.name();
-
-						if (name.endsWith(PREVIOUS_OUTPUT_SUFFIX) && name.length() > PREVIOUS_OUTPUT_SUFFIX.length()) {
-							String substep = name.substring(0, name.length() - PREVIOUS_OUTPUT_SUFFIX.length());
-							queue.offer(substep);
-						}
-					}
-				});
-			}
+			queue.addAll(getDependencies(step));
 		}
 
 		return steps;
 	}
+
+	/**
+	 * Gets the steps whose outputs are used by a step. The returned steps might not exist or be skipped.
+	 *
+	 * @param step the name of the step
+	 * @return the names of the direct dependencies of the step
+	 */
+	public Set<String> getDependencies(String step) {
+		McpConfigStep data = allSteps.get(step);
+
+		if (data == null || ignoreDependenciesFilter.test(data)) {
+			return Set.of();
+		}
+
+		Set<String> dependencies = new HashSet<>();
+
+		for (ConfigValue value : data.config().values()) {
+			if (value instanceof ConfigValue.Variable var) {
+				String name = var.name();
+
+				if (name.endsWith(PREVIOUS_OUTPUT_SUFFIX) && name.length() > PREVIOUS_OUTPUT_SUFFIX.length()) {
+					dependencies.add(name.substring(0, name.length() - PREVIOUS_OUTPUT_SUFFIX.length()));
+				}
+			}
+		}
+
+		return dependencies;
+	}
 }
@@ -31,27 +31,49 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import dev.architectury.loom.forge.tool.ForgeToolExecutor;
 import dev.architectury.loom.forge.tool.ForgeToolValueSource;
+import org.apache.commons.io.FileUtils;
 import org.gradle.api.Action;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
+import org.gradle.api.provider.Provider;
+import org.gradle.process.ExecResult;
 import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.LoomGradleExtension;
@@ -67,13 +89,18 @@ import net.fabricmc.loom.configuration.providers.forge.mcpconfig.steplogic.Patch
 import net.fabricmc.loom.configuration.providers.forge.mcpconfig.steplogic.StepLogic;
 import net.fabricmc.loom.configuration.providers.forge.mcpconfig.steplogic.StripLogic;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftProvider;
+import net.fabricmc.loom.decompilers.cache.CachePruner;
+import net.fabricmc.loom.decompilers.cache.CachedFileStoreImpl;
 import net.fabricmc.loom.util.Constants;
+import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.loom.util.download.DownloadBuilder;
 import net.fabricmc.loom.util.function.CollectionUtil;
 import net.fabricmc.loom.util.gradle.GradleUtils;
 
 public final class McpExecutor {
 	private static final LogLevel STEP_LOG_LEVEL = LogLevel.LIFECYCLE;
+	private static final int STEP_CACHE_VERSION = 1;
+	private static final CachedFileStoreImpl.CacheRules STEP_CACHE_RULES = new CachedFileStoreImpl.CacheRules(200, 4096L * 1024 * 1024, Duration.ofDays(30));
 	private final Project project;
 	private final MinecraftProvider minecraftProvider;
 	private final Path cache;
@@ -81,8 +108,13 @@ public final class McpExecutor {
 	private final DependencySet dependencySet;
 	private final Map<String, McpConfigFunction> functions;
 	private final Map<String, String> config = new HashMap<>();
-	private final Map<String, String> extraConfig = new HashMap<>();
+	private final Map<String, String> extraConfig = new ConcurrentHashMap<>();
+	private final Map<String, Duration> stepTimings = new ConcurrentHashMap<>();
+	private final Map<Path, String> fingerprints = new ConcurrentHashMap<>();
+	private final BlockingQueue<Runnable> callerThreadTasks = new LinkedBlockingQueue<>();
+	private final boolean useStepCache;
 	private @Nullable StepLogic.Provider stepLogicProvider = null;
+	private volatile @Nullable Thread callerThread = null;
 
 	public McpExecutor(Project project, MinecraftProvider minecraftProvider, Path cache, McpConfigProvider provider, String environment) {
 		this.project = project;
@@ -93,6 +125,7 @@ public final class McpExecutor {
 		this.dependencySet = new DependencySet(this.steps);
 		this.dependencySet.skip(step -> getStepLogic(step.name(), step.type()) instanceof NoOpLogic);
 		this.dependencySet.setIgnoreDependenciesFilter(step -> getStepLogic(step.name(), step.type()).hasNoContext());
+		this.useStepCache = !LoomGradleExtension.get(project).refreshDeps();
 
 		checkMinecraftVersion(provider);
 		addDefaultFiles(provider, environment);
@@ -171,7 +204,7 @@ public final class McpExecutor {
 		return stepCache;
 	}
 
-	private String resolve(McpConfigStep step, ConfigValue value) {
+	private String resolve(McpConfigStep step, @Nullable String output, ConfigValue value) {
 		return value.resolve(variable -> {
 			String name = variable.name();
 			@Nullable ConfigValue valueFromStep = step.config().get(name);
@@ -180,15 +213,18 @@ public final class McpExecutor {
 			// Also skip if it would recurse with the same variable.
 			if (valueFromStep != null && !valueFromStep.equals(variable)) {
 				// Otherwise, resolve the nested variable.
-				return resolve(step, valueFromStep);
+				return resolve(step, output, valueFromStep);
 			}
 
-			if (config.containsKey(name)) {
+			if (name.equals(ConfigValue.OUTPUT) && output != null) {
+				return output;
+			} else if (config.containsKey(name)) {
 				return config.get(name);
 			} else if (extraConfig.containsKey(name)) {
 				return extraConfig.get(name);
 			} else if (name.equals(ConfigValue.LOG)) {
-				return cache.resolve("log.log").toAbsolutePath().toString();
+				// Each step has its own log as the steps may run in parallel
+				return cache.resolve(step.name() + ".log").toAbsolutePath().toString();
 			}
 
 			throw new IllegalArgumentException("Unknown MCP config variable: " + name);
@@ -226,30 +262,330 @@ public final class McpExecutor {
 	}
 
 	/**
-	 * Executes the specified steps.
+	 * Executes the specified steps. Steps that do not use each other's outputs are executed in parallel,
+	 * the steps that a step depends on must come before it in the list.
 	 *
 	 * @param steps the steps to execute
 	 * @return the output file of the last executed step
 	 */
 	public Path executeSteps(List<McpConfigStep> steps) throws IOException {
 		extraConfig.clear();
+		stepTimings.clear();
 
-		int totalSteps = steps.size();
-		int currentStepIndex = 0;
+		final int totalSteps = steps.size();
+		final AtomicInteger currentStepIndex = new AtomicInteger();
+		final Map<String, CompletableFuture<Path>> outputs = new LinkedHashMap<>();
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 
 		project.getLogger().log(STEP_LOG_LEVEL, ":executing {} MCP steps", totalSteps);
+		callerThread = Thread.currentThread();
+
+		try {
+			for (McpConfigStep step : steps) {
+				final CompletableFuture<?>[] dependencies = dependencySet.getDependencies(step.name()).stream()
+						.map(outputs::get)
+						.filter(Objects::nonNull)
+						.toArray(CompletableFuture[]::new);
+				outputs.put(step.name(), CompletableFuture.allOf(dependencies)
+						.thenApplyAsync(unused -> executeStep(step, currentStepIndex.incrementAndGet(), totalSteps), ThreadingUtils.executor()));
+			}
+
+			final CompletableFuture<Void> all = CompletableFuture.allOf(outputs.values().toArray(CompletableFuture[]::new));
+			// Wake up the loop below once all steps are done
+			all.whenComplete((unused, throwable) -> callerThreadTasks.add(() -> { }));
+
+			while (!all.isDone()) {
+				callerThreadTasks.take().run();
+			}
+
+			all.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while executing MCP steps", e);
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof IOException cause) {
+				throw cause;
+			} else if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+
+			throw e;
+		} finally {
+			callerThread = null;
+			callerThreadTasks.clear();
+		}
+
+		project.getLogger().log(STEP_LOG_LEVEL, ":executed {} MCP steps in {}", totalSteps, stopwatch.stop());
+		pruneStepCache();
+		project.getLogger().info(":MCP step timings: {}", stepTimings.entrySet().stream()
+				.sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+				.map(entry -> entry.getKey() + " " + entry.getValue().toMillis() + "ms")
+				.collect(Collectors.joining(", ")));
+
+		final List<Path> stepOutputs = outputs.values().stream()
+				.map(CompletableFuture::join)
+				.filter(Objects::nonNull)
+				.toList();
+
+		if (stepOutputs.isEmpty()) {
+			throw new IllegalStateException("No MCP step produced an output");
+		}
+
+		return stepOutputs.get(stepOutputs.size() - 1);
+	}
+
+	/**
+	 * @return how long each step of the last execution took, including steps whose output was cached
+	 */
+	public Map<String, Duration> getStepTimings() {
+		return Map.copyOf(stepTimings);
+	}
+
+	private @Nullable Path executeStep(McpConfigStep step, int index, int totalSteps) {
+		final StepLogic stepLogic = getStepLogic(step.name(), step.type());
+		final ExecutionContextImpl context = new ExecutionContextImpl(step);
+		project.getLogger().log(STEP_LOG_LEVEL, ":step {}/{} - {}", index, totalSteps, stepLogic.getDisplayName(step.name()));
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		try {
+			final @Nullable String cacheKey = getStepCacheKey(step, stepLogic, context);
+			final @Nullable Path cachedOutput = cacheKey != null ? getCachedOutput(cacheKey) : null;
+
+			if (cachedOutput != null) {
+				context.setOutput(cachedOutput);
+				project.getLogger().log(STEP_LOG_LEVEL, ":{} is up-to-date, using cached output", step.name());
+			} else {
+				stepLogic.execute(context);
+
+				if (cacheKey != null && context.output != null) {
+					cacheOutput(cacheKey, Path.of(context.output));
+				}
+			}
+		} catch (IOException e) {
+			throw new CompletionException(e);
+		}
+
+		stepTimings.put(step.name(), stopwatch.stop().elapsed());
+		project.getLogger().log(STEP_LOG_LEVEL, ":{} done in {}", step.name(), stopwatch);
+		return context.output != null ? Path.of(context.output) : null;
+	}
+
+	/**
+	 * Computes the key of the cached output of a step from the step logic and the resolved inputs of the step,
+	 * files and directories are identified by the hash of their contents.
+	 *
+	 * @return the key, or {@code null} if the output of the step must not be cached
+	 */
+	private @Nullable String getStepCacheKey(McpConfigStep step, StepLogic stepLogic, ExecutionContextImpl context) throws IOException {
+		final @Nullable String logicKey = stepLogic.getCacheKey();
+
+		if (logicKey == null) {
+			return null;
+		}
+
+		final Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putInt(STEP_CACHE_VERSION);
+		putString(hasher, step.type());
+		putString(hasher, logicKey);
+
+		for (Map.Entry<String, ConfigValue> entry : new TreeMap<>(step.config()).entrySet()) {
+			if (entry.getValue() instanceof ConfigValue.Variable variable && variable.name().equals(ConfigValue.LOG)) {
+				continue;
+			}
+
+			final String value;
+
+			try {
+				value = context.resolve(entry.getValue());
+			} catch (IllegalArgumentException e) {
+				// Depends on the output of the step itself
+				return null;
+			}
+
+			putString(hasher, entry.getKey());
+			putString(hasher, fingerprint(value));
+		}
+
+		for (Map.Entry<String, String> entry : new TreeMap<>(config).entrySet()) {
+			putString(hasher, entry.getKey());
+			putString(hasher, fingerprint(entry.getValue()));
+		}
+
+		putString(hasher, fingerprint(context.mappings().toAbsolutePath().toString()));
+		return hasher.hash().toString();
+	}
+
+	private static void putString(Hasher hasher, String value) {
+		hasher.putInt(value.length());
+		hasher.putString(value, StandardCharsets.UTF_8);
+	}
+
+	private String fingerprint(String value) throws IOException {
+		final Path path;
+
+		try {
+			path = Path.of(value);
+		} catch (InvalidPathException e) {
+			return value;
+		}
+
+		if (!path.isAbsolute() || Files.notExists(path)) {
+			return value;
+		}
+
+		final @Nullable String cached = fingerprints.get(path);
+
+		if (cached != null) {
+			return cached;
+		}
+
+		final Hasher hasher = Hashing.sha256().newHasher();
+
+		if (Files.isDirectory(path)) {
+			try (Stream<Path> files = Files.walk(path)) {
+				for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+					putString(hasher, path.relativize(file).toString());
+					hasher.putBytes(MoreFiles.asByteSource(file).hash(Hashing.sha256()).asBytes());
+				}
+			}
+		} else {
+			hasher.putBytes(MoreFiles.asByteSource(path).hash(Hashing.sha256()).asBytes());
+		}
+
+		final String fingerprint = hasher.hash().toString();
+		fingerprints.put(path, fingerprint);
+		return fingerprint;
+	}
+
+	private Path getStepOutputCache(String cacheKey) {
+		return minecraftProvider.dir("mcp-steps").toPath().resolve(cacheKey.substring(0, 2)).resolve(cacheKey);
+	}
+
+	private @Nullable Path getCachedOutput(String cacheKey) throws IOException {
+		final Path directory = getStepOutputCache(cacheKey);
+
+		if (!useStepCache || !Files.isDirectory(directory)) {
+			return null;
+		}
+
+		final @Nullable Path output;
+
+		try (Stream<Path> files = Files.list(directory)) {
+			output = files.filter(Files::isRegularFile).findFirst().orElse(null);
+		}
+
+		if (output != null) {
+			try {
+				// Keep recently used outputs in the cache
+				Files.setLastModifiedTime(directory, FileTime.from(Instant.now()));
+			} catch (IOException e) {
+				// Pruned by another build
+			}
+		}
+
+		return output;
+	}
+
+	private void cacheOutput(String cacheKey, Path output) throws IOException {
+		if (!Files.isRegularFile(output)) {
+			return;
+		}
+
+		final Path directory = getStepOutputCache(cacheKey);
+		Files.createDirectories(directory.getParent());
+		final Path tempDirectory = Files.createTempDirectory(directory.getParent(), cacheKey);
+		Files.copy(output, tempDirectory.resolve(output.getFileName().toString()));
+
+		try {
+			if (Files.exists(directory)) {
+				FileUtils.deleteDirectory(directory.toFile());
+			}
+
+			Files.move(tempDirectory, directory, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// Another build has cached the same output
+			FileUtils.deleteDirectory(tempDirectory.toFile());
+		}
+	}
+
+	/**
+	 * Removes the least recently used step outputs until the cache meets {@link #STEP_CACHE_RULES}.
+	 */
+	private void pruneStepCache() {
+		final Path root = minecraftProvider.dir("mcp-steps").toPath();
+
+		if (Files.notExists(root)) {
+			return;
+		}
+
+		final List<CachedStepOutput> entries = new ArrayList<>();
+
+		try {
+			try (Stream<Path> directories = Files.walk(root, 2)) {
+				for (Path directory : (Iterable<Path>) directories::iterator) {
+					// Skip the temporary directories of outputs that are being cached
+					if (root.relativize(directory).getNameCount() != 2 || !Files.isDirectory(directory) || directory.getFileName().toString().length() != 64) {
+						continue;
+					}
+
+					long size = 0;
+
+					try (Stream<Path> files = Files.list(directory)) {
+						for (Path file : (Iterable<Path>) files::iterator) {
+							size += Files.size(file);
+						}
+					}
+
+					entries.add(new CachedStepOutput(directory, Files.getLastModifiedTime(directory).toMillis(), size));
+				}
+			}
+
+			final CachePruner.Result<CachedStepOutput> result = new CachePruner(STEP_CACHE_RULES).prune(entries, CachedStepOutput::lastModified, CachedStepOutput::size);
+
+			for (CachedStepOutput entry : result.evicted()) {
+				FileUtils.deleteDirectory(entry.directory().toFile());
+			}
+
+			if (result.evictedCount() > 0) {
+				project.getLogger().info("Pruned {} MCP step outputs ({} bytes) from the cache", result.evictedCount(), result.evictedBytes());
+			}
+		} catch (IOException e) {
+			project.getLogger().warn("Failed to prune the MCP step output cache", e);
+		}
+	}
+
+	private record CachedStepOutput(Path directory, long lastModified, long size) {
+	}
 
-		for (McpConfigStep currentStep : steps) {
-			currentStepIndex++;
-			StepLogic stepLogic = getStepLogic(currentStep.name(), currentStep.type());
-			project.getLogger().log(STEP_LOG_LEVEL, ":step {}/{} - {}", currentStepIndex, totalSteps, stepLogic.getDisplayName(currentStep.name()));
+	/**
+	 * Runs an action on the thread executing the steps, as Gradle only allows resolving dependencies on its own threads.
+	 */
+	private <T> T onCallerThread(Supplier<T> action) {
+		final @Nullable Thread thread = callerThread;
 
-			Stopwatch stopwatch = Stopwatch.createStarted();
-			stepLogic.execute(new ExecutionContextImpl(currentStep));
-			project.getLogger().log(STEP_LOG_LEVEL, ":{} done in {}", currentStep.name(), stopwatch.stop());
+		if (thread == null || thread == Thread.currentThread()) {
+			return action.get();
 		}
 
-		return Path.of(extraConfig.get(ConfigValue.OUTPUT));
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		callerThreadTasks.add(() -> {
+			try {
+				future.complete(action.get());
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+
+			throw e;
+		}
 	}
 
 	/**
@@ -289,6 +625,7 @@ public final class McpExecutor {
 
 	private class ExecutionContextImpl implements StepLogic.ExecutionContext {
 		private final McpConfigStep step;
+		private volatile @Nullable String output;
 
 		ExecutionContextImpl(McpConfigStep step) {
 			this.step = step;
@@ -307,7 +644,7 @@ public final class McpExecutor {
 		@Override
 		public Path setOutput(Path output) {
 			String absolutePath = output.toAbsolutePath().toString();
-			extraConfig.put(ConfigValue.OUTPUT, absolutePath);
+			this.output = absolutePath;
 			extraConfig.put(step.name() + ConfigValue.PREVIOUS_OUTPUT_SUFFIX, absolutePath);
 			return output;
 		}
@@ -324,22 +661,39 @@ public final class McpExecutor {
 
 		@Override
 		public String resolve(ConfigValue value) {
-			return McpExecutor.this.resolve(step, value);
+			return McpExecutor.this.resolve(step, output, value);
 		}
 
 		@Override
 		public Path downloadFile(String url) throws IOException {
 			Path path = getDownloadCache().resolve(Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString().substring(0, 24));
-			redirectAwareDownload(url, path);
+
+			// Steps running in parallel may use the same file
+			synchronized (McpExecutor.this) {
+				if (Files.notExists(path)) {
+					// Download to a temporary file first, so an interrupted download is never reused
+					final Path tempFile = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+
+					try {
+						redirectAwareDownload(url, tempFile);
+						Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+					} finally {
+						Files.deleteIfExists(tempFile);
+					}
+				}
+			}
+
 			return path;
 		}
 
 		@Override
 		public Path downloadDependency(String notation) {
-			final Dependency dependency = project.getDependencies().create(notation);
-			final Configuration configuration = project.getConfigurations().detachedConfiguration(dependency);
-			configuration.setTransitive(false);
-			return configuration.getSingleFile().toPath();
+			return onCallerThread(() -> {
+				final Dependency dependency = project.getDependencies().create(notation);
+				final Configuration configuration = project.getConfigurations().detachedConfiguration(dependency);
+				configuration.setTransitive(false);
+				return configuration.getSingleFile().toPath();
+			});
 		}
 
 		@Override
@@ -362,20 +716,22 @@ public final class McpExecutor {
 				redirectAwareDownload(connection.getHeaderField("Location"), path);
 			} else {
 				try (InputStream in = connection.getInputStream()) {
-					Files.copy(in, path);
+					Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
 				}
 			}
 		}
 
 		@Override
 		public void javaexec(Action<? super ForgeToolExecutor.Settings> configurator) {
-			ForgeToolValueSource.exec(project, configurator);
+			// The settings and the provider need the project, only the process itself runs on this thread
+			final Provider<ExecResult> execResult = onCallerThread(() -> ForgeToolValueSource.create(project, configurator));
+			execResult.get().rethrowFailure().assertNormalExitValue();
 		}
 
 		@Override
 		public Set<File> getMinecraftLibraries() {
 			// (1.2) minecraftRuntimeLibraries contains the compile-time libraries as well.
-			return project.getConfigurations().getByName(Constants.Configurations.MINECRAFT_RUNTIME_LIBRARIES).resolve();
+			return onCallerThread(() -> project.getConfigurations().getByName(Constants.Configurations.MINECRAFT_RUNTIME_LIBRARIES).resolve());
 		}
 	}
 }
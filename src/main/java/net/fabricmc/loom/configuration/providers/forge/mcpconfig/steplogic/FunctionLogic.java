@@ -64,6 +64,11 @@ public final class FunctionLogic implements StepLogic {
 		});
 	}
 
+	@Override
+	public String getCacheKey() {
+		return "function:" + function;
+	}
+
 	@Override
 	public String getDisplayName(String stepName) {
 		return stepName + " with " + function.version();
@@ -63,4 +63,9 @@ public final class InjectLogic implements StepLogic {
 			}
 		}
 	}
+
+	@Override
+	public String getCacheKey() {
+		return "inject";
+	}
 }
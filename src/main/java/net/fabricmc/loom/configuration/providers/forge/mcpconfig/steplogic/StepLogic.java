@@ -34,6 +34,7 @@ import java.util.Set;
 import dev.architectury.loom.forge.tool.ForgeToolExecutor;
 import org.gradle.api.Action;
 import org.gradle.api.logging.Logger;
+import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.configuration.providers.forge.ConfigValue;
 import net.fabricmc.loom.util.download.DownloadBuilder;
@@ -53,6 +54,16 @@ public interface StepLogic {
 		return false;
 	}
 
+	/**
+	 * Gets a key that identifies what this logic does, used to cache the output of steps across builds.
+	 * The resolved inputs of the step are added to the key by the executor.
+	 *
+	 * @return the key, or {@code null} if the output of this logic must not be cached
+	 */
+	default @Nullable String getCacheKey() {
+		return null;
+	}
+
 	interface ExecutionContext {
 		Logger logger();
 		Path setOutput(String fileName) throws IOException;
@@ -80,6 +80,11 @@ public final class StripLogic implements StepLogic {
 		}
 	}
 
+	@Override
+	public String getCacheKey() {
+		return "strip";
+	}
+
 	private static String trimLeadingSlash(String string) {
 		if (string.startsWith(File.separator)) {
 			return string.substring(File.separator.length());
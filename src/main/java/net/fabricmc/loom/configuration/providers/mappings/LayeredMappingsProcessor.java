@@ -75,13 +75,12 @@ public class LayeredMappingsProcessor {
 
 	public MemoryMappingTree getMappings(List<MappingLayer> layers) throws IOException {
 		MemoryMappingTree mappingTree = new MemoryMappingTree();
+		// The source namespace of the tree, consecutive layers with the same source namespace share the tree without switching back to named
+		MappingsNamespace treeNamespace = MappingsNamespace.NAMED;
 
 		for (MappingLayer layer : layers) {
 			// We have to rebuild a new tree to work on when a layer doesnt merge into layered
-			boolean rebuild = layer.getSourceNamespace() != MappingsNamespace.NAMED;
-			MemoryMappingTree workingTree;
-
-			if (rebuild) {
+			if (layer.getSourceNamespace() != treeNamespace) {
 				var tempTree = new MemoryMappingTree();
 
 				// This can be null on the first layer
@@ -90,21 +89,21 @@ public class LayeredMappingsProcessor {
 					mappingTree.accept(sourceNsSwitch);
 				}
 
-				workingTree = tempTree;
-			} else {
-				workingTree = mappingTree;
+				mappingTree = tempTree;
+				treeNamespace = layer.getSourceNamespace();
 			}
 
 			try {
-				layer.visit(workingTree);
+				layer.visit(mappingTree);
 			} catch (IOException e) {
 				throw new IOException("Failed to visit: " + layer.getClass(), e);
 			}
+		}
 
-			if (rebuild) {
-				mappingTree = new MemoryMappingTree();
-				workingTree.accept(new MappingSourceNsSwitch(mappingTree, MappingsNamespace.NAMED.toString()));
-			}
+		if (treeNamespace != MappingsNamespace.NAMED) {
+			MemoryMappingTree namedTree = new MemoryMappingTree();
+			mappingTree.accept(new MappingSourceNsSwitch(namedTree, MappingsNamespace.NAMED.toString()));
+			mappingTree = namedTree;
 		}
 
 		if (noIntermediateMappings) {
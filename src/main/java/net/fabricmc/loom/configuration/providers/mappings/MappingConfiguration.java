@@ -66,6 +66,7 @@ import net.fabricmc.loom.configuration.providers.forge.SrgProvider;
 import net.fabricmc.loom.configuration.providers.mappings.tiny.MappingsMerger;
 import net.fabricmc.loom.configuration.providers.mappings.tiny.TinyJarInfo;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftProvider;
+import net.fabricmc.loom.util.CacheLocks;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.DeletingFileVisitor;
 import net.fabricmc.loom.util.FileSystemUtil;
@@ -167,10 +168,15 @@ public class MappingConfiguration {
 		}
 
 		try {
-			mappingProvider.setup(project, serviceFactory, minecraftProvider, inputJar);
+			// Projects using the same mappings share the working directory
+			CacheLocks.withLock(workingDir, () -> mappingProvider.setup(project, serviceFactory, minecraftProvider, inputJar));
 		} catch (IOException e) {
 			cleanWorkingDirectory(workingDir);
 			throw new UncheckedIOException("Failed to setup mappings: " + dependency.getDepString(), e);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to setup mappings: " + dependency.getDepString(), e);
 		}
 
 		return mappingProvider;
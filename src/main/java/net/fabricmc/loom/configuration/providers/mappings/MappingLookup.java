@@ -0,0 +1,409 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.configuration.providers.mappings;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.tinyremapper.IMappingProvider;
+
+/**
+ * An immutable index of the class and member names of a mapping tree from one namespace to another.
+ * All names are interned into a string pool and found through open-addressed tables of int ids,
+ * so lookups do not allocate and the tree only has to be walked once.
+ *
+ * <p>Lookups are shared per tree and pair of namespaces, a tree must not be modified once a lookup was created for it.
+ * Names that have no mapping in the target namespace map to themselves.
+ */
+public final class MappingLookup {
+	// Weak keys compare by identity, the lookups do not reference their tree so entries are dropped together with it.
+	private static final ConcurrentMap<MappingTreeView, Map<Namespaces, MappingLookup>> CACHE = new MapMaker().weakKeys().makeMap();
+	private static final int NONE = -1;
+
+	private final String[] strings;
+
+	private final int[] classSrc;
+	private final int[] classDst;
+	private final int[] classesBySrc;
+	private final int[] classesByDst;
+
+	private final Members fields;
+	private final Members methods;
+
+	// Per method offsets into the arg and var arrays, args are stored as (lvIndex, name) and vars as (lvIndex, startOpIdx, lvtRowIndex, name).
+	private final int[] argOffsets;
+	private final int[] args;
+	private final int[] varOffsets;
+	private final int[] vars;
+
+	private MappingLookup(MappingTreeView tree, String from, String to) {
+		final int fromId = tree.getNamespaceId(from);
+		final int toId = tree.getNamespaceId(to);
+		final StringPool pool = new StringPool();
+		final IntArray classSrc = new IntArray();
+		final IntArray classDst = new IntArray();
+		final MembersBuilder fields = new MembersBuilder();
+		final MembersBuilder methods = new MembersBuilder();
+		final IntArray argOffsets = new IntArray();
+		final IntArray args = new IntArray();
+		final IntArray varOffsets = new IntArray();
+		final IntArray vars = new IntArray();
+
+		for (MappingTreeView.ClassMappingView classDef : tree.getClasses()) {
+			final String className = classDef.getName(fromId);
+
+			if (className == null) {
+				continue;
+			}
+
+			final int owner = classSrc.size();
+			final int src = pool.intern(className);
+			classSrc.add(src);
+			classDst.add(pool.internOr(classDef.getName(toId), src));
+
+			for (MappingTreeView.FieldMappingView field : classDef.getFields()) {
+				final String fieldName = field.getName(fromId);
+
+				if (fieldName != null) {
+					final int name = pool.intern(fieldName);
+					fields.add(owner, name, pool.internOr(field.getDesc(fromId), NONE), pool.internOr(field.getName(toId), name));
+				}
+			}
+
+			for (MappingTreeView.MethodMappingView method : classDef.getMethods()) {
+				final String methodName = method.getName(fromId);
+
+				if (methodName == null) {
+					continue;
+				}
+
+				final int name = pool.intern(methodName);
+				methods.add(owner, name, pool.internOr(method.getDesc(fromId), NONE), pool.internOr(method.getName(toId), name));
+				argOffsets.add(args.size());
+				varOffsets.add(vars.size());
+
+				for (MappingTreeView.MethodArgMappingView arg : method.getArgs()) {
+					final String argName = arg.getName(toId);
+
+					if (argName != null) {
+						args.add(arg.getLvIndex());
+						args.add(pool.intern(argName));
+					}
+				}
+
+				for (MappingTreeView.MethodVarMappingView variable : method.getVars()) {
+					vars.add(variable.getLvIndex());
+					vars.add(variable.getStartOpIdx());
+					vars.add(variable.getLvtRowIndex());
+					vars.add(pool.internOr(variable.getName(toId), NONE));
+				}
+			}
+		}
+
+		argOffsets.add(args.size());
+		varOffsets.add(vars.size());
+
+		this.strings = pool.toArray();
+		this.classSrc = classSrc.toArray();
+		this.classDst = classDst.toArray();
+		this.classesBySrc = createClassTable(this.classSrc);
+		this.classesByDst = createClassTable(this.classDst);
+		this.fields = fields.build(strings);
+		this.methods = methods.build(strings);
+		this.argOffsets = argOffsets.toArray();
+		this.args = args.toArray();
+		this.varOffsets = varOffsets.toArray();
+		this.vars = vars.toArray();
+	}
+
+	/**
+	 * Returns the shared lookup for the tree between the two namespaces, creating it on first use.
+	 */
+	public static MappingLookup of(MappingTreeView tree, String from, String to) {
+		return CACHE.computeIfAbsent(tree, key -> new ConcurrentHashMap<>())
+				.computeIfAbsent(new Namespaces(from, to), key -> new MappingLookup(tree, from, to));
+	}
+
+	public String mapClassName(String className) {
+		final int id = getClassId(className);
+		return id == NONE ? className : strings[classDst[id]];
+	}
+
+	/**
+	 * @return whether the tree has a class with the given source name
+	 */
+	public boolean hasSrcClassName(String className) {
+		return getClassId(className) != NONE;
+	}
+
+	/**
+	 * @return whether any class is mapped to the given target name
+	 */
+	public boolean hasDstClassName(String className) {
+		return findClass(classesByDst, classDst, className) != NONE;
+	}
+
+	/**
+	 * Maps a field name, the descriptor may be {@code null} to match the first field with the given name.
+	 */
+	public String mapFieldName(String owner, String name, @Nullable String desc) {
+		final int id = fields.find(strings, getClassId(owner), name, desc);
+		return id == NONE ? name : strings[fields.dst[id]];
+	}
+
+	/**
+	 * Maps a method name, the descriptor may be {@code null} to match the first method with the given name.
+	 */
+	public String mapMethodName(String owner, String name, @Nullable String desc) {
+		final int id = methods.find(strings, getClassId(owner), name, desc);
+		return id == NONE ? name : strings[methods.dst[id]];
+	}
+
+	/**
+	 * Passes all mappings to a tiny remapper mapping acceptor.
+	 */
+	public void accept(IMappingProvider.MappingAcceptor acceptor, boolean remapLocalVariables) {
+		for (int i = 0; i < classSrc.length; i++) {
+			acceptor.acceptClass(strings[classSrc[i]], strings[classDst[i]]);
+		}
+
+		for (int i = 0; i < fields.owner.length; i++) {
+			acceptor.acceptField(fields.member(strings, classSrc, i), strings[fields.dst[i]]);
+		}
+
+		for (int i = 0; i < methods.owner.length; i++) {
+			final IMappingProvider.Member method = methods.member(strings, classSrc, i);
+			acceptor.acceptMethod(method, strings[methods.dst[i]]);
+
+			if (!remapLocalVariables) {
+				continue;
+			}
+
+			for (int j = argOffsets[i]; j < argOffsets[i + 1]; j += 2) {
+				acceptor.acceptMethodArg(method, args[j], strings[args[j + 1]]);
+			}
+
+			for (int j = varOffsets[i]; j < varOffsets[i + 1]; j += 4) {
+				acceptor.acceptMethodVar(method, vars[j], vars[j + 1], vars[j + 2], vars[j + 3] == NONE ? null : strings[vars[j + 3]]);
+			}
+		}
+	}
+
+	private int getClassId(String className) {
+		return findClass(classesBySrc, classSrc, className);
+	}
+
+	private int findClass(int[] table, int[] names, String className) {
+		final int mask = table.length - 1;
+
+		for (int slot = hash(className.hashCode()) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			final int id = table[slot] - 1;
+
+			if (strings[names[id]].equals(className)) {
+				return id;
+			}
+		}
+
+		return NONE;
+	}
+
+	// Table slots hold the id + 1 so that 0 marks an empty slot, the first class with a name wins.
+	private int[] createClassTable(int[] names) {
+		final int[] table = new int[tableSize(names.length)];
+		final int mask = table.length - 1;
+
+		for (int id = 0; id < names.length; id++) {
+			int slot = hash(strings[names[id]].hashCode()) & mask;
+
+			while (table[slot] != 0 && names[table[slot] - 1] != names[id]) {
+				slot = (slot + 1) & mask;
+			}
+
+			if (table[slot] == 0) {
+				table[slot] = id + 1;
+			}
+		}
+
+		return table;
+	}
+
+	private static int tableSize(int entries) {
+		int size = 2;
+
+		while (size < entries * 2) {
+			size <<= 1;
+		}
+
+		return size;
+	}
+
+	private static int hash(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	private static int memberHash(int owner, String name, @Nullable String desc) {
+		return hash(31 * (31 * owner + name.hashCode()) + (desc == null ? 0 : desc.hashCode()));
+	}
+
+	private record Namespaces(String from, String to) {
+	}
+
+	private static final class Members {
+		private final int[] owner;
+		private final int[] name;
+		private final int[] desc;
+		private final int[] dst;
+		private final int[] byDesc;
+		private final int[] byName;
+
+		private Members(int[] owner, int[] name, int[] desc, int[] dst, String[] strings) {
+			this.owner = owner;
+			this.name = name;
+			this.desc = desc;
+			this.dst = dst;
+			this.byDesc = new int[tableSize(owner.length)];
+			this.byName = new int[tableSize(owner.length)];
+
+			for (int id = 0; id < owner.length; id++) {
+				insert(byDesc, id, true, strings);
+				insert(byName, id, false, strings);
+			}
+		}
+
+		private void insert(int[] table, int id, boolean withDesc, String[] strings) {
+			final int mask = table.length - 1;
+			int slot = memberHash(owner[id], strings[name[id]], withDesc && desc[id] != NONE ? strings[desc[id]] : null) & mask;
+
+			while (table[slot] != 0) {
+				final int other = table[slot] - 1;
+
+				if (owner[other] == owner[id] && name[other] == name[id] && (!withDesc || desc[other] == desc[id])) {
+					return;
+				}
+
+				slot = (slot + 1) & mask;
+			}
+
+			table[slot] = id + 1;
+		}
+
+		private int find(String[] strings, int ownerId, String memberName, @Nullable String memberDesc) {
+			if (ownerId == NONE) {
+				return NONE;
+			}
+
+			final int[] table = memberDesc != null ? byDesc : byName;
+			final int mask = table.length - 1;
+
+			for (int slot = memberHash(ownerId, memberName, memberDesc) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+				final int id = table[slot] - 1;
+
+				if (owner[id] == ownerId && strings[name[id]].equals(memberName)
+						&& (memberDesc == null || desc[id] != NONE && strings[desc[id]].equals(memberDesc))) {
+					return id;
+				}
+			}
+
+			return NONE;
+		}
+
+		private IMappingProvider.Member member(String[] strings, int[] classSrc, int id) {
+			return new IMappingProvider.Member(strings[classSrc[owner[id]]], strings[name[id]], desc[id] == NONE ? null : strings[desc[id]]);
+		}
+	}
+
+	private static final class MembersBuilder {
+		private final IntArray owner = new IntArray();
+		private final IntArray name = new IntArray();
+		private final IntArray desc = new IntArray();
+		private final IntArray dst = new IntArray();
+
+		private void add(int owner, int name, int desc, int dst) {
+			this.owner.add(owner);
+			this.name.add(name);
+			this.desc.add(desc);
+			this.dst.add(dst);
+		}
+
+		private Members build(String[] strings) {
+			return new Members(owner.toArray(), name.toArray(), desc.toArray(), dst.toArray(), strings);
+		}
+	}
+
+	private static final class StringPool {
+		private final Map<String, Integer> ids = new HashMap<>();
+		private String[] strings = new String[1024];
+
+		private int intern(String string) {
+			return ids.computeIfAbsent(string, key -> {
+				final int id = ids.size();
+
+				if (id == strings.length) {
+					strings = Arrays.copyOf(strings, id * 2);
+				}
+
+				strings[id] = key;
+				return id;
+			});
+		}
+
+		private int internOr(@Nullable String string, int fallback) {
+			return string == null ? fallback : intern(string);
+		}
+
+		private String[] toArray() {
+			return Arrays.copyOf(strings, ids.size());
+		}
+	}
+
+	private static final class IntArray {
+		private int[] values = new int[256];
+		private int size;
+
+		private void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+
+			values[size++] = value;
+		}
+
+		private int size() {
+			return size;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
@@ -0,0 +1,374 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.configuration.providers.mappings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.fabricmc.mappingio.MappedElementKind;
+import net.fabricmc.mappingio.MappingReader;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
+
+/**
+ * A binary snapshot of a fully resolved mapping tree, stored next to the tiny file it was read from.
+ * Loading a snapshot avoids parsing the tiny file again, the snapshot is rewritten whenever the tiny file changes.
+ * Snapshots are only stored for tiny files in Loom's own cache directories, other files are left alone.
+ *
+ * <p>All names are stored once in a string pool and referenced by their index.
+ */
+public final class MappingTreeSnapshot {
+	private static final Logger LOGGER = LoggerFactory.getLogger(MappingTreeSnapshot.class);
+	private static final int MAGIC = 0x4C4D5453;
+	private static final int VERSION = 1;
+	private static final String EXTENSION = ".snapshot";
+	// The names of the user cache and the project caches, see LoomFilesBaseImpl
+	private static final String USER_CACHE_NAME = "fabric-loom";
+	private static final String USER_CACHE_PARENT_NAME = "caches";
+	private static final String PROJECT_CACHE_NAME = "loom-cache";
+
+	private MappingTreeSnapshot() {
+	}
+
+	/**
+	 * Reads the mappings, from the snapshot of the file when it is up to date.
+	 * Only tiny files in Loom's cache directories on the default file system get a snapshot,
+	 * other files such as the Mixin AP mappings in the build directory are always read directly.
+	 */
+	public static MemoryMappingTree read(Path mappings) throws IOException {
+		if (mappings.getFileSystem() != FileSystems.getDefault() || !Files.isRegularFile(mappings) || !mappings.getFileName().toString().endsWith(".tiny") || !isInLoomCache(mappings)) {
+			final MemoryMappingTree tree = new MemoryMappingTree();
+			MappingReader.read(mappings, tree);
+			return tree;
+		}
+
+		final Path snapshot = getSnapshotPath(mappings);
+		final String fingerprint = getFingerprint(mappings);
+
+		if (Files.exists(snapshot)) {
+			try {
+				final MemoryMappingTree tree = new MemoryMappingTree();
+
+				if (read(snapshot, fingerprint, tree)) {
+					return tree;
+				}
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warn("Failed to read mappings snapshot {}, reading the mappings instead", snapshot, e);
+			}
+		}
+
+		final MemoryMappingTree tree = new MemoryMappingTree();
+		MappingReader.read(mappings, tree);
+
+		try {
+			write(tree, snapshot, fingerprint);
+		} catch (IOException e) {
+			LOGGER.debug("Failed to write mappings snapshot {}", snapshot, e);
+		}
+
+		return tree;
+	}
+
+	static boolean isInLoomCache(Path mappings) {
+		for (Path directory = mappings.toAbsolutePath().getParent(); directory != null && directory.getFileName() != null; directory = directory.getParent()) {
+			final String name = directory.getFileName().toString();
+
+			if (name.equals(PROJECT_CACHE_NAME)) {
+				return true;
+			}
+
+			if (name.equals(USER_CACHE_NAME) && directory.getParent() != null && directory.getParent().getFileName() != null
+					&& directory.getParent().getFileName().toString().equals(USER_CACHE_PARENT_NAME)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	static Path getSnapshotPath(Path mappings) {
+		return mappings.resolveSibling(mappings.getFileName() + EXTENSION);
+	}
+
+	private static String getFingerprint(Path mappings) throws IOException {
+		return "%d|%d".formatted(Files.size(mappings), Files.getLastModifiedTime(mappings).toMillis());
+	}
+
+	static void write(MappingTreeView tree, Path snapshot, String fingerprint) throws IOException {
+		final StringPool pool = new StringPool();
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		final int dstCount = tree.getDstNamespaces().size();
+
+		try (DataOutputStream out = new DataOutputStream(body)) {
+			out.writeInt(pool.get(tree.getSrcNamespace()));
+			out.writeInt(dstCount);
+
+			for (String dstNamespace : tree.getDstNamespaces()) {
+				out.writeInt(pool.get(dstNamespace));
+			}
+
+			out.writeInt(tree.getMetadata().size());
+
+			for (MappingTreeView.MetadataEntryView metadata : tree.getMetadata()) {
+				out.writeInt(pool.get(metadata.getKey()));
+				out.writeInt(pool.get(metadata.getValue()));
+			}
+
+			out.writeInt(tree.getClasses().size());
+
+			for (MappingTreeView.ClassMappingView classView : tree.getClasses()) {
+				writeElement(out, pool, classView, dstCount);
+				out.writeInt(classView.getFields().size());
+
+				for (MappingTreeView.FieldMappingView field : classView.getFields()) {
+					writeElement(out, pool, field, dstCount);
+					out.writeInt(pool.get(field.getSrcDesc()));
+				}
+
+				out.writeInt(classView.getMethods().size());
+
+				for (MappingTreeView.MethodMappingView method : classView.getMethods()) {
+					writeElement(out, pool, method, dstCount);
+					out.writeInt(pool.get(method.getSrcDesc()));
+					out.writeInt(method.getArgs().size());
+
+					for (MappingTreeView.MethodArgMappingView arg : method.getArgs()) {
+						writeElement(out, pool, arg, dstCount);
+						out.writeInt(arg.getArgPosition());
+						out.writeInt(arg.getLvIndex());
+					}
+
+					out.writeInt(method.getVars().size());
+
+					for (MappingTreeView.MethodVarMappingView variable : method.getVars()) {
+						writeElement(out, pool, variable, dstCount);
+						out.writeInt(variable.getLvtRowIndex());
+						out.writeInt(variable.getLvIndex());
+						out.writeInt(variable.getStartOpIdx());
+						out.writeInt(variable.getEndOpIdx());
+					}
+				}
+			}
+		}
+
+		final Path tempFile = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+
+		try {
+			try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tempFile))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				writeString(out, fingerprint);
+				out.writeInt(pool.strings.size());
+
+				for (String string : pool.strings) {
+					writeString(out, string);
+				}
+
+				body.writeTo(out);
+			}
+
+			Files.move(tempFile, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private static void writeElement(DataOutputStream out, StringPool pool, MappingTreeView.ElementMappingView element, int dstCount) throws IOException {
+		out.writeInt(pool.get(element.getSrcName()));
+
+		for (int i = 0; i < dstCount; i++) {
+			out.writeInt(pool.get(element.getDstName(i)));
+		}
+
+		out.writeInt(pool.get(element.getComment()));
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * @return false if the snapshot is for a different version of the mappings
+	 */
+	static boolean read(Path snapshot, String fingerprint, MemoryMappingTree tree) throws IOException {
+		// Not memory mapped, a mapped file cannot be replaced or deleted on Windows until the buffer is collected
+		final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+
+		if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !readString(buffer).equals(fingerprint)) {
+			return false;
+		}
+
+		final String[] strings = new String[buffer.getInt()];
+
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = readString(buffer);
+		}
+
+		final Reader reader = new Reader(buffer, strings);
+		final String srcNamespace = reader.string();
+		final List<String> dstNamespaces = new ArrayList<>();
+		final int dstCount = buffer.getInt();
+
+		for (int i = 0; i < dstCount; i++) {
+			dstNamespaces.add(reader.string());
+		}
+
+		if (tree.visitHeader()) {
+			tree.visitNamespaces(srcNamespace, dstNamespaces);
+		}
+
+		final int metadataCount = buffer.getInt();
+
+		for (int i = 0; i < metadataCount; i++) {
+			tree.visitMetadata(reader.string(), reader.string());
+		}
+
+		tree.visitContent();
+		final int classCount = buffer.getInt();
+
+		for (int i = 0; i < classCount; i++) {
+			tree.visitClass(reader.string());
+			reader.element(tree, MappedElementKind.CLASS, dstCount);
+			final int fieldCount = buffer.getInt();
+
+			for (int j = 0; j < fieldCount; j++) {
+				final String srcName = reader.string();
+				final String[] dstNames = reader.dstNames(dstCount);
+				final String comment = reader.string();
+				tree.visitField(srcName, reader.string());
+				reader.element(tree, MappedElementKind.FIELD, dstNames, comment);
+			}
+
+			final int methodCount = buffer.getInt();
+
+			for (int j = 0; j < methodCount; j++) {
+				final String srcName = reader.string();
+				final String[] dstNames = reader.dstNames(dstCount);
+				final String comment = reader.string();
+				tree.visitMethod(srcName, reader.string());
+				reader.element(tree, MappedElementKind.METHOD, dstNames, comment);
+				final int argCount = buffer.getInt();
+
+				for (int k = 0; k < argCount; k++) {
+					final String argName = reader.string();
+					final String[] argDstNames = reader.dstNames(dstCount);
+					final String argComment = reader.string();
+					tree.visitMethodArg(buffer.getInt(), buffer.getInt(), argName);
+					reader.element(tree, MappedElementKind.METHOD_ARG, argDstNames, argComment);
+				}
+
+				final int varCount = buffer.getInt();
+
+				for (int k = 0; k < varCount; k++) {
+					final String varName = reader.string();
+					final String[] varDstNames = reader.dstNames(dstCount);
+					final String varComment = reader.string();
+					tree.visitMethodVar(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(), varName);
+					reader.element(tree, MappedElementKind.METHOD_VAR, varDstNames, varComment);
+				}
+			}
+		}
+
+		tree.visitEnd();
+		return true;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private record Reader(ByteBuffer buffer, String[] strings) {
+		@Nullable
+		String string() {
+			final int index = buffer.getInt();
+			return index < 0 ? null : strings[index];
+		}
+
+		@Nullable
+		String[] dstNames(int dstCount) {
+			final String[] dstNames = new String[dstCount];
+
+			for (int i = 0; i < dstCount; i++) {
+				dstNames[i] = string();
+			}
+
+			return dstNames;
+		}
+
+		void element(MemoryMappingTree tree, MappedElementKind kind, int dstCount) throws IOException {
+			final String[] dstNames = dstNames(dstCount);
+			element(tree, kind, dstNames, string());
+		}
+
+		void element(MemoryMappingTree tree, MappedElementKind kind, @Nullable String[] dstNames, @Nullable String comment) throws IOException {
+			for (int i = 0; i < dstNames.length; i++) {
+				if (dstNames[i] != null) {
+					tree.visitDstName(kind, i, dstNames[i]);
+				}
+			}
+
+			tree.visitElementContent(kind);
+
+			if (comment != null) {
+				tree.visitComment(kind, comment);
+			}
+		}
+	}
+
+	private static final class StringPool {
+		private final List<String> strings = new ArrayList<>();
+		private final Map<String, Integer> indices = new HashMap<>();
+
+		int get(@Nullable String string) {
+			if (string == null) {
+				return -1;
+			}
+
+			return indices.computeIfAbsent(string, s -> {
+				strings.add(s);
+				return strings.size() - 1;
+			});
+		}
+	}
+}
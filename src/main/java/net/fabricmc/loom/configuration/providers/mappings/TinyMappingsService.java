@@ -44,7 +44,6 @@ import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.loom.util.service.Service;
 import net.fabricmc.loom.util.service.ServiceFactory;
 import net.fabricmc.loom.util.service.ServiceType;
-import net.fabricmc.mappingio.MappingReader;
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
 
 public final class TinyMappingsService extends Service<TinyMappingsService.Options> {
@@ -96,9 +95,7 @@ public final class TinyMappingsService extends Service<TinyMappingsService.Optio
 
 	private MemoryMappingTree readMappings(Path mappings) {
 		try {
-			MemoryMappingTree mappingTree = new MemoryMappingTree();
-			MappingReader.read(mappings, mappingTree);
-			return mappingTree;
+			return MappingTreeSnapshot.read(mappings);
 		} catch (IOException e) {
 			throw new UncheckedIOException("Failed to read mappings", e);
 		}
@@ -26,51 +26,59 @@ package net.fabricmc.loom.configuration.providers.minecraft;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardOpenOption;
-import java.nio.file.attribute.BasicFileAttributeView;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 
 import net.fabricmc.loom.util.Constants;
-import net.fabricmc.loom.util.FileSystemUtil;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
 import net.fabricmc.loom.util.SnowmanClassVisitor;
 import net.fabricmc.loom.util.SyntheticParameterClassVisitor;
+import net.fabricmc.loom.util.ThreadingUtils;
 
+/**
+ * Merges the client and server jars into a single jar.
+ *
+ * <p>Entries are merged in sorted order on the shared executor and written as soon as they are done, only a bounded number of
+ * entries are held in memory at once.
+ */
 public class MinecraftJarMerger implements AutoCloseable {
-	public static class Entry {
-		public final Path path;
-		public final BasicFileAttributes metadata;
-		public final byte[] data;
-
-		public Entry(Path path, BasicFileAttributes metadata, byte[] data) {
-			this.path = path;
-			this.metadata = metadata;
-			this.data = data;
+	/**
+	 * An entry of the merged jar.
+	 *
+	 * @param data The contents of the entry, null when it is copied from the input jar without being read
+	 * @param modified Whether the data differs from the input jar, unmodified entries are copied without being recompressed
+	 */
+	private record Entry(RawZipFile source, RawZipFile.Entry zipEntry, @Nullable byte[] data, boolean modified) {
+		static Entry copy(RawZipFile source, RawZipFile.Entry zipEntry) {
+			return new Entry(source, zipEntry, null, false);
 		}
 	}
 
 	private static final MinecraftClassMerger CLASS_MERGER = new MinecraftClassMerger();
-	private final FileSystemUtil.Delegate inputClientFs, inputServerFs, outputFs;
-	private final Path inputClient, inputServer;
-	private final Map<String, Entry> entriesClient, entriesServer;
+	private static final byte[] MANIFEST = "Manifest-Version: 1.0\nMain-Class: net.minecraft.client.Main\n".getBytes(StandardCharsets.UTF_8);
+	// The maximum number of entries that are being merged or waiting to be written
+	private static final int MAX_PENDING_ENTRIES = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+	private final RawZipFile inputClient, inputServer;
+	private final RawZipWriter output;
+	private final Map<String, RawZipFile.Entry> entriesClient, entriesServer;
 	private final Set<String> entriesAll;
 	private boolean removeSnowmen = false;
 	private boolean offsetSyntheticsParams = false;
@@ -84,9 +92,9 @@ public class MinecraftJarMerger implements AutoCloseable {
 
 		Files.createDirectories(output.toPath().getParent());
 
-		this.inputClient = (inputClientFs = FileSystemUtil.getJarFileSystem(inputClient, false)).get().getPath("/");
-		this.inputServer = (inputServerFs = FileSystemUtil.getJarFileSystem(inputServer, false)).get().getPath("/");
-		this.outputFs = FileSystemUtil.getJarFileSystem(output, true);
+		this.inputClient = RawZipFile.open(inputClient.toPath());
+		this.inputServer = RawZipFile.open(inputServer.toPath());
+		this.output = new RawZipWriter(output.toPath());
 
 		this.entriesClient = new HashMap<>();
 		this.entriesServer = new HashMap<>();
@@ -103,148 +111,164 @@ public class MinecraftJarMerger implements AutoCloseable {
 
 	@Override
 	public void close() throws IOException {
-		inputClientFs.close();
-		inputServerFs.close();
-		outputFs.close();
+		try (inputClient; inputServer) {
+			output.close();
+		}
 	}
 
-	private void readToMap(Map<String, Entry> map, Path input) {
-		try {
-			Files.walkFileTree(input, new SimpleFileVisitor<>() {
-				@Override
-				public FileVisitResult visitFile(Path path, BasicFileAttributes attr) throws IOException {
-					if (attr.isDirectory()) {
-						return FileVisitResult.CONTINUE;
-					}
+	private static void index(Map<String, RawZipFile.Entry> map, RawZipFile input) {
+		for (RawZipFile.Entry zipEntry : input.entries()) {
+			final String name = zipEntry.name();
 
-					if (!path.getFileName().toString().endsWith(".class")) {
-						if (path.toString().equals("/META-INF/MANIFEST.MF")) {
-							map.put("META-INF/MANIFEST.MF", new Entry(path, attr,
-									"Manifest-Version: 1.0\nMain-Class: net.minecraft.client.Main\n".getBytes(StandardCharsets.UTF_8)));
-						} else {
-							if (path.toString().startsWith("/META-INF/")) {
-								if (path.toString().endsWith(".SF") || path.toString().endsWith(".RSA")) {
-									return FileVisitResult.CONTINUE;
-								}
-							}
-
-							map.put(path.toString().substring(1), new Entry(path, attr, null));
-						}
-
-						return FileVisitResult.CONTINUE;
-					}
+			if (zipEntry.isDirectory()) {
+				continue;
+			}
+
+			if (name.startsWith("META-INF/") && (name.endsWith(".SF") || name.endsWith(".RSA"))) {
+				continue;
+			}
 
-					byte[] output = Files.readAllBytes(path);
-					map.put(path.toString().substring(1), new Entry(path, attr, output));
-					return FileVisitResult.CONTINUE;
-				}
-			});
-		} catch (IOException e) {
-			e.printStackTrace();
+			map.put(name, zipEntry);
 		}
 	}
 
-	private void add(Entry entry) throws IOException {
-		Path outPath = outputFs.get().getPath(entry.path.toString());
-
-		if (outPath.getParent() != null) {
-			Files.createDirectories(outPath.getParent());
+	private void add(@Nullable Entry entry) throws IOException {
+		if (entry == null) {
+			return;
 		}
 
-		if (entry.data != null) {
-			Files.write(outPath, entry.data, StandardOpenOption.CREATE_NEW);
+		final String name = entry.zipEntry().name();
+		output.writeParentDirectories(name);
+
+		if (entry.modified()) {
+			output.write(entry.zipEntry(), Objects.requireNonNull(entry.data()));
 		} else {
-			Files.copy(entry.path, outPath);
+			output.copy(entry.source(), entry.zipEntry());
 		}
-
-		Files.getFileAttributeView(outPath, BasicFileAttributeView.class)
-				.setTimes(
-						entry.metadata.creationTime(),
-						entry.metadata.lastAccessTime(),
-						entry.metadata.lastModifiedTime()
-				);
 	}
 
 	public void merge() throws IOException {
-		ExecutorService service = Executors.newFixedThreadPool(2);
-		service.submit(() -> readToMap(entriesClient, inputClient));
-		service.submit(() -> readToMap(entriesServer, inputServer));
-		service.shutdown();
-
-		try {
-			service.awaitTermination(1, TimeUnit.HOURS);
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
+		final Executor executor = ThreadingUtils.executor();
 
+		index(entriesClient, inputClient);
+		index(entriesServer, inputServer);
 		entriesAll.addAll(entriesClient.keySet());
 		entriesAll.addAll(entriesServer.keySet());
 
-		List<Entry> entries = entriesAll.parallelStream().map((entry) -> {
-			boolean isClass = entry.endsWith(".class");
-			boolean isMinecraft = entriesClient.containsKey(entry) || entry.startsWith("net/minecraft") || !entry.contains("/");
-			Entry result;
-			String side = null;
-
-			Entry entry1 = entriesClient.get(entry);
-			Entry entry2 = entriesServer.get(entry);
-
-			if (entry1 != null && entry2 != null) {
-				if (Arrays.equals(entry1.data, entry2.data)) {
-					result = entry1;
-				} else {
-					if (isClass) {
-						result = new Entry(entry1.path, entry1.metadata, CLASS_MERGER.merge(entry1.data, entry2.data));
-					} else {
-						// FIXME: More heuristics?
-						result = entry1;
-					}
-				}
-			} else if ((result = entry1) != null) {
-				side = "CLIENT";
-			} else if ((result = entry2) != null) {
-				side = "SERVER";
+		// Entries are written in order, at most MAX_PENDING_ENTRIES are merged ahead of the writer
+		final Queue<CompletableFuture<Entry>> pending = new ArrayDeque<>(MAX_PENDING_ENTRIES);
+
+		for (String name : entriesAll) {
+			if (pending.size() >= MAX_PENDING_ENTRIES) {
+				add(join(pending.remove()));
 			}
 
-			if (isClass && !isMinecraft && "SERVER".equals(side)) {
-				// Server bundles libraries, client doesn't - skip them
-				return null;
+			if (name.endsWith(".class")) {
+				pending.add(CompletableFuture.supplyAsync(() -> {
+					try {
+						return mergeClass(name);
+					} catch (IOException e) {
+						throw new UncheckedIOException("Failed to merge " + name, e);
+					}
+				}, executor));
+			} else {
+				pending.add(CompletableFuture.completedFuture(mergeResource(name)));
 			}
+		}
 
-			if (result != null) {
-				if (isMinecraft && isClass) {
-					byte[] data = result.data;
-					ClassReader reader = new ClassReader(data);
-					ClassWriter writer = new ClassWriter(0);
-					ClassVisitor visitor = writer;
+		while (!pending.isEmpty()) {
+			add(join(pending.remove()));
+		}
+	}
 
-					if (side != null) {
-						visitor = new MinecraftClassMerger.SidedClassVisitor(Constants.ASM_VERSION, visitor, side);
-					}
+	private static @Nullable Entry join(CompletableFuture<Entry> future) throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException uioe) {
+				throw uioe.getCause();
+			}
 
-					if (removeSnowmen) {
-						visitor = new SnowmanClassVisitor(Constants.ASM_VERSION, visitor);
-					}
+			throw e;
+		}
+	}
 
-					if (offsetSyntheticsParams) {
-						visitor = new SyntheticParameterClassVisitor(Constants.ASM_VERSION, visitor);
-					}
+	private Entry mergeResource(String name) {
+		final RawZipFile.Entry clientEntry = entriesClient.get(name);
+		// FIXME: More heuristics?
+		final Entry entry = clientEntry != null ? Entry.copy(inputClient, clientEntry) : Entry.copy(inputServer, entriesServer.get(name));
 
-					if (visitor != writer) {
-						reader.accept(visitor, 0);
-						data = writer.toByteArray();
-						result = new Entry(result.path, result.metadata, data);
-					}
-				}
+		if (name.equals(Constants.Manifest.PATH)) {
+			return new Entry(entry.source(), entry.zipEntry(), MANIFEST, true);
+		}
 
-				return result;
+		return entry;
+	}
+
+	private @Nullable Entry mergeClass(String name) throws IOException {
+		final RawZipFile.Entry clientEntry = entriesClient.get(name);
+		final RawZipFile.Entry serverEntry = entriesServer.get(name);
+		final boolean isMinecraft = clientEntry != null || name.startsWith("net/minecraft") || !name.contains("/");
+		final String side;
+		final Entry result;
+		byte[] data;
+
+		if (clientEntry != null && serverEntry != null) {
+			final byte[] clientData = inputClient.readAllBytes(clientEntry);
+			final byte[] serverData = inputServer.readAllBytes(serverEntry);
+			side = null;
+
+			if (Arrays.equals(clientData, serverData)) {
+				result = Entry.copy(inputClient, clientEntry);
+				data = clientData;
 			} else {
+				data = CLASS_MERGER.merge(clientData, serverData);
+				result = new Entry(inputClient, clientEntry, data, true);
+			}
+		} else if (clientEntry != null) {
+			side = "CLIENT";
+			result = Entry.copy(inputClient, clientEntry);
+			data = null;
+		} else {
+			if (!isMinecraft) {
+				// Server bundles libraries, client doesn't - skip them
 				return null;
 			}
-		}).filter(Objects::nonNull).toList();
 
-		for (Entry e : entries) {
-			add(e);
+			side = "SERVER";
+			result = Entry.copy(inputServer, serverEntry);
+			data = null;
+		}
+
+		if (!isMinecraft) {
+			return result;
+		}
+
+		if (side == null && !removeSnowmen && !offsetSyntheticsParams) {
+			return result;
 		}
+
+		if (data == null) {
+			data = result.source().readAllBytes(result.zipEntry());
+		}
+
+		ClassReader reader = new ClassReader(data);
+		ClassWriter writer = new ClassWriter(0);
+		ClassVisitor visitor = writer;
+
+		if (side != null) {
+			visitor = new MinecraftClassMerger.SidedClassVisitor(Constants.ASM_VERSION, visitor, side);
+		}
+
+		if (removeSnowmen) {
+			visitor = new SnowmanClassVisitor(Constants.ASM_VERSION, visitor);
+		}
+
+		if (offsetSyntheticsParams) {
+			visitor = new SyntheticParameterClassVisitor(Constants.ASM_VERSION, visitor);
+		}
+
+		reader.accept(visitor, 0);
+		return new Entry(result.source(), result.zipEntry(), writer.toByteArray(), true);
 	}
 }
@@ -24,20 +24,19 @@
 
 package net.fabricmc.loom.configuration.providers.minecraft;
 
-import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
-import org.gradle.api.Project;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.commons.Remapper;
 
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
-import net.fabricmc.loom.configuration.providers.mappings.MappingConfiguration;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.TinyRemapperHelper;
-import net.fabricmc.loom.util.service.ServiceFactory;
+import net.fabricmc.mappingio.tree.MemoryMappingTree;
 import net.fabricmc.tinyremapper.TinyRemapper;
 import net.fabricmc.tinyremapper.api.TrClass;
 
@@ -56,24 +55,24 @@ public record SignatureFixerApplyVisitor(Map<String, String> signatureFixes) imp
 		};
 	}
 
-	public static Map<String, String> getRemappedSignatures(boolean toIntermediary, MappingConfiguration mappingConfiguration, Project project, ServiceFactory serviceFactory, String targetNamespace) throws IOException {
-		if (mappingConfiguration.getSignatureFixes() == null) {
+	public static Map<String, String> getRemappedSignatures(boolean toIntermediary, @Nullable Map<String, String> signatureFixes, MemoryMappingTree mappingTree, Set<String> knownIndyBsms, boolean forgeLike, String targetNamespace) {
+		if (signatureFixes == null) {
 			// No fixes
 			return Collections.emptyMap();
 		}
 
 		if (toIntermediary) {
 			// No need to remap, as these are already intermediary
-			return mappingConfiguration.getSignatureFixes();
+			return signatureFixes;
 		}
 
 		// Remap the sig fixes from intermediary to the target namespace
 		final Map<String, String> remapped = new HashMap<>();
-		final TinyRemapper sigTinyRemapper = TinyRemapperHelper.getTinyRemapper(project, serviceFactory, MappingsNamespace.INTERMEDIARY.toString(), targetNamespace);
+		final TinyRemapper sigTinyRemapper = TinyRemapperHelper.getTinyRemapper(mappingTree, knownIndyBsms, forgeLike, MappingsNamespace.INTERMEDIARY.toString(), targetNamespace, false, (builder) -> { }, Set.of());
 		final Remapper sigAsmRemapper = sigTinyRemapper.getEnvironment().getRemapper();
 
 		// Remap the class names and the signatures using a new tiny remapper instance.
-		for (Map.Entry<String, String> entry : mappingConfiguration.getSignatureFixes().entrySet()) {
+		for (Map.Entry<String, String> entry : signatureFixes.entrySet()) {
 			remapped.put(
 					sigAsmRemapper.map(entry.getKey()),
 					sigAsmRemapper.mapSignature(entry.getValue(), false)
@@ -26,6 +26,7 @@ package net.fabricmc.loom.configuration.providers.minecraft.mapped;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -35,10 +36,14 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.Semaphore;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+import com.google.common.base.Suppliers;
 import dev.architectury.loom.util.MappingOption;
 import org.gradle.api.Project;
+import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
@@ -56,6 +61,7 @@ import net.fabricmc.loom.configuration.providers.minecraft.MinecraftVersionMeta;
 import net.fabricmc.loom.configuration.providers.minecraft.SignatureFixerApplyVisitor;
 import net.fabricmc.loom.extension.LoomFiles;
 import net.fabricmc.loom.util.SidedClassVisitor;
+import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.loom.util.TinyRemapperHelper;
 import net.fabricmc.loom.util.srg.InnerClassRemapper;
 import net.fabricmc.loom.util.srg.RemapObjectHolderVisitor;
@@ -65,14 +71,22 @@ import net.fabricmc.tinyremapper.OutputConsumerPath;
 import net.fabricmc.tinyremapper.TinyRemapper;
 
 public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvider> implements MappedMinecraftProvider.ProviderImpl {
+	// Each remapper holds a whole Minecraft jar and its classpath in memory, and uses a thread per processor
+	private static final Semaphore REMAP_PERMITS = new Semaphore(2);
+
 	protected final M minecraftProvider;
 	private final Project project;
 	protected final LoomGradleExtension extension;
+	private final String intermediateName;
+	private final String version;
 
 	public AbstractMappedMinecraftProvider(Project project, M minecraftProvider) {
 		this.minecraftProvider = minecraftProvider;
 		this.project = project;
 		this.extension = LoomGradleExtension.get(project);
+		// Resolved up front, as the jars may be provided off the configuring thread
+		this.intermediateName = extension.getIntermediateMappingsProvider().getName();
+		this.version = "%s-%s".formatted(extension.getMinecraftProvider().minecraftVersion(), extension.getMappingConfiguration().mappingsIdentifier());
 	}
 
 	public abstract MappingsNamespace getTargetNamespace();
@@ -96,7 +110,7 @@ public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvide
 
 		if (!areOutputsValid(remappedJars) || context.refreshOutputs() || !hasBackupJars(minecraftJars)) {
 			try {
-				remapInputs(remappedJars, context.configContext());
+				remapInputs(remappedJars, context.remapContext());
 				createBackupJars(minecraftJars);
 			} catch (Throwable t) {
 				cleanOutputs(remappedJars);
@@ -106,19 +120,26 @@ public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvide
 		}
 
 		if (context.applyDependencies()) {
-			final List<MinecraftJar.Type> dependencyTargets = getDependencyTypes();
-
-			if (!dependencyTargets.isEmpty()) {
-				MinecraftSourceSets.get(getProject()).applyDependencies(
-						(configuration, type) -> getProject().getDependencies().add(configuration, getDependencyNotation(type)),
-						dependencyTargets
-				);
-			}
+			applyDependencies();
 		}
 
 		return minecraftJars;
 	}
 
+	/**
+	 * Adds the provided jars to the project's dependencies, this must be called from the configuring thread.
+	 */
+	public void applyDependencies() {
+		final List<MinecraftJar.Type> dependencyTargets = getDependencyTypes();
+
+		if (!dependencyTargets.isEmpty()) {
+			MinecraftSourceSets.get(getProject()).applyDependencies(
+					(configuration, type) -> getProject().getDependencies().add(configuration, getDependencyNotation(type)),
+					dependencyTargets
+			);
+		}
+	}
+
 	// Create two copies of the remapped jar, the backup jar is used as the input of genSources
 	public static Path getBackupJarPath(MinecraftJar minecraftJar) {
 		final Path outputJarPath = minecraftJar.getPath();
@@ -141,9 +162,38 @@ public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvide
 		}
 	}
 
-	public record ProvideContext(boolean applyDependencies, boolean refreshOutputs, ConfigContext configContext) {
+	public record ProvideContext(boolean applyDependencies, boolean refreshOutputs, ConfigContext configContext, RemapContext remapContext) {
+		public ProvideContext(boolean applyDependencies, boolean refreshOutputs, ConfigContext configContext) {
+			this(applyDependencies, refreshOutputs, configContext, RemapContext.create(configContext));
+		}
+
 		ProvideContext withApplyDependencies(boolean applyDependencies) {
-			return new ProvideContext(applyDependencies, refreshOutputs(), configContext());
+			return new ProvideContext(applyDependencies, refreshOutputs(), configContext(), remapContext());
+		}
+	}
+
+	/**
+	 * The inputs of the remapper that are read from the project. These are resolved on the configuring thread,
+	 * so that the jars can be remapped concurrently. The mappings are only read once a jar needs to be remapped.
+	 */
+	public record RemapContext(Supplier<MemoryMappingTree> mappings, Set<String> knownIndyBsms, boolean forgeLike, boolean neoForge, boolean forgeLikeAndOfficial, String runtimeIntermediary, @Nullable Map<String, String> signatureFixes, Path tinyMappings) {
+		public static RemapContext create(ConfigContext configContext) {
+			final Project project = configContext.project();
+			final LoomGradleExtension extension = configContext.extension();
+			final MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
+			final MappingOption mappingOption = MappingOption.forPlatform(extension);
+			final TinyMappingsService mappingsService = mappingConfiguration.getMappingsService(project, configContext.serviceFactory(), mappingOption);
+
+			return new RemapContext(
+					Suppliers.memoize(mappingsService::getMappingTree),
+					Set.copyOf(extension.getKnownIndyBsms().get()),
+					extension.isForgeLike(),
+					extension.isNeoForge(),
+					extension.isForgeLikeAndOfficial(),
+					IntermediaryNamespaces.runtimeIntermediary(project),
+					mappingConfiguration.getSignatureFixes(),
+					mappingConfiguration.tinyMappings
+			);
 		}
 	}
 
@@ -176,8 +226,6 @@ public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvide
 	}
 
 	protected String getName(MinecraftJar.Type type) {
-		final String intermediateName = extension.getIntermediateMappingsProvider().getName();
-
 		var sj = new StringJoiner("-");
 		sj.add("minecraft");
 		sj.add(type.toString());
@@ -195,7 +243,7 @@ public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvide
 	}
 
 	protected String getVersion() {
-		return "%s-%s".formatted(extension.getMinecraftProvider().minecraftVersion(), extension.getMappingConfiguration().mappingsIdentifier());
+		return version;
 	}
 
 	protected String getDependencyNotation(MinecraftJar.Type type) {
@@ -217,29 +265,42 @@ public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvide
 		return true;
 	}
 
-	private void remapInputs(List<RemappedJars> remappedJars, ConfigContext configContext) throws IOException {
+	private void remapInputs(List<RemappedJars> remappedJars, RemapContext remapContext) throws IOException {
 		cleanOutputs(remappedJars);
 
-		for (RemappedJars remappedJar : remappedJars) {
-			remapJar(remappedJar, configContext);
+		// The jars are remapped independently, the client only jar uses the unmapped common jar as its classpath
+		ThreadingUtils.run(remappedJars, remappedJar -> remapJar(remappedJar, remapContext));
+	}
+
+	private void remapJar(RemappedJars remappedJars, RemapContext remapContext) throws IOException {
+		try {
+			REMAP_PERMITS.acquire();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException("Interrupted while waiting to remap " + remappedJars.inputJar());
+		}
+
+		try {
+			remapJarWithPermit(remappedJars, remapContext);
+		} finally {
+			REMAP_PERMITS.release();
 		}
 	}
 
-	private void remapJar(RemappedJars remappedJars, ConfigContext configContext) throws IOException {
-		final MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
+	private void remapJarWithPermit(RemappedJars remappedJars, RemapContext remapContext) throws IOException {
+		final MemoryMappingTree mappings = remapContext.mappings().get();
 		final String fromM = remappedJars.sourceNamespace().toString();
 		final String toM = getTargetNamespace().toString();
 
 		Files.deleteIfExists(remappedJars.outputJarPath());
 
-		final Set<String> classNames = extension.isForgeLike() ? InnerClassRemapper.readClassNames(remappedJars.inputJar()) : Set.of();
-		final Map<String, String> remappedSignatures = SignatureFixerApplyVisitor.getRemappedSignatures(getTargetNamespace() == MappingsNamespace.INTERMEDIARY, mappingConfiguration, getProject(), configContext.serviceFactory(), toM);
+		final Set<String> classNames = remapContext.forgeLike() ? InnerClassRemapper.readClassNames(remappedJars.inputJar()) : Set.of();
+		final Map<String, String> remappedSignatures = SignatureFixerApplyVisitor.getRemappedSignatures(getTargetNamespace() == MappingsNamespace.INTERMEDIARY, remapContext.signatureFixes(), mappings, remapContext.knownIndyBsms(), remapContext.forgeLike(), toM);
 		final MinecraftVersionMeta.JavaVersion javaVersion = minecraftProvider.getVersionInfo().javaVersion();
 		final boolean fixRecords = javaVersion != null && javaVersion.majorVersion() >= 16;
 
-		TinyRemapper remapper = TinyRemapperHelper.getTinyRemapper(getProject(), configContext.serviceFactory(), fromM, toM, fixRecords, (builder) -> {
+		TinyRemapper remapper = TinyRemapperHelper.getTinyRemapper(mappings, remapContext.knownIndyBsms(), remapContext.forgeLike(), fromM, toM, fixRecords, (builder) -> {
 			builder.extraPostApplyVisitor(new SignatureFixerApplyVisitor(remappedSignatures));
-			if (extension.isNeoForge()) builder.extension(new MixinExtension(inputTag -> true));
+			if (remapContext.neoForge()) builder.extension(new MixinExtension(inputTag -> true));
 			configureRemapper(remappedJars, builder);
 		}, classNames);
 
@@ -253,27 +314,23 @@ public abstract class AbstractMappedMinecraftProvider<M extends MinecraftProvide
 			remapper.readInputs(remappedJars.inputJar());
 			remapper.apply(outputConsumer);
 		} catch (Exception e) {
-			throw new RuntimeException("Failed to remap JAR " + remappedJars.inputJar() + " with mappings from " + mappingConfiguration.tinyMappings, e);
+			throw new RuntimeException("Failed to remap JAR " + remappedJars.inputJar() + " with mappings from " + remapContext.tinyMappings(), e);
 		} finally {
 			remapper.finish();
 		}
 
 		getMavenHelper(remappedJars.type()).savePom();
 
-		if (extension.isForgeLikeAndOfficial()) {
-			final MappingOption mappingOption = MappingOption.forPlatform(extension);
-			final TinyMappingsService mappingsService = extension.getMappingConfiguration().getMappingsService(project, configContext.serviceFactory(), mappingOption);
+		if (remapContext.forgeLikeAndOfficial()) {
 			final String className;
 
-			if (extension.isNeoForge()) {
+			if (remapContext.neoForge()) {
 				className = "net.neoforged.neoforge.registries.ObjectHolderRegistry";
 			} else {
 				className = "net.minecraftforge.registries.ObjectHolderRegistry";
 			}
 
-			final String sourceNamespace = IntermediaryNamespaces.runtimeIntermediary(project);
-			final MemoryMappingTree mappings = mappingsService.getMappingTree();
-			RemapObjectHolderVisitor.remapObjectHolder(remappedJars.outputJar().getPath(), className, mappings, sourceNamespace, "named");
+			RemapObjectHolderVisitor.remapObjectHolder(remappedJars.outputJar().getPath(), className, mappings, remapContext.runtimeIntermediary(), "named");
 		}
 	}
 
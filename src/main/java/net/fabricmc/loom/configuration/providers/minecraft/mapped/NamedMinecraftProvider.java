@@ -33,10 +33,10 @@ import net.fabricmc.loom.configuration.providers.minecraft.LegacyMergedMinecraft
 import net.fabricmc.loom.configuration.providers.minecraft.MergedMinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftJar;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftProvider;
-import net.fabricmc.loom.configuration.providers.minecraft.MinecraftSourceSets;
 import net.fabricmc.loom.configuration.providers.minecraft.SingleJarEnvType;
 import net.fabricmc.loom.configuration.providers.minecraft.SingleJarMinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.SplitMinecraftProvider;
+import net.fabricmc.loom.util.ThreadingUtils;
 import net.fabricmc.tinyremapper.TinyRemapper;
 
 public abstract class NamedMinecraftProvider<M extends MinecraftProvider> extends AbstractMappedMinecraftProvider<M> {
@@ -87,8 +87,7 @@ public abstract class NamedMinecraftProvider<M extends MinecraftProvider> extend
 			final ProvideContext childContext = context.withApplyDependencies(false);
 
 			// Map the client and server jars separately
-			server.provide(childContext);
-			client.provide(childContext);
+			ThreadingUtils.run(() -> server.provide(childContext), () -> client.provide(childContext));
 
 			// then merge them
 			MergedMinecraftProvider.mergeJars(
@@ -100,10 +99,7 @@ public abstract class NamedMinecraftProvider<M extends MinecraftProvider> extend
 			getMavenHelper(MinecraftJar.Type.MERGED).savePom();
 
 			if (context.applyDependencies()) {
-				MinecraftSourceSets.get(getProject()).applyDependencies(
-						(configuration, type) -> getProject().getDependencies().add(configuration, getDependencyNotation(type)),
-						getDependencyTypes()
-				);
+				applyDependencies();
 			}
 
 			return List.of(getMergedJar());
@@ -25,13 +25,19 @@
 package net.fabricmc.loom.configuration.providers.minecraft.mapped;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
 
 import net.fabricmc.loom.configuration.ConfigContext;
 import net.fabricmc.loom.configuration.mods.dependency.LocalMavenHelper;
@@ -41,7 +47,6 @@ import net.fabricmc.loom.configuration.providers.minecraft.LegacyMergedMinecraft
 import net.fabricmc.loom.configuration.providers.minecraft.MergedMinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftJar;
 import net.fabricmc.loom.configuration.providers.minecraft.MinecraftProvider;
-import net.fabricmc.loom.configuration.providers.minecraft.MinecraftSourceSets;
 import net.fabricmc.loom.configuration.providers.minecraft.SingleJarEnvType;
 import net.fabricmc.loom.configuration.providers.minecraft.SingleJarMinecraftProvider;
 import net.fabricmc.loom.configuration.providers.minecraft.SplitMinecraftProvider;
@@ -58,13 +63,19 @@ public abstract class ProcessedNamedMinecraftProvider<M extends MinecraftProvide
 
 	@Override
 	public List<MinecraftJar> provide(ProvideContext context) throws Exception {
+		parentMinecraftProvider.provide(context.withApplyDependencies(false));
+		return provideProcessedJars(context);
+	}
+
+	/**
+	 * Processes the jars of the parent provider, which must have been provided already.
+	 */
+	public List<MinecraftJar> provideProcessedJars(ProvideContext context) throws Exception {
 		final List<MinecraftJar> parentMinecraftJars = parentMinecraftProvider.getMinecraftJars();
 		final Map<MinecraftJar, MinecraftJar> minecraftJarOutputMap = parentMinecraftJars.stream()
 				.collect(Collectors.toMap(Function.identity(), this::getProcessedJar));
 		final List<MinecraftJar> minecraftJars = List.copyOf(minecraftJarOutputMap.values());
 
-		parentMinecraftProvider.provide(context.withApplyDependencies(false));
-
 		boolean requiresProcessing = context.refreshOutputs() || !hasBackupJars(minecraftJars) || parentMinecraftJars.stream()
 				.map(this::getProcessedPath)
 				.anyMatch(jarProcessorManager::requiresProcessingJar);
@@ -93,30 +104,59 @@ public abstract class ProcessedNamedMinecraftProvider<M extends MinecraftProvide
 			deleteSimilarJars(outputJar.getPath());
 
 			final LocalMavenHelper mavenHelper = getMavenHelper(minecraftJar.getType());
-			final Path outputPath = mavenHelper.copyToMaven(minecraftJar.getPath(), null);
+			final Path outputPath = mavenHelper.getOutputFile(null);
+			final ProcessorContextImpl processorContext = new ProcessorContextImpl(configContext, minecraftJar);
 
 			assert outputJar.getPath().equals(outputPath);
 
-			jarProcessorManager.processJar(outputPath, new ProcessorContextImpl(configContext, minecraftJar));
+			Files.createDirectories(outputPath.getParent());
+			mavenHelper.savePom();
+
+			if (jarProcessorManager.processJarIncrementally(minecraftJar.getPath(), outputPath, findPreviousJar(minecraftJar.getType(), outputPath), processorContext)) {
+				continue;
+			}
+
+			mavenHelper.copyToMaven(minecraftJar.getPath(), null);
+			jarProcessorManager.processJar(outputPath, processorContext);
 		}
 	}
 
-	@Override
-	public List<MinecraftJar.Type> getDependencyTypes() {
-		return parentMinecraftProvider.getDependencyTypes();
-	}
+	/**
+	 * Finds the most recently processed jar of the same type that was processed with different jar processor specs.
+	 */
+	@Nullable
+	private Path findPreviousJar(MinecraftJar.Type type, Path outputPath) throws IOException {
+		final String name = getName(type);
+		final String prefix = name.substring(0, name.lastIndexOf('-') + 1);
+		final String version = outputPath.getParent().getFileName().toString();
+		final Path root = outputPath.getParent().getParent().getParent();
+
+		if (Files.notExists(root)) {
+			return null;
+		}
 
-	private void applyDependencies() {
-		final List<MinecraftJar.Type> dependencyTargets = getDependencyTypes();
+		try (Stream<Path> stream = Files.list(root)) {
+			return stream.filter(Files::isDirectory)
+					.map(path -> path.getFileName().toString())
+					.filter(dirName -> dirName.startsWith(prefix) && !dirName.equals(name))
+					.map(dirName -> root.resolve(dirName).resolve(version).resolve("%s-%s.jar".formatted(dirName, version)))
+					.filter(jar -> Files.exists(jar) && Files.exists(jar.resolveSibling(jar.getFileName() + ".classes")))
+					.max(Comparator.comparing(ProcessedNamedMinecraftProvider::getLastModifiedTime))
+					.orElse(null);
+		}
+	}
 
-		if (dependencyTargets.isEmpty()) {
-			return;
+	private static FileTime getLastModifiedTime(Path path) {
+		try {
+			return Files.getLastModifiedTime(path);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
+	}
 
-		MinecraftSourceSets.get(getProject()).applyDependencies(
-				(configuration, name) -> getProject().getDependencies().add(configuration, getDependencyNotation(name)),
-				dependencyTargets
-		);
+	@Override
+	public List<MinecraftJar.Type> getDependencyTypes() {
+		return parentMinecraftProvider.getDependencyTypes();
 	}
 
 	private void deleteSimilarJars(Path jar) throws IOException {
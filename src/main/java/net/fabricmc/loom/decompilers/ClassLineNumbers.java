@@ -30,12 +30,15 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -62,56 +65,19 @@ public record ClassLineNumbers(Map<String, ClassLineNumbers.Entry> lineMap) {
 	}
 
 	public static ClassLineNumbers readMappings(BufferedReader reader) {
-		var lineMap = new HashMap<String, ClassLineNumbers.Entry>();
-
-		String line = null;
-		int lineNumber = 0;
-
-		record CurrentClass(String className, int maxLine, int maxLineDest) {
-			void putEntry(Map<String, ClassLineNumbers.Entry> entries, Map<Integer, Integer> mappings) {
-				var entry = new ClassLineNumbers.Entry(className(), maxLine(), maxLineDest(), Collections.unmodifiableMap(mappings));
-
-				final ClassLineNumbers.Entry previous = entries.put(className(), entry);
-
-				if (previous != null) {
-					throw new IllegalStateException("Duplicate class line mappings for " + className());
-				}
-			}
-		}
-
-		CurrentClass currentClass = null;
-		Map<Integer, Integer> currentMappings = new HashMap<>();
+		final Parser parser = new Parser();
 
 		try {
-			while ((line = reader.readLine()) != null) {
-				if (line.isEmpty()) {
-					continue;
-				}
-
-				final String[] segments = line.trim().split("\t");
-
-				if (line.charAt(0) != '\t') {
-					if (currentClass != null) {
-						currentClass.putEntry(lineMap, currentMappings);
-						currentMappings = new HashMap<>();
-					}
-
-					currentClass = new CurrentClass(segments[0], Integer.parseInt(segments[1]), Integer.parseInt(segments[2]));
-				} else {
-					Objects.requireNonNull(currentClass, "No class line mappings found for line " + lineNumber);
-					currentMappings.put(Integer.parseInt(segments[0]), Integer.parseInt(segments[1]));
-				}
+			String line;
 
-				lineNumber++;
+			while ((line = reader.readLine()) != null) {
+				parser.accept(line, 0, line.length());
 			}
-		} catch (Exception e) {
-			throw new RuntimeException(format("Exception reading mapping line @{0}: {1}", lineNumber, line), e);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Exception reading LineMappings.", e);
 		}
 
-		assert currentClass != null;
-		currentClass.putEntry(lineMap, currentMappings);
-
-		return new ClassLineNumbers(Collections.unmodifiableMap(lineMap));
+		return new ClassLineNumbers(Collections.unmodifiableMap(parser.finish()));
 	}
 
 	public void write(Writer writer) throws IOException {
@@ -142,7 +108,118 @@ public record ClassLineNumbers(Map<String, ClassLineNumbers.Entry> lineMap) {
 		return new ClassLineNumbers(Collections.unmodifiableMap(lineMap));
 	}
 
-	public record Entry(String className, int maxLine, int maxLineDest, Map<Integer, Integer> lineMap) {
+	/**
+	 * The line mappings of a single class, stored as source lines sorted in ascending order with their matching destination lines.
+	 */
+	public static final class Entry {
+		private final String className;
+		private final int maxLine;
+		private final int maxLineDest;
+		private final int[] srcLines;
+		private final int[] dstLines;
+
+		public Entry(String className, int maxLine, int maxLineDest, Map<Integer, Integer> lineMap) {
+			this.className = Objects.requireNonNull(className, "className");
+			this.maxLine = maxLine;
+			this.maxLineDest = maxLineDest;
+			this.srcLines = new int[lineMap.size()];
+			this.dstLines = new int[lineMap.size()];
+
+			int i = 0;
+
+			for (Map.Entry<Integer, Integer> entry : new TreeMap<>(lineMap).entrySet()) {
+				srcLines[i] = entry.getKey();
+				dstLines[i++] = entry.getValue();
+			}
+		}
+
+		private Entry(String className, int maxLine, int maxLineDest, int[] srcLines, int[] dstLines) {
+			this.className = className;
+			this.maxLine = maxLine;
+			this.maxLineDest = maxLineDest;
+			this.srcLines = srcLines;
+			this.dstLines = dstLines;
+		}
+
+		/**
+		 * Reads a single entry from its serialized form, as written by {@link #toByteArray()}.
+		 */
+		public static Entry read(byte[] bytes) {
+			final String text = new String(bytes, StandardCharsets.UTF_8);
+			final Parser parser = new Parser();
+			int start = 0;
+
+			while (start < text.length()) {
+				int end = text.indexOf('\n', start);
+
+				if (end < 0) {
+					end = text.length();
+				}
+
+				parser.accept(text, start, end);
+				start = end + 1;
+			}
+
+			final Map<String, Entry> entries = parser.finish();
+
+			if (entries.size() != 1) {
+				throw new IllegalArgumentException("Expected exactly one class line numbers entry got " + entries.size() + " entries");
+			}
+
+			return entries.values().iterator().next();
+		}
+
+		public String className() {
+			return className;
+		}
+
+		public int maxLine() {
+			return maxLine;
+		}
+
+		public int maxLineDest() {
+			return maxLineDest;
+		}
+
+		/**
+		 * @return the number of mapped lines
+		 */
+		public int size() {
+			return srcLines.length;
+		}
+
+		/**
+		 * @return a copy of the line mappings, sorted by source line
+		 */
+		public Map<Integer, Integer> lineMap() {
+			final Map<Integer, Integer> lineMap = new TreeMap<>();
+
+			for (int i = 0; i < srcLines.length; i++) {
+				lineMap.put(srcLines[i], dstLines[i]);
+			}
+
+			return Collections.unmodifiableMap(lineMap);
+		}
+
+		/**
+		 * Maps a source line to the destination line of the next mapped line, or {@code maxLineDest} past the last mapped line.
+		 */
+		public int remap(int line) {
+			if (line <= 0) {
+				return line;
+			} else if (line >= maxLine) {
+				return maxLineDest;
+			}
+
+			int index = Arrays.binarySearch(srcLines, line);
+
+			if (index < 0) {
+				index = -index - 1;
+			}
+
+			return index < srcLines.length && srcLines[index] <= maxLine ? dstLines[index] : maxLineDest;
+		}
+
 		public void write(Writer writer) throws IOException {
 			writer.write(className);
 			writer.write('\t');
@@ -151,13 +228,161 @@ public record ClassLineNumbers(Map<String, ClassLineNumbers.Entry> lineMap) {
 			writer.write(Integer.toString(maxLineDest));
 			writer.write('\n');
 
-			for (Map.Entry<Integer, Integer> lineEntry : lineMap.entrySet()) {
+			for (int i = 0; i < srcLines.length; i++) {
 				writer.write('\t');
-				writer.write(Integer.toString(lineEntry.getKey()));
+				writer.write(Integer.toString(srcLines[i]));
 				writer.write('\t');
-				writer.write(Integer.toString(lineEntry.getValue()));
+				writer.write(Integer.toString(dstLines[i]));
 				writer.write('\n');
 			}
 		}
+
+		/**
+		 * Serializes the entry in the same text form as {@link #write(Writer)}.
+		 */
+		public byte[] toByteArray() {
+			final StringBuilder builder = new StringBuilder(className.length() + 16 + srcLines.length * 10);
+			builder.append(className).append('\t').append(maxLine).append('\t').append(maxLineDest).append('\n');
+
+			for (int i = 0; i < srcLines.length; i++) {
+				builder.append('\t').append(srcLines[i]).append('\t').append(dstLines[i]).append('\n');
+			}
+
+			return builder.toString().getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Entry other
+					&& className.equals(other.className)
+					&& maxLine == other.maxLine
+					&& maxLineDest == other.maxLineDest
+					&& Arrays.equals(srcLines, other.srcLines)
+					&& Arrays.equals(dstLines, other.dstLines);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(className, maxLine, maxLineDest, Arrays.hashCode(srcLines), Arrays.hashCode(dstLines));
+		}
+
+		@Override
+		public String toString() {
+			return "Entry[className=" + className + ", maxLine=" + maxLine + ", maxLineDest=" + maxLineDest + ", lineMap=" + lineMap() + "]";
+		}
+	}
+
+	/**
+	 * Parses the line mappings one line at a time, without splitting the lines.
+	 */
+	private static final class Parser {
+		private final Map<String, Entry> entries = new HashMap<>();
+		private int lineNumber = 0;
+		private String className;
+		private int maxLine;
+		private int maxLineDest;
+		private int[] srcLines = new int[64];
+		private int[] dstLines = new int[64];
+		private int count;
+
+		private void accept(String line, int start, int end) {
+			// Trailing whitespace is ignored, leading tabs mark a line mapping
+			while (end > start && Character.isWhitespace(line.charAt(end - 1))) {
+				end--;
+			}
+
+			if (end == start) {
+				return;
+			}
+
+			try {
+				if (line.charAt(start) != '\t') {
+					finishClass();
+
+					final int nameEnd = line.indexOf('\t', start);
+					final int maxLineEnd = line.indexOf('\t', nameEnd + 1);
+					className = line.substring(start, nameEnd);
+					maxLine = Integer.parseInt(line, nameEnd + 1, maxLineEnd, 10);
+					maxLineDest = Integer.parseInt(line, maxLineEnd + 1, field(line, maxLineEnd + 1, end), 10);
+				} else {
+					Objects.requireNonNull(className, "No class line mappings found for line " + lineNumber);
+
+					int srcStart = start;
+
+					while (line.charAt(srcStart) == '\t') {
+						srcStart++;
+					}
+
+					final int srcEnd = line.indexOf('\t', srcStart);
+					final int src = Integer.parseInt(line, srcStart, srcEnd, 10);
+					final int dst = Integer.parseInt(line, srcEnd + 1, field(line, srcEnd + 1, end), 10);
+
+					if (count == srcLines.length) {
+						srcLines = Arrays.copyOf(srcLines, count * 2);
+						dstLines = Arrays.copyOf(dstLines, count * 2);
+					}
+
+					srcLines[count] = src;
+					dstLines[count++] = dst;
+				}
+			} catch (Exception e) {
+				throw new RuntimeException(format("Exception reading mapping line @{0}: {1}", lineNumber, line.substring(start, end)), e);
+			}
+
+			lineNumber++;
+		}
+
+		private static int field(String line, int start, int end) {
+			final int tab = line.indexOf('\t', start);
+			return tab < 0 || tab > end ? end : tab;
+		}
+
+		private void finishClass() {
+			if (className == null) {
+				return;
+			}
+
+			// Sort by source line, keeping the read order so that later mappings of the same line replace earlier ones
+			final long[] order = new long[count];
+
+			for (int i = 0; i < count; i++) {
+				order[i] = ((long) srcLines[i] << 32) | i;
+			}
+
+			Arrays.sort(order);
+
+			final int[] src = new int[count];
+			final int[] dst = new int[count];
+			int size = 0;
+
+			for (long key : order) {
+				final int index = (int) key;
+
+				if (size > 0 && src[size - 1] == srcLines[index]) {
+					size--;
+				}
+
+				src[size] = srcLines[index];
+				dst[size++] = dstLines[index];
+			}
+
+			final Entry entry = new Entry(className, maxLine, maxLineDest, Arrays.copyOf(src, size), Arrays.copyOf(dst, size));
+
+			if (entries.put(className, entry) != null) {
+				throw new IllegalStateException("Duplicate class line mappings for " + className);
+			}
+
+			count = 0;
+		}
+
+		private Map<String, Entry> finish() {
+			finishClass();
+
+			if (entries.isEmpty()) {
+				throw new IllegalStateException("No class line mappings found");
+			}
+
+			return entries;
+		}
 	}
 }
@@ -25,13 +25,15 @@
 package net.fabricmc.loom.decompilers;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
@@ -40,57 +42,154 @@ import org.objectweb.asm.MethodVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.fabricmc.loom.util.AsyncZipProcessor;
 import net.fabricmc.loom.util.Constants;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
+import net.fabricmc.loom.util.ThreadingUtils;
 
 public record LineNumberRemapper(ClassLineNumbers lineNumbers) {
 	private static final Logger LOGGER = LoggerFactory.getLogger(LineNumberRemapper.class);
+	// The maximum number of entries that are being remapped or waiting to be written
+	private static final int MAX_PENDING_ENTRIES = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
 
+	/**
+	 * Remaps the line numbers of the classes in the input jar, all other entries are copied to the output jar without being recompressed.
+	 * Classes whose line numbers are all left unchanged by their line map are copied as-is too.
+	 */
 	public void process(Path input, Path output) throws IOException {
-		AsyncZipProcessor.processEntries(input, output, new AsyncZipProcessor() {
-			private final Set<Path> createdParents = new HashSet<>();
+		final Executor executor = ThreadingUtils.executor();
 
-			@Override
-			public void processEntryAsync(Path file, Path dst) throws IOException {
-				Path parent = dst.getParent();
+		try (RawZipFile inputZip = RawZipFile.open(input);
+				RawZipWriter writer = new RawZipWriter(output)) {
+			// Entries are written in order, at most MAX_PENDING_ENTRIES are remapped ahead of the writer
+			final Queue<PendingEntry> pending = new ArrayDeque<>(MAX_PENDING_ENTRIES);
 
-				synchronized (createdParents) {
-					if (parent != null && createdParents.add(parent)) {
-						Files.createDirectories(parent);
-					}
+			for (RawZipFile.Entry entry : inputZip.entries()) {
+				if (pending.size() >= MAX_PENDING_ENTRIES) {
+					write(inputZip, writer, pending.remove());
 				}
 
-				String fileName = file.toAbsolutePath().toString();
-
-				if (fileName.endsWith(".class")) {
-					// Strip the leading slash and the .class extension
-					String idx = fileName.substring(1, fileName.length() - 6);
+				final ClassLineNumbers.Entry lineNumberEntry = getLineNumbers(entry.name());
 
-					int dollarPos = idx.indexOf('$'); //This makes the assumption that only Java classes are to be remapped.
+				if (lineNumberEntry == null) {
+					pending.add(new PendingEntry(entry, CompletableFuture.completedFuture(null)));
+					continue;
+				}
 
-					if (dollarPos >= 0) {
-						idx = idx.substring(0, dollarPos);
+				pending.add(new PendingEntry(entry, CompletableFuture.supplyAsync(() -> {
+					try {
+						return remap(inputZip.readAllBytes(entry), lineNumberEntry);
+					} catch (IOException e) {
+						throw new UncheckedIOException("Failed to remap line numbers of " + entry.name(), e);
 					}
+				}, executor)));
+			}
+
+			while (!pending.isEmpty()) {
+				write(inputZip, writer, pending.remove());
+			}
+		}
+	}
 
-					if (lineNumbers.lineMap().containsKey(idx)) {
-						LOGGER.debug("Remapping line numbers for class: {}", idx);
+	private static void write(RawZipFile inputZip, RawZipWriter writer, PendingEntry pending) throws IOException {
+		final byte[] bytes;
 
-						try (InputStream is = Files.newInputStream(file)) {
-							ClassReader reader = new ClassReader(is);
-							ClassWriter writer = new ClassWriter(0);
+		try {
+			bytes = pending.remapped().join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException uioe) {
+				throw uioe.getCause();
+			}
 
-							reader.accept(new LineNumberVisitor(Constants.ASM_VERSION, writer, lineNumbers.lineMap().get(idx)), 0);
-							Files.write(dst, writer.toByteArray());
-							return;
-						}
-					} else {
-						LOGGER.debug("No linemap found for: {}", idx);
-					}
-				}
+			throw e;
+		}
+
+		if (bytes == null) {
+			writer.copy(inputZip, pending.entry());
+		} else {
+			writer.write(pending.entry(), bytes);
+		}
+	}
+
+	/**
+	 * @param remapped completes with the remapped class, or null when the entry is copied as-is
+	 */
+	private record PendingEntry(RawZipFile.Entry entry, CompletableFuture<byte[]> remapped) {
+	}
+
+	@Nullable
+	private ClassLineNumbers.Entry getLineNumbers(String name) {
+		if (!name.endsWith(".class")) {
+			return null;
+		}
+
+		// Strip the .class extension
+		String idx = name.substring(0, name.length() - 6);
+
+		int dollarPos = idx.indexOf('$'); //This makes the assumption that only Java classes are to be remapped.
+
+		if (dollarPos >= 0) {
+			idx = idx.substring(0, dollarPos);
+		}
+
+		final ClassLineNumbers.Entry entry = lineNumbers.lineMap().get(idx);
+
+		if (entry != null) {
+			LOGGER.debug("Remapping line numbers for class: {}", idx);
+		} else {
+			LOGGER.debug("No linemap found for: {}", idx);
+		}
+
+		return entry;
+	}
+
+	/**
+	 * @return the remapped class, or null when the line map does not change any of the line numbers in the class
+	 */
+	@Nullable
+	private static byte[] remap(byte[] classBytes, ClassLineNumbers.Entry lineNumbers) {
+		ClassReader reader = new ClassReader(classBytes);
+
+		if (!changesLineNumbers(reader, lineNumbers)) {
+			return null;
+		}
+
+		ClassWriter writer = new ClassWriter(0);
+
+		reader.accept(new LineNumberVisitor(Constants.ASM_VERSION, writer, lineNumbers), 0);
+		return writer.toByteArray();
+	}
+
+	private static boolean changesLineNumbers(ClassReader reader, ClassLineNumbers.Entry lineNumbers) {
+		var scanner = new LineNumberScanner(Constants.ASM_VERSION, lineNumbers);
+		reader.accept(scanner, ClassReader.SKIP_FRAMES);
+		return scanner.changed;
+	}
+
+	private static class LineNumberScanner extends ClassVisitor {
+		private final ClassLineNumbers.Entry lineNumbers;
+		private boolean changed;
+
+		LineNumberScanner(int api, ClassLineNumbers.Entry lineNumbers) {
+			super(api);
+			this.lineNumbers = lineNumbers;
+		}
 
-				Files.copy(file, dst, StandardCopyOption.REPLACE_EXISTING);
+		@Override
+		public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+			if (changed) {
+				return null;
 			}
-		});
+
+			return new MethodVisitor(api) {
+				@Override
+				public void visitLineNumber(int line, Label start) {
+					if (lineNumbers.remap(line) != line) {
+						changed = true;
+					}
+				}
+			};
+		}
 	}
 
 	private static class LineNumberVisitor extends ClassVisitor {
@@ -106,21 +205,7 @@ public record LineNumberRemapper(ClassLineNumbers lineNumbers) {
 			return new MethodVisitor(api, super.visitMethod(access, name, descriptor, signature, exceptions)) {
 				@Override
 				public void visitLineNumber(int line, Label start) {
-					int tLine = line;
-
-					if (tLine <= 0) {
-						super.visitLineNumber(line, start);
-					} else if (tLine >= lineNumbers.maxLine()) {
-						super.visitLineNumber(lineNumbers.maxLineDest(), start);
-					} else {
-						Integer matchedLine = null;
-
-						while (tLine <= lineNumbers.maxLine() && ((matchedLine = lineNumbers.lineMap().get(tLine)) == null)) {
-							tLine++;
-						}
-
-						super.visitLineNumber(matchedLine != null ? matchedLine : lineNumbers.maxLineDest(), start);
-					}
+					super.visitLineNumber(lineNumbers.remap(line), start);
 				}
 			};
 		}
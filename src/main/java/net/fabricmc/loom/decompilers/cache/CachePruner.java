@@ -0,0 +1,101 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.decompilers.cache;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Selects the entries to evict from a cache, given the last access time and size of each entry.
+ *
+ * <p>Entries are sorted once by their last access time, and then removed oldest first until the cache is within the max age, file count and size limits.
+ *
+ * @param cacheRules The rules to prune the cache to
+ */
+public record CachePruner(CachedFileStoreImpl.CacheRules cacheRules) {
+	/**
+	 * @param entries All entries in the cache
+	 * @param lastAccess The last access time of an entry in milliseconds since the epoch
+	 * @param size The size of an entry in bytes
+	 * @return The entries that should be evicted, oldest first
+	 */
+	public <E> Result<E> prune(Collection<E> entries, ToLongFunction<E> lastAccess, ToLongFunction<E> size) {
+		// Sorted oldest -> newest
+		final List<E> sorted = new ArrayList<>(entries);
+		sorted.sort(Comparator.comparingLong(lastAccess));
+
+		long totalBytes = 0;
+
+		for (E entry : sorted) {
+			totalBytes += size.applyAsLong(entry);
+		}
+
+		final long maxAge = Instant.now().minus(cacheRules.maxAge()).toEpochMilli();
+		long remainingFiles = sorted.size();
+		long remainingBytes = totalBytes;
+		int evicted = 0;
+
+		while (evicted < sorted.size()) {
+			final E entry = sorted.get(evicted);
+
+			if (remainingFiles <= cacheRules.maxFiles() && remainingBytes <= cacheRules.maxBytes() && lastAccess.applyAsLong(entry) >= maxAge) {
+				// As this is a sorted list all remaining entries are newer, and the cache is within its limits
+				break;
+			}
+
+			remainingFiles--;
+			remainingBytes -= size.applyAsLong(entry);
+			evicted++;
+		}
+
+		return new Result<>(List.copyOf(sorted.subList(0, evicted)), totalBytes - remainingBytes);
+	}
+
+	/**
+	 * @param evicted The entries to evict, oldest first
+	 * @param evictedBytes The total size of the evicted entries
+	 */
+	public record Result<E>(List<E> evicted, long evictedBytes) {
+		public int evictedCount() {
+			return evicted.size();
+		}
+
+		public PruneStats stats() {
+			return new PruneStats(evictedCount(), evictedBytes);
+		}
+	}
+
+	/**
+	 * @param evictedCount The number of entries removed from the cache
+	 * @param evictedBytes The total size of the entries removed from the cache
+	 */
+	public record PruneStats(int evictedCount, long evictedBytes) {
+		public static final PruneStats NONE = new PruneStats(0, 0);
+	}
+}
@@ -25,12 +25,9 @@
 package net.fabricmc.loom.decompilers.cache;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
@@ -49,7 +46,9 @@ import net.fabricmc.loom.decompilers.ClassLineNumbers;
 // Uses the RIFF format, allows for appending the line numbers to the end of the file
 // Stores the source code and line numbers for the class
 public record CachedData(String className, String sources, @Nullable ClassLineNumbers.Entry lineNumbers) {
-	public static final CachedFileStore.EntrySerializer<CachedData> SERIALIZER = new EntrySerializer();
+	private static final EntrySerializer ENTRY_SERIALIZER = new EntrySerializer();
+	public static final CachedFileStore.EntrySerializer<CachedData> SERIALIZER = ENTRY_SERIALIZER;
+	public static final CachedFileStore.BinaryEntrySerializer<CachedData> BINARY_SERIALIZER = ENTRY_SERIALIZER;
 
 	private static final String HEADER_ID = "LOOM";
 	private static final String NAME_ID = "NAME";
@@ -82,6 +81,40 @@ public record CachedData(String className, String sources, @Nullable ClassLineNu
 		}
 	}
 
+	/**
+	 * Serialise to a byte array, using the same RIFF layout as {@link #write(FileChannel)}.
+	 */
+	public byte[] toByteArray() throws IOException {
+		final byte[] nameBytes = className.getBytes(StandardCharsets.UTF_8);
+		final byte[] sourcesBytes = sources.getBytes(StandardCharsets.UTF_8);
+		final byte[] lineNumbersBytes = lineNumbers != null ? lineNumbers.toByteArray() : null;
+
+		int length = chunkLength(nameBytes) + chunkLength(sourcesBytes);
+
+		if (lineNumbersBytes != null) {
+			length += chunkLength(lineNumbersBytes);
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate(8 + length);
+		buffer.put(HEADER_ID.getBytes(StandardCharsets.US_ASCII)).putInt(length);
+		putChunk(buffer, NAME_ID, nameBytes);
+		putChunk(buffer, SOURCES_ID, sourcesBytes);
+
+		if (lineNumbersBytes != null) {
+			putChunk(buffer, LINE_NUMBERS_ID, lineNumbersBytes);
+		}
+
+		return buffer.array();
+	}
+
+	private static int chunkLength(byte[] data) {
+		return 8 + data.length;
+	}
+
+	private static void putChunk(ByteBuffer buffer, String id, byte[] data) {
+		buffer.put(id.getBytes(StandardCharsets.US_ASCII)).putInt(data.length).put(data);
+	}
+
 	private void writeClassname(FileChannel fileChannel) throws IOException {
 		try (var c = new RiffChunk(NAME_ID, fileChannel)) {
 			fileChannel.write(ByteBuffer.wrap(className.getBytes(StandardCharsets.UTF_8)));
@@ -97,13 +130,17 @@ public record CachedData(String className, String sources, @Nullable ClassLineNu
 	private void writeLineNumbers(FileChannel fileChannel) throws IOException {
 		Objects.requireNonNull(lineNumbers);
 
-		try (var c = new RiffChunk(LINE_NUMBERS_ID, fileChannel);
-				StringWriter stringWriter = new StringWriter()) {
-			lineNumbers.write(stringWriter);
-			fileChannel.write(ByteBuffer.wrap(stringWriter.toString().getBytes(StandardCharsets.UTF_8)));
+		try (var c = new RiffChunk(LINE_NUMBERS_ID, fileChannel)) {
+			fileChannel.write(ByteBuffer.wrap(lineNumbers.toByteArray()));
 		}
 	}
 
+	public static CachedData read(ByteBuffer buffer) throws IOException {
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return read(new ByteArrayInputStream(bytes));
+	}
+
 	public static CachedData read(InputStream inputStream) throws IOException {
 		// Read and validate the RIFF header
 		final String header = readHeader(inputStream);
@@ -144,14 +181,10 @@ public record CachedData(String className, String sources, @Nullable ClassLineNu
 					throw new IOException("Duplicate line numbers chunk");
 				}
 
-				try (var br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(chunkData), StandardCharsets.UTF_8))) {
-					ClassLineNumbers classLineNumbers = ClassLineNumbers.readMappings(br);
-
-					if (classLineNumbers.lineMap().size() != 1) {
-						throw new IOException("Expected exactly one class line numbers entry got " + classLineNumbers.lineMap().size() + " entries");
-					}
-
-					lineNumbers = classLineNumbers.lineMap().values().iterator().next();
+				try {
+					lineNumbers = ClassLineNumbers.Entry.read(chunkData);
+				} catch (RuntimeException e) {
+					throw new IOException("Failed to read line numbers", e);
 				}
 			}
 			default -> {
@@ -191,7 +224,7 @@ public record CachedData(String className, String sources, @Nullable ClassLineNu
 		return bytes;
 	}
 
-	static class EntrySerializer implements CachedFileStore.EntrySerializer<CachedData> {
+	static class EntrySerializer implements CachedFileStore.EntrySerializer<CachedData>, CachedFileStore.BinaryEntrySerializer<CachedData> {
 		@Override
 		public CachedData read(Path path) throws IOException {
 			try (var inputStream = new BufferedInputStream(Files.newInputStream(path))) {
@@ -205,5 +238,15 @@ public record CachedData(String className, String sources, @Nullable ClassLineNu
 				entry.write(fileChannel);
 			}
 		}
+
+		@Override
+		public CachedData read(ByteBuffer buffer) throws IOException {
+			return CachedData.read(buffer);
+		}
+
+		@Override
+		public byte[] write(CachedData entry) throws IOException {
+			return entry.toByteArray();
+		}
 	}
 }
@@ -25,6 +25,7 @@
 package net.fabricmc.loom.decompilers.cache;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 
 import org.jetbrains.annotations.Nullable;
@@ -39,4 +40,13 @@ public interface CachedFileStore<T> {
 
 		void write(T entry, Path path) throws IOException;
 	}
+
+	/**
+	 * Serializes entries to and from bytes, for stores that do not keep each entry in its own file.
+	 */
+	interface BinaryEntrySerializer<T> {
+		T read(ByteBuffer buffer) throws IOException;
+
+		byte[] write(T entry) throws IOException;
+	}
 }
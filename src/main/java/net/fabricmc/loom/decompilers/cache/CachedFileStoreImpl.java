@@ -24,25 +24,52 @@
 
 package net.fabricmc.loom.decompilers.cache;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileTime;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Iterator;
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-public record CachedFileStoreImpl<T>(Path root, EntrySerializer<T> entrySerializer, CacheRules cacheRules) implements CachedFileStore<T> {
-	public CachedFileStoreImpl {
-		Objects.requireNonNull(root, "root");
+/**
+ * A cached file store that stores each entry as its own file below the root.
+ *
+ * <p>The last access time and size of each entry is kept in an access index next to the entries, so pruning does not need to walk or stat the cache.
+ * The index is written when the cache is pruned. When no index exists, it is built once from the file modification times,
+ * reading an entry also updates its modification time so the access is kept when the index is not written.
+ * The modification times of the entries written since the index was read are read again when pruning, in case they were changed.
+ */
+public final class CachedFileStoreImpl<T> implements CachedFileStore<T> {
+	public static final String ACCESS_INDEX_NAME = ".loom-access-index";
+	private static final int ACCESS_INDEX_VERSION = 1;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CachedFileStoreImpl.class);
+
+	private final Path root;
+	private final EntrySerializer<T> entrySerializer;
+	private final CacheRules cacheRules;
+	private Map<String, IndexEntry> accessIndex;
+	// Entries that have been written but not read since the index was read
+	private final Set<String> writtenEntries = ConcurrentHashMap.newKeySet();
+
+	public CachedFileStoreImpl(Path root, EntrySerializer<T> entrySerializer, CacheRules cacheRules) {
+		this.root = Objects.requireNonNull(root, "root");
+		this.entrySerializer = entrySerializer;
+		this.cacheRules = cacheRules;
 	}
 
 	@Override
@@ -53,8 +80,14 @@ public record CachedFileStoreImpl<T>(Path root, EntrySerializer<T> entrySerializ
 			return null;
 		}
 
-		// Update last modified, so recently used files stay in the cache
-		Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+		// Update the last access time, so recently used files stay in the cache
+		final long now = System.currentTimeMillis();
+		final IndexEntry existing = accessIndex().get(key);
+		final long size = existing != null ? existing.size() : Files.size(path);
+		Files.setLastModifiedTime(path, FileTime.fromMillis(now));
+		accessIndex().put(key, new IndexEntry(key, now, size));
+		writtenEntries.remove(key);
+
 		return entrySerializer.read(path);
 	}
 
@@ -63,17 +96,90 @@ public record CachedFileStoreImpl<T>(Path root, EntrySerializer<T> entrySerializ
 		Path path = resolve(key);
 		Files.createDirectories(path.getParent());
 		entrySerializer.write(data, path);
+		accessIndex().put(key, new IndexEntry(key, Files.getLastModifiedTime(path).toMillis(), Files.size(path)));
+		writtenEntries.add(key);
 	}
 
 	private Path resolve(String key) {
 		return root.resolve(key);
 	}
 
-	public void prune() throws IOException {
-		// Sorted oldest -> newest
-		List<PathEntry> entries = new ArrayList<>();
+	/**
+	 * Remove the least recently used entries until the cache meets the {@link CacheRules}, and write the access index.
+	 */
+	public CachePruner.PruneStats prune() throws IOException {
+		final Map<String, IndexEntry> index = accessIndex();
+
+		for (String key : writtenEntries) {
+			final Path path = resolve(key);
+
+			if (Files.exists(path)) {
+				index.put(key, new IndexEntry(key, Files.getLastModifiedTime(path).toMillis(), Files.size(path)));
+			} else {
+				index.remove(key);
+			}
+		}
+
+		writtenEntries.clear();
+
+		final CachePruner.Result<IndexEntry> result = new CachePruner(cacheRules).prune(index.values(), IndexEntry::lastAccess, IndexEntry::size);
+
+		for (IndexEntry entry : result.evicted()) {
+			Files.deleteIfExists(resolve(entry.key()));
+			index.remove(entry.key());
+		}
+
+		writeAccessIndex(index);
+
+		return result.stats();
+	}
+
+	private synchronized Map<String, IndexEntry> accessIndex() throws IOException {
+		if (accessIndex == null) {
+			accessIndex = readAccessIndex();
+		}
+
+		return accessIndex;
+	}
+
+	private Map<String, IndexEntry> readAccessIndex() throws IOException {
+		final Path indexPath = root.resolve(ACCESS_INDEX_NAME);
+
+		if (Files.exists(indexPath)) {
+			try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+				final int version = in.readInt();
+
+				if (version != ACCESS_INDEX_VERSION) {
+					throw new IOException("Unsupported access index version: " + version);
+				}
+
+				final int count = in.readInt();
+				final Map<String, IndexEntry> index = new ConcurrentHashMap<>(count);
+
+				for (int i = 0; i < count; i++) {
+					final var entry = new IndexEntry(in.readUTF(), in.readLong(), in.readLong());
+					index.put(entry.key(), entry);
+				}
+
+				return index;
+			} catch (IOException e) {
+				LOGGER.warn("Failed to read cache access index, rebuilding it", e);
+			}
+		}
+
+		return buildAccessIndex();
+	}
+
+	/**
+	 * Build the access index from the files in the cache, only done when the index is missing.
+	 */
+	private Map<String, IndexEntry> buildAccessIndex() throws IOException {
+		final Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+
+		if (Files.notExists(root)) {
+			return index;
+		}
 
-		// Iterate over all the files in the cache, and store them into the sorted list.
 		try (Stream<Path> walk = Files.walk(root)) {
 			Iterator<Path> iterator = walk.iterator();
 
@@ -84,58 +190,63 @@ public record CachedFileStoreImpl<T>(Path root, EntrySerializer<T> entrySerializ
 					continue;
 				}
 
-				insertSorted(entries, new PathEntry(entry));
-			}
-		}
+				final String key = root.relativize(entry).toString().replace('\\', '/');
 
-		// Delete the oldest files to get under the max file limit
-		if (entries.size() > cacheRules.maxFiles) {
-			for (int i = 0; i < cacheRules.maxFiles; i++) {
-				PathEntry toRemove = entries.remove(0);
-				Files.delete(toRemove.path);
+				if (key.startsWith(ACCESS_INDEX_NAME)) {
+					continue;
+				}
+
+				index.put(key, new IndexEntry(key, Files.getLastModifiedTime(entry).toMillis(), Files.size(entry)));
 			}
 		}
 
-		final Instant maxAge = Instant.now().minus(cacheRules().maxAge());
-		Iterator<PathEntry> iterator = entries.iterator();
+		return index;
+	}
 
-		while (iterator.hasNext()) {
-			final PathEntry entry = iterator.next();
+	private void writeAccessIndex(Map<String, IndexEntry> index) throws IOException {
+		final Path indexPath = root.resolve(ACCESS_INDEX_NAME);
+		final Path tempPath = root.resolve(ACCESS_INDEX_NAME + ".tmp");
+		Files.createDirectories(root);
 
-			if (entry.lastModified().toInstant().isAfter(maxAge)) {
-				// File is not longer than the max age
-				// As this is a sorted list we don't need to keep checking
-				break;
-			}
+		try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+			out.writeInt(ACCESS_INDEX_VERSION);
+			out.writeInt(index.size());
 
-			// Remove all files over the max age
-			iterator.remove();
-			Files.delete(entry.path);
+			for (IndexEntry entry : index.values()) {
+				out.writeUTF(entry.key());
+				out.writeLong(entry.lastAccess());
+				out.writeLong(entry.size());
+			}
 		}
+
+		Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
 	}
 
-	private void insertSorted(List<PathEntry> list, PathEntry entry) {
-		int index = Collections.binarySearch(list, entry, Comparator.comparing(PathEntry::lastModified));
+	public Path root() {
+		return root;
+	}
 
-		if (index < 0) {
-			index = -index - 1;
-		}
+	public EntrySerializer<T> entrySerializer() {
+		return entrySerializer;
+	}
 
-		list.add(index, entry);
+	public CacheRules cacheRules() {
+		return cacheRules;
 	}
 
 	/**
 	 * The rules for the cache.
 	 *
 	 * @param maxFiles The maximum number of files in the cache
+	 * @param maxBytes The maximum total size of the files in the cache
 	 * @param maxAge  The maximum age of a file in the cache
 	 */
-	public record CacheRules(long maxFiles, Duration maxAge) {
+	public record CacheRules(long maxFiles, long maxBytes, Duration maxAge) {
+		public CacheRules(long maxFiles, Duration maxAge) {
+			this(maxFiles, Long.MAX_VALUE, maxAge);
+		}
 	}
 
-	record PathEntry(Path path, FileTime lastModified) {
-		PathEntry(Path path) throws IOException {
-			this(path, Files.getLastModifiedTime(path));
-		}
+	record IndexEntry(String key, long lastAccess, long size) {
 	}
 }
@@ -25,13 +25,22 @@
 package net.fabricmc.loom.decompilers.cache;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.Nullable;
@@ -39,10 +48,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.fabricmc.loom.decompilers.ClassLineNumbers;
+import net.fabricmc.loom.util.CompletableFutureCollector;
 import net.fabricmc.loom.util.FileSystemUtil;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.ThreadingUtils;
 
 public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String baseHash) {
 	private static final Logger LOGGER = LoggerFactory.getLogger(CachedJarProcessor.class);
+	private static final int MAX_PENDING_LOOKUPS = Runtime.getRuntime().availableProcessors() * 16;
 
 	public WorkRequest prepareJob(Path inputJar) throws IOException {
 		boolean isIncomplete = false;
@@ -65,32 +78,42 @@ public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String b
 		int misses = 0;
 
 		try (FileSystemUtil.Delegate inputFs = FileSystemUtil.getJarFileSystem(inputJar, false);
-				FileSystemUtil.Delegate incompleteFs = FileSystemUtil.getJarFileSystem(incompleteJar, true);
-				FileSystemUtil.Delegate existingSourcesFs = FileSystemUtil.getJarFileSystem(existingSourcesJar, true);
-				FileSystemUtil.Delegate existingClassesFs = FileSystemUtil.getJarFileSystem(existingClassesJar, true)) {
+				RawZipFile inputZip = RawZipFile.open(inputJar);
+				LazyJarWriter incompleteWriter = new LazyJarWriter(incompleteJar);
+				LazyJarWriter existingSourcesWriter = new LazyJarWriter(existingSourcesJar);
+				LazyJarWriter existingClassesWriter = new LazyJarWriter(existingClassesJar)) {
 			final List<ClassEntry> inputClasses = JarWalker.findClasses(inputFs);
 			final Map<String, String> rawEntryHashes = getEntryHashes(inputClasses, inputFs.getRoot());
+			final Executor executor = ThreadingUtils.executor();
+
+			// The cache lookups run concurrently, while the results are written to the jars in order on this thread.
+			// Only a limited number of lookups are in flight at once, to bound the memory used by the restored sources.
+			// The classes are copied from the input jar without being recompressed.
+			final Deque<CompletableFuture<CacheLookup>> pendingLookups = new ArrayDeque<>();
+			final Iterator<ClassEntry> iterator = inputClasses.iterator();
+
+			while (iterator.hasNext() || !pendingLookups.isEmpty()) {
+				while (iterator.hasNext() && pendingLookups.size() < MAX_PENDING_LOOKUPS) {
+					final ClassEntry entry = iterator.next();
+					pendingLookups.add(CompletableFuture.supplyAsync(() -> lookup(entry, rawEntryHashes), executor));
+				}
 
-			for (ClassEntry entry : inputClasses) {
-				String outputFileName = entry.sourcesFileName();
-				String fullHash = baseHash + "/" + entry.hashSuperHierarchy(rawEntryHashes);
-
-				final CachedData entryData = fileStore.getEntry(fullHash);
+				final CacheLookup lookup = join(pendingLookups.remove());
+				final ClassEntry entry = lookup.entry();
+				final String outputFileName = entry.sourcesFileName();
+				final CachedData entryData = lookup.cachedData();
 
 				if (entryData == null) {
 					// Cached entry was not found, so copy the input to the incomplete jar to be processed
-					entry.copyTo(inputFs.getRoot(), incompleteFs.getRoot());
+					lookup.writeClasses(inputZip, incompleteWriter);
 					isIncomplete = true;
-					outputNameMap.put(outputFileName, fullHash);
+					outputNameMap.put(outputFileName, lookup.hash());
 
-					LOGGER.debug("Cached entry ({}) not found, going to process {}", fullHash, outputFileName);
+					LOGGER.debug("Cached entry ({}) not found, going to process {}", lookup.hash(), outputFileName);
 					misses++;
 				} else {
-					final Path outputPath = existingSourcesFs.getPath(outputFileName);
-					createParentDirectories(outputPath);
-					Files.writeString(outputPath, entryData.sources());
-
-					entry.copyTo(inputFs.getRoot(), existingClassesFs.getRoot());
+					existingSourcesWriter.write(outputFileName, entryData.sources().getBytes(StandardCharsets.UTF_8));
+					lookup.writeClasses(inputZip, existingClassesWriter);
 
 					if (entryData.lineNumbers() != null) {
 						lineNumbersMap.put(entryData.className(), entryData.lineNumbers());
@@ -100,7 +123,7 @@ public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String b
 
 					hasSomeExisting = true;
 
-					LOGGER.debug("Cached entry ({}) found: {}", fullHash, outputFileName);
+					LOGGER.debug("Cached entry ({}) found: {}", lookup.hash(), outputFileName);
 					hits++;
 				}
 			}
@@ -115,9 +138,7 @@ public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String b
 
 		if (isIncomplete && !hasSomeExisting) {
 			// The cache contained nothing of use, fully process the input jar
-			Files.delete(incompleteJar);
-			Files.delete(existingClassesJar);
-			Files.delete(existingSourcesJar);
+			Files.deleteIfExists(incompleteJar);
 
 			LOGGER.info("No cached entries found, going to process the whole jar");
 			return new FullWorkJob(inputJar, outputJar, outputNameMap)
@@ -130,18 +151,46 @@ public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String b
 		} else {
 			// The cached contained everything we need, so the existing jar is the output
 			LOGGER.info("All cached entries found, using completed work job");
-			Files.delete(incompleteJar);
-			Files.delete(existingClassesJar);
+			Files.deleteIfExists(existingClassesJar);
+
+			if (Files.notExists(existingSourcesJar)) {
+				// The input jar has no classes, create an empty sources jar
+				FileSystemUtil.getJarFileSystem(existingSourcesJar, true).close();
+			}
+
 			return new CompletedWorkJob(existingSourcesJar)
 					.asRequest(stats, lineNumbers);
 		}
 	}
 
-	private static Map<String, String> getEntryHashes(List<ClassEntry> entries, Path root) throws IOException {
-		final Map<String, String> rawEntryHashes = new HashMap<>();
+	private CacheLookup lookup(ClassEntry entry, Map<String, String> rawEntryHashes) {
+		try {
+			final String fullHash = baseHash + "/" + entry.hashSuperHierarchy(rawEntryHashes);
+			return new CacheLookup(entry, fullHash, fileStore.getEntry(fullHash));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to lookup cached entry for " + entry.name(), e);
+		}
+	}
+
+	static Map<String, String> getEntryHashes(List<ClassEntry> entries, Path root) throws IOException {
+		final Executor executor = ThreadingUtils.executor();
+		final List<CompletableFuture<String>> hashes = new ArrayList<>(entries.size());
 
 		for (ClassEntry entry : entries) {
-			String hash = entry.hash(root);
+			hashes.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return entry.hash(root);
+				} catch (IOException e) {
+					throw new UncheckedIOException("Failed to hash " + entry.name(), e);
+				}
+			}, executor));
+		}
+
+		final Map<String, String> rawEntryHashes = new HashMap<>();
+
+		for (int i = 0; i < entries.size(); i++) {
+			final ClassEntry entry = entries.get(i);
+			final String hash = join(hashes.get(i));
 			rawEntryHashes.put(entry.name(), hash);
 
 			for (String s : entry.innerClasses()) {
@@ -163,6 +212,8 @@ public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String b
 		if (workJob instanceof WorkToDoJob workToDoJob) {
 			// Sources name -> hash
 			Map<String, String> outputNameMap = workToDoJob.outputNameMap();
+			final Executor executor = ThreadingUtils.executor();
+			final List<CompletableFuture<Void>> futures = new ArrayList<>();
 
 			try (FileSystemUtil.Delegate outputFs = FileSystemUtil.getJarFileSystem(workToDoJob.output(), false);
 					Stream<Path> walk = Files.walk(outputFs.getRoot())) {
@@ -185,55 +236,32 @@ public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String b
 						throw new IllegalStateException("Unexpected output: " + fsPath);
 					}
 
-					// Trim the leading / and the .java extension
-					final String className = fsPath.toString().substring(1, fsPath.toString().length() - ".java".length());
-					final String sources = Files.readString(fsPath);
-
-					ClassLineNumbers.Entry lineMapEntry = null;
-
-					if (lineNumbers != null) {
-						lineMapEntry = lineNumbers.lineMap().get(className);
-					}
-
-					if (lineMapEntry == null) {
-						LOGGER.info("No line numbers generated for class: {}", className);
-					}
-
-					final var cachedData = new CachedData(className, sources, lineMapEntry);
-					fileStore.putEntry(hash, cachedData);
-
-					LOGGER.debug("Saving processed entry ({}) to cache: {}", hash, fsPath);
+					// Reading, serialising and storing the entries is done concurrently
+					futures.add(CompletableFuture.runAsync(() -> {
+						try {
+							putEntry(fsPath, hash, lineNumbers);
+						} catch (IOException e) {
+							throw new UncheckedIOException("Failed to cache " + fsPath, e);
+						}
+					}, executor));
 				}
+
+				join(futures.stream().collect(CompletableFutureCollector.allOf()));
 			}
 		} else {
 			throw new IllegalStateException();
 		}
 
 		if (workJob instanceof PartialWorkJob partialWorkJob) {
-			// Copy all the existing items to the output jar
-			try (FileSystemUtil.Delegate outputFs = FileSystemUtil.getJarFileSystem(partialWorkJob.output(), false);
-					FileSystemUtil.Delegate existingFs = FileSystemUtil.getJarFileSystem(partialWorkJob.existingSources(), false);
-					Stream<Path> walk = Files.walk(existingFs.getRoot())) {
-				Iterator<Path> iterator = walk.iterator();
-
-				while (iterator.hasNext()) {
-					Path existingPath = iterator.next();
-
-					if (!Files.isRegularFile(existingPath)) {
-						continue;
-					}
-
-					final Path outputPath = outputFs.getRoot().resolve(existingPath.toString());
-
-					LOGGER.debug("Copying existing entry to output: {}", existingPath);
-					createParentDirectories(outputPath);
-					Files.copy(existingPath, outputPath);
-				}
+			// Write the processed and the existing items to the output jar
+			try (LazyJarWriter outputWriter = new LazyJarWriter(output)) {
+				copyEntries(partialWorkJob.output(), outputWriter);
+				copyEntries(partialWorkJob.existingSources(), outputWriter);
 			}
 
+			Files.delete(partialWorkJob.output());
 			Files.delete(partialWorkJob.existingSources());
 			Files.delete(partialWorkJob.existingClasses());
-			Files.move(partialWorkJob.output(), output);
 		} else if (workJob instanceof FullWorkJob fullWorkJob) {
 			// Nothing to merge, just use the output jar
 			Files.move(fullWorkJob.output, output);
@@ -242,6 +270,78 @@ public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String b
 		}
 	}
 
+	private void putEntry(Path fsPath, String hash, @Nullable ClassLineNumbers lineNumbers) throws IOException {
+		// Trim the leading / and the .java extension
+		final String className = fsPath.toString().substring(1, fsPath.toString().length() - ".java".length());
+		final String sources = Files.readString(fsPath);
+
+		ClassLineNumbers.Entry lineMapEntry = null;
+
+		if (lineNumbers != null) {
+			lineMapEntry = lineNumbers.lineMap().get(className);
+		}
+
+		if (lineMapEntry == null) {
+			LOGGER.info("No line numbers generated for class: {}", className);
+		}
+
+		final var cachedData = new CachedData(className, sources, lineMapEntry);
+		fileStore.putEntry(hash, cachedData);
+
+		LOGGER.debug("Saving processed entry ({}) to cache: {}", hash, fsPath);
+	}
+
+	private static void copyEntries(Path jar, LazyJarWriter writer) throws IOException {
+		try (RawZipFile zipFile = RawZipFile.open(jar)) {
+			for (RawZipFile.Entry entry : zipFile.entries()) {
+				if (entry.isDirectory()) {
+					continue;
+				}
+
+				LOGGER.debug("Copying entry to output: {}", entry.name());
+				writer.copy(zipFile, entry);
+			}
+		}
+	}
+
+	static <T> T join(CompletableFuture<T> future) throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+				throw uncheckedIOException.getCause();
+			}
+
+			throw e;
+		}
+	}
+
+	/**
+	 * The result of looking up a class in the cache.
+	 */
+	private record CacheLookup(ClassEntry entry, String hash, @Nullable CachedData cachedData) {
+		/**
+		 * Copies the class and its inner classes from the input jar.
+		 */
+		void writeClasses(RawZipFile inputZip, LazyJarWriter writer) throws IOException {
+			writeClass(inputZip, writer, entry.name());
+
+			for (String innerClass : entry.innerClasses()) {
+				writeClass(inputZip, writer, innerClass);
+			}
+		}
+
+		private static void writeClass(RawZipFile inputZip, LazyJarWriter writer, String name) throws IOException {
+			final RawZipFile.Entry zipEntry = inputZip.getEntry(name);
+
+			if (zipEntry == null) {
+				throw new NoSuchFileException(name);
+			}
+
+			writer.copy(inputZip, zipEntry);
+		}
+	}
+
 	public record WorkRequest(WorkJob job, CacheStats stats, @Nullable ClassLineNumbers lineNumbers) {
 	}
 
@@ -300,14 +400,4 @@ public record CachedJarProcessor(CachedFileStore<CachedData> fileStore, String b
 	 */
 	public record FullWorkJob(Path incomplete, Path output, Map<String, String> outputNameMap) implements WorkToDoJob {
 	}
-
-	private static void createParentDirectories(Path path) throws IOException {
-		final Path parent = path.getParent();
-
-		if (parent == null) {
-			return;
-		}
-
-		Files.createDirectories(parent);
-	}
 }
@@ -0,0 +1,197 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fabricmc.loom.decompilers.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.fabricmc.loom.util.FileSystemUtil;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
+import net.fabricmc.loom.util.ThreadingUtils;
+
+/**
+ * Caches the output of unpick for each class entry, so that only the classes that have not been unpicked before need to be passed to unpick.
+ *
+ * @param baseHash A hash of the unpick definitions, constants and classpath
+ */
+public record CachedUnpickProcessor(CachedFileStore<CachedUnpickedClasses> fileStore, String baseHash) {
+	private static final Logger LOGGER = LoggerFactory.getLogger(CachedUnpickProcessor.class);
+
+	public UnpickJob prepareJob(Path inputJar) throws IOException {
+		final Path incompleteJar = Files.createTempFile("loom-unpick-incomplete", ".jar");
+		// We must delete the empty file, so it can be created as a zip
+		Files.delete(incompleteJar);
+
+		final List<CachedUnpickedClasses> cached = new ArrayList<>();
+		final List<PendingEntry> pending = new ArrayList<>();
+
+		try (FileSystemUtil.Delegate inputFs = FileSystemUtil.getJarFileSystem(inputJar, false);
+				RawZipFile inputZip = RawZipFile.open(inputJar);
+				LazyJarWriter incompleteWriter = new LazyJarWriter(incompleteJar)) {
+			final List<ClassEntry> inputClasses = JarWalker.findClasses(inputFs);
+			final Map<String, String> rawEntryHashes = CachedJarProcessor.getEntryHashes(inputClasses, inputFs.getRoot());
+			final Executor executor = ThreadingUtils.executor();
+			final List<CompletableFuture<CachedUnpickedClasses>> lookups = new ArrayList<>(inputClasses.size());
+			final List<String> hashes = new ArrayList<>(inputClasses.size());
+
+			for (ClassEntry entry : inputClasses) {
+				final String fullHash = baseHash + "/" + entry.hashSuperHierarchy(rawEntryHashes);
+				hashes.add(fullHash);
+				lookups.add(CompletableFuture.supplyAsync(() -> {
+					try {
+						return fileStore.getEntry(fullHash);
+					} catch (IOException e) {
+						throw new UncheckedIOException("Failed to lookup cached unpick entry for " + entry.name(), e);
+					}
+				}, executor));
+			}
+
+			for (int i = 0; i < inputClasses.size(); i++) {
+				final ClassEntry entry = inputClasses.get(i);
+				final CachedUnpickedClasses entryData = CachedJarProcessor.join(lookups.get(i));
+
+				if (entryData != null) {
+					LOGGER.debug("Cached unpick entry ({}) found: {}", hashes.get(i), entry.name());
+					cached.add(entryData);
+					continue;
+				}
+
+				LOGGER.debug("Cached unpick entry ({}) not found, going to unpick {}", hashes.get(i), entry.name());
+				pending.add(new PendingEntry(entry, hashes.get(i)));
+				copyClass(inputZip, incompleteWriter, entry.name());
+
+				for (String innerClass : entry.innerClasses()) {
+					copyClass(inputZip, incompleteWriter, innerClass);
+				}
+			}
+		}
+
+		return new UnpickJob(inputJar, pending.isEmpty() ? null : incompleteJar, cached, pending);
+	}
+
+	/**
+	 * Write the unpicked and the cached classes to the output jar, and cache the newly unpicked classes.
+	 * Any other entries are copied from the input jar as they are.
+	 *
+	 * @param unpickedJar The output of unpick for {@link UnpickJob#incomplete()}, or null when everything was cached
+	 */
+	public void completeJob(UnpickJob job, @Nullable Path unpickedJar, Path outputJar) throws IOException {
+		if (job.incomplete() != null && unpickedJar == null) {
+			throw new IllegalArgumentException("Unpicked jar is required when the job is incomplete");
+		}
+
+		try (RawZipWriter writer = new RawZipWriter(outputJar);
+				RawZipFile inputZip = RawZipFile.open(job.input())) {
+			for (RawZipFile.Entry entry : inputZip.entries()) {
+				if (!entry.isDirectory() && !entry.name().endsWith(".class")) {
+					writer.copy(inputZip, entry);
+				}
+			}
+
+			if (unpickedJar != null) {
+				try (RawZipFile unpickedZip = RawZipFile.open(unpickedJar)) {
+					for (RawZipFile.Entry entry : unpickedZip.entries()) {
+						if (entry.name().endsWith(".class")) {
+							writer.copy(unpickedZip, entry);
+						}
+					}
+
+					for (PendingEntry pending : job.pending()) {
+						final Map<String, byte[]> classes = new LinkedHashMap<>();
+						readClass(unpickedZip, classes, pending.entry().name());
+
+						for (String innerClass : pending.entry().innerClasses()) {
+							readClass(unpickedZip, classes, innerClass);
+						}
+
+						fileStore.putEntry(pending.hash(), new CachedUnpickedClasses(classes));
+					}
+				}
+			}
+
+			for (CachedUnpickedClasses cachedClasses : job.cached()) {
+				for (Map.Entry<String, byte[]> entry : cachedClasses.classes().entrySet()) {
+					// Keep the time stamp and attributes of the input entry, like the classes that were unpicked
+					final RawZipFile.Entry inputEntry = inputZip.getEntry(entry.getKey());
+
+					if (inputEntry != null) {
+						writer.write(inputEntry, entry.getValue());
+					} else {
+						writer.write(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+		}
+
+		if (job.incomplete() != null) {
+			Files.deleteIfExists(job.incomplete());
+		}
+	}
+
+	private static void copyClass(RawZipFile inputZip, LazyJarWriter writer, String name) throws IOException {
+		final RawZipFile.Entry zipEntry = inputZip.getEntry(name);
+
+		if (zipEntry == null) {
+			throw new NoSuchFileException(name);
+		}
+
+		writer.copy(inputZip, zipEntry);
+	}
+
+	private static void readClass(RawZipFile zip, Map<String, byte[]> classes, String name) throws IOException {
+		final RawZipFile.Entry zipEntry = zip.getEntry(name);
+
+		if (zipEntry == null) {
+			throw new NoSuchFileException(name);
+		}
+
+		classes.put(name, zip.readAllBytes(zipEntry));
+	}
+
+	/**
+	 * @param input The jar the job was prepared from
+	 * @param incomplete A jar containing the classes that still need to be unpicked, or null when all the classes were cached
+	 * @param cached The previously unpicked classes
+	 * @param pending The class entries in the incomplete jar
+	 */
+	public record UnpickJob(Path input, @Nullable Path incomplete, List<CachedUnpickedClasses> cached, List<PendingEntry> pending) {
+	}
+
+	public record PendingEntry(ClassEntry entry, String hash) {
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fabricmc.loom.decompilers.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Serialised data for the unpicked class files of a class entry in the unpick cache
+// Stores the class file names and bytes of the class and its inner classes
+public record CachedUnpickedClasses(Map<String, byte[]> classes) {
+	public static final CachedFileStore.BinaryEntrySerializer<CachedUnpickedClasses> BINARY_SERIALIZER = new EntrySerializer();
+
+	private static final int MAGIC = 0x4C554E50; // LUNP
+
+	public CachedUnpickedClasses {
+		Objects.requireNonNull(classes, "classes");
+	}
+
+	public byte[] toByteArray() throws IOException {
+		final var byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (var outputStream = new DataOutputStream(byteArrayOutputStream)) {
+			outputStream.writeInt(MAGIC);
+			outputStream.writeInt(classes.size());
+
+			for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+				final byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				outputStream.writeInt(name.length);
+				outputStream.write(name);
+				outputStream.writeInt(entry.getValue().length);
+				outputStream.write(entry.getValue());
+			}
+		}
+
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	public static CachedUnpickedClasses read(ByteBuffer buffer) throws IOException {
+		try {
+			final int magic = buffer.getInt();
+
+			if (magic != MAGIC) {
+				throw new IOException("Invalid unpick cache entry header: " + Integer.toHexString(magic));
+			}
+
+			final int count = buffer.getInt();
+			final Map<String, byte[]> classes = new LinkedHashMap<>();
+
+			for (int i = 0; i < count; i++) {
+				final String name = new String(readBytes(buffer), StandardCharsets.UTF_8);
+				classes.put(name, readBytes(buffer));
+			}
+
+			return new CachedUnpickedClasses(classes);
+		} catch (BufferUnderflowException | NegativeArraySizeException e) {
+			throw new IOException("Truncated unpick cache entry", e);
+		}
+	}
+
+	private static byte[] readBytes(ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private static final class EntrySerializer implements CachedFileStore.BinaryEntrySerializer<CachedUnpickedClasses> {
+		@Override
+		public CachedUnpickedClasses read(ByteBuffer buffer) throws IOException {
+			return CachedUnpickedClasses.read(buffer);
+		}
+
+		@Override
+		public byte[] write(CachedUnpickedClasses entry) throws IOException {
+			return entry.toByteArray();
+		}
+	}
+}
@@ -27,8 +27,6 @@ package net.fabricmc.loom.decompilers.cache;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -40,14 +38,10 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 
-import org.gradle.api.JavaVersion;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.InnerClassNode;
@@ -56,6 +50,7 @@ import org.slf4j.LoggerFactory;
 
 import net.fabricmc.loom.util.CompletableFutureCollector;
 import net.fabricmc.loom.util.FileSystemUtil;
+import net.fabricmc.loom.util.ThreadingUtils;
 
 public final class JarWalker {
 	private static final Logger LOGGER = LoggerFactory.getLogger(JarWalker.class);
@@ -104,7 +99,7 @@ public final class JarWalker {
 
 		Collections.sort(outerClasses);
 
-		final Executor executor = getExecutor();
+		final Executor executor = ThreadingUtils.executor();
 		List<CompletableFuture<ClassEntry>> classEntries = new ArrayList<>();
 
 		for (String outerClass : outerClasses) {
@@ -205,19 +200,6 @@ public final class JarWalker {
 		}
 	}
 
-	private static Executor getExecutor() {
-		if (JavaVersion.current().isCompatibleWith(JavaVersion.VERSION_21)) {
-			try {
-				Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
-				return (ExecutorService) m.invoke(null);
-			} catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
-				throw new RuntimeException("Failed to create virtual thread executor", e);
-			}
-		}
-
-		return ForkJoinPool.commonPool();
-	}
-
 	// Slight optimization, if we skip over Object
 	private static boolean isNotReservedClass(String name) {
 		return !"java/lang/Object".equals(name);
@@ -0,0 +1,81 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.decompilers.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
+
+/**
+ * Writes entries sequentially to a new jar, the jar is only created once the first entry has been written.
+ * Not thread safe, entries are expected to be written from a single thread.
+ */
+final class LazyJarWriter implements Closeable {
+	private final Path path;
+	@Nullable
+	private RawZipWriter zipWriter;
+
+	LazyJarWriter(Path path) {
+		this.path = path;
+	}
+
+	void write(String name, byte[] bytes) throws IOException {
+		getWriter().write(name, bytes);
+	}
+
+	/**
+	 * Copies an entry from another jar without recompressing it.
+	 */
+	void copy(RawZipFile source, RawZipFile.Entry entry) throws IOException {
+		getWriter().copy(source, entry);
+	}
+
+	private RawZipWriter getWriter() throws IOException {
+		if (zipWriter == null) {
+			zipWriter = new RawZipWriter(path);
+		}
+
+		return zipWriter;
+	}
+
+	/**
+	 * @return true if at least one entry has been written.
+	 */
+	boolean hasEntries() {
+		return zipWriter != null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (zipWriter != null) {
+			zipWriter.close();
+		}
+	}
+}
@@ -0,0 +1,479 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.decompilers.cache;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.fabricmc.loom.util.CacheLocks;
+
+/**
+ * A cached file store that keeps all of its entries in a single append-only pack file.
+ *
+ * <p>Entries are read from the pack with positional reads, they are found through an in memory index of key to offset that is built when the store is opened.
+ * New entries are only ever appended to the end of the pack, so the pack is never rewritten as a whole unless entries are pruned.
+ * The last access time of each entry is kept in a small, separate access table next to the pack.
+ *
+ * <p>Pruning is done when the store is opened, before the pack is read from. The pack is not memory mapped, as a mapping
+ * is only released once it is garbage collected, and on Windows a mapped pack could not be compacted or deleted until then.
+ *
+ * <p>Only one store may be open for a pack at a time, this is enforced within the JVM as well as across processes.
+ */
+public final class PackedFileStore<T> implements CachedFileStore<T>, Closeable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PackedFileStore.class);
+
+	private static final int PACK_MAGIC = 0x4C50414B; // LPAK
+	private static final int ACCESS_MAGIC = 0x4C414343; // LACC
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = Integer.BYTES * 2;
+	private static final int MAX_KEY_LENGTH = 0xFFFF;
+
+	private final Path packPath;
+	private final BinaryEntrySerializer<T> entrySerializer;
+	private final CacheLocks.Handle jvmLock;
+	private final FileChannel lockChannel;
+	private final FileLock lock;
+	private final FileChannel channel;
+	private final Map<String, Slot> index = new ConcurrentHashMap<>();
+	// All records in the pack by ordinal, including those that have been replaced by a newer record with the same key
+	private final List<Slot> slots;
+	private final CachePruner.PruneStats pruneStats;
+	private long writePosition;
+	private boolean closed = false;
+
+	private PackedFileStore(Path packPath, BinaryEntrySerializer<T> entrySerializer, CacheLocks.Handle jvmLock, FileChannel lockChannel, FileLock lock, PrunedSlots prunedSlots) throws IOException {
+		this.packPath = packPath;
+		this.entrySerializer = entrySerializer;
+		this.jvmLock = jvmLock;
+		this.lockChannel = lockChannel;
+		this.lock = lock;
+		this.slots = prunedSlots.slots();
+		this.pruneStats = prunedSlots.stats();
+		this.channel = FileChannel.open(packPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.writePosition = channel.size();
+
+		for (Slot slot : slots) {
+			index.put(slot.key(), slot);
+		}
+	}
+
+	/**
+	 * Open, or create the pack store at the given path, pruning any entries that do not meet the cache rules.
+	 *
+	 * <p>The store holds an exclusive lock on the pack until it is closed.
+	 *
+	 * @throws IOException if the existing pack could not be read, the caller may want to {@link #delete(Path)} it and try again.
+	 */
+	public static <T> PackedFileStore<T> open(Path packPath, BinaryEntrySerializer<T> entrySerializer, CachedFileStoreImpl.CacheRules cacheRules) throws IOException {
+		// File locks are held by the whole JVM, so projects in the same Gradle daemon must wait for each other first
+		final CacheLocks.Handle jvmLock;
+
+		try {
+			jvmLock = CacheLocks.acquire(getLockPath(packPath));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for pack store lock: " + packPath);
+		}
+
+		try {
+			final FileChannel lockChannel = FileChannel.open(getLockPath(packPath), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+			try {
+				final FileLock lock = lockChannel.lock();
+
+				try {
+					final List<Slot> slots = readSlots(packPath);
+					readAccessTable(getAccessPath(packPath), slots);
+
+					return new PackedFileStore<>(packPath, entrySerializer, jvmLock, lockChannel, lock, prune(packPath, slots, cacheRules));
+				} catch (IOException | RuntimeException e) {
+					lock.release();
+					throw e;
+				}
+			} catch (IOException | RuntimeException e) {
+				lockChannel.close();
+				throw e;
+			}
+		} catch (IOException | RuntimeException e) {
+			jvmLock.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Delete the pack and its access table.
+	 */
+	public static void delete(Path packPath) throws IOException {
+		Files.deleteIfExists(packPath);
+		Files.deleteIfExists(getAccessPath(packPath));
+	}
+
+	@Override
+	public @Nullable T getEntry(String key) throws IOException {
+		final Slot slot = index.get(key);
+
+		if (slot == null) {
+			return null;
+		}
+
+		// Recorded in memory and written to the access table when the store is closed
+		slot.lastAccess = System.currentTimeMillis();
+		return entrySerializer.read(readData(slot));
+	}
+
+	@Override
+	public void putEntry(String key, T entry) throws IOException {
+		final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+		if (keyBytes.length > MAX_KEY_LENGTH) {
+			throw new IllegalArgumentException("Key is too long: " + key);
+		}
+
+		final byte[] data = entrySerializer.write(entry);
+		final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + keyBytes.length + data.length)
+				.putInt(keyBytes.length)
+				.put(keyBytes)
+				.putInt(data.length)
+				.put(data)
+				.flip();
+
+		synchronized (this) {
+			ensureOpen();
+
+			final long offset = writePosition;
+			long position = offset;
+
+			while (buffer.hasRemaining()) {
+				position += channel.write(buffer, position);
+			}
+
+			writePosition = position;
+
+			final var slot = new Slot(key, offset, keyBytes.length, data.length, System.currentTimeMillis());
+			slots.add(slot);
+			index.put(key, slot);
+		}
+	}
+
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * @return The entries that were pruned when the store was opened
+	 */
+	public CachePruner.PruneStats getPruneStats() {
+		return pruneStats;
+	}
+
+	private ByteBuffer readData(Slot slot) throws IOException {
+		final long dataOffset = slot.dataOffset();
+
+		final ByteBuffer buffer = ByteBuffer.allocate(slot.dataLength());
+		long position = dataOffset;
+
+		while (buffer.hasRemaining()) {
+			final int read = channel.read(buffer, position);
+
+			if (read < 0) {
+				throw new EOFException("Unexpected end of pack reading entry: " + slot.key());
+			}
+
+			position += read;
+		}
+
+		return buffer.flip();
+	}
+
+	private void ensureOpen() {
+		if (closed) {
+			throw new IllegalStateException("Pack store has been closed");
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+
+		closed = true;
+
+		try {
+			writeAccessTable(getAccessPath(packPath), slots);
+		} finally {
+			try {
+				channel.close();
+				lock.release();
+				lockChannel.close();
+			} finally {
+				jvmLock.close();
+			}
+		}
+	}
+
+	private static Path getAccessPath(Path packPath) {
+		return packPath.resolveSibling(packPath.getFileName() + ".access");
+	}
+
+	private static Path getLockPath(Path packPath) {
+		return packPath.resolveSibling(packPath.getFileName() + ".lock");
+	}
+
+	/**
+	 * Read the record headers from the pack, skipping over the data.
+	 * A partially written record at the end of the pack (e.g. from a killed process) is truncated.
+	 */
+	private static List<Slot> readSlots(Path packPath) throws IOException {
+		final List<Slot> slots = new ArrayList<>();
+
+		if (Files.notExists(packPath) || Files.size(packPath) == 0) {
+			try (FileChannel channel = FileChannel.open(packPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeHeader(channel, PACK_MAGIC);
+			}
+
+			return slots;
+		}
+
+		final long now = System.currentTimeMillis();
+		final long size = Files.size(packPath);
+		long position = HEADER_SIZE;
+
+		try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(packPath)))) {
+			readHeader(in, PACK_MAGIC, packPath);
+
+			while (position < size) {
+				if (position + Integer.BYTES > size) {
+					break;
+				}
+
+				final int keyLength = in.readInt();
+
+				if (keyLength < 0 || keyLength > MAX_KEY_LENGTH || position + Integer.BYTES * 2 + keyLength > size) {
+					break;
+				}
+
+				final String key = new String(in.readNBytes(keyLength), StandardCharsets.UTF_8);
+				final int dataLength = in.readInt();
+				final var slot = new Slot(key, position, keyLength, dataLength, now);
+
+				if (dataLength < 0 || slot.end() > size) {
+					break;
+				}
+
+				in.skipNBytes(dataLength);
+				slots.add(slot);
+				position = slot.end();
+			}
+		}
+
+		if (position != size) {
+			LOGGER.warn("Truncating incomplete entry at the end of {}", packPath);
+
+			try (FileChannel channel = FileChannel.open(packPath, StandardOpenOption.WRITE)) {
+				channel.truncate(position);
+			}
+		}
+
+		return slots;
+	}
+
+	private static void readAccessTable(Path accessPath, List<Slot> slots) throws IOException {
+		if (Files.notExists(accessPath)) {
+			return;
+		}
+
+		try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(accessPath)))) {
+			readHeader(in, ACCESS_MAGIC, accessPath);
+
+			// The access table may be behind the pack when the store was not closed cleanly, these entries keep the time they were opened at.
+			final int count = Math.min(in.readInt(), slots.size());
+
+			for (int i = 0; i < count; i++) {
+				slots.get(i).lastAccess = in.readLong();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Failed to read decompile cache access table {}, treating all entries as recently used", accessPath, e);
+		}
+	}
+
+	private static void writeAccessTable(Path accessPath, List<Slot> slots) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + Integer.BYTES + Long.BYTES * slots.size())
+				.putInt(ACCESS_MAGIC)
+				.putInt(FORMAT_VERSION)
+				.putInt(slots.size());
+
+		for (Slot slot : slots) {
+			buffer.putLong(slot.lastAccess);
+		}
+
+		final Path tempPath = accessPath.resolveSibling(accessPath.getFileName() + ".tmp");
+		Files.write(tempPath, buffer.array());
+		Files.move(tempPath, accessPath, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static void writeHeader(FileChannel channel, int magic) throws IOException {
+		channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(magic).putInt(FORMAT_VERSION).flip());
+	}
+
+	private static void readHeader(DataInputStream in, int magic, Path path) throws IOException {
+		if (in.readInt() != magic) {
+			throw new IOException("Invalid header in " + path);
+		}
+
+		final int version = in.readInt();
+
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported version %d in %s".formatted(version, path));
+		}
+	}
+
+	/**
+	 * Remove the least recently used entries until the pack meets the cache rules.
+	 * When anything has been removed, or replaced by a newer entry with the same key the pack is compacted.
+	 */
+	private static PrunedSlots prune(Path packPath, List<Slot> slots, CachedFileStoreImpl.CacheRules cacheRules) throws IOException {
+		// Only the newest record for each key is live
+		final Map<String, Slot> live = new HashMap<>();
+
+		for (Slot slot : slots) {
+			live.put(slot.key(), slot);
+		}
+
+		final CachePruner.Result<Slot> result = new CachePruner(cacheRules).prune(live.values(), slot -> slot.lastAccess, Slot::size);
+
+		if (result.evicted().isEmpty() && live.size() == slots.size()) {
+			return new PrunedSlots(slots, CachePruner.PruneStats.NONE);
+		}
+
+		final Set<Slot> retained = new HashSet<>(live.values());
+		result.evicted().forEach(retained::remove);
+		LOGGER.info("Pruning {} entries ({} bytes) from {}", result.evictedCount(), result.evictedBytes(), packPath);
+
+		return new PrunedSlots(compact(packPath, slots, retained), result.stats());
+	}
+
+	private record PrunedSlots(List<Slot> slots, CachePruner.PruneStats stats) {
+	}
+
+	private static List<Slot> compact(Path packPath, List<Slot> slots, Set<Slot> retained) throws IOException {
+		final Path tempPath = packPath.resolveSibling(packPath.getFileName() + ".tmp");
+		final List<Slot> compacted = new ArrayList<>(retained.size());
+
+		try (FileChannel input = FileChannel.open(packPath, StandardOpenOption.READ);
+				FileChannel output = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeHeader(output, PACK_MAGIC);
+
+			// Slots are in pack order, so the retained entries keep their relative order
+			for (Slot slot : slots) {
+				if (!retained.contains(slot)) {
+					continue;
+				}
+
+				final long position = output.position();
+				long transferred = 0;
+
+				while (transferred < slot.size()) {
+					transferred += input.transferTo(slot.offset() + transferred, slot.size() - transferred, output);
+				}
+
+				final var newSlot = new Slot(slot.key(), position, slot.keyLength(), slot.dataLength(), slot.lastAccess);
+				compacted.add(newSlot);
+			}
+		}
+
+		Files.move(tempPath, packPath, StandardCopyOption.REPLACE_EXISTING);
+		// Written now as the ordinals have changed
+		writeAccessTable(getAccessPath(packPath), compacted);
+		return compacted;
+	}
+
+	private static final class Slot {
+		private final String key;
+		private final long offset;
+		private final int keyLength;
+		private final int dataLength;
+		private volatile long lastAccess;
+
+		Slot(String key, long offset, int keyLength, int dataLength, long lastAccess) {
+			this.key = key;
+			this.offset = offset;
+			this.keyLength = keyLength;
+			this.dataLength = dataLength;
+			this.lastAccess = lastAccess;
+		}
+
+		String key() {
+			return key;
+		}
+
+		long offset() {
+			return offset;
+		}
+
+		int keyLength() {
+			return keyLength;
+		}
+
+		int dataLength() {
+			return dataLength;
+		}
+
+		long dataOffset() {
+			return offset + Integer.BYTES * 2 + keyLength;
+		}
+
+		long size() {
+			return Integer.BYTES * 2L + keyLength + dataLength;
+		}
+
+		long end() {
+			return offset + size();
+		}
+	}
+}
@@ -26,6 +26,7 @@ package net.fabricmc.loom.task;
 
 import org.gradle.api.DefaultTask;
 import org.gradle.api.provider.Property;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.jetbrains.annotations.ApiStatus;
@@ -33,15 +34,22 @@ import org.jetbrains.annotations.ApiStatus;
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.ModPlatform;
+import net.fabricmc.loom.util.gradle.LoomExecutorService;
 
 public abstract class AbstractLoomTask extends DefaultTask {
 	@Input
 	@ApiStatus.Internal
 	protected abstract Property<ModPlatform> getModPlatform();
 
+	// Ensures the shared executor exists when the task is loaded from the configuration cache
+	@ServiceReference(LoomExecutorService.NAME)
+	@ApiStatus.Internal
+	protected abstract Property<LoomExecutorService> getLoomExecutor();
+
 	public AbstractLoomTask() {
 		setGroup(Constants.TaskGroup.FABRIC);
 		getModPlatform().value(getExtension().getPlatform()).finalizeValue();
+		doFirst(task -> ((AbstractLoomTask) task).getLoomExecutor().get());
 	}
 
 	@Internal
@@ -44,6 +44,7 @@ import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.InputFiles;
@@ -64,8 +65,8 @@ import net.fabricmc.loom.build.IntermediaryNamespaces;
 import net.fabricmc.loom.task.service.ClientEntriesService;
 import net.fabricmc.loom.task.service.JarManifestService;
 import net.fabricmc.loom.util.Constants;
-import net.fabricmc.loom.util.ZipReprocessorUtil;
-import net.fabricmc.loom.util.ZipUtils;
+import net.fabricmc.loom.util.StagedJarOutput;
+import net.fabricmc.loom.util.gradle.LoomExecutorService;
 import net.fabricmc.loom.util.gradle.SourceSetHelper;
 import net.fabricmc.loom.util.service.ScopedServiceFactory;
 
@@ -104,6 +105,11 @@ public abstract class AbstractRemapJarTask extends Jar {
 	@Optional
 	protected abstract Property<ClientEntriesService.Options> getClientEntriesServiceOptions();
 
+	// Ensures the shared executor exists when the task is loaded from the configuration cache
+	@ServiceReference(LoomExecutorService.NAME)
+	@ApiStatus.Internal
+	protected abstract Property<LoomExecutorService> getLoomExecutor();
+
 	private final Provider<JarManifestService> jarManifestServiceProvider;
 
 	@Inject
@@ -122,6 +128,8 @@ public abstract class AbstractRemapJarTask extends Jar {
 			return getProject().getObjects().property(ClientEntriesService.Options.class);
 		}));
 
+		doFirst(task -> ((AbstractRemapJarTask) task).getLoomExecutor().get());
+
 		jarManifestServiceProvider = JarManifestService.get(getProject());
 		usesService(jarManifestServiceProvider);
 	}
@@ -219,8 +227,8 @@ public abstract class AbstractRemapJarTask extends Jar {
 			outputFile = getParameters().getOutputFile().getAsFile().get().toPath();
 		}
 
-		protected void modifyJarManifest() throws IOException {
-			int count = ZipUtils.transform(outputFile, Map.of(Constants.Manifest.PATH, bytes -> {
+		protected void modifyJarManifest(StagedJarOutput output) throws IOException {
+			boolean transformed = output.transform(Constants.Manifest.PATH, bytes -> {
 				var manifest = new Manifest(new ByteArrayInputStream(bytes));
 
 				getParameters().getJarManifestService().get().apply(manifest, getParameters().getManifestAttributes().get());
@@ -229,19 +237,20 @@ public abstract class AbstractRemapJarTask extends Jar {
 				ByteArrayOutputStream out = new ByteArrayOutputStream();
 				manifest.write(out);
 				return out.toByteArray();
-			}));
+			});
 
-			Preconditions.checkState(count > 0, "Did not transform any jar manifest");
+			Preconditions.checkState(transformed, "Did not transform any jar manifest");
 		}
 
-		protected void rewriteJar() throws IOException {
+		/**
+		 * Writes the staged edits, rewriting the jar once in its final reproducible form.
+		 */
+		protected void rewriteJar(StagedJarOutput output) throws IOException {
 			final boolean isReproducibleFileOrder = getParameters().getArchiveReproducibleFileOrder().get();
 			final boolean isPreserveFileTimestamps = getParameters().getArchivePreserveFileTimestamps().get();
 			final ZipEntryCompression compression = getParameters().getEntryCompression().get();
 
-			if (isReproducibleFileOrder || !isPreserveFileTimestamps || compression != ZipEntryCompression.DEFLATED) {
-				ZipReprocessorUtil.reprocessZip(outputFile, isReproducibleFileOrder, isPreserveFileTimestamps, compression);
-			}
+			output.write(isReproducibleFileOrder, isPreserveFileTimestamps, compression);
 		}
 	}
 
@@ -36,7 +36,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -47,12 +49,15 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.RegularFileProperty;
@@ -87,9 +92,14 @@ import net.fabricmc.loom.configuration.providers.minecraft.mapped.AbstractMapped
 import net.fabricmc.loom.configuration.sources.ForgeSourcesRemapper;
 import net.fabricmc.loom.decompilers.ClassLineNumbers;
 import net.fabricmc.loom.decompilers.LineNumberRemapper;
+import net.fabricmc.loom.decompilers.cache.CachePruner;
 import net.fabricmc.loom.decompilers.cache.CachedData;
+import net.fabricmc.loom.decompilers.cache.CachedFileStore;
 import net.fabricmc.loom.decompilers.cache.CachedFileStoreImpl;
 import net.fabricmc.loom.decompilers.cache.CachedJarProcessor;
+import net.fabricmc.loom.decompilers.cache.CachedUnpickProcessor;
+import net.fabricmc.loom.decompilers.cache.CachedUnpickedClasses;
+import net.fabricmc.loom.decompilers.cache.PackedFileStore;
 import net.fabricmc.loom.task.service.SourceMappingsService;
 import net.fabricmc.loom.util.Checksum;
 import net.fabricmc.loom.util.Constants;
@@ -110,7 +120,9 @@ import net.fabricmc.mappingio.tree.MemoryMappingTree;
 
 @DisableCachingByDefault
 public abstract class GenerateSourcesTask extends AbstractLoomTask {
-	private static final String CACHE_VERSION = "v1";
+	private static final String CACHE_VERSION = "v2";
+	// Bump when the line number remapped classes change for the same input jar and line numbers
+	private static final int CLASSES_CACHE_VERSION = 1;
 	private final DecompilerOptions decompilerOptions;
 
 	/**
@@ -188,6 +200,15 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 	@Input
 	protected abstract Property<Integer> getMaxCacheFileAge();
 
+	@ApiStatus.Internal
+	@Input
+	@Optional
+	protected abstract Property<Integer> getMaxCacheSize();
+
+	@ApiStatus.Internal
+	@Internal
+	protected abstract Property<Boolean> getKeepWorkerAlive();
+
 	// Injects
 	@Inject
 	protected abstract WorkerExecutor getWorkerExecutor();
@@ -257,6 +278,8 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 
 		getMaxCachedFiles().set(GradleUtils.getIntegerPropertyProvider(getProject(), Constants.Properties.DECOMPILE_CACHE_MAX_FILES).orElse(50_000));
 		getMaxCacheFileAge().set(GradleUtils.getIntegerPropertyProvider(getProject(), Constants.Properties.DECOMPILE_CACHE_MAX_AGE).orElse(90));
+		getMaxCacheSize().set(GradleUtils.getIntegerPropertyProvider(getProject(), Constants.Properties.DECOMPILE_CACHE_MAX_SIZE));
+		getKeepWorkerAlive().set(GradleUtils.getBooleanPropertyProvider(getProject(), Constants.Properties.DECOMPILE_WORKER_KEEP_ALIVE));
 
 		getDaemonUtilsContext().set(getProject().getObjects().newInstance(DaemonUtils.Context.class, getProject()));
 
@@ -288,26 +311,33 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 
 		try (var timer = new Timer("Decompiled sources with cache")) {
 			final Path cacheFile = getDecompileCacheFile().getAsFile().get().toPath();
+			final Path classesCacheDir = getCacheSibling(cacheFile, "classes");
+			final Path unpickCacheFile = getCacheSibling(cacheFile, "unpick.pack");
 
 			if (getResetCache().get()) {
 				getLogger().warn("Resetting decompile cache");
-				Files.deleteIfExists(cacheFile);
+				PackedFileStore.delete(cacheFile);
+				PackedFileStore.delete(unpickCacheFile);
+				deleteClassesCache(classesCacheDir);
 			}
 
-			// TODO ensure we have a lock on this file to prevent multiple tasks from running at the same time
 			Files.createDirectories(cacheFile.getParent());
+			// The previous zip based cache is no longer used
+			Files.deleteIfExists(cacheFile.resolveSibling("v1.zip"));
 
-			if (Files.exists(cacheFile)) {
-				try (FileSystemUtil.Delegate fs = FileSystemUtil.getJarFileSystem(cacheFile, true)) {
-					// Success, cache exists and can be read
-				} catch (IOException e) {
-					getLogger().warn("Discarding invalid decompile cache file: {}", cacheFile, e);
-					Files.delete(cacheFile);
+			final long maxCacheBytes = getMaxCacheSize().isPresent() ? getMaxCacheSize().get() * 1024L * 1024L : Long.MAX_VALUE;
+			final var cacheRules = new CachedFileStoreImpl.CacheRules(getMaxCachedFiles().get(), maxCacheBytes, Duration.ofDays(getMaxCacheFileAge().get()));
+			getLogger().debug("Decompile cache rules: {}", cacheRules);
+
+			try (PackedFileStore<CachedData> decompileCache = openCache(cacheFile, CachedData.BINARY_SERIALIZER, cacheRules);
+					PackedFileStore<CachedUnpickedClasses> unpickCache = getUnpickDefinitions().isPresent() ? openCache(unpickCacheFile, CachedUnpickedClasses.BINARY_SERIALIZER, cacheRules) : null) {
+				logPruneStats("decompile", decompileCache);
+
+				if (unpickCache != null) {
+					logPruneStats("unpick", unpickCache);
 				}
-			}
 
-			try (FileSystemUtil.Delegate fs = FileSystemUtil.getJarFileSystem(cacheFile, true)) {
-				runWithCache(fs.getRoot());
+				runWithCache(decompileCache, unpickCache, classesCacheDir, cacheRules);
 			}
 		} catch (Exception e) {
 			ExceptionUtil.processException(e, getDaemonUtilsContext().get());
@@ -315,18 +345,36 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 		}
 	}
 
-	private void runWithCache(Path cacheRoot) throws IOException {
+	private <T> PackedFileStore<T> openCache(Path cacheFile, CachedFileStore.BinaryEntrySerializer<T> serializer, CachedFileStoreImpl.CacheRules cacheRules) throws IOException {
+		try (var timer = new Timer("Open cache " + cacheFile.getFileName())) {
+			try {
+				return PackedFileStore.open(cacheFile, serializer, cacheRules);
+			} catch (IOException e) {
+				getLogger().warn("Discarding invalid cache file: {}", cacheFile, e);
+				PackedFileStore.delete(cacheFile);
+			}
+
+			return PackedFileStore.open(cacheFile, serializer, cacheRules);
+		}
+	}
+
+	private void logPruneStats(String name, PackedFileStore<?> cache) {
+		final CachePruner.PruneStats pruneStats = cache.getPruneStats();
+
+		if (pruneStats.evictedCount() > 0) {
+			getLogger().info("Pruned {} entries ({} bytes) from the {} cache", pruneStats.evictedCount(), pruneStats.evictedBytes(), name);
+		}
+	}
+
+	private void runWithCache(CachedFileStore<CachedData> decompileCache, @Nullable CachedFileStore<CachedUnpickedClasses> unpickCache, Path classesCacheDir, CachedFileStoreImpl.CacheRules classesCacheRules) throws IOException {
 		final Path classesInputJar = getClassesInputJar().getSingleFile().toPath();
 		final Path sourcesOutputJar = getSourcesOutputJar().get().getAsFile().toPath();
 		final Path classesOutputJar = getClassesOutputJar().getSingleFile().toPath();
-		final var cacheRules = new CachedFileStoreImpl.CacheRules(getMaxCachedFiles().get(), Duration.ofDays(getMaxCacheFileAge().get()));
-		final var decompileCache = new CachedFileStoreImpl<>(cacheRoot, CachedData.SERIALIZER, cacheRules);
 		final String cacheKey = getCacheKey();
 		final CachedJarProcessor cachedJarProcessor = new CachedJarProcessor(decompileCache, cacheKey);
 		final CachedJarProcessor.WorkRequest workRequest;
 
 		getLogger().info("Decompile cache key: {}", cacheKey);
-		getLogger().debug("Decompile cache rules: {}", cacheRules);
 
 		try (var timer = new Timer("Prepare job")) {
 			workRequest = cachedJarProcessor.prepareJob(classesInputJar);
@@ -345,7 +393,7 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 
 			if (getUnpickDefinitions().isPresent()) {
 				try (var timer = new Timer("Unpick")) {
-					workInputJar = unpickJar(workInputJar, existingClasses);
+					workInputJar = unpickJarWithCache(Objects.requireNonNull(unpickCache, "unpickCache"), workInputJar, existingClasses);
 				}
 			}
 
@@ -375,11 +423,86 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 		final ClassLineNumbers existingLinenumbers = workRequest.lineNumbers();
 		final ClassLineNumbers lineNumbers = ClassLineNumbers.merge(existingLinenumbers, outputLineNumbers);
 
+		if (lineNumbers == null) {
+			getLogger().info("No line numbers to remap, skipping remapping");
+			return;
+		}
+
+		// The remapped classes only depend on the input classes and the line numbers, so a fully cached run can reuse them as well
+		final Path cachedClassesJar = classesCacheDir.resolve(getClassesCacheKey(classesInputJar, lineNumbers) + ".jar");
+
+		if (Files.exists(cachedClassesJar)) {
+			getLogger().info("Using cached line number remapped classes from {}", cachedClassesJar);
+			Files.setLastModifiedTime(cachedClassesJar, FileTime.from(Instant.now()));
+			Files.copy(cachedClassesJar, classesOutputJar, StandardCopyOption.REPLACE_EXISTING);
+			return;
+		}
+
 		applyLineNumbers(lineNumbers, classesInputJar, classesOutputJar);
 
-		try (var timer = new Timer("Prune cache")) {
-			decompileCache.prune();
+		Files.createDirectories(classesCacheDir);
+		pruneClassesCache(classesCacheDir, classesCacheRules);
+
+		final Path tempJar = Files.createTempFile(classesCacheDir, "classes", ".tmp");
+		Files.copy(classesOutputJar, tempJar, StandardCopyOption.REPLACE_EXISTING);
+		Files.move(tempJar, cachedClassesJar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static Path getCacheSibling(Path cacheFile, String suffix) {
+		final String fileName = cacheFile.getFileName().toString();
+		return cacheFile.resolveSibling(fileName.substring(0, fileName.lastIndexOf('.')) + "-" + suffix);
+	}
+
+	private static String getClassesCacheKey(Path classesInputJar, ClassLineNumbers lineNumbers) {
+		final Hasher hasher = Hashing.sha256().newHasher();
+		hasher.putInt(CLASSES_CACHE_VERSION);
+		hasher.putBytes(Checksum.sha256(classesInputJar.toFile()));
+
+		for (String className : new TreeSet<>(lineNumbers.lineMap().keySet())) {
+			final byte[] lineMap = lineNumbers.lineMap().get(className).toByteArray();
+			hasher.putString(className, StandardCharsets.UTF_8);
+			hasher.putInt(lineMap.length);
+			hasher.putBytes(lineMap);
 		}
+
+		return hasher.hash().toString();
+	}
+
+	/**
+	 * Removes the least recently used jars until the classes cache meets the same rules as the decompile cache.
+	 */
+	private void pruneClassesCache(Path classesCacheDir, CachedFileStoreImpl.CacheRules cacheRules) throws IOException {
+		final List<CachedClassesJar> jars = new ArrayList<>();
+
+		try (Stream<Path> files = Files.list(classesCacheDir)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				jars.add(new CachedClassesJar(file, Files.getLastModifiedTime(file).toMillis(), Files.size(file)));
+			}
+		}
+
+		final CachePruner.Result<CachedClassesJar> result = new CachePruner(cacheRules).prune(jars, CachedClassesJar::lastModified, CachedClassesJar::size);
+
+		for (CachedClassesJar jar : result.evicted()) {
+			getLogger().info("Pruning cached line number remapped classes {}", jar.path());
+			Files.deleteIfExists(jar.path());
+		}
+	}
+
+	private record CachedClassesJar(Path path, long lastModified, long size) {
+	}
+
+	private static void deleteClassesCache(Path classesCacheDir) throws IOException {
+		if (Files.notExists(classesCacheDir)) {
+			return;
+		}
+
+		try (Stream<Path> files = Files.list(classesCacheDir)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.deleteIfExists(file);
+			}
+		}
+
+		Files.delete(classesCacheDir);
 	}
 
 	private void runWithoutCache() throws IOException {
@@ -391,7 +514,7 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 
 		if (getUnpickDefinitions().isPresent()) {
 			try (var timer = new Timer("Unpick")) {
-				workClassesJar = unpickJar(workClassesJar, null);
+				workClassesJar = unpickJar(workClassesJar);
 			}
 		}
 
@@ -566,9 +689,55 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 		}
 	}
 
-	private Path unpickJar(Path inputJar, @Nullable Path existingClasses) {
+	private Path unpickJar(Path inputJar) {
 		final Path outputJar = getUnpickOutputJar().get().getAsFile().toPath();
-		final List<String> args = getUnpickArgs(inputJar, outputJar, existingClasses);
+		runUnpick(inputJar, outputJar, List.of());
+		return outputJar;
+	}
+
+	/**
+	 * Unpick only the classes that are not in the unpick cache, the cached classes are added to the output as they are.
+	 */
+	private Path unpickJarWithCache(CachedFileStore<CachedUnpickedClasses> unpickCache, Path inputJar, @Nullable Path existingClasses) throws IOException {
+		final String cacheKey = Checksum.sha256Hex(getUnpickCacheKey().getBytes(StandardCharsets.UTF_8));
+		final var processor = new CachedUnpickProcessor(unpickCache, cacheKey);
+		final CachedUnpickProcessor.UnpickJob job = processor.prepareJob(inputJar);
+
+		getLogger().info("Unpick cache stats: {} hits, {} misses", job.cached().size(), job.pending().size());
+
+		final Path outputJar = getUnpickOutputJar().get().getAsFile().toPath();
+		Path unpickedJar = null;
+
+		if (job.incomplete() != null) {
+			unpickedJar = Files.createTempFile("loom-unpick-output", ".jar");
+			Files.delete(unpickedJar);
+
+			// The cached classes are not passed to unpick, so add the whole input jar to the classpath for it to resolve them
+			final var classpath = new ArrayList<Path>();
+			classpath.add(inputJar);
+
+			if (existingClasses != null) {
+				classpath.add(existingClasses);
+			}
+
+			runUnpick(job.incomplete(), unpickedJar, classpath);
+		}
+
+		Files.deleteIfExists(outputJar);
+
+		try {
+			processor.completeJob(job, unpickedJar, outputJar);
+		} finally {
+			if (unpickedJar != null) {
+				Files.deleteIfExists(unpickedJar);
+			}
+		}
+
+		return outputJar;
+	}
+
+	private void runUnpick(Path inputJar, Path outputJar, List<Path> extraClasspath) {
+		final List<String> args = getUnpickArgs(inputJar, outputJar, extraClasspath);
 
 		ExecResult result = getExecOperations().javaexec(spec -> {
 			spec.getMainClass().set("daomephsta.unpick.cli.Main");
@@ -578,11 +747,9 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 		});
 
 		result.rethrowFailure();
-
-		return outputJar;
 	}
 
-	private List<String> getUnpickArgs(Path inputJar, Path outputJar, @Nullable Path existingClasses) {
+	private List<String> getUnpickArgs(Path inputJar, Path outputJar, List<Path> extraClasspath) {
 		var fileArgs = new ArrayList<File>();
 
 		fileArgs.add(inputJar.toFile());
@@ -594,8 +761,8 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 			fileArgs.add(file);
 		}
 
-		if (existingClasses != null) {
-			fileArgs.add(existingClasses.toFile());
+		for (Path path : extraClasspath) {
+			fileArgs.add(path.toFile());
 		}
 
 		return fileArgs.stream()
@@ -630,7 +797,9 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 	}
 
 	private void doWork(@Nullable IPCServer ipcServer, Path inputJar, Path outputJar, Path linemapFile, @Nullable Path existingClasses) {
-		final String jvmMarkerValue = UUID.randomUUID().toString();
+		final boolean keepWorkerAlive = getKeepWorkerAlive().get();
+		// Gradle only reuses an idle worker with matching fork options, a stable marker allows a kept alive worker to be picked up again
+		final String jvmMarkerValue = keepWorkerAlive ? getWorkerKey() : UUID.randomUUID().toString();
 		final WorkQueue workQueue = createWorkQueue(jvmMarkerValue);
 
 		workQueue.submit(DecompileAction.class, params -> {
@@ -658,7 +827,7 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 		try {
 			workQueue.await();
 		} finally {
-			if (ipcServer != null) {
+			if (ipcServer != null && !keepWorkerAlive) {
 				boolean stopped = WorkerDaemonClientsManagerHelper.stopIdleJVM(getWorkerDaemonClientsManager(), jvmMarkerValue);
 
 				if (!stopped && ipcServer.hasReceivedMessage()) {
@@ -668,6 +837,26 @@ public abstract class GenerateSourcesTask extends AbstractLoomTask {
 		}
 	}
 
+	/**
+	 * A key for the worker JVM, based on the worker classpath and the JVM options.
+	 */
+	private String getWorkerKey() {
+		var sj = new StringJoiner(",");
+		sj.add(decompilerOptions.getMemory().get().toString());
+
+		getClasspath().getFiles()
+				.stream()
+				.map(File::getAbsolutePath)
+				.sorted()
+				.forEach(sj::add);
+
+		try {
+			return Checksum.sha256Hex(sj.toString().getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	private WorkQueue createWorkQueue(String jvmMarkerValue) {
 		if (!useProcessIsolation()) {
 			return getWorkerExecutor().classLoaderIsolation(spec -> {
@@ -28,9 +28,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -45,6 +43,7 @@ import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.SetProperty;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.InputFiles;
@@ -66,6 +65,7 @@ import net.fabricmc.loom.build.nesting.JarNester;
 import net.fabricmc.loom.build.nesting.NestableJarGenerationTask;
 import net.fabricmc.loom.configuration.accesswidener.AccessWidenerFile;
 import net.fabricmc.loom.configuration.mods.ArtifactMetadata;
+import net.fabricmc.loom.task.service.ClasspathIndexService;
 import net.fabricmc.loom.task.service.ClientEntriesService;
 import net.fabricmc.loom.task.service.MappingsService;
 import net.fabricmc.loom.task.service.MixinRefmapService;
@@ -73,8 +73,8 @@ import net.fabricmc.loom.task.service.TinyRemapperService;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.ExceptionUtil;
 import net.fabricmc.loom.util.ModPlatform;
-import net.fabricmc.loom.util.Pair;
 import net.fabricmc.loom.util.SidedClassVisitor;
+import net.fabricmc.loom.util.StagedJarOutput;
 import net.fabricmc.loom.util.ZipUtils;
 import net.fabricmc.loom.util.fmj.FabricModJsonFactory;
 import net.fabricmc.loom.util.fmj.FabricModJsonUtils;
@@ -148,6 +148,9 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 	@Nested
 	public abstract ListProperty<MixinRefmapService.Options> getMixinRefmapServiceOptions();
 
+	@ServiceReference(ClasspathIndexService.NAME)
+	abstract Property<ClasspathIndexService> getClasspathIndex();
+
 	@Inject
 	public RemapJarTask() {
 		super();
@@ -171,6 +174,7 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 		getJarType().set("classes");
 
 		getTinyRemapperServiceOptions().set(TinyRemapperService.createOptions(this));
+		ClasspathIndexService.register(getProject());
 		getMixinRefmapServiceOptions().set(MixinRefmapService.createOptions(this));
 
 		getModPlatform().value(LoomGradleExtension.get(getProject()).getPlatform()).finalizeValue();
@@ -187,6 +191,7 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 
 			if (!params.namespacesMatch()) {
 				params.getTinyRemapperServiceOptions().set(getTinyRemapperServiceOptions());
+				params.getClasspathIndex().set(getClasspathIndex());
 				params.getMixinRefmapServiceOptions().set(getMixinRefmapServiceOptions());
 
 				params.getRemapClasspath().from(getClasspath());
@@ -231,6 +236,7 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 		Property<Boolean> getOptimizeFmj();
 
 		Property<TinyRemapperService.Options> getTinyRemapperServiceOptions();
+		Property<ClasspathIndexService> getClasspathIndex();
 		ListProperty<MixinRefmapService.Options> getMixinRefmapServiceOptions();
 	}
 
@@ -252,6 +258,10 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 						? serviceFactory.get(getParameters().getTinyRemapperServiceOptions().get())
 						: null;
 
+				if (tinyRemapperService != null) {
+					tinyRemapperService.readClasspath(getParameters().getClasspathIndex().getOrNull());
+				}
+
 				prepare();
 
 				if (tinyRemapperService != null) {
@@ -262,34 +272,37 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 					Files.copy(inputFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
 				}
 
+				// All post-processing steps stage their edits, the jar is only rewritten once at the end.
+				final StagedJarOutput output = new StagedJarOutput(outputFile);
+
 				if (getParameters().getClientOnlyEntries().isPresent()) {
-					markClientOnlyClasses();
+					markClientOnlyClasses(output);
 				}
 
-				if (!injectAccessWidener()) {
-					remapAccessWidener();
+				if (!injectAccessWidener(output)) {
+					remapAccessWidener(output);
 				}
 
-				addRefmaps(serviceFactory);
-				addNestedJars();
+				addRefmaps(serviceFactory, output);
+				addNestedJars(output);
 
 				if (getParameters().getAtAccessWideners().isPresent()) {
 					final Provider<MappingsService.Options> mappingsServiceOptions = getParameters().getTinyRemapperServiceOptions()
 							.flatMap(TinyRemapperService.Options::getMappings)
 							.map(mappingsOptions -> mappingsOptions.get(0));
-					ModBuildExtensions.convertAwToAt(serviceFactory, getParameters().getAtAccessWideners().get(), outputFile, mappingsServiceOptions);
+					ModBuildExtensions.convertAwToAt(serviceFactory, getParameters().getAtAccessWideners().get(), output, mappingsServiceOptions);
 				}
 
 				if (!getParameters().getPlatform().get().isForgeLike()) {
-					modifyJarManifest();
+					modifyJarManifest(output);
 				}
 
-				rewriteJar();
-
 				if (getParameters().getOptimizeFmj().get()) {
-					optimizeFMJ();
+					optimizeFMJ(output);
 				}
 
+				rewriteJar(output);
+
 				if (tinyRemapperService != null) {
 					tinyRemapperService.close();
 				}
@@ -324,41 +337,38 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 			}
 		}
 
-		private void markClientOnlyClasses() throws IOException {
-			final Stream<Pair<String, ZipUtils.UnsafeUnaryOperator<byte[]>>> tranformers = getParameters().getClientOnlyEntries().get().stream()
-					.map(s -> new Pair<>(s,
-							(ZipUtils.AsmClassOperator) classVisitor -> SidedClassVisitor.CLIENT.insertApplyVisitor(null, classVisitor)
-					));
-
-			ZipUtils.transform(outputFile, tranformers);
+		private void markClientOnlyClasses(StagedJarOutput output) {
+			for (String entry : getParameters().getClientOnlyEntries().get()) {
+				output.transform(entry, (ZipUtils.AsmClassOperator) classVisitor -> SidedClassVisitor.CLIENT.insertApplyVisitor(null, classVisitor));
+			}
 		}
 
-		private boolean injectAccessWidener() throws IOException {
+		private boolean injectAccessWidener(StagedJarOutput output) throws IOException {
 			if (!getParameters().getInjectAccessWidener().isPresent()) return false;
 
 			Path path = getParameters().getInjectAccessWidener().getAsFile().get().toPath();
 
 			byte[] remapped = remapAccessWidener(Files.readAllBytes(path));
 
-			ZipUtils.add(outputFile, path.getFileName().toString(), remapped);
+			output.add(path.getFileName().toString(), remapped);
 
 			if (getParameters().getPlatform().get() == ModPlatform.QUILT) {
-				ZipUtils.transformJson(JsonObject.class, outputFile, Map.of("quilt.mod.json", json -> {
+				output.transformJson(JsonObject.class, "quilt.mod.json", json -> {
 					json.addProperty("access_widener", path.getFileName().toString());
 					return json;
-				}));
+				});
 				return true;
 			}
 
-			ZipUtils.transformJson(JsonObject.class, outputFile, Map.of("fabric.mod.json", json -> {
+			output.transformJson(JsonObject.class, "fabric.mod.json", json -> {
 				json.addProperty("accessWidener", path.getFileName().toString());
 				return json;
-			}));
+			});
 
 			return true;
 		}
 
-		private void remapAccessWidener() throws IOException {
+		private void remapAccessWidener(StagedJarOutput output) throws IOException {
 			if (getParameters().namespacesMatch()) {
 				return;
 			}
@@ -372,7 +382,7 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 			byte[] remapped = remapAccessWidener(accessWidenerFile.content());
 
 			// Finally, replace the output with the remaped aw
-			ZipUtils.replace(outputFile, accessWidenerFile.path(), remapped);
+			output.replace(accessWidenerFile.path(), remapped);
 		}
 
 		private byte[] remapAccessWidener(byte[] input) {
@@ -393,7 +403,7 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 			return writer.write();
 		}
 
-		private void addNestedJars() {
+		private void addNestedJars(StagedJarOutput output) {
 			FileCollection nestedJars = getParameters().getNestedJars();
 
 			if (nestedJars.isEmpty()) {
@@ -401,26 +411,22 @@ public abstract class RemapJarTask extends AbstractRemapJarTask {
 				return;
 			}
 
-			JarNester.nestJars(nestedJars.getFiles(), outputFile.toFile(), getParameters().getPlatform().get(), LOGGER);
+			JarNester.nestJars(nestedJars.getFiles(), output, getParameters().getPlatform().get(), LOGGER);
 		}
 
-		private void addRefmaps(ServiceFactory serviceFactory) throws IOException {
+		private void addRefmaps(ServiceFactory serviceFactory, StagedJarOutput output) {
 			if (getParameters().getUseMixinExtension().getOrElse(false)) {
 				return;
 			}
 
 			for (MixinRefmapService.Options options : getParameters().getMixinRefmapServiceOptions().get()) {
 				MixinRefmapService mixinRefmapService = serviceFactory.get(options);
-				mixinRefmapService.applyToJar(outputFile, getParameters().getReadMixinConfigsFromManifest().get());
+				mixinRefmapService.applyToJar(output, getParameters().getReadMixinConfigsFromManifest().get());
 			}
 		}
 
-		private void optimizeFMJ() throws IOException {
-			if (!ZipUtils.contains(outputFile, FabricModJsonFactory.FABRIC_MOD_JSON)) {
-				return;
-			}
-
-			ZipUtils.transformJson(JsonObject.class, outputFile, FabricModJsonFactory.FABRIC_MOD_JSON, FabricModJsonUtils::optimizeFmj);
+		private void optimizeFMJ(StagedJarOutput output) {
+			output.transformJson(JsonObject.class, FabricModJsonFactory.FABRIC_MOD_JSON, FabricModJsonUtils::optimizeFmj);
 		}
 	}
 
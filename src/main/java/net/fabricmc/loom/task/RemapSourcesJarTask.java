@@ -41,6 +41,7 @@ import org.slf4j.LoggerFactory;
 
 import net.fabricmc.loom.task.service.ClientEntriesService;
 import net.fabricmc.loom.task.service.SourceRemapperService;
+import net.fabricmc.loom.util.StagedJarOutput;
 import net.fabricmc.loom.util.service.ScopedServiceFactory;
 
 public abstract class RemapSourcesJarTask extends AbstractRemapJarTask {
@@ -93,8 +94,9 @@ public abstract class RemapSourcesJarTask extends AbstractRemapJarTask {
 					Files.copy(inputFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
 				}
 
-				modifyJarManifest();
-				rewriteJar();
+				final StagedJarOutput output = new StagedJarOutput(outputFile);
+				modifyJarManifest(output);
+				rewriteJar(output);
 			} catch (Exception e) {
 				try {
 					Files.deleteIfExists(outputFile);
@@ -0,0 +1,228 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.fabricmc.loom.task.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import com.google.common.hash.Hashing;
+import org.gradle.api.Project;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.fabricmc.loom.LoomGradleExtension;
+import net.fabricmc.loom.decompilers.cache.CachePruner;
+import net.fabricmc.loom.decompilers.cache.CachedFileStoreImpl;
+import net.fabricmc.loom.util.ExceptionUtil;
+import net.fabricmc.loom.util.RawZipFile;
+import net.fabricmc.loom.util.RawZipWriter;
+import net.fabricmc.loom.util.ThreadingUtils;
+
+/**
+ * Creates class index jars of remap classpath jars, shared by all remap tasks in a build.
+ *
+ * <p>An index jar only contains the class files of the original jar without any code or debug info,
+ * this is all tiny remapper reads from the classpath. Reading the index is much cheaper than reading
+ * the original jar, and each jar is only indexed once no matter how many remappers use it.
+ * The index jars are kept in the user cache between builds, and are pruned once they haven't been used for a while.
+ */
+public abstract class ClasspathIndexService implements BuildService<ClasspathIndexService.Params>, AutoCloseable {
+	public static final String NAME = "loomClasspathIndex";
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClasspathIndexService.class);
+	// Bump when the contents of the index jars change
+	private static final int INDEX_VERSION = 1;
+	private static final CachedFileStoreImpl.CacheRules CACHE_RULES = new CachedFileStoreImpl.CacheRules(5_000, 1024L * 1024 * 1024, Duration.ofDays(14));
+
+	private final Map<String, CompletableFuture<Path>> indexes = new ConcurrentHashMap<>();
+
+	public interface Params extends BuildServiceParameters {
+		DirectoryProperty getCacheDirectory();
+	}
+
+	public static Provider<ClasspathIndexService> register(Project project) {
+		final LoomGradleExtension extension = LoomGradleExtension.get(project);
+
+		return project.getGradle().getSharedServices().registerIfAbsent(NAME, ClasspathIndexService.class, spec -> {
+			spec.getParameters().getCacheDirectory().set(new File(extension.getFiles().getUserCache(), "classpath-index"));
+		});
+	}
+
+	/**
+	 * Returns the class index jars of the given classpath entries, entries that are not jars are returned as is.
+	 */
+	public List<Path> getIndexes(List<Path> classpath) throws IOException {
+		final List<CompletableFuture<Path>> futures = new ArrayList<>(classpath.size());
+
+		for (Path path : classpath) {
+			if (!Files.isRegularFile(path)) {
+				futures.add(CompletableFuture.completedFuture(path));
+				continue;
+			}
+
+			// The path, size and modification time identify the jar without reading it
+			final String key = Hashing.sha256()
+					.hashString(INDEX_VERSION + ":" + path.toAbsolutePath() + ":" + Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis(), StandardCharsets.UTF_8)
+					.toString();
+			futures.add(indexes.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> getOrCreateIndex(path, getIndexPath(k)), ThreadingUtils.executor())));
+		}
+
+		final List<Path> result = new ArrayList<>(futures.size());
+
+		for (CompletableFuture<Path> future : futures) {
+			try {
+				result.add(future.join());
+			} catch (CompletionException e) {
+				throw ExceptionUtil.createDescriptiveWrapper(IOException::new, "Failed to index remap classpath", e.getCause());
+			}
+		}
+
+		return result;
+	}
+
+	private Path getDirectory() {
+		return getParameters().getCacheDirectory().get().getAsFile().toPath();
+	}
+
+	private Path getIndexPath(String key) {
+		return getDirectory().resolve(key.substring(0, 2)).resolve(key + ".jar");
+	}
+
+	private static Path getOrCreateIndex(Path jar, Path index) {
+		if (Files.isRegularFile(index)) {
+			try {
+				// Record the use, the cache is pruned by modification time
+				Files.setLastModifiedTime(index, FileTime.fromMillis(System.currentTimeMillis()));
+				return index;
+			} catch (IOException e) {
+				LOGGER.debug("Failed to update the modification time of {}, recreating it", index, e);
+			}
+		}
+
+		return createIndex(jar, index);
+	}
+
+	private static Path createIndex(Path jar, Path index) {
+		Path tempFile = null;
+
+		try {
+			Files.createDirectories(index.getParent());
+			tempFile = Files.createTempFile(index.getParent(), "index", ".tmp");
+			writeIndex(jar, tempFile);
+			// Another build may be indexing the same jar, the index jars are equivalent so either one wins
+			Files.move(tempFile, index, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | RuntimeException e) {
+			// Fall back to the original jar, tiny remapper will report the error if it cannot read it either
+			LOGGER.warn("Failed to index remap classpath entry {}", jar, e);
+			return jar;
+		} finally {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e) {
+					LOGGER.debug("Failed to delete {}", tempFile, e);
+				}
+			}
+		}
+
+		return index;
+	}
+
+	private static void writeIndex(Path jar, Path index) throws IOException {
+		try (RawZipFile zipFile = RawZipFile.open(jar);
+				RawZipWriter writer = new RawZipWriter(index)) {
+			for (RawZipFile.Entry entry : zipFile.entries()) {
+				if (entry.isDirectory() || !entry.name().endsWith(".class") || writer.contains(entry.name())) {
+					continue;
+				}
+
+				final ClassReader reader = new ClassReader(zipFile.readAllBytes(entry));
+				// Don't pass the reader to the writer, that would copy the methods including their code
+				final ClassWriter classWriter = new ClassWriter(0);
+				reader.accept(classWriter, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+				writer.write(entry, classWriter.toByteArray());
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		indexes.clear();
+		pruneCache(getDirectory());
+	}
+
+	private static void pruneCache(Path root) {
+		if (Files.notExists(root)) {
+			return;
+		}
+
+		final List<CachedIndex> entries = new ArrayList<>();
+
+		try {
+			try (Stream<Path> files = Files.walk(root, 2)) {
+				for (Path file : (Iterable<Path>) files::iterator) {
+					// Skip the temporary files of indexes that are being written
+					if (!Files.isRegularFile(file) || !file.getFileName().toString().endsWith(".jar")) {
+						continue;
+					}
+
+					entries.add(new CachedIndex(file, Files.getLastModifiedTime(file).toMillis(), Files.size(file)));
+				}
+			}
+
+			final CachePruner.Result<CachedIndex> result = new CachePruner(CACHE_RULES).prune(entries, CachedIndex::lastModified, CachedIndex::size);
+
+			for (CachedIndex entry : result.evicted()) {
+				Files.deleteIfExists(entry.path());
+			}
+
+			if (result.evictedCount() > 0) {
+				LOGGER.info("Pruned {} classpath indexes ({} bytes) from the cache", result.evictedCount(), result.evictedBytes());
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Failed to prune the classpath index cache", e);
+		}
+	}
+
+	private record CachedIndex(Path path, long lastModified, long size) {
+	}
+}
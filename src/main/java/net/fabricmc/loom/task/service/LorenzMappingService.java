@@ -71,8 +71,12 @@ public final class LorenzMappingService extends Service<LorenzMappingService.Opt
 		super(options, serviceFactory);
 	}
 
+	public MappingsService getMappingsService() {
+		return getServiceFactory().get(getOptions().getMappings().get());
+	}
+
 	private MappingSet readMappings() {
-		MappingsService mappingsService = getServiceFactory().get(getOptions().getMappings().get());
+		MappingsService mappingsService = getMappingsService();
 
 		try {
 			try (var reader = new TinyMappingsReader(mappingsService.getMemoryMappingTree(), mappingsService.getFrom(), mappingsService.getTo())) {
@@ -86,4 +90,12 @@ public final class LorenzMappingService extends Service<LorenzMappingService.Opt
 	public MappingSet getMappings() {
 		return mappings.get();
 	}
+
+	/**
+	 * Reads a new copy of the mappings. Mercury completes the mappings of the classes it remaps,
+	 * so concurrent remappers must not share a mapping set.
+	 */
+	public MappingSet createMappings() {
+		return readMappings();
+	}
 }
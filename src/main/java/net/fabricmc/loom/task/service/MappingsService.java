@@ -38,11 +38,11 @@ import org.gradle.api.tasks.InputFile;
 
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.configuration.providers.mappings.MappingConfiguration;
+import net.fabricmc.loom.configuration.providers.mappings.MappingTreeSnapshot;
 import net.fabricmc.loom.util.TinyRemapperHelper;
 import net.fabricmc.loom.util.service.Service;
 import net.fabricmc.loom.util.service.ServiceFactory;
 import net.fabricmc.loom.util.service.ServiceType;
-import net.fabricmc.mappingio.MappingReader;
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
 import net.fabricmc.tinyremapper.IMappingProvider;
 
@@ -100,16 +100,12 @@ public final class MappingsService extends Service<MappingsService.Options> impl
 
 	public IMappingProvider getMappingsProvider() {
 		if (mappingProvider == null) {
-			try {
-				mappingProvider = TinyRemapperHelper.create(
-						getMappingsPath(),
-						getFrom(),
-						getTo(),
-						getOptions().getRemapLocals().get()
-				);
-			} catch (IOException e) {
-				throw new UncheckedIOException("Failed to read mappings from: " + getMappingsPath(), e);
-			}
+			mappingProvider = TinyRemapperHelper.create(
+					getMemoryMappingTree(),
+					getFrom(),
+					getTo(),
+					getOptions().getRemapLocals().get()
+			);
 		}
 
 		return mappingProvider;
@@ -117,10 +113,8 @@ public final class MappingsService extends Service<MappingsService.Options> impl
 
 	public MemoryMappingTree getMemoryMappingTree() {
 		if (memoryMappingTree == null) {
-			memoryMappingTree = new MemoryMappingTree();
-
 			try {
-				MappingReader.read(getMappingsPath(), memoryMappingTree);
+				memoryMappingTree = MappingTreeSnapshot.read(getMappingsPath());
 			} catch (IOException e) {
 				throw new UncheckedIOException("Failed to read mappings from: " + getMappingsPath(), e);
 			}
@@ -24,12 +24,10 @@
 
 package net.fabricmc.loom.task.service;
 
-import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import com.google.gson.JsonObject;
 import dev.architectury.loom.extensions.ModBuildExtensions;
@@ -43,7 +41,7 @@ import org.gradle.api.tasks.SourceSet;
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.extension.MixinExtension;
 import net.fabricmc.loom.task.RemapJarTask;
-import net.fabricmc.loom.util.ZipUtils;
+import net.fabricmc.loom.util.StagedJarOutput;
 import net.fabricmc.loom.util.fmj.FabricModJson;
 import net.fabricmc.loom.util.fmj.FabricModJsonFactory;
 import net.fabricmc.loom.util.service.Service;
@@ -106,7 +104,8 @@ public class MixinRefmapService extends Service<MixinRefmapService.Options> {
 		super(options, serviceFactory);
 	}
 
-	public void applyToJar(Path path, boolean readConfigsFromManifest) throws IOException {
+	public void applyToJar(StagedJarOutput output, boolean readConfigsFromManifest) {
+		final Path path = output.getPath();
 		final FabricModJson fabricModJson = FabricModJsonFactory.createFromZipNullable(path);
 		final List<String> allMixinConfigs = new ArrayList<>();
 
@@ -127,14 +126,16 @@ public class MixinRefmapService extends Service<MixinRefmapService.Options> {
 				.toList();
 		final String refmapName = getOptions().getRefmapName().get();
 
-		if (ZipUtils.contains(path, refmapName)) {
-			int transformed = ZipUtils.transformJson(JsonObject.class, path, mixinConfigs.stream().collect(Collectors.toMap(s -> s, s -> json -> {
-				if (!json.has("refmap")) {
-					json.addProperty("refmap", refmapName);
-				}
+		if (output.contains(refmapName)) {
+			for (String mixinConfig : mixinConfigs) {
+				output.transformJson(JsonObject.class, mixinConfig, json -> {
+					if (!json.has("refmap")) {
+						json.addProperty("refmap", refmapName);
+					}
 
-				return json;
-			})));
+					return json;
+				});
+			}
 		}
 	}
 }
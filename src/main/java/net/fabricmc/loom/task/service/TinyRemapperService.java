@@ -27,6 +27,7 @@ package net.fabricmc.loom.task.service;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -127,11 +128,11 @@ public class TinyRemapperService extends Service<TinyRemapperService.Options> im
 	private final HashSet<Path> classpath = new HashSet<>();
 	// Set to true once remapping has started, once set no inputs can be read.
 	private boolean isRemapping = false;
+	private boolean hasReadClasspath = false;
 
 	public TinyRemapperService(Options options, ServiceFactory serviceFactory) {
 		super(options, serviceFactory);
 		tinyRemapper = createTinyRemapper();
-		readClasspath();
 	}
 
 	private TinyRemapper createTinyRemapper() {
@@ -185,6 +186,7 @@ public class TinyRemapperService extends Service<TinyRemapperService.Options> im
 	}
 
 	public TinyRemapper getTinyRemapperForRemapping() {
+		ensureClasspathRead();
 		isRemapping = true;
 		return Objects.requireNonNull(tinyRemapper, "Tiny remapper has not been setup");
 	}
@@ -194,10 +196,23 @@ public class TinyRemapperService extends Service<TinyRemapperService.Options> im
 			throw new IllegalStateException("Cannot read inputs as remapping has already started");
 		}
 
+		ensureClasspathRead();
 		return tinyRemapper;
 	}
 
-	private void readClasspath() {
+	private void ensureClasspathRead() {
+		if (!hasReadClasspath) {
+			readClasspath(null);
+		}
+	}
+
+	/**
+	 * Reads the remap classpath, this is done on first use of the remapper when not called beforehand.
+	 *
+	 * @param classpathIndex When present the class index jars of the classpath are read in place of the full jars
+	 */
+	public void readClasspath(@Nullable ClasspathIndexService classpathIndex) {
+		hasReadClasspath = true;
 		List<Path> toRead = new ArrayList<>();
 
 		for (File file : getOptions().getClasspath().getFiles()) {
@@ -215,6 +230,14 @@ public class TinyRemapperService extends Service<TinyRemapperService.Options> im
 			return;
 		}
 
+		if (classpathIndex != null) {
+			try {
+				toRead = classpathIndex.getIndexes(toRead);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
 		tinyRemapper.readClassPath(toRead.toArray(Path[]::new));
 	}
 
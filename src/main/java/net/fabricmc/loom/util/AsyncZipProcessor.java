@@ -34,8 +34,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 public interface AsyncZipProcessor {
 	static void processEntries(Path inputZip, Path outputZip, AsyncZipProcessor processor) throws IOException {
@@ -45,7 +44,7 @@ public interface AsyncZipProcessor {
 			final Path outRoot = outFs.get().getPath("/");
 
 			List<CompletableFuture<Void>> futures = new ArrayList<>();
-			final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+			final Executor executor = ThreadingUtils.executor();
 
 			Files.walkFileTree(inRoot, new SimpleFileVisitor<>() {
 				@Override
@@ -67,7 +66,13 @@ public interface AsyncZipProcessor {
 				}
 			});
 
-			// Wait for all futures to complete
+			// Wait for all futures to complete, the file systems must not be closed while entries are still being written
+			try {
+				CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+			} catch (CompletionException ignored) {
+				// Rethrown below
+			}
+
 			for (CompletableFuture<Void> future : futures) {
 				try {
 					future.join();
@@ -79,8 +84,6 @@ public interface AsyncZipProcessor {
 					throw new RuntimeException("Failed to process zip", e.getCause());
 				}
 			}
-
-			executor.shutdown();
 		}
 	}
 
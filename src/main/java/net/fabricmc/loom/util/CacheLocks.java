@@ -0,0 +1,109 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process locks keyed by the cache artifact that is being produced, so that projects configuring in parallel
+ * only wait for each other when they produce the same files. Projects with identical inputs wait for the first one
+ * and then reuse its result, as the providers skip work when their outputs are up-to-date.
+ *
+ * <p>Locking across Gradle processes is handled separately by the per-project cache lock file.
+ */
+public final class CacheLocks {
+	private static final ConcurrentMap<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<Path, Semaphore> HELD_LOCKS = new ConcurrentHashMap<>();
+
+	private CacheLocks() {
+	}
+
+	public static void withLock(Path key, ThreadingUtils.UnsafeRunnable action) throws Exception {
+		withLock(List.of(key), action);
+	}
+
+	/**
+	 * Runs the action while holding the locks of all the keys. The locks are always acquired in the same order to avoid deadlocks.
+	 */
+	public static void withLock(Collection<Path> keys, ThreadingUtils.UnsafeRunnable action) throws Exception {
+		final List<ReentrantLock> locks = keys.stream()
+				.map(key -> key.toAbsolutePath().normalize())
+				.distinct()
+				.sorted()
+				.map(key -> LOCKS.computeIfAbsent(key, k -> new ReentrantLock()))
+				.toList();
+		int acquired = 0;
+
+		try {
+			for (ReentrantLock lock : locks) {
+				lock.lockInterruptibly();
+				acquired++;
+			}
+
+			action.run();
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		} finally {
+			for (int i = acquired - 1; i >= 0; i--) {
+				locks.get(i).unlock();
+			}
+		}
+	}
+
+	/**
+	 * Acquires the lock of the key until the returned handle is closed, for locks that are held for longer than a single action.
+	 * Unlike {@link #withLock} the lock is not reentrant, and the handle may be closed from any thread.
+	 */
+	public static Handle acquire(Path key) throws InterruptedException {
+		final Semaphore semaphore = HELD_LOCKS.computeIfAbsent(key.toAbsolutePath().normalize(), k -> new Semaphore(1));
+		semaphore.acquire();
+		return new Handle(semaphore);
+	}
+
+	public static final class Handle implements AutoCloseable {
+		private final Semaphore semaphore;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Handle(Semaphore semaphore) {
+			this.semaphore = semaphore;
+		}
+
+		@Override
+		public void close() {
+			if (released.compareAndSet(false, true)) {
+				semaphore.release();
+			}
+		}
+	}
+}
@@ -170,6 +170,32 @@ public class Constants {
 		public static final String RUNTIME_JAVA_COMPATIBILITY_VERSION = "fabric.loom.runtimeJavaCompatibilityVersion";
 		public static final String DECOMPILE_CACHE_MAX_FILES = "fabric.loom.decompileCacheMaxFiles";
 		public static final String DECOMPILE_CACHE_MAX_AGE = "fabric.loom.decompileCacheMaxAge";
+		/**
+		 * The maximum size of the decompile cache in megabytes, by default the size is not limited.
+		 */
+		public static final String DECOMPILE_CACHE_MAX_SIZE = "fabric.loom.decompileCacheMaxSize";
+		/**
+		 * When set to true the decompiler worker JVM is kept alive after genSources, to be reused by later genSources runs in the same Gradle daemon.
+		 * The idle worker keeps its heap, so this trades memory for skipping the worker startup.
+		 */
+		public static final String DECOMPILE_WORKER_KEEP_ALIVE = "fabric.loom.decompileWorkerKeepAlive";
+		/**
+		 * The maximum number of threads Loom uses for parallel work, capped by {@code org.gradle.workers.max}.
+		 */
+		public static final String MAX_THREADS = "fabric.loom.maxThreads";
+		/**
+		 * When set to true Loom runs parallel work on virtual threads, only used on Java 21 or later.
+		 */
+		public static final String VIRTUAL_THREADS = "fabric.loom.virtualThreads";
+		/**
+		 * When set to true remapped mods are shared between projects through a cache in the Gradle user home.
+		 */
+		public static final String GLOBAL_MOD_CACHE = "fabric.loom.globalModCache";
+		/**
+		 * When set to true dependency sources are remapped from intermediary by replacing the intermediary identifiers,
+		 * only the sources that cannot be remapped reliably this way are remapped with Mercury.
+		 */
+		public static final String FAST_SOURCE_REMAP = "fabric.loom.fastSourceRemap";
 		public static final String ALLOW_MISMATCHED_PLATFORM_VERSION = "loom.allowMismatchedPlatformVersion";
 		public static final String IGNORE_DEPENDENCY_LOOM_VERSION_VALIDATION = "loom.ignoreDependencyLoomVersionValidation";
 	}
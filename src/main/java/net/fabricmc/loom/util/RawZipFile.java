@@ -0,0 +1,387 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A minimal zip reader that exposes the raw compressed data of each entry, allowing {@link RawZipWriter} to copy entries without inflating and deflating them again.
+ *
+ * <p>Entries can be read concurrently from multiple threads.
+ */
+public final class RawZipFile implements Closeable {
+	static final int LOC_SIG = 0x04034b50;
+	static final int CEN_SIG = 0x02014b50;
+	static final int END_SIG = 0x06054b50;
+	static final int ZIP64_END_SIG = 0x06064b50;
+	static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+	static final int LOC_HEADER_SIZE = 30;
+	static final int CEN_HEADER_SIZE = 46;
+	static final int END_HEADER_SIZE = 22;
+	static final int ZIP64_END_SIZE = 56;
+	static final int ZIP64_LOCATOR_SIZE = 20;
+	static final int ZIP64_EXTRA_ID = 0x0001;
+	static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+	static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+	static final int FLAG_ENCRYPTED = 0x1;
+	static final int FLAG_DATA_DESCRIPTOR = 0x8;
+
+	public static final int STORED = 0;
+	public static final int DEFLATED = 8;
+
+	private final Path path;
+	private final FileChannel channel;
+	private final List<Entry> entries;
+	private final Map<String, Entry> entriesByName;
+
+	private RawZipFile(Path path, FileChannel channel, List<Entry> entries) {
+		this.path = path;
+		this.channel = channel;
+		this.entries = Collections.unmodifiableList(entries);
+		this.entriesByName = new HashMap<>(entries.size() * 2);
+
+		for (Entry entry : entries) {
+			entriesByName.putIfAbsent(entry.name(), entry);
+		}
+	}
+
+	public static RawZipFile open(Path path) throws IOException {
+		final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			return new RawZipFile(path, channel, readCentralDirectory(path, channel));
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return all entries, in the order of the central directory
+	 */
+	public List<Entry> entries() {
+		return entries;
+	}
+
+	@Nullable
+	public Entry getEntry(String name) {
+		return entriesByName.get(name);
+	}
+
+	/**
+	 * Reads and inflates the contents of an entry, verifying its checksum.
+	 */
+	public byte[] readAllBytes(Entry entry) throws IOException {
+		if (entry.size() > Integer.MAX_VALUE - 8) {
+			throw new ZipException("Entry too large to read into memory: " + entry.name());
+		}
+
+		final byte[] compressed = readRawBytes(entry);
+		final byte[] data;
+
+		switch (entry.method()) {
+		case STORED -> data = compressed;
+		case DEFLATED -> {
+			data = new byte[(int) entry.size()];
+			final Inflater inflater = new Inflater(true);
+
+			try {
+				inflater.setInput(compressed);
+				int read = 0;
+
+				while (read < data.length && !inflater.finished()) {
+					final int n = inflater.inflate(data, read, data.length - read);
+
+					if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+						break;
+					}
+
+					read += n;
+				}
+
+				if (read != data.length) {
+					throw new ZipException("Invalid entry size for %s: expected %d, got %d".formatted(entry.name(), data.length, read));
+				}
+			} catch (DataFormatException e) {
+				throw new ZipException("Invalid deflate data for %s: %s".formatted(entry.name(), e.getMessage()));
+			} finally {
+				inflater.end();
+			}
+		}
+		default -> throw new ZipException("Unsupported compression method %d for %s".formatted(entry.method(), entry.name()));
+		}
+
+		final CRC32 crc = new CRC32();
+		crc.update(data);
+
+		if (crc.getValue() != entry.crc()) {
+			throw new ZipException("Invalid CRC for " + entry.name());
+		}
+
+		return data;
+	}
+
+	/**
+	 * @return the compressed data of the entry, as stored in the zip
+	 */
+	public byte[] readRawBytes(Entry entry) throws IOException {
+		if (entry.compressedSize() > Integer.MAX_VALUE - 8) {
+			throw new ZipException("Entry too large to read into memory: " + entry.name());
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate((int) entry.compressedSize());
+		readFully(channel, buffer, getDataOffset(entry));
+		return buffer.array();
+	}
+
+	/**
+	 * @return the local header of the entry, including the name and extra fields
+	 */
+	LocalHeader readLocalHeader(Entry entry) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(LOC_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, header, entry.localHeaderOffset());
+
+		if (header.getInt(0) != LOC_SIG) {
+			throw new ZipException("Invalid local header for " + entry.name());
+		}
+
+		final int nameLength = Short.toUnsignedInt(header.getShort(26));
+		final int extraLength = Short.toUnsignedInt(header.getShort(28));
+		final ByteBuffer extra = ByteBuffer.allocate(extraLength);
+		readFully(channel, extra, entry.localHeaderOffset() + LOC_HEADER_SIZE + nameLength);
+		return new LocalHeader(entry.localHeaderOffset() + LOC_HEADER_SIZE + nameLength + extraLength, extra.array());
+	}
+
+	long getDataOffset(Entry entry) throws IOException {
+		return readLocalHeader(entry).dataOffset();
+	}
+
+	FileChannel channel() {
+		return channel;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private static List<Entry> readCentralDirectory(Path path, FileChannel channel) throws IOException {
+		final long fileSize = channel.size();
+		final int tailLength = (int) Math.min(fileSize, END_HEADER_SIZE + 0xFFFF + ZIP64_LOCATOR_SIZE);
+		final ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, tail, fileSize - tailLength);
+
+		int endPos = -1;
+
+		for (int i = tailLength - END_HEADER_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_SIG && i + END_HEADER_SIZE + Short.toUnsignedInt(tail.getShort(i + 20)) == tailLength) {
+				endPos = i;
+				break;
+			}
+		}
+
+		if (endPos < 0) {
+			throw new ZipException("Could not find end of central directory in " + path);
+		}
+
+		long entryCount = Short.toUnsignedInt(tail.getShort(endPos + 10));
+		long cenSize = Integer.toUnsignedLong(tail.getInt(endPos + 12));
+		long cenOffset = Integer.toUnsignedLong(tail.getInt(endPos + 16));
+
+		if (endPos >= ZIP64_LOCATOR_SIZE && tail.getInt(endPos - ZIP64_LOCATOR_SIZE) == ZIP64_LOCATOR_SIG) {
+			final long zip64EndOffset = tail.getLong(endPos - ZIP64_LOCATOR_SIZE + 8);
+			final ByteBuffer zip64End = ByteBuffer.allocate(ZIP64_END_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			readFully(channel, zip64End, zip64EndOffset);
+
+			if (zip64End.getInt(0) != ZIP64_END_SIG) {
+				throw new ZipException("Invalid zip64 end of central directory in " + path);
+			}
+
+			entryCount = zip64End.getLong(32);
+			cenSize = zip64End.getLong(40);
+			cenOffset = zip64End.getLong(48);
+		}
+
+		if (cenSize > Integer.MAX_VALUE || cenOffset + cenSize > fileSize) {
+			throw new ZipException("Invalid central directory in " + path);
+		}
+
+		final ByteBuffer cen = ByteBuffer.allocate((int) cenSize).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, cen, cenOffset);
+
+		final List<Entry> entries = new ArrayList<>((int) Math.min(entryCount, 0xFFFF));
+		int pos = 0;
+
+		while (pos + CEN_HEADER_SIZE <= cen.limit()) {
+			if (cen.getInt(pos) != CEN_SIG) {
+				throw new ZipException("Invalid central directory header in " + path);
+			}
+
+			final int versionMadeBy = Short.toUnsignedInt(cen.getShort(pos + 4));
+			final int flags = Short.toUnsignedInt(cen.getShort(pos + 8));
+			final int method = Short.toUnsignedInt(cen.getShort(pos + 10));
+			final int dosTime = cen.getInt(pos + 12);
+			final long crc = Integer.toUnsignedLong(cen.getInt(pos + 16));
+			long compressedSize = Integer.toUnsignedLong(cen.getInt(pos + 20));
+			long size = Integer.toUnsignedLong(cen.getInt(pos + 24));
+			final int nameLength = Short.toUnsignedInt(cen.getShort(pos + 28));
+			final int extraLength = Short.toUnsignedInt(cen.getShort(pos + 30));
+			final int commentLength = Short.toUnsignedInt(cen.getShort(pos + 32));
+			final int internalAttributes = Short.toUnsignedInt(cen.getShort(pos + 36));
+			final int externalAttributes = cen.getInt(pos + 38);
+			long localHeaderOffset = Integer.toUnsignedLong(cen.getInt(pos + 42));
+
+			final String name = new String(cen.array(), pos + CEN_HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+			final byte[] extra = new byte[extraLength];
+			cen.get(pos + CEN_HEADER_SIZE + nameLength, extra);
+
+			if ((flags & FLAG_ENCRYPTED) != 0) {
+				throw new ZipException("Encrypted entries are not supported: " + name);
+			}
+
+			if (size == ZIP64_MAGIC || compressedSize == ZIP64_MAGIC || localHeaderOffset == ZIP64_MAGIC) {
+				final ByteBuffer zip64 = findExtra(extra, ZIP64_EXTRA_ID);
+
+				if (zip64 == null) {
+					throw new ZipException("Missing zip64 extra field for " + name);
+				}
+
+				if (size == ZIP64_MAGIC) size = zip64.getLong();
+				if (compressedSize == ZIP64_MAGIC) compressedSize = zip64.getLong();
+				if (localHeaderOffset == ZIP64_MAGIC) localHeaderOffset = zip64.getLong();
+			}
+
+			entries.add(new Entry(name, versionMadeBy, flags, method, dosTime, crc, compressedSize, size, localHeaderOffset, removeExtra(extra, ZIP64_EXTRA_ID), internalAttributes, externalAttributes));
+			pos += CEN_HEADER_SIZE + nameLength + extraLength + commentLength;
+		}
+
+		if (entryCount != ZIP64_MAGIC_COUNT && entries.size() != entryCount) {
+			throw new ZipException("Expected %d entries in %s, found %d".formatted(entryCount, path, entries.size()));
+		}
+
+		return entries;
+	}
+
+	/**
+	 * @return a buffer positioned at the data of the extra field with the given id, or null when not present
+	 */
+	@Nullable
+	static ByteBuffer findExtra(byte[] extra, int id) {
+		final ByteBuffer buffer = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+
+		while (buffer.remaining() >= 4) {
+			final int headerId = Short.toUnsignedInt(buffer.getShort());
+			final int length = Short.toUnsignedInt(buffer.getShort());
+
+			if (length > buffer.remaining()) {
+				break;
+			}
+
+			if (headerId == id) {
+				return buffer.slice(buffer.position(), length).order(ByteOrder.LITTLE_ENDIAN);
+			}
+
+			buffer.position(buffer.position() + length);
+		}
+
+		return null;
+	}
+
+	static byte[] removeExtra(byte[] extra, int id) {
+		if (findExtra(extra, id) == null) {
+			return extra;
+		}
+
+		final ByteBuffer in = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+		final ByteBuffer out = ByteBuffer.allocate(extra.length);
+
+		while (in.remaining() >= 4) {
+			final int start = in.position();
+			final int headerId = Short.toUnsignedInt(in.getShort());
+			final int length = Math.min(Short.toUnsignedInt(in.getShort()), in.remaining());
+			in.position(in.position() + length);
+
+			if (headerId != id) {
+				out.put(extra, start, 4 + length);
+			}
+		}
+
+		final byte[] result = new byte[out.position()];
+		out.get(0, result);
+		return result;
+	}
+
+	static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			final int read = channel.read(buffer, position);
+
+			if (read < 0) {
+				throw new EOFException();
+			}
+
+			position += read;
+		}
+
+		buffer.flip();
+	}
+
+	/**
+	 * A central directory entry, any zip64 extra field has already been resolved and removed from {@link #extra()}.
+	 *
+	 * @param dosTime The last modified time in MS-DOS format, with the date in the upper 16 bits
+	 */
+	public record Entry(String name, int versionMadeBy, int flags, int method, int dosTime, long crc, long compressedSize, long size, long localHeaderOffset, byte[] extra, int internalAttributes, int externalAttributes) {
+		public boolean isDirectory() {
+			return name.endsWith("/");
+		}
+	}
+
+	record LocalHeader(long dataOffset, byte[] extra) {
+	}
+}
@@ -0,0 +1,365 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import static net.fabricmc.loom.util.RawZipFile.CEN_HEADER_SIZE;
+import static net.fabricmc.loom.util.RawZipFile.CEN_SIG;
+import static net.fabricmc.loom.util.RawZipFile.DEFLATED;
+import static net.fabricmc.loom.util.RawZipFile.END_HEADER_SIZE;
+import static net.fabricmc.loom.util.RawZipFile.END_SIG;
+import static net.fabricmc.loom.util.RawZipFile.FLAG_DATA_DESCRIPTOR;
+import static net.fabricmc.loom.util.RawZipFile.LOC_HEADER_SIZE;
+import static net.fabricmc.loom.util.RawZipFile.LOC_SIG;
+import static net.fabricmc.loom.util.RawZipFile.STORED;
+import static net.fabricmc.loom.util.RawZipFile.ZIP64_END_SIG;
+import static net.fabricmc.loom.util.RawZipFile.ZIP64_END_SIZE;
+import static net.fabricmc.loom.util.RawZipFile.ZIP64_EXTRA_ID;
+import static net.fabricmc.loom.util.RawZipFile.ZIP64_LOCATOR_SIG;
+import static net.fabricmc.loom.util.RawZipFile.ZIP64_LOCATOR_SIZE;
+import static net.fabricmc.loom.util.RawZipFile.ZIP64_MAGIC;
+import static net.fabricmc.loom.util.RawZipFile.ZIP64_MAGIC_COUNT;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes a zip file sequentially. Entries read with {@link RawZipFile} can be copied verbatim with {@link #copy(RawZipFile, RawZipFile.Entry)},
+ * only entries that are actually changed need to be deflated again.
+ *
+ * <p>Not thread safe, entries are expected to be written from a single thread.
+ */
+public final class RawZipWriter implements Closeable {
+	private static final int VERSION_STORED = 10;
+	private static final int VERSION_DEFLATED = 20;
+	private static final int VERSION_ZIP64 = 45;
+	private static final int FLAG_UTF8 = 0x800;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	// New entries use the same fixed time as reprocessed zips, so that the output is reproducible
+	private static final int CONSTANT_DOS_TIME = toDosTime(ZipReprocessorUtil.CONSTANT_TIME);
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+	private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+	private final Set<String> names = new HashSet<>();
+	private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+	private long position;
+	private long entryCount;
+
+	public RawZipWriter(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	public boolean contains(String name) {
+		return names.contains(name);
+	}
+
+	/**
+	 * Copies an entry from another zip without inflating it, keeping its compressed data and metadata.
+	 */
+	public void copy(RawZipFile source, RawZipFile.Entry entry) throws IOException {
+		copy(source, entry, entry.name());
+	}
+
+	/**
+	 * Copies an entry from another zip without inflating it, storing it under a different name.
+	 */
+	public void copy(RawZipFile source, RawZipFile.Entry entry, String name) throws IOException {
+		final RawZipFile.LocalHeader localHeader = source.readLocalHeader(entry);
+		final int flags = entry.flags() & ~FLAG_DATA_DESCRIPTOR;
+		final byte[] localExtra = RawZipFile.removeExtra(localHeader.extra(), ZIP64_EXTRA_ID);
+
+		putEntry(name, entry.versionMadeBy(), flags, entry.method(), entry.dosTime(), entry.crc(), entry.compressedSize(), entry.size(),
+				localExtra, entry.extra(), entry.internalAttributes(), entry.externalAttributes());
+
+		flush();
+		long transferred = 0;
+
+		while (transferred < entry.compressedSize()) {
+			final long n = source.channel().transferTo(localHeader.dataOffset() + transferred, entry.compressedSize() - transferred, channel);
+
+			if (n <= 0) {
+				throw new ZipException("Failed to copy %s from %s".formatted(entry.name(), source.getPath()));
+			}
+
+			transferred += n;
+		}
+
+		position += transferred;
+	}
+
+	/**
+	 * Writes a new deflated entry, with a fixed last modified time.
+	 */
+	public void write(String name, byte[] data) throws IOException {
+		write(name, data, CONSTANT_DOS_TIME, 0);
+	}
+
+	/**
+	 * Writes new data for an existing entry, keeping its name, time stamp and attributes.
+	 */
+	public void write(RawZipFile.Entry template, byte[] data) throws IOException {
+		write(template.name(), data, template.dosTime(), template.externalAttributes());
+	}
+
+	/**
+	 * Writes empty directory entries for each parent of the given entry name that has not been written yet.
+	 */
+	public void writeParentDirectories(String name) throws IOException {
+		final int slash = name.lastIndexOf('/', name.endsWith("/") ? name.length() - 2 : name.length() - 1);
+
+		if (slash < 0) {
+			return;
+		}
+
+		final String parent = name.substring(0, slash + 1);
+
+		if (names.contains(parent)) {
+			return;
+		}
+
+		writeParentDirectories(parent);
+		write(parent, new byte[0]);
+	}
+
+	private void write(String name, byte[] data, int dosTime, int externalAttributes) throws IOException {
+		final CRC32 crc = new CRC32();
+		crc.update(data);
+
+		if (data.length == 0) {
+			putEntry(name, VERSION_STORED, FLAG_UTF8, STORED, dosTime, crc.getValue(), 0, 0, null, null, 0, externalAttributes);
+			return;
+		}
+
+		final byte[] compressed = deflate(data);
+		putEntry(name, VERSION_DEFLATED, FLAG_UTF8, DEFLATED, dosTime, crc.getValue(), compressed.length, data.length, null, null, 0, externalAttributes);
+		writeBytes(compressed);
+	}
+
+	private byte[] deflate(byte[] data) {
+		deflater.reset();
+		deflater.setInput(data);
+		deflater.finish();
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+		final byte[] chunk = new byte[Math.min(BUFFER_SIZE, Math.max(64, data.length))];
+
+		while (!deflater.finished()) {
+			final int n = deflater.deflate(chunk);
+			out.write(chunk, 0, n);
+		}
+
+		return out.toByteArray();
+	}
+
+	private void putEntry(String name, int versionMadeBy, int flags, int method, int dosTime, long crc, long compressedSize, long size,
+						@Nullable byte[] localExtra, @Nullable byte[] centralExtra, int internalAttributes, int externalAttributes) throws IOException {
+		if (!names.add(name)) {
+			throw new ZipException("duplicate entry: " + name);
+		}
+
+		final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		final long offset = position;
+		final boolean zip64Sizes = compressedSize >= ZIP64_MAGIC || size >= ZIP64_MAGIC;
+		final boolean zip64Offset = offset >= ZIP64_MAGIC;
+		final int versionNeeded = zip64Sizes || zip64Offset ? VERSION_ZIP64 : method == STORED ? VERSION_STORED : VERSION_DEFLATED;
+
+		// Local header, the sizes are always known upfront so no data descriptor is needed
+		byte[] loc = localExtra != null ? localExtra : new byte[0];
+
+		if (zip64Sizes) {
+			loc = concat(zip64Extra(size, compressedSize, -1), loc);
+		}
+
+		final ByteBuffer header = ByteBuffer.allocate(LOC_HEADER_SIZE + nameBytes.length + loc.length).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(LOC_SIG);
+		header.putShort((short) versionNeeded);
+		header.putShort((short) flags);
+		header.putShort((short) method);
+		header.putInt(dosTime);
+		header.putInt((int) crc);
+		header.putInt((int) (zip64Sizes ? ZIP64_MAGIC : compressedSize));
+		header.putInt((int) (zip64Sizes ? ZIP64_MAGIC : size));
+		header.putShort((short) nameBytes.length);
+		header.putShort((short) loc.length);
+		header.put(nameBytes);
+		header.put(loc);
+		writeBytes(header.array());
+
+		// Central directory header, written on close
+		byte[] cen = centralExtra != null ? centralExtra : new byte[0];
+
+		if (zip64Sizes || zip64Offset) {
+			cen = concat(zip64Extra(size >= ZIP64_MAGIC ? size : -1, compressedSize >= ZIP64_MAGIC ? compressedSize : -1, zip64Offset ? offset : -1), cen);
+		}
+
+		final ByteBuffer central = ByteBuffer.allocate(CEN_HEADER_SIZE + nameBytes.length + cen.length).order(ByteOrder.LITTLE_ENDIAN);
+		central.putInt(CEN_SIG);
+		central.putShort((short) (versionMadeBy & 0xFF00 | Math.max(versionMadeBy & 0xFF, versionNeeded)));
+		central.putShort((short) versionNeeded);
+		central.putShort((short) flags);
+		central.putShort((short) method);
+		central.putInt(dosTime);
+		central.putInt((int) crc);
+		central.putInt((int) (compressedSize >= ZIP64_MAGIC ? ZIP64_MAGIC : compressedSize));
+		central.putInt((int) (size >= ZIP64_MAGIC ? ZIP64_MAGIC : size));
+		central.putShort((short) nameBytes.length);
+		central.putShort((short) cen.length);
+		central.putShort((short) 0); // Comment length
+		central.putShort((short) 0); // Disk number
+		central.putShort((short) internalAttributes);
+		central.putInt(externalAttributes);
+		central.putInt((int) (zip64Offset ? ZIP64_MAGIC : offset));
+		central.put(nameBytes);
+		central.put(cen);
+		centralDirectory.write(central.array());
+		entryCount++;
+	}
+
+	private static byte[] zip64Extra(long size, long compressedSize, long offset) {
+		final int length = (size >= 0 ? 8 : 0) + (compressedSize >= 0 ? 8 : 0) + (offset >= 0 ? 8 : 0);
+		final ByteBuffer extra = ByteBuffer.allocate(4 + length).order(ByteOrder.LITTLE_ENDIAN);
+		extra.putShort((short) ZIP64_EXTRA_ID);
+		extra.putShort((short) length);
+		if (size >= 0) extra.putLong(size);
+		if (compressedSize >= 0) extra.putLong(compressedSize);
+		if (offset >= 0) extra.putLong(offset);
+		return extra.array();
+	}
+
+	private static byte[] concat(byte[] a, byte[] b) {
+		final byte[] result = new byte[a.length + b.length];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		if (bytes.length > buffer.remaining()) {
+			flush();
+		}
+
+		if (bytes.length > buffer.remaining()) {
+			final ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+
+			while (wrapped.hasRemaining()) {
+				channel.write(wrapped);
+			}
+		} else {
+			buffer.put(bytes);
+		}
+
+		position += bytes.length;
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try (channel) {
+			deflater.end();
+
+			final long cenOffset = position;
+			final long cenSize = centralDirectory.size();
+			writeBytes(centralDirectory.toByteArray());
+
+			final boolean zip64 = entryCount >= ZIP64_MAGIC_COUNT || cenOffset >= ZIP64_MAGIC || cenSize >= ZIP64_MAGIC;
+
+			if (zip64) {
+				final long zip64EndOffset = position;
+				final ByteBuffer end = ByteBuffer.allocate(ZIP64_END_SIZE + ZIP64_LOCATOR_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+				end.putInt(ZIP64_END_SIG);
+				end.putLong(ZIP64_END_SIZE - 12);
+				end.putShort((short) VERSION_ZIP64);
+				end.putShort((short) VERSION_ZIP64);
+				end.putInt(0);
+				end.putInt(0);
+				end.putLong(entryCount);
+				end.putLong(entryCount);
+				end.putLong(cenSize);
+				end.putLong(cenOffset);
+				end.putInt(ZIP64_LOCATOR_SIG);
+				end.putInt(0);
+				end.putLong(zip64EndOffset);
+				end.putInt(1);
+				writeBytes(end.array());
+			}
+
+			final ByteBuffer end = ByteBuffer.allocate(END_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			end.putInt(END_SIG);
+			end.putShort((short) 0);
+			end.putShort((short) 0);
+			end.putShort((short) (zip64 ? ZIP64_MAGIC_COUNT : entryCount));
+			end.putShort((short) (zip64 ? ZIP64_MAGIC_COUNT : entryCount));
+			end.putInt((int) (zip64 ? ZIP64_MAGIC : cenSize));
+			end.putInt((int) (zip64 ? ZIP64_MAGIC : cenOffset));
+			end.putShort((short) 0);
+			writeBytes(end.array());
+			flush();
+		}
+	}
+
+	/**
+	 * Converts a java time stamp into the MS-DOS format used by zip entries, with the date in the upper 16 bits.
+	 */
+	static int toDosTime(long time) {
+		final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+
+		if (dateTime.getYear() < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+
+		return (dateTime.getYear() - 1980) << 25
+				| dateTime.getMonthValue() << 21
+				| dateTime.getDayOfMonth() << 16
+				| dateTime.getHour() << 11
+				| dateTime.getMinute() << 5
+				| dateTime.getSecond() >> 1;
+	}
+}
@@ -26,15 +26,25 @@ package net.fabricmc.loom.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.StringJoiner;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import com.google.common.base.Suppliers;
 import org.cadixdev.lorenz.MappingSet;
 import org.cadixdev.mercury.Mercury;
 import org.cadixdev.mercury.remapper.MercuryRemapper;
@@ -45,6 +55,7 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.compile.JavaCompile;
 import org.gradle.internal.logging.progress.ProgressLogger;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import net.fabricmc.loom.LoomGradleExtension;
@@ -52,17 +63,49 @@ import net.fabricmc.loom.api.RemapConfigurationSettings;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
 import net.fabricmc.loom.build.IntermediaryNamespaces;
 import net.fabricmc.loom.configuration.providers.mappings.MappingConfiguration;
+import net.fabricmc.loom.decompilers.cache.CachePruner;
+import net.fabricmc.loom.decompilers.cache.CachedFileStoreImpl;
 import net.fabricmc.loom.task.service.LorenzMappingService;
+import net.fabricmc.loom.task.service.MappingsService;
+import net.fabricmc.loom.util.gradle.GradleUtils;
 import net.fabricmc.loom.util.service.ServiceFactory;
 
 public class SourceRemapper {
+	// Every concurrent remap holds the parsed classpath and a copy of the mappings in memory
+	private static final int MAX_PARALLEL_REMAPS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+	private static final int CACHE_VERSION = 2;
+	private static final CachedFileStoreImpl.CacheRules CACHE_RULES = new CachedFileStoreImpl.CacheRules(2_000, 2048L * 1024 * 1024, Duration.ofDays(30));
+
 	private final Project project;
 	private final ServiceFactory serviceFactory;
 	private String from;
 	private String to;
-	private final List<Consumer<ProgressLogger>> remapTasks = new ArrayList<>();
+	private final List<RemapTask> remapTasks = new ArrayList<>();
+
+	private record RemapTask(File source, File destination, boolean reproducibleFileOrder, boolean preserveFileTimestamps, Runnable completionCallback) {
+	}
 
-	private Mercury mercury;
+	/**
+	 * The classpath and mappings, computed once and shared by all remaps.
+	 *
+	 * @param tokenRemapper the remapper used instead of Mercury for the sources it can remap, or null
+	 * @param cacheKey identifies the environment, remapped sources are cached by this key and the hash of the sources jar
+	 */
+	private record RemapEnvironment(List<Path> classPath, int release, @Nullable TokenSourceRemapper tokenRemapper, String cacheKey, Path cacheDirectory) {
+		Mercury createMercury(MappingSet mappings) {
+			Mercury mercury = new Mercury();
+			mercury.setGracefulClasspathChecks(true);
+			mercury.setSourceCompatibilityFromRelease(release);
+			mercury.getClassPath().addAll(classPath);
+			mercury.getProcessors().add(MercuryRemapper.create(mappings));
+			return mercury;
+		}
+
+		Path getCachedSources(File source) {
+			final String hash = Checksum.sha256Hex((cacheKey + "\n" + Checksum.toHex(Checksum.sha256(source))).getBytes(StandardCharsets.UTF_8));
+			return cacheDirectory.resolve(hash.substring(0, 2)).resolve(hash + ".jar");
+		}
+	}
 
 	public SourceRemapper(Project project, ServiceFactory serviceFactory, boolean toNamed) {
 		this(project, serviceFactory, toNamed ? IntermediaryNamespaces.runtimeIntermediary(project) : "named", !toNamed ? IntermediaryNamespaces.runtimeIntermediary(project) : "named");
@@ -76,21 +119,7 @@ public class SourceRemapper {
 	}
 
 	public void scheduleRemapSources(File source, File destination, boolean reproducibleFileOrder, boolean preserveFileTimestamps, Runnable completionCallback) {
-		remapTasks.add((logger) -> {
-			try {
-				logger.progress("remapping sources - " + source.getName());
-				remapSourcesInner(source, destination);
-				ZipReprocessorUtil.reprocessZip(destination.toPath(), reproducibleFileOrder, preserveFileTimestamps);
-
-				// Set the remapped sources creation date to match the sources if we're likely succeeded in making it
-				destination.setLastModified(source.lastModified());
-				completionCallback.run();
-			} catch (Exception e) {
-				// Failed to remap, lets clean up to ensure we try again next time
-				destination.delete();
-				throw new RuntimeException("Failed to remap sources for " + source, e);
-			}
-		});
+		remapTasks.add(new RemapTask(source, destination, reproducibleFileOrder, preserveFileTimestamps, completionCallback));
 	}
 
 	public void remapAll() {
@@ -104,18 +133,158 @@ public class SourceRemapper {
 		ProgressLogger progressLogger = progressLoggerFactory.newOperation(SourceRemapper.class.getName());
 		progressLogger.start("Remapping dependency sources", "sources");
 
-		remapTasks.forEach(consumer -> consumer.accept(progressLogger));
+		final RemapEnvironment environment;
+		final LorenzMappingService lorenzMappingService = getLorenzMappingService();
+
+		try {
+			environment = createEnvironment(lorenzMappingService);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to create source remapping environment", e);
+		}
+
+		// Each partition is remapped sequentially with its own Mercury instance, as it mutates its mappings
+		final int partitionCount = Math.min(remapTasks.size(), MAX_PARALLEL_REMAPS);
+		final List<ThreadingUtils.UnsafeRunnable> jobs = new ArrayList<>(partitionCount);
 
-		progressLogger.completed();
+		for (int i = 0; i < partitionCount; i++) {
+			final List<RemapTask> partition = new ArrayList<>();
+
+			for (int j = i; j < remapTasks.size(); j += partitionCount) {
+				partition.add(remapTasks.get(j));
+			}
+
+			final boolean first = i == 0;
+			final Supplier<Mercury> mercury = Suppliers.memoize(() -> environment.createMercury(first ? lorenzMappingService.getMappings() : lorenzMappingService.createMappings()));
+
+			jobs.add(() -> {
+				for (RemapTask task : partition) {
+					synchronized (progressLogger) {
+						progressLogger.progress("remapping sources - " + task.source().getName());
+					}
+
+					remap(task, environment, mercury);
+				}
+			});
+		}
+
+		try {
+			ThreadingUtils.run(jobs);
+		} finally {
+			progressLogger.completed();
+		}
+
+		pruneCache(environment.cacheDirectory());
 
 		// TODO: FIXME - WORKAROUND https://github.com/FabricMC/fabric-loom/issues/45
 		System.gc();
 	}
 
-	private void remapSourcesInner(File source, File destination) throws Exception {
-		project.getLogger().info(":remapping source jar");
-		Mercury mercury = getMercuryInstance();
+	private void remap(RemapTask task, RemapEnvironment environment, Supplier<Mercury> mercury) {
+		final File source = task.source();
+		final File destination = task.destination();
+
+		try {
+			final boolean cacheable = source.isFile() && !source.equals(destination) && !destination.isDirectory();
+			final Path cachedSources = cacheable ? environment.getCachedSources(source) : null;
+
+			if (cachedSources != null && restoreCachedSources(cachedSources, destination.toPath())) {
+				project.getLogger().info(":using cached remapped sources for {}", source.getName());
+			} else {
+				remapSourcesInner(source, destination, environment.tokenRemapper(), mercury);
+				ZipReprocessorUtil.reprocessZip(destination.toPath(), task.reproducibleFileOrder(), task.preserveFileTimestamps());
+
+				if (cachedSources != null) {
+					saveCachedSources(destination.toPath(), cachedSources);
+				}
+			}
+
+			// Set the remapped sources creation date to match the sources if we're likely succeeded in making it
+			destination.setLastModified(source.lastModified());
+			task.completionCallback().run();
+		} catch (Exception e) {
+			// Failed to remap, lets clean up to ensure we try again next time
+			destination.delete();
+			throw new RuntimeException("Failed to remap sources for " + source, e);
+		}
+	}
+
+	private static boolean restoreCachedSources(Path cachedSources, Path destination) throws IOException {
+		try {
+			Files.copy(cachedSources, destination, StandardCopyOption.REPLACE_EXISTING);
+		} catch (NoSuchFileException e) {
+			// Not cached, or pruned by another build
+			return false;
+		}
+
+		try {
+			// Keep recently used sources in the cache
+			Files.setLastModifiedTime(cachedSources, FileTime.from(Instant.now()));
+		} catch (IOException e) {
+			// Pruned by another build after being restored
+		}
+
+		return true;
+	}
+
+	private void saveCachedSources(Path remapped, Path cachedSources) {
+		Path tempFile = null;
+
+		try {
+			Files.createDirectories(cachedSources.getParent());
+			tempFile = Files.createTempFile(cachedSources.getParent(), cachedSources.getFileName().toString(), ".tmp");
+			Files.copy(remapped, tempFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(tempFile, cachedSources, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			project.getLogger().warn("Failed to cache the remapped sources {}", cachedSources, e);
+		} finally {
+			if (tempFile != null) {
+				try {
+					Files.deleteIfExists(tempFile);
+				} catch (IOException e) {
+					project.getLogger().debug("Failed to delete {}", tempFile, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the least recently used remapped sources until the cache meets {@link #CACHE_RULES}.
+	 */
+	private void pruneCache(Path cacheDirectory) {
+		if (Files.notExists(cacheDirectory)) {
+			return;
+		}
 
+		final List<CachedSources> entries = new ArrayList<>();
+
+		try {
+			try (Stream<Path> files = Files.walk(cacheDirectory, 2)) {
+				for (Path file : (Iterable<Path>) files::iterator) {
+					if (Files.isRegularFile(file)) {
+						entries.add(new CachedSources(file, Files.getLastModifiedTime(file).toMillis(), Files.size(file)));
+					}
+				}
+			}
+
+			final CachePruner.Result<CachedSources> result = new CachePruner(CACHE_RULES).prune(entries, CachedSources::lastModified, CachedSources::size);
+
+			for (CachedSources entry : result.evicted()) {
+				Files.deleteIfExists(entry.path());
+			}
+
+			if (result.evictedCount() > 0) {
+				project.getLogger().info("Pruned {} remapped sources ({} bytes) from the cache", result.evictedCount(), result.evictedBytes());
+			}
+		} catch (IOException e) {
+			project.getLogger().warn("Failed to prune the remapped sources cache", e);
+		}
+	}
+
+	private record CachedSources(Path path, long lastModified, long size) {
+	}
+
+	private void remapSourcesInner(File source, File destination, @Nullable TokenSourceRemapper tokenRemapper, Supplier<Mercury> mercury) throws Exception {
+		project.getLogger().info(":remapping source jar");
 		if (source.equals(destination)) {
 			if (source.isDirectory()) {
 				throw new RuntimeException("Directories must differ!");
@@ -150,7 +319,11 @@ public class SourceRemapper {
 		Path dstPath = dstFs != null ? dstFs.get().getPath("/") : destination.toPath();
 
 		try {
-			mercury.rewrite(srcPath, dstPath);
+			if (tokenRemapper != null) {
+				remapSourcesWithTokens(srcPath, dstPath, tokenRemapper, mercury);
+			} else {
+				mercury.get().rewrite(srcPath, dstPath);
+			}
 		} catch (Exception e) {
 			project.getLogger().warn("Could not remap " + source.getName() + " fully!", e);
 		}
@@ -166,44 +339,82 @@ public class SourceRemapper {
 		}
 	}
 
-	private Mercury getMercuryInstance() {
-		if (this.mercury != null) {
-			return this.mercury;
+	/**
+	 * Remaps the sources that the token remapper can remap, the other sources are remapped with Mercury.
+	 * Mercury resolves the references to the sources it does not remap from the unmapped mods on the classpath.
+	 */
+	private void remapSourcesWithTokens(Path srcPath, Path dstPath, TokenSourceRemapper tokenRemapper, Supplier<Mercury> mercury) throws Exception {
+		final List<Path> sourceFiles;
+
+		try (Stream<Path> stream = Files.walk(srcPath)) {
+			sourceFiles = stream.filter(path -> isJavaFile(path) && Files.isRegularFile(path)).toList();
 		}
 
-		LoomGradleExtension extension = LoomGradleExtension.get(project);
-		MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
+		final List<ThreadingUtils.UnsafeCallable<String>> jobs = new ArrayList<>(sourceFiles.size());
+
+		for (Path sourceFile : sourceFiles) {
+			jobs.add(() -> tokenRemapper.remap(Files.readString(sourceFile, StandardCharsets.UTF_8)));
+		}
 
-		LorenzMappingService lorenzMappingService = serviceFactory.get(LorenzMappingService.createOptions(
+		final List<String> remapped = ThreadingUtils.get(jobs);
+		final Path fallbackPath = Files.createTempDirectory("fabric-loom-src");
+		int fallbackCount = 0;
+
+		try {
+			for (int i = 0; i < sourceFiles.size(); i++) {
+				final String relativePath = srcPath.relativize(sourceFiles.get(i)).toString();
+				final Path outputPath = remapped.get(i) != null ? dstPath.resolve(relativePath) : fallbackPath.resolve(relativePath);
+
+				if (outputPath.getParent() != null) {
+					Files.createDirectories(outputPath.getParent());
+				}
+
+				if (remapped.get(i) != null) {
+					Files.writeString(outputPath, remapped.get(i), StandardCharsets.UTF_8);
+				} else {
+					Files.copy(sourceFiles.get(i), outputPath);
+					fallbackCount++;
+				}
+			}
+
+			if (fallbackCount > 0) {
+				project.getLogger().info(":remapping {} of {} source files with Mercury", fallbackCount, sourceFiles.size());
+				mercury.get().rewrite(fallbackPath, dstPath);
+			}
+		} finally {
+			Files.walkFileTree(fallbackPath, new DeletingFileVisitor());
+		}
+	}
+
+	private LorenzMappingService getLorenzMappingService() {
+		MappingConfiguration mappingConfiguration = LoomGradleExtension.get(project).getMappingConfiguration();
+
+		return serviceFactory.get(LorenzMappingService.createOptions(
 				project,
 				mappingConfiguration,
-															Objects.requireNonNull(MappingsNamespace.of(from)),
-															Objects.requireNonNull(MappingsNamespace.of(to))));
-		MappingSet mappings = lorenzMappingService.getMappings();
+				Objects.requireNonNull(MappingsNamespace.of(from)),
+				Objects.requireNonNull(MappingsNamespace.of(to))));
+	}
 
-		Mercury mercury = createMercuryWithClassPath(project, MappingsNamespace.of(to) == MappingsNamespace.NAMED);
-		mercury.setSourceCompatibilityFromRelease(getJavaCompileRelease(project));
+	private RemapEnvironment createEnvironment(LorenzMappingService lorenzMappingService) throws IOException {
+		LoomGradleExtension extension = LoomGradleExtension.get(project);
+		MappingConfiguration mappingConfiguration = extension.getMappingConfiguration();
+
+		List<Path> classPath = new ArrayList<>(createMercuryWithClassPath(project, MappingsNamespace.of(to) == MappingsNamespace.NAMED).getClassPath());
 
 		for (File file : extension.getUnmappedModCollection()) {
 			Path path = file.toPath();
 
 			if (Files.isRegularFile(path)) {
-				mercury.getClassPath().add(path);
+				classPath.add(path);
 			}
 		}
 
-		for (Path intermediaryJar : extension.getMinecraftJars(MappingsNamespace.INTERMEDIARY)) {
-			mercury.getClassPath().add(intermediaryJar);
-		}
-
-		for (Path intermediaryJar : extension.getMinecraftJars(MappingsNamespace.NAMED)) {
-			mercury.getClassPath().add(intermediaryJar);
-		}
+		classPath.addAll(extension.getMinecraftJars(MappingsNamespace.INTERMEDIARY));
+		classPath.addAll(extension.getMinecraftJars(MappingsNamespace.NAMED));
 
 		if (extension.isForgeLike()) {
-			for (Path jar : extension.getMinecraftJars(IntermediaryNamespaces.runtimeIntermediaryNamespace(project))) {
-				mercury.getClassPath().add(jar);
-			}
+			classPath.addAll(extension.getMinecraftJars(IntermediaryNamespaces.runtimeIntermediaryNamespace(project)));
 		}
 
 		Set<File> files = project.getConfigurations()
@@ -214,13 +425,44 @@ public class SourceRemapper {
 				.resolve();
 
 		for (File file : files) {
-			mercury.getClassPath().add(file.toPath());
+			classPath.add(file.toPath());
+		}
+
+		final int release = getJavaCompileRelease(project);
+		TokenSourceRemapper tokenRemapper = null;
+
+		if (GradleUtils.getBooleanProperty(project, Constants.Properties.FAST_SOURCE_REMAP)
+				&& MappingsNamespace.of(from) == MappingsNamespace.INTERMEDIARY && MappingsNamespace.of(to) == MappingsNamespace.NAMED) {
+			MappingsService mappingsService = lorenzMappingService.getMappingsService();
+			tokenRemapper = TokenSourceRemapper.create(mappingsService.getMemoryMappingTree(), from, to);
+		}
+
+		final StringJoiner cacheKey = new StringJoiner("\n");
+		cacheKey.add(String.valueOf(CACHE_VERSION));
+		cacheKey.add(from + "->" + to);
+		cacheKey.add(String.valueOf(release));
+		cacheKey.add(mappingConfiguration.mappingsIdentifier());
+		cacheKey.add(tokenRemapper != null ? "tokens" : "mercury");
+
+		if (mappingConfiguration.tinyMappings != null && Files.exists(mappingConfiguration.tinyMappings)) {
+			cacheKey.add(Checksum.sha1Hex(mappingConfiguration.tinyMappings));
+		}
+
+		// The size and modification time identify the contents of the classpath without hashing every jar
+		final List<String> classPathKeys = new ArrayList<>(classPath.size());
+
+		for (Path path : classPath) {
+			if (Files.isRegularFile(path)) {
+				classPathKeys.add("%s:%d:%d".formatted(path.getFileName(), Files.size(path), Files.getLastModifiedTime(path).toMillis()));
+			} else {
+				classPathKeys.add(path.toAbsolutePath().toString());
+			}
 		}
 
-		mercury.getProcessors().add(MercuryRemapper.create(mappings));
+		classPathKeys.stream().sorted().forEach(cacheKey::add);
 
-		this.mercury = mercury;
-		return this.mercury;
+		final Path cacheDirectory = new File(extension.getFiles().getUserCache(), "remapped-sources").toPath();
+		return new RemapEnvironment(List.copyOf(classPath), release, tokenRemapper, cacheKey.toString(), cacheDirectory);
 	}
 
 	public static int getJavaCompileRelease(Project project) {
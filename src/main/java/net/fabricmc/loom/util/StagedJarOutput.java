@@ -0,0 +1,209 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.gradle.api.tasks.bundling.ZipEntryCompression;
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.loom.LoomGradlePlugin;
+
+/**
+ * Collects edits to the entries of a jar, and applies all of them when the jar is rewritten once by {@link #write}.
+ * Until then the jar on disk is left untouched, reads through this class see the staged contents.
+ */
+public final class StagedJarOutput {
+	private final Path jar;
+	private final Set<String> existing = new HashSet<>();
+	private final Map<String, StagedEntry> staged = new LinkedHashMap<>();
+
+	public StagedJarOutput(Path jar) throws IOException {
+		this.jar = jar;
+
+		try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+			zipFile.stream().map(ZipEntry::getName).forEach(existing::add);
+		}
+	}
+
+	/**
+	 * @return the jar the edits will be written to, it only contains the unedited entries until {@link #write} is called
+	 */
+	public Path getPath() {
+		return jar;
+	}
+
+	public boolean contains(String path) {
+		final StagedEntry entry = staged.get(path);
+
+		if (entry == null) {
+			return existing.contains(path);
+		}
+
+		return !entry.removed && (entry.content != null || existing.contains(path));
+	}
+
+	/**
+	 * Reads the staged contents of an entry.
+	 */
+	public byte[] read(String path) throws IOException {
+		if (!contains(path)) {
+			throw new NoSuchFileException(path);
+		}
+
+		final StagedEntry entry = staged.get(path);
+
+		if (entry == null) {
+			return ZipUtils.unpack(jar, path);
+		}
+
+		try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+			return entry.resolve(zipFile, path);
+		}
+	}
+
+	/**
+	 * Adds an entry, replacing it if it already exists.
+	 */
+	public void add(String path, byte[] bytes) {
+		final StagedEntry entry = staged.computeIfAbsent(path, p -> new StagedEntry());
+		entry.removed = false;
+		entry.content = bytes;
+		entry.transforms.clear();
+	}
+
+	public void replace(String path, byte[] bytes) throws IOException {
+		if (!contains(path)) {
+			throw new NoSuchFileException(path);
+		}
+
+		add(path, bytes);
+	}
+
+	public void remove(String path) {
+		final StagedEntry entry = staged.computeIfAbsent(path, p -> new StagedEntry());
+		entry.removed = true;
+		entry.content = null;
+		entry.transforms.clear();
+	}
+
+	/**
+	 * Stages a transform of an entry, transforms of the same entry are applied in the order they were added.
+	 *
+	 * @return whether the entry exists and will be transformed
+	 */
+	public boolean transform(String path, ZipUtils.UnsafeUnaryOperator<byte[]> transform) {
+		if (!contains(path)) {
+			return false;
+		}
+
+		staged.computeIfAbsent(path, p -> new StagedEntry()).transforms.add(transform);
+		return true;
+	}
+
+	public <T> boolean transformJson(Class<T> typeOfT, String path, ZipUtils.UnsafeUnaryOperator<T> transform) {
+		return transform(path, bytes -> {
+			final T json = LoomGradlePlugin.GSON.fromJson(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8), typeOfT);
+			return LoomGradlePlugin.GSON.toJson(transform.apply(json), typeOfT).getBytes(StandardCharsets.UTF_8);
+		});
+	}
+
+	/**
+	 * Rewrites the jar once with all staged edits applied.
+	 */
+	public void write(boolean reproducibleFileOrder, boolean preserveFileTimestamps, ZipEntryCompression compression) throws IOException {
+		final Map<String, byte[]> edits = new HashMap<>();
+
+		try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+			for (Map.Entry<String, StagedEntry> entry : staged.entrySet()) {
+				final String path = entry.getKey();
+
+				if (entry.getValue().removed) {
+					if (existing.contains(path)) {
+						edits.put(path, null);
+					}
+				} else {
+					edits.put(path, entry.getValue().resolve(zipFile, path));
+				}
+			}
+		}
+
+		ZipReprocessorUtil.reprocessZip(jar, reproducibleFileOrder, preserveFileTimestamps, compression, edits);
+		staged.clear();
+
+		edits.forEach((path, bytes) -> {
+			if (bytes != null) {
+				existing.add(path);
+			} else {
+				existing.remove(path);
+			}
+		});
+	}
+
+	private static final class StagedEntry {
+		private byte @Nullable [] content;
+		private boolean removed;
+		private final List<ZipUtils.UnsafeUnaryOperator<byte[]>> transforms = new ArrayList<>();
+
+		private byte[] resolve(ZipFile zipFile, String path) throws IOException {
+			byte[] bytes = content;
+
+			if (bytes == null) {
+				final ZipEntry entry = zipFile.getEntry(path);
+
+				if (entry == null) {
+					throw new NoSuchFileException(path);
+				}
+
+				try (var inputStream = zipFile.getInputStream(entry)) {
+					bytes = inputStream.readAllBytes();
+				}
+			}
+
+			for (ZipUtils.UnsafeUnaryOperator<byte[]> transform : transforms) {
+				bytes = transform.apply(bytes);
+			}
+
+			// Keep the result so that the transforms only run once
+			content = bytes;
+			transforms.clear();
+			return bytes;
+		}
+	}
+}
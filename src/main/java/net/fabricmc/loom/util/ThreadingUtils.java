@@ -27,18 +27,18 @@ package net.fabricmc.loom.util;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Stopwatch;
 
+import net.fabricmc.loom.util.gradle.LoomExecutorService;
+
 public class ThreadingUtils {
 	public static <T> void run(T[] values, UnsafeConsumer<T> action) {
 		run(Arrays.stream(values)
@@ -57,28 +57,12 @@ public class ThreadingUtils {
 	}
 
 	public static void run(Collection<UnsafeRunnable> jobs) {
-		try {
-			ExecutorService service = Executors.newFixedThreadPool(Math.max(1, Math.min(jobs.size(), Runtime.getRuntime().availableProcessors())));
-			List<Future<?>> futures = new LinkedList<>();
-
-			for (UnsafeRunnable runnable : jobs) {
-				futures.add(service.submit(() -> {
-					try {
-						runnable.run();
-					} catch (Throwable throwable) {
-						throw new RuntimeException(throwable);
-					}
-				}));
-			}
-
-			for (Future<?> future : futures) {
-				future.get();
-			}
-
-			service.shutdownNow();
-		} catch (InterruptedException | ExecutionException e) {
-			throw new RuntimeException(e);
-		}
+		get(jobs.stream()
+				.<UnsafeCallable<Void>>map(job -> () -> {
+					job.run();
+					return null;
+				})
+				.collect(Collectors.toList()));
 	}
 
 	public static <T, R> List<R> get(Collection<T> values, Function<T, R> action) {
@@ -93,32 +77,40 @@ public class ThreadingUtils {
 	}
 
 	public static <T> List<T> get(Collection<UnsafeCallable<T>> jobs) {
-		try {
-			ExecutorService service = Executors.newFixedThreadPool(Math.max(1, Math.min(jobs.size(), Runtime.getRuntime().availableProcessors())));
-			List<Future<T>> futures = new LinkedList<>();
-			List<T> result = new ArrayList<>();
+		final Executor executor = executor();
+		final List<CompletableFuture<T>> futures = new ArrayList<>(jobs.size());
 
-			for (UnsafeCallable<T> runnable : jobs) {
-				futures.add(service.submit(() -> {
-					try {
-						return runnable.call();
-					} catch (Throwable throwable) {
-						throw new RuntimeException(throwable);
-					}
-				}));
-			}
+		for (UnsafeCallable<T> callable : jobs) {
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return callable.call();
+				} catch (Throwable throwable) {
+					throw new RuntimeException(throwable);
+				}
+			}, executor));
+		}
 
-			for (Future<T> future : futures) {
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+			final List<T> result = new ArrayList<>(futures.size());
+
+			for (CompletableFuture<T> future : futures) {
 				result.add(future.get());
 			}
 
-			service.shutdownNow();
 			return result;
 		} catch (InterruptedException | ExecutionException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * @return The executor shared by Loom's parallel work, see {@link LoomExecutorService}
+	 */
+	public static Executor executor() {
+		return LoomExecutorService.executor();
+	}
+
 	public interface UnsafeRunnable {
 		void run() throws Throwable;
 	}
@@ -135,10 +127,10 @@ public class ThreadingUtils {
 		return new TaskCompleter();
 	}
 
-	public static class TaskCompleter implements Function<Throwable, Void> {
+	public static class TaskCompleter {
 		Stopwatch stopwatch = Stopwatch.createUnstarted();
 		List<CompletableFuture<?>> tasks = new ArrayList<>();
-		ExecutorService service = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+		Executor executor = executor();
 		List<UnsafeConsumer<Stopwatch>> completionListener = new ArrayList<>();
 
 		public TaskCompleter add(UnsafeRunnable job) {
@@ -149,10 +141,12 @@ public class ThreadingUtils {
 			tasks.add(CompletableFuture.runAsync(() -> {
 				try {
 					job.run();
+				} catch (RuntimeException | Error e) {
+					throw e;
 				} catch (Throwable throwable) {
 					throw new RuntimeException(throwable);
 				}
-			}, service).exceptionally(this));
+			}, executor));
 
 			return this;
 		}
@@ -162,31 +156,54 @@ public class ThreadingUtils {
 			return this;
 		}
 
+		/**
+		 * Waits for all the tasks to finish, rethrowing the failure of the first task that failed.
+		 * A failing completion listener is rethrown, or suppressed by the failure of a task.
+		 */
 		public void complete() {
+			Throwable failure = null;
+
 			try {
-				CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).exceptionally(this).get();
-				service.shutdownNow();
+				// Wait for every task, including those after a failed one
+				CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).handle((result, throwable) -> null).join();
+
+				for (CompletableFuture<?> task : tasks) {
+					try {
+						task.join();
+					} catch (CompletionException e) {
+						if (e.getCause() instanceof RuntimeException runtimeException) {
+							throw runtimeException;
+						} else if (e.getCause() instanceof Error error) {
+							throw error;
+						}
+
+						throw e;
+					}
+				}
 
 				if (stopwatch.isRunning()) {
 					stopwatch.stop();
 				}
-			} catch (Throwable e) {
-				throw new RuntimeException(e);
+			} catch (RuntimeException | Error e) {
+				failure = e;
+				throw e;
 			} finally {
 				try {
 					for (UnsafeConsumer<Stopwatch> consumer : completionListener) {
 						consumer.accept(stopwatch);
 					}
 				} catch (Throwable e) {
-					e.printStackTrace();
+					if (failure != null) {
+						failure.addSuppressed(e);
+					} else if (e instanceof RuntimeException runtimeException) {
+						throw runtimeException;
+					} else if (e instanceof Error error) {
+						throw error;
+					} else {
+						throw new RuntimeException("Task completion listener failed", e);
+					}
 				}
 			}
 		}
-
-		@Override
-		public Void apply(Throwable throwable) {
-			throwable.printStackTrace();
-			return null;
-		}
 	}
 }
@@ -37,9 +37,10 @@ import org.gradle.api.Project;
 
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.api.mappings.layered.MappingsNamespace;
+import net.fabricmc.loom.configuration.providers.mappings.MappingLookup;
+import net.fabricmc.loom.configuration.providers.mappings.MappingTreeSnapshot;
 import net.fabricmc.loom.util.service.ServiceFactory;
 import net.fabricmc.loom.util.srg.InnerClassRemapper;
-import net.fabricmc.mappingio.MappingReader;
 import net.fabricmc.mappingio.tree.MappingTree;
 import net.fabricmc.mappingio.tree.MappingTreeView;
 import net.fabricmc.mappingio.tree.MemoryMappingTree;
@@ -72,7 +73,13 @@ public final class TinyRemapperHelper {
 		LoomGradleExtension extension = LoomGradleExtension.get(project);
 		final MappingOption mappingOption = MappingOption.forPlatform(extension);
 		MemoryMappingTree mappingTree = extension.getMappingConfiguration().getMappingsService(project, serviceFactory, mappingOption).getMappingTree();
+		return getTinyRemapper(mappingTree, extension.getKnownIndyBsms().get(), extension.isForgeLike(), fromM, toM, fixRecords, builderConsumer, fromClassNames);
+	}
 
+	/**
+	 * Creates a tiny remapper without accessing the project, so that it can be used off the configuring thread.
+	 */
+	public static TinyRemapper getTinyRemapper(MemoryMappingTree mappingTree, Set<String> knownIndyBsms, boolean forgeLike, String fromM, String toM, boolean fixRecords, Consumer<TinyRemapper.Builder> builderConsumer, Set<String> fromClassNames) {
 		if (fixRecords && !mappingTree.getSrcNamespace().equals(fromM)) {
 			throw new IllegalStateException("Mappings src namespace must match remap src namespace, expected " + fromM + " but got " + mappingTree.getSrcNamespace());
 		}
@@ -80,14 +87,14 @@ public final class TinyRemapperHelper {
 		int intermediaryNsId = mappingTree.getNamespaceId(MappingsNamespace.INTERMEDIARY.toString());
 
 		TinyRemapper.Builder builder = TinyRemapper.newRemapper()
-				.ignoreConflicts(extension.isForgeLike())
+				.ignoreConflicts(forgeLike)
 				.threads(Runtime.getRuntime().availableProcessors())
 				.withMappings(create(mappingTree, fromM, toM, true))
 				.renameInvalidLocals(true)
 				.rebuildSourceFilenames(true)
 				.invalidLvNamePattern(MC_LV_PATTERN)
 				.inferNameFromSameLvIndex(true)
-				.withKnownIndyBsm(extension.getKnownIndyBsms().get())
+				.withKnownIndyBsm(knownIndyBsms)
 				.extraPreApplyVisitor((cls, next) -> {
 					if (fixRecords && !cls.isRecord() && "java/lang/Record".equals(cls.getSuperName())) {
 						return new RecordComponentFixVisitor(next, mappingTree, intermediaryNsId);
@@ -96,7 +103,7 @@ public final class TinyRemapperHelper {
 					return next;
 				});
 
-		if (extension.isForgeLike()) {
+		if (forgeLike) {
 			if (!fromClassNames.isEmpty()) {
 				builder.withMappings(InnerClassRemapper.of(fromClassNames, mappingTree, fromM, toM));
 			}
@@ -108,14 +115,8 @@ public final class TinyRemapperHelper {
 		return builder.build();
 	}
 
-	private static IMappingProvider.Member memberOf(String className, String memberName, String descriptor) {
-		return new IMappingProvider.Member(className, memberName, descriptor);
-	}
-
 	public static IMappingProvider create(Path mappings, String from, String to, boolean remapLocalVariables) throws IOException {
-		MemoryMappingTree mappingTree = new MemoryMappingTree();
-		MappingReader.read(mappings, mappingTree);
-		return create(mappingTree, from, to, remapLocalVariables);
+		return create(MappingTreeSnapshot.read(mappings), from, to, remapLocalVariables);
 	}
 
 	public static IMappingProvider create(MappingTree mappings, String from, String to, boolean remapLocalVariables) {
@@ -130,73 +131,7 @@ public final class TinyRemapperHelper {
 				);
 			}
 
-			for (MappingTree.ClassMapping classDef : mappings.getClasses()) {
-				String className = classDef.getName(fromId);
-
-				if (className == null) {
-					continue;
-				}
-
-				String dstClassName = classDef.getName(toId);
-
-				if (dstClassName == null) {
-					// Unsure if this is correct, should be better than crashing tho.
-					dstClassName = className;
-				}
-
-				acceptor.acceptClass(className, dstClassName);
-
-				for (MappingTree.FieldMapping field : classDef.getFields()) {
-					String fieldName = field.getName(fromId);
-
-					if (fieldName == null) {
-						continue;
-					}
-
-					String dstFieldName = field.getName(toId);
-
-					if (dstFieldName == null) {
-						dstFieldName = fieldName;
-					}
-
-					acceptor.acceptField(memberOf(className, fieldName, field.getDesc(fromId)), dstFieldName);
-				}
-
-				for (MappingTree.MethodMapping method : classDef.getMethods()) {
-					String methodName = method.getName(fromId);
-
-					if (methodName == null) {
-						continue;
-					}
-
-					String dstMethodName = method.getName(toId);
-
-					if (dstMethodName == null) {
-						dstMethodName = methodName;
-					}
-
-					IMappingProvider.Member methodIdentifier = memberOf(className, methodName, method.getDesc(fromId));
-					acceptor.acceptMethod(methodIdentifier, dstMethodName);
-
-					if (remapLocalVariables) {
-						for (MappingTree.MethodArgMapping parameter : method.getArgs()) {
-							String name = parameter.getName(toId);
-
-							if (name == null) {
-								continue;
-							}
-
-							acceptor.acceptMethodArg(methodIdentifier, parameter.getLvIndex(), name);
-						}
-
-						for (MappingTree.MethodVarMapping localVariable : method.getVars()) {
-							acceptor.acceptMethodVar(methodIdentifier, localVariable.getLvIndex(),
-									localVariable.getStartOpIdx(), localVariable.getLvtRowIndex(),
-									localVariable.getName(toId));
-						}
-					}
-				}
-			}
+			MappingLookup.of(mappings, from, to).accept(acceptor, remapLocalVariables);
 		};
 	}
 }
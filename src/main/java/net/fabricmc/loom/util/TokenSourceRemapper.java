@@ -0,0 +1,350 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.mappingio.tree.MappingTree;
+import net.fabricmc.mappingio.tree.MappingTreeView;
+
+/**
+ * Remaps Java sources from intermediary by replacing the intermediary identifiers, without parsing the sources or resolving a classpath.
+ *
+ * <p>Intermediary names are unique and numbered, so the names are looked up in tables indexed by their number.
+ * Sources that cannot be remapped reliably this way, for example because they use a wildcard import of the intermediary package,
+ * or because two classes they use have the same simple name, are rejected and have to be remapped with Mercury.
+ */
+public final class TokenSourceRemapper {
+	private static final String CLASS_PREFIX = "class_";
+	private static final String METHOD_PREFIX = "method_";
+	private static final String FIELD_PREFIX = "field_";
+	private static final String COMPONENT_PREFIX = "comp_";
+	private static final String INTERMEDIARY_PACKAGE = "net.minecraft";
+	// Intermediary names with different target names, compared by identity
+	private static final String AMBIGUOUS = new String("<ambiguous>");
+
+	// Classes are stored with their qualified source name, nested classes separated by a dot
+	private final Table classes = new Table();
+	private final Table methods = new Table();
+	private final Table fields = new Table();
+	private final Table components = new Table();
+
+	private TokenSourceRemapper() {
+	}
+
+	/**
+	 * @return the remapper, or null when the mappings do not have both namespaces
+	 */
+	public static @Nullable TokenSourceRemapper create(MappingTree mappings, String from, String to) {
+		final int fromId = mappings.getNamespaceId(from);
+		final int toId = mappings.getNamespaceId(to);
+
+		if (fromId == MappingTreeView.NULL_NAMESPACE_ID || toId == MappingTreeView.NULL_NAMESPACE_ID) {
+			return null;
+		}
+
+		final TokenSourceRemapper remapper = new TokenSourceRemapper();
+
+		for (MappingTree.ClassMapping classDef : mappings.getClasses()) {
+			final String className = classDef.getName(fromId);
+			final String dstClassName = classDef.getName(toId);
+
+			if (className != null && dstClassName != null) {
+				final int index = getIndex(getSimpleName(className.replace('/', '.').replace('$', '.')), CLASS_PREFIX);
+
+				if (index >= 0) {
+					remapper.classes.put(index, dstClassName.replace('/', '.').replace('$', '.'));
+				}
+			}
+
+			for (MappingTree.MethodMapping method : classDef.getMethods()) {
+				remapper.putMember(method.getName(fromId), method.getName(toId), METHOD_PREFIX, remapper.methods);
+			}
+
+			for (MappingTree.FieldMapping field : classDef.getFields()) {
+				remapper.putMember(field.getName(fromId), field.getName(toId), FIELD_PREFIX, remapper.fields);
+			}
+		}
+
+		return remapper;
+	}
+
+	private void putMember(@Nullable String name, @Nullable String dstName, String prefix, Table table) {
+		if (name == null || dstName == null) {
+			return;
+		}
+
+		int index = getIndex(name, prefix);
+
+		if (index >= 0) {
+			table.put(index, dstName);
+			return;
+		}
+
+		// Record components are named the same for their field and accessor method
+		index = getIndex(name, COMPONENT_PREFIX);
+
+		if (index >= 0) {
+			components.put(index, dstName);
+		}
+	}
+
+	/**
+	 * @param source the contents of a Java source file
+	 * @return the remapped source, or null when the source cannot be remapped reliably without resolving it
+	 */
+	public @Nullable String remap(String source) {
+		final StringBuilder out = new StringBuilder(source.length() + source.length() / 8);
+		// The simple names of the classes referenced without being qualified, these must not clash with each other
+		final Map<String, Integer> simpleNames = new HashMap<>();
+		final List<String> segments = new ArrayList<>();
+		final int length = source.length();
+		int i = 0;
+
+		while (i < length) {
+			final char c = source.charAt(i);
+			final int end;
+
+			if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+				final int lineEnd = source.indexOf('\n', i);
+				end = lineEnd < 0 ? length : lineEnd;
+			} else if (c == '/' && i + 1 < length && source.charAt(i + 1) == '*') {
+				final int commentEnd = source.indexOf("*/", i + 2);
+				end = commentEnd < 0 ? length : commentEnd + 2;
+			} else if (source.startsWith("\"\"\"", i)) {
+				end = skipTextBlock(source, i + 3);
+			} else if (c == '"' || c == '\'') {
+				end = skipLiteral(source, i + 1, c);
+			} else if (Character.isJavaIdentifierStart(c)) {
+				// Read a qualified name, such as an import or a chain of member accesses
+				segments.clear();
+				int segmentEnd = readIdentifier(source, i);
+				segments.add(source.substring(i, segmentEnd));
+
+				while (segmentEnd + 1 < length && source.charAt(segmentEnd) == '.' && Character.isJavaIdentifierStart(source.charAt(segmentEnd + 1))) {
+					final int start = segmentEnd + 1;
+					segmentEnd = readIdentifier(source, start);
+					segments.add(source.substring(start, segmentEnd));
+				}
+
+				final boolean wildcard = segmentEnd + 1 < length && source.charAt(segmentEnd) == '.' && source.charAt(segmentEnd + 1) == '*';
+
+				if (!remapQualifiedName(segments, wildcard, out, simpleNames)) {
+					return null;
+				}
+
+				i = segmentEnd;
+				continue;
+			} else {
+				end = i + 1;
+			}
+
+			out.append(source, i, end);
+			i = end;
+		}
+
+		return out.toString();
+	}
+
+	private boolean remapQualifiedName(List<String> segments, boolean wildcard, StringBuilder out, Map<String, Integer> simpleNames) {
+		int first = 0;
+
+		if (segments.size() >= 2 && segments.get(0).equals("net") && segments.get(1).equals("minecraft")) {
+			if (segments.size() == 2) {
+				if (wildcard) {
+					// The classes of the intermediary package are in many packages after remapping
+					return false;
+				}
+			} else {
+				final int index = getIndex(segments.get(2), CLASS_PREFIX);
+				final String name = index >= 0 ? classes.get(index) : null;
+
+				if (name == AMBIGUOUS) {
+					return false;
+				}
+
+				if (name != null) {
+					out.append(name);
+					first = 3;
+				}
+			}
+		}
+
+		for (int i = first; i < segments.size(); i++) {
+			if (i > 0) {
+				out.append('.');
+			}
+
+			final String segment = segments.get(i);
+			final String name = remapIdentifier(segment, i == 0 ? simpleNames : null);
+
+			if (name == AMBIGUOUS) {
+				return false;
+			}
+
+			out.append(name != null ? name : segment);
+		}
+
+		return true;
+	}
+
+	private @Nullable String remapIdentifier(String identifier, @Nullable Map<String, Integer> simpleNames) {
+		int index = getIndex(identifier, CLASS_PREFIX);
+
+		if (index >= 0) {
+			final String name = classes.get(index);
+
+			if (name == null || name == AMBIGUOUS) {
+				return name;
+			}
+
+			final String simpleName = getSimpleName(name);
+
+			if (simpleNames != null) {
+				final Integer previous = simpleNames.putIfAbsent(simpleName, index);
+
+				if (previous != null && previous != index) {
+					return AMBIGUOUS;
+				}
+			}
+
+			return simpleName;
+		}
+
+		if ((index = getIndex(identifier, METHOD_PREFIX)) >= 0) {
+			return methods.get(index);
+		}
+
+		if ((index = getIndex(identifier, FIELD_PREFIX)) >= 0) {
+			return fields.get(index);
+		}
+
+		if ((index = getIndex(identifier, COMPONENT_PREFIX)) >= 0) {
+			return components.get(index);
+		}
+
+		return null;
+	}
+
+	private static String getSimpleName(String qualifiedName) {
+		return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+	}
+
+	/**
+	 * @return the number of an intermediary name with the given prefix, or -1 if it is not one
+	 */
+	private static int getIndex(String identifier, String prefix) {
+		final int length = identifier.length();
+
+		// Limit the number of digits so that the number fits an int
+		if (length <= prefix.length() || length > prefix.length() + 9 || !identifier.startsWith(prefix)) {
+			return -1;
+		}
+
+		int index = 0;
+
+		for (int i = prefix.length(); i < length; i++) {
+			final char c = identifier.charAt(i);
+
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+
+			index = index * 10 + (c - '0');
+		}
+
+		return index;
+	}
+
+	private static int readIdentifier(String source, int start) {
+		int end = start + 1;
+
+		while (end < source.length() && Character.isJavaIdentifierPart(source.charAt(end))) {
+			end++;
+		}
+
+		return end;
+	}
+
+	private static int skipLiteral(String source, int start, char quote) {
+		for (int i = start; i < source.length(); i++) {
+			final char c = source.charAt(i);
+
+			if (c == '\\') {
+				i++;
+			} else if (c == quote) {
+				return i + 1;
+			} else if (c == '\n') {
+				return i;
+			}
+		}
+
+		return source.length();
+	}
+
+	private static int skipTextBlock(String source, int start) {
+		for (int i = start; i < source.length(); i++) {
+			if (source.charAt(i) == '\\') {
+				i++;
+			} else if (source.startsWith("\"\"\"", i)) {
+				return i + 3;
+			}
+		}
+
+		return source.length();
+	}
+
+	/**
+	 * A table of names indexed by the number of their intermediary name.
+	 */
+	private static final class Table {
+		private String[] names = new String[0];
+
+		void put(int index, String name) {
+			if (index >= names.length) {
+				names = Arrays.copyOf(names, Math.max(index + 1, names.length * 2));
+			}
+
+			final String existing = names[index];
+
+			if (existing == null) {
+				names[index] = name;
+			} else if (existing != AMBIGUOUS && !existing.equals(name)) {
+				names[index] = AMBIGUOUS;
+			}
+		}
+
+		@Nullable
+		String get(int index) {
+			return index < names.length ? names[index] : null;
+		}
+	}
+}
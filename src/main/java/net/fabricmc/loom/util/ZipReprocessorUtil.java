@@ -24,14 +24,20 @@
 
 package net.fabricmc.loom.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Comparator;
 import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -39,11 +45,14 @@ import java.util.zip.ZipOutputStream;
 
 import org.gradle.api.tasks.bundling.ZipEntryCompression;
 import org.intellij.lang.annotations.MagicConstant;
+import org.jetbrains.annotations.Nullable;
 
 public class ZipReprocessorUtil {
 	private ZipReprocessorUtil() { }
 
 	private static final String META_INF = "META-INF/";
+	// See https://github.com/openjdk/jdk/blob/master/test/jdk/java/util/zip/ZipFile/ZipEntryTimeBounds.java
+	public static final long CONSTANT_TIME = new GregorianCalendar(1980, Calendar.JANUARY, 1, 0, 0, 0).getTimeInMillis();
 
 	// See https://docs.oracle.com/en/java/javase/20/docs/specs/jar/jar.html#signed-jar-file
 	private static boolean isSpecialFile(String zipEntryName) {
@@ -92,7 +101,16 @@ public class ZipReprocessorUtil {
 	}
 
 	public static void reprocessZip(Path file, boolean reproducibleFileOrder, boolean preserveFileTimestamps, ZipEntryCompression zipEntryCompression) throws IOException {
-		if (!reproducibleFileOrder && preserveFileTimestamps) {
+		reprocessZip(file, reproducibleFileOrder, preserveFileTimestamps, zipEntryCompression, Map.of());
+	}
+
+	/**
+	 * Rewrites a zip file once, replacing the contents of the edited entries.
+	 * A {@code null} edit removes the entry, edits for entries that do not exist yet are added with a constant time stamp.
+	 * Missing parent directories of added entries are also added, with the same constant time stamp.
+	 */
+	public static void reprocessZip(Path file, boolean reproducibleFileOrder, boolean preserveFileTimestamps, ZipEntryCompression zipEntryCompression, Map<String, byte @Nullable []> edits) throws IOException {
+		if (!reproducibleFileOrder && preserveFileTimestamps && edits.isEmpty()) {
 			return;
 		}
 
@@ -100,34 +118,74 @@ public class ZipReprocessorUtil {
 
 		try (var zipFile = new ZipFile(file.toFile());
 				var fileOutputStream = Files.newOutputStream(tempFile)) {
-			ZipEntry[] entries;
+			final List<String> names = new ArrayList<>();
+			final Set<String> existing = new HashSet<>();
+
+			zipFile.stream().forEach(entry -> {
+				existing.add(entry.getName());
+
+				if (!edits.containsKey(entry.getName()) || edits.get(entry.getName()) != null) {
+					names.add(entry.getName());
+				}
+			});
+
+			final List<String> added = new ArrayList<>();
+			final Set<String> addedDirectories = new TreeSet<>();
+
+			edits.forEach((name, data) -> {
+				if (data != null && !existing.contains(name)) {
+					added.add(name);
+
+					// Add any missing parent directories, as the zip file system would
+					for (int i = name.indexOf('/'); i >= 0 && i < name.length() - 1; i = name.indexOf('/', i + 1)) {
+						final String directory = name.substring(0, i + 1);
+
+						if (!existing.contains(directory) && !edits.containsKey(directory)) {
+							addedDirectories.add(directory);
+						}
+					}
+				}
+			});
+
+			names.addAll(addedDirectories);
+			names.addAll(added);
 
 			if (reproducibleFileOrder) {
-				entries = zipFile.stream()
-						.sorted(Comparator.comparing(ZipEntry::getName, ZipReprocessorUtil::specialOrdering))
-						.toArray(ZipEntry[]::new);
-			} else {
-				entries = zipFile.stream()
-						.toArray(ZipEntry[]::new);
+				names.sort(ZipReprocessorUtil::specialOrdering);
 			}
 
 			try (var zipOutputStream = new ZipOutputStream(fileOutputStream)) {
 				zipOutputStream.setMethod(zipOutputStreamCompressionMethod(zipEntryCompression));
 
-				for (ZipEntry entry : entries) {
+				for (String name : names) {
+					final ZipEntry entry = zipFile.getEntry(name);
+					final byte[] data = edits.get(name);
 					ZipEntry newEntry = entry;
 
-					if (!preserveFileTimestamps) {
-						newEntry = new ZipEntry(entry.getName());
+					if (entry == null || !preserveFileTimestamps) {
+						newEntry = new ZipEntry(name);
 						setConstantFileTime(newEntry);
+					} else if (data != null) {
+						newEntry = new ZipEntry(name);
+						newEntry.setTime(entry.getTime());
 					}
 
 					newEntry.setMethod(zipEntryCompressionMethod(zipEntryCompression));
+					final InputStream inputStream;
+
+					if (data != null) {
+						inputStream = new ByteArrayInputStream(data);
+					} else if (entry != null) {
+						inputStream = zipFile.getInputStream(entry);
+					} else {
+						// An added parent directory
+						inputStream = InputStream.nullInputStream();
+					}
 
 					if (zipEntryCompression == ZipEntryCompression.STORED) {
-						copyUncompressedZipEntry(zipOutputStream, newEntry, zipFile.getInputStream(entry));
+						copyUncompressedZipEntry(zipOutputStream, newEntry, inputStream);
 					} else {
-						copyZipEntry(zipOutputStream, newEntry, zipFile.getInputStream(entry));
+						copyZipEntry(zipOutputStream, newEntry, inputStream);
 					}
 				}
 			}
@@ -198,8 +256,7 @@ public class ZipReprocessorUtil {
 	}
 
 	private static void setConstantFileTime(ZipEntry entry) {
-		// See https://github.com/openjdk/jdk/blob/master/test/jdk/java/util/zip/ZipFile/ZipEntryTimeBounds.java
-		entry.setTime(new GregorianCalendar(1980, Calendar.JANUARY, 1, 0, 0, 0).getTimeInMillis());
+		entry.setTime(CONSTANT_TIME);
 	}
 
 	@MagicConstant(valuesFromClass = ZipOutputStream.class)
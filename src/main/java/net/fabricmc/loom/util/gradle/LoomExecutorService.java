@@ -0,0 +1,195 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.util.gradle;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.gradle.api.JavaVersion;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.fabricmc.loom.util.Constants;
+
+/**
+ * A single executor shared by all of Loom's parallel work in a build, replacing thread pools created per call.
+ *
+ * <p>By default the parallelism matches Gradle's max worker count ({@code org.gradle.workers.max}), it can be lowered with {@link Constants.Properties#MAX_THREADS}.
+ * The platform thread pool is a {@link ForkJoinPool}, so tasks that wait on other tasks do not starve the pool.
+ * On Java 21 and later {@link Constants.Properties#VIRTUAL_THREADS} runs each task on a virtual thread instead.
+ * The parallelism is then not capped, every submitted task starts at once and only the JVM's virtual thread scheduler limits how many run on a carrier thread.
+ *
+ * <p>Code that is not able to access the build service should use {@link #executor()}.
+ * Tasks reference the service, so it exists while they run even when they are loaded from the configuration cache.
+ */
+public abstract class LoomExecutorService implements BuildService<LoomExecutorService.Params>, AutoCloseable {
+	public static final String NAME = "loomExecutor";
+	private static final Logger LOGGER = LoggerFactory.getLogger(LoomExecutorService.class);
+
+	@Nullable
+	private static volatile LoomExecutorService current;
+	private static final AtomicBoolean loggedFallback = new AtomicBoolean();
+
+	private final ExecutorService executorService;
+	private final int parallelism;
+	private final AtomicLong submittedTasks = new AtomicLong();
+	private final AtomicLong completedTasks = new AtomicLong();
+	private final AtomicInteger activeTasks = new AtomicInteger();
+	private final AtomicInteger peakActiveTasks = new AtomicInteger();
+
+	public interface Params extends BuildServiceParameters {
+		Property<Integer> getParallelism();
+
+		Property<Boolean> getUseVirtualThreads();
+	}
+
+	public LoomExecutorService() {
+		parallelism = Math.max(1, getParameters().getParallelism().get());
+
+		if (getParameters().getUseVirtualThreads().get() && JavaVersion.current().isCompatibleWith(JavaVersion.VERSION_21)) {
+			executorService = createVirtualThreadExecutor();
+		} else {
+			executorService = new ForkJoinPool(parallelism, new WorkerThreadFactory(), null, true);
+		}
+
+		current = this;
+		loggedFallback.set(false);
+	}
+
+	public static Provider<LoomExecutorService> register(Project project) {
+		return project.getGradle().getSharedServices().registerIfAbsent(NAME, LoomExecutorService.class, spec -> {
+			final int maxWorkers = project.getGradle().getStartParameter().getMaxWorkerCount();
+
+			spec.getParameters().getParallelism().set(GradleUtils.getIntegerPropertyProvider(project, Constants.Properties.MAX_THREADS)
+					.map(maxThreads -> Math.min(maxThreads, maxWorkers))
+					.orElse(maxWorkers));
+			spec.getParameters().getUseVirtualThreads().set(GradleUtils.getBooleanPropertyProvider(project, Constants.Properties.VIRTUAL_THREADS));
+		});
+	}
+
+	/**
+	 * @return The executor of the build service for the current build, or the common pool when there is none (e.g. in a worker process).
+	 */
+	public static Executor executor() {
+		final LoomExecutorService service = current;
+
+		if (service == null) {
+			if (!loggedFallback.getAndSet(true)) {
+				LOGGER.info("Loom executor service is not available, using the common pool without Loom's parallelism limit");
+			}
+
+			return ForkJoinPool.commonPool();
+		}
+
+		return service::execute;
+	}
+
+	public void execute(Runnable runnable) {
+		submittedTasks.incrementAndGet();
+
+		executorService.execute(() -> {
+			peakActiveTasks.accumulateAndGet(activeTasks.incrementAndGet(), Math::max);
+
+			try {
+				runnable.run();
+			} finally {
+				activeTasks.decrementAndGet();
+				completedTasks.incrementAndGet();
+			}
+		});
+	}
+
+	public Metrics getMetrics() {
+		final int active = activeTasks.get();
+		final long completed = completedTasks.get();
+		final long queued = submittedTasks.get() - completed - active;
+		return new Metrics(parallelism, Math.max(0, queued), active, peakActiveTasks.get(), completed);
+	}
+
+	@Override
+	public void close() throws InterruptedException {
+		if (current == this) {
+			current = null;
+		}
+
+		executorService.shutdown();
+
+		if (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+			LOGGER.warn("Timed out waiting for Loom tasks to complete");
+			executorService.shutdownNow();
+		}
+
+		LOGGER.info("Loom executor: {}", getMetrics());
+	}
+
+	private static ExecutorService createVirtualThreadExecutor() {
+		try {
+			final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			final Object namedBuilder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "Loom virtual worker ", 0L);
+			final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(namedBuilder);
+			final Method m = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			return (ExecutorService) m.invoke(null, threadFactory);
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException("Failed to create virtual thread executor", e);
+		}
+	}
+
+	/**
+	 * @param parallelism The maximum number of tasks that run at once
+	 * @param queuedTasks The number of tasks waiting to run
+	 * @param activeTasks The number of tasks currently running
+	 * @param peakActiveTasks The highest number of tasks that have run at once
+	 * @param completedTasks The number of tasks that have completed
+	 */
+	public record Metrics(int parallelism, long queuedTasks, int activeTasks, int peakActiveTasks, long completedTasks) {
+	}
+
+	private static final class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		@Override
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("Loom worker " + threadCount.incrementAndGet());
+			return thread;
+		}
+	}
+}
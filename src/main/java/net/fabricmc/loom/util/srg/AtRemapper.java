@@ -33,7 +33,6 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.UnaryOperator;
@@ -46,107 +45,95 @@ import org.gradle.api.logging.Logger;
 
 import net.fabricmc.loom.LoomGradleExtension;
 import net.fabricmc.loom.build.IntermediaryNamespaces;
+import net.fabricmc.loom.configuration.providers.mappings.MappingLookup;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.loom.util.ModPlatform;
-import net.fabricmc.loom.util.function.CollectionUtil;
 import net.fabricmc.mappingio.tree.MappingTree;
 
 public class AtRemapper {
-	public static void remap(Project project, Path jar, MappingTree mappings) throws IOException {
-		Logger logger = project.getLogger();
-		String sourceNamespace = IntermediaryNamespaces.intermediary(project);
-		LoomGradleExtension extension = LoomGradleExtension.get(project);
+	public static void remap(Project project, FileSystemUtil.Delegate fs, MappingTree mappings) throws IOException {
+		remap(project.getLogger(), LoomGradleExtension.get(project).getPlatform().get(), fs, mappings, IntermediaryNamespaces.intermediary(project));
+	}
 
-		try (FileSystemUtil.Delegate fs = FileSystemUtil.getJarFileSystem(jar, false)) {
-			Set<Path> atPaths = new TreeSet<>();
+	/**
+	 * Does not use any project state, so it can be called from any thread.
+	 */
+	public static void remap(Logger logger, ModPlatform platform, FileSystemUtil.Delegate fs, MappingTree mappings, String sourceNamespace) throws IOException {
+		Set<Path> atPaths = new TreeSet<>();
 
-			if (extension.isForge()) {
-				atPaths.add(fs.getPath(Constants.Forge.ACCESS_TRANSFORMER_PATH));
-			}
+		if (platform == ModPlatform.FORGE) {
+			atPaths.add(fs.getPath(Constants.Forge.ACCESS_TRANSFORMER_PATH));
+		}
 
-			if (extension.isNeoForge()) {
-				ModMetadataFile modMetadata = ModMetadataFiles.fromJar(jar);
+		if (platform == ModPlatform.NEOFORGE) {
+			ModMetadataFile modMetadata = ModMetadataFiles.fromDirectory(fs.getRoot());
 
-				if (modMetadata != null) {
-					for (String atFile : modMetadata.getAccessTransformers(ModPlatform.NEOFORGE)) {
-						atPaths.add(fs.getPath(atFile));
-					}
+			if (modMetadata != null) {
+				for (String atFile : modMetadata.getAccessTransformers(ModPlatform.NEOFORGE)) {
+					atPaths.add(fs.getPath(atFile));
 				}
 			}
+		}
 
-			if (extension.isLegacyForgeLike()) {
-				Path manifestPath = fs.getPath("META-INF", "MANIFEST.MF");
+		if (platform.isLegacyForgeLike()) {
+			Path manifestPath = fs.getPath("META-INF", "MANIFEST.MF");
 
-				if (Files.exists(manifestPath)) {
-					Manifest manifest = new Manifest(new ByteArrayInputStream(Files.readAllBytes(manifestPath)));
-					String atList = manifest.getMainAttributes().getValue(Constants.LegacyForge.ACCESS_TRANSFORMERS_MANIFEST_KEY);
+			if (Files.exists(manifestPath)) {
+				Manifest manifest = new Manifest(new ByteArrayInputStream(Files.readAllBytes(manifestPath)));
+				String atList = manifest.getMainAttributes().getValue(Constants.LegacyForge.ACCESS_TRANSFORMERS_MANIFEST_KEY);
 
-					if (atList != null) {
-						for (String atFile : atList.split(" ")) {
-							atPaths.add(fs.getPath("META-INF", atFile));
-						}
+				if (atList != null) {
+					for (String atFile : atList.split(" ")) {
+						atPaths.add(fs.getPath("META-INF", atFile));
 					}
 				}
-
-				Files.walk(fs.getPath("/"), 1).filter(path -> path.toString().endsWith("at.cfg")).forEach(atPaths::add);
 			}
 
-			for (Path atPath : atPaths) {
-				if (Files.exists(atPath)) {
-					String atContent = Files.readString(atPath, StandardCharsets.UTF_8);
+			Files.walk(fs.getPath("/"), 1).filter(path -> path.toString().endsWith("at.cfg")).forEach(atPaths::add);
+		}
 
-					String[] lines = atContent.split("\n");
-					List<String> output = new ArrayList<>();
+		MappingLookup lookup = MappingLookup.of(mappings, sourceNamespace, "named");
 
-					for (int i = 0; i < lines.length; i++) {
-						String line = lines[i].split("#", 2)[0].trim();
+		for (Path atPath : atPaths) {
+			if (Files.exists(atPath)) {
+				String atContent = Files.readString(atPath, StandardCharsets.UTF_8);
 
-						if (line.isBlank()) {
-							continue;
-						}
+				String[] lines = atContent.split("\n");
+				List<String> output = new ArrayList<>();
 
-						String[] parts = line.split("\\s+");
+				for (int i = 0; i < lines.length; i++) {
+					String line = lines[i].split("#", 2)[0].trim();
 
-						if (parts.length < 2) {
-							logger.warn("Invalid AT Line: " + line);
-							output.add(line);
-							continue;
-						}
+					if (line.isBlank()) {
+						continue;
+					}
 
-						String className = parts[1].replace('.', '/');
-						Optional<MappingTree.ClassMapping> classMapping = CollectionUtil.find(
-								mappings.getClasses(),
-								def -> def.getName(sourceNamespace).equals(className)
-						);
-						parts[1] = classMapping.map(def -> def.getName("named")).orElse(className).replace('/', '.');
-
-						if (parts.length >= 3) {
-							if (parts[2].contains("(")) {
-								String methodName = parts[2].substring(0, parts[2].indexOf('('));
-								String descriptor = parts[2].substring(parts[2].indexOf('('));
-								parts[2] = classMapping.flatMap(def -> CollectionUtil.find(
-										def.getMethods(),
-										mDef -> mDef.getName(sourceNamespace).equals(methodName)
-								)).map(def -> def.getName("named")).orElse(methodName) + remapDescriptor(descriptor, s -> {
-									return CollectionUtil.find(
-											mappings.getClasses(),
-											def -> def.getName(sourceNamespace).equals(s)
-									).map(def -> def.getName("named")).orElse(s);
-								});
-							} else {
-								parts[2] = classMapping.flatMap(def -> CollectionUtil.find(
-										def.getFields(),
-										fDef -> fDef.getName(sourceNamespace).equals(parts[2])
-								)).map(def -> def.getName("named")).orElse(parts[2]);
-							}
-						}
+					String[] parts = line.split("\\s+");
+
+					if (parts.length < 2) {
+						logger.warn("Invalid AT Line: " + line);
+						output.add(line);
+						continue;
+					}
+
+					String className = parts[1].replace('.', '/');
+					parts[1] = lookup.mapClassName(className).replace('/', '.');
 
-						output.add(String.join(" ", parts));
+					if (parts.length >= 3) {
+						if (parts[2].contains("(")) {
+							String methodName = parts[2].substring(0, parts[2].indexOf('('));
+							String descriptor = parts[2].substring(parts[2].indexOf('('));
+							parts[2] = lookup.mapMethodName(className, methodName, null) + remapDescriptor(descriptor, lookup::mapClassName);
+						} else {
+							parts[2] = lookup.mapFieldName(className, parts[2], null);
+						}
 					}
 
-					Files.write(atPath, String.join("\n", output).getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+					output.add(String.join(" ", parts));
 				}
+
+				Files.write(atPath, String.join("\n", output).getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
 			}
 		}
 	}
@@ -34,7 +34,6 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,9 +44,9 @@ import org.gradle.api.Project;
 import org.gradle.api.logging.Logger;
 
 import net.fabricmc.loom.build.IntermediaryNamespaces;
+import net.fabricmc.loom.configuration.providers.mappings.MappingLookup;
 import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.loom.util.ModPlatform;
-import net.fabricmc.loom.util.function.CollectionUtil;
 import net.fabricmc.mappingio.tree.MappingTree;
 
 /**
@@ -59,34 +58,36 @@ public final class CoreModClassRemapper {
 	private static final Pattern CLASS_NAME_PATTERN = Pattern.compile("^(.*')((?:com\\.mojang\\.|net\\.minecraft\\.)[A-Za-z0-9.-_$]+)('.*)$");
 	private static final Pattern REDIRECT_FIELD_TO_METHOD_PATTERN = Pattern.compile("^(.*\\w+\\s*\\.\\s*redirectFieldToMethod\\s*\\(\\s*\\w+\\s*,\\s*')(\\w*)('\\s*,(?:\\s*'(\\w+)'\\s*|.*)\\).*)$");
 
-	public static void remapJar(Project project, ModPlatform platform, Path jar, MappingTree mappings) throws IOException {
-		final Logger logger = project.getLogger();
-		final String sourceNamespace = IntermediaryNamespaces.runtimeIntermediary(project);
+	public static void remapJar(Project project, ModPlatform platform, FileSystemUtil.Delegate fs, MappingTree mappings) throws IOException {
+		remapJar(project.getLogger(), platform, fs, mappings, IntermediaryNamespaces.runtimeIntermediary(project));
+	}
 
-		try (FileSystemUtil.Delegate fs = FileSystemUtil.getJarFileSystem(jar, false)) {
-			Path coremodsJsonPath = fs.getPath("META-INF", "coremods.json");
+	/**
+	 * Does not use any project state, so it can be called from any thread.
+	 */
+	public static void remapJar(Logger logger, ModPlatform platform, FileSystemUtil.Delegate fs, MappingTree mappings, String sourceNamespace) throws IOException {
+		Path coremodsJsonPath = fs.getPath("META-INF", "coremods.json");
 
-			if (Files.notExists(coremodsJsonPath)) {
-				logger.info(":no coremods in " + jar.getFileName());
-				return;
-			}
+		if (Files.notExists(coremodsJsonPath)) {
+			logger.info(":no coremods in " + fs.uri());
+			return;
+		}
 
-			JsonObject coremodsJson;
+		JsonObject coremodsJson;
 
-			try (Reader reader = Files.newBufferedReader(coremodsJsonPath)) {
-				coremodsJson = new Gson().fromJson(reader, JsonObject.class);
-			}
+		try (Reader reader = Files.newBufferedReader(coremodsJsonPath)) {
+			coremodsJson = new Gson().fromJson(reader, JsonObject.class);
+		}
 
-			for (Map.Entry<String, JsonElement> nameFileEntry : coremodsJson.entrySet()) {
-				String file = nameFileEntry.getValue().getAsString();
-				Path js = fs.getPath(file);
+		for (Map.Entry<String, JsonElement> nameFileEntry : coremodsJson.entrySet()) {
+			String file = nameFileEntry.getValue().getAsString();
+			Path js = fs.getPath(file);
 
-				if (Files.exists(js)) {
-					logger.info(":remapping coremod '" + file + "'");
-					remap(js, platform, mappings, sourceNamespace);
-				} else {
-					logger.warn("Coremod '" + file + "' listed in coremods.json but not found");
-				}
+			if (Files.exists(js)) {
+				logger.info(":remapping coremod '" + file + "'");
+				remap(js, platform, mappings, sourceNamespace);
+			} else {
+				logger.warn("Coremod '" + file + "' listed in coremods.json but not found");
 			}
 		}
 	}
@@ -94,6 +95,7 @@ public final class CoreModClassRemapper {
 	public static void remap(Path js, ModPlatform platform, MappingTree mappings, String sourceNamespace) throws IOException {
 		List<String> lines = Files.readAllLines(js);
 		List<String> output = new ArrayList<>(lines);
+		MappingLookup lookup = MappingLookup.of(mappings, sourceNamespace, "named");
 		String lastClassName = null;
 
 		for (int i = 0; i < lines.size(); i++) {
@@ -102,10 +104,8 @@ public final class CoreModClassRemapper {
 
 			if (matcher.matches()) {
 				String className = matcher.group(2).replace('.', '/');
-				String remapped = CollectionUtil.find(mappings.getClasses(), def -> def.getName(sourceNamespace).equals(className))
-						.map(def -> def.getName("named"))
-						.orElse(className);
-				lastClassName = remapped;
+				String remapped = lookup.mapClassName(className);
+				lastClassName = className;
 
 				if (!className.equals(remapped)) {
 					output.set(i, matcher.group(1) + remapped.replace('/', '.') + matcher.group(3));
@@ -115,18 +115,11 @@ public final class CoreModClassRemapper {
 
 				if (matcher.matches()) {
 					String fieldName = matcher.group(2);
-					String remapped = Optional.ofNullable(mappings.getClass(lastClassName, mappings.getNamespaceId("named")))
-							.flatMap(clazz -> Optional.ofNullable(clazz.getField(fieldName, null, mappings.getNamespaceId(sourceNamespace))))
-							.map(field -> field.getName("named"))
-							.orElse(fieldName);
+					String remapped = lookup.mapFieldName(lastClassName, fieldName, null);
 
 					if (!fieldName.equals(remapped)) {
 						String optionalMethod = matcher.group(4);
-						String remappedMethod = optionalMethod == null ? null
-								: Optional.ofNullable(mappings.getClass(lastClassName, mappings.getNamespaceId("named")))
-								.flatMap(clazz -> Optional.ofNullable(clazz.getMethod(optionalMethod, null, mappings.getNamespaceId(sourceNamespace))))
-								.map(method -> method.getName("named"))
-								.orElse(null);
+						String remappedMethod = optionalMethod == null ? null : lookup.mapMethodName(lastClassName, optionalMethod, null);
 
 						if (remappedMethod != null) {
 							output.set(i, matcher.group(1) + remapped + matcher.group(3).replace("'" + optionalMethod + "'", "'" + remappedMethod + "'"));
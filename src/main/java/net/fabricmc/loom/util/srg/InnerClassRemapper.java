@@ -31,11 +31,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
-
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 
+import net.fabricmc.loom.configuration.providers.mappings.MappingLookup;
 import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.mappingio.tree.MappingTree;
 import net.fabricmc.tinyremapper.IMappingProvider;
@@ -71,24 +68,17 @@ public class InnerClassRemapper {
 	}
 
 	private static void remapInnerClass(Set<String> classNames, MappingTree mappingsWithSrg, String from, String to, BiConsumer<String, String> action) {
-		BiMap<String, String> availableClasses = HashBiMap.create(mappingsWithSrg.getClasses().stream()
-				.collect(Collectors.groupingBy(classDef -> classDef.getName(from),
-						Collectors.<MappingTree.ClassMapping, String>reducing(
-								null,
-								classDef -> classDef.getName(to),
-								(first, last) -> last
-						))
-				));
+		MappingLookup availableClasses = MappingLookup.of(mappingsWithSrg, from, to);
 
 		for (String className : classNames) {
-			if (!availableClasses.containsKey(className)) {
+			if (!availableClasses.hasSrcClassName(className)) {
 				String parentName = className.substring(0, className.indexOf('$'));
 				String childName = className.substring(className.indexOf('$') + 1);
-				String remappedParentName = availableClasses.getOrDefault(parentName, parentName);
+				String remappedParentName = availableClasses.mapClassName(parentName);
 				String remappedName = remappedParentName + "$" + childName;
 
 				if (!className.equals(remappedName)) {
-					if (availableClasses.containsValue(remappedName)) {
+					if (availableClasses.hasDstClassName(remappedName)) {
 						// https://github.com/MinecraftForge/MinecraftForge/blob/b027a92dd287d6810a9fdae4d4b1e1432d7dc9cc/patches/minecraft/net/minecraft/Util.java.patch#L8
 						action.accept(className, remappedName + "_UNBREAK");
 					} else {
@@ -29,25 +29,29 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
 
+import net.fabricmc.loom.configuration.providers.mappings.MappingLookup;
 import net.fabricmc.loom.util.Constants;
 import net.fabricmc.loom.util.FileSystemUtil;
 import net.fabricmc.mappingio.tree.MappingTree;
 
 public class RemapObjectHolderVisitor extends ClassVisitor {
-	private final MappingTree mappings;
-	private final int from;
-	private final int to;
+	@Nullable
+	private final MappingLookup mappings;
 
 	public RemapObjectHolderVisitor(int api, ClassVisitor classVisitor, MappingTree mappings, String from, String to) {
 		super(api, classVisitor);
-		this.mappings = mappings;
-		this.from = this.mappings.getNamespaceId(from);
-		this.to = this.mappings.getNamespaceId(to);
+
+		if (mappings.getNamespaceId(from) != MappingTree.NULL_NAMESPACE_ID && mappings.getNamespaceId(to) != MappingTree.NULL_NAMESPACE_ID) {
+			this.mappings = MappingLookup.of(mappings, from, to);
+		} else {
+			this.mappings = null;
+		}
 	}
 
 	public static void remapObjectHolder(Path jar, String className, MappingTree mappings, String from, String to) throws IOException {
@@ -68,12 +72,12 @@ public class RemapObjectHolderVisitor extends ClassVisitor {
 	public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
 		MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
 
-		if ("<clinit>".equals(name) && "()V".equals(descriptor) && from != MappingTree.NULL_NAMESPACE_ID && to != MappingTree.NULL_NAMESPACE_ID) {
+		if ("<clinit>".equals(name) && "()V".equals(descriptor) && mappings != null) {
 			return new MethodVisitor(api, methodVisitor) {
 				@Override
 				public void visitLdcInsn(Object value) {
 					if (value instanceof String str && str.startsWith("net.minecraft.")) {
-						value = mappings.mapClassName(str.replace('.', '/'), from, to)
+						value = mappings.mapClassName(str.replace('.', '/'))
 								.replace('/', '.');
 					}
 
@@ -0,0 +1,101 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.util.CacheLocks
+
+class CacheLocksTest extends Specification {
+	def "same key is exclusive"() {
+		given:
+		def key = Path.of("build", "cache-locks", "same.jar")
+		def running = new AtomicInteger()
+		def maxRunning = new AtomicInteger()
+
+		when:
+		def futures = (1..8).collect {
+			CompletableFuture.runAsync {
+				CacheLocks.withLock(key) {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max)
+					Thread.sleep(10)
+					running.decrementAndGet()
+				}
+			}
+		}
+		CompletableFuture.allOf(futures as CompletableFuture[]).get(30, TimeUnit.SECONDS)
+
+		then:
+		maxRunning.get() == 1
+	}
+
+	def "different keys run concurrently"() {
+		given:
+		def latch = new CountDownLatch(2)
+
+		when:
+		def futures = ["a.jar", "b.jar"].collect { name ->
+			CompletableFuture.runAsync {
+				CacheLocks.withLock(Path.of("build", "cache-locks", name)) {
+					latch.countDown()
+					// Would time out if the other key was blocked by this lock
+					assert latch.await(10, TimeUnit.SECONDS)
+				}
+			}
+		}
+		CompletableFuture.allOf(futures as CompletableFuture[]).get(30, TimeUnit.SECONDS)
+
+		then:
+		latch.count == 0
+	}
+
+	def "lock is released when the action fails"() {
+		given:
+		def key = Path.of("build", "cache-locks", "failing.jar")
+
+		when:
+		CacheLocks.withLock(key) {
+			throw new IOException("Failed")
+		}
+
+		then:
+		thrown(IOException)
+
+		when:
+		def ran = CompletableFuture.supplyAsync {
+			CacheLocks.withLock([key, Path.of("build", "cache-locks", "other.jar")]) {}
+			return true
+		}.get(10, TimeUnit.SECONDS)
+
+		then:
+		ran
+	}
+}
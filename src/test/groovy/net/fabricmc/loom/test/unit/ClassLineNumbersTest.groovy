@@ -46,6 +46,39 @@ class ClassLineNumbersTest extends Specification {
 		lineMap["net/minecraft/server/dedicated/ServerPropertiesLoader"].maxLineDest() == 30
 	}
 
+	def "remap line numbers"() {
+		given:
+		def entry = new ClassLineNumbers.Entry("net/test/TestClass", 30, 40, [27: 37, 29: 39, 30: 40])
+
+		expect:
+		entry.remap(line) == expected
+
+		where:
+		line | expected
+		0    | 0
+		1    | 37
+		27   | 37
+		28   | 39
+		30   | 40
+		45   | 40
+	}
+
+	def "write and read entry"() {
+		given:
+		def lineNumbers = ClassLineNumbers.readMappings(new BufferedReader(new StringReader(LINE_MAP)))
+		def entry = lineNumbers.lineMap()["net/minecraft/server/dedicated/ServerPropertiesLoader"]
+		def writer = new StringWriter()
+
+		when:
+		entry.write(writer)
+		def read = ClassLineNumbers.Entry.read(entry.toByteArray())
+
+		then:
+		read == entry
+		new String(entry.toByteArray(), "UTF-8") == writer.toString()
+		read.lineMap() == [11: 15, 12: 16, 16: 20, 20: 24, 24: 28, 25: 30]
+	}
+
 	private static final String LINE_MAP = """
 net/minecraft/server/dedicated/ServerPropertiesHandler\t203\t187
 \t48\t187
@@ -65,6 +65,31 @@ class LineNumberRemapperTests extends Specification {
 		readLineNumbers(unpacked) == [37, 39, 40]
 	}
 
+	def "copies classes with unchanged line numbers"() {
+		given:
+		def className = LineNumberSource.class.name.replace('.', '/')
+		def classBytes = getClassBytes(LineNumberSource.class)
+		def input = ZipTestUtils.createZipFromBytes([(className + ".class"): classBytes])
+
+		def entry = new ClassLineNumbers.Entry(className, 30, 30, [
+			27: 27,
+			29: 29,
+			30: 30
+		])
+		def lineNumbers = new ClassLineNumbers([(className): entry])
+
+		def outputJar = Files.createTempDirectory("loom").resolve("output.jar")
+
+		when:
+		def remapper = new LineNumberRemapper(lineNumbers)
+		remapper.process(input, outputJar)
+
+		def unpacked = ZipUtils.unpack(outputJar, className + ".class")
+
+		then:
+		unpacked == classBytes
+	}
+
 	static byte[] getClassBytes(Class<?> clazz) {
 		return clazz.classLoader.getResourceAsStream(clazz.name.replace('.', '/') + ".class").withCloseable {
 			it.bytes
@@ -0,0 +1,123 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.fabricmc.loom.test.unit
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.configuration.providers.mappings.MappingLookup
+import net.fabricmc.mappingio.MappingReader
+import net.fabricmc.mappingio.tree.MemoryMappingTree
+import net.fabricmc.tinyremapper.IMappingProvider
+
+class MappingLookupTest extends Specification {
+	static final String MAPPINGS = """tiny\t2\t0\tintermediary\tnamed
+c\tnet/minecraft/class_1\tnet/minecraft/Example
+\tf\tI\tfield_1\tvalue
+\tm\t(I)V\tmethod_1\tsetValue
+\t\tp\t1\t\tnewValue
+\tm\t(J)V\tmethod_2\tsetLong
+c\tnet/minecraft/class_2
+"""
+
+	def "maps classes and members"() {
+		when:
+		def lookup = MappingLookup.of(readMappings(), "intermediary", "named")
+
+		then:
+		lookup.mapClassName("net/minecraft/class_1") == "net/minecraft/Example"
+		lookup.mapClassName("net/minecraft/class_2") == "net/minecraft/class_2"
+		lookup.mapClassName("net/minecraft/class_3") == "net/minecraft/class_3"
+		lookup.hasSrcClassName("net/minecraft/class_2")
+		lookup.hasDstClassName("net/minecraft/Example")
+		!lookup.hasDstClassName("net/minecraft/class_1")
+		lookup.mapFieldName("net/minecraft/class_1", "field_1", "I") == "value"
+		lookup.mapFieldName("net/minecraft/class_1", "field_1", null) == "value"
+		lookup.mapMethodName("net/minecraft/class_1", "method_2", "(J)V") == "setLong"
+		lookup.mapMethodName("net/minecraft/class_1", "method_2", "(I)V") == "method_2"
+		lookup.mapMethodName("net/minecraft/class_2", "method_1", null) == "method_1"
+	}
+
+	def "shares lookups per tree and namespaces"() {
+		given:
+		def mappings = readMappings()
+
+		expect:
+		MappingLookup.of(mappings, "intermediary", "named").is(MappingLookup.of(mappings, "intermediary", "named"))
+		!MappingLookup.of(mappings, "intermediary", "named").is(MappingLookup.of(mappings, "named", "intermediary"))
+		!MappingLookup.of(mappings, "intermediary", "named").is(MappingLookup.of(readMappings(), "intermediary", "named"))
+	}
+
+	def "passes mappings to tiny remapper"() {
+		given:
+		def lookup = MappingLookup.of(readMappings(), "intermediary", "named")
+		def accepted = []
+		def acceptor = new IMappingProvider.MappingAcceptor() {
+			@Override
+			void acceptClass(String srcName, String dstName) {
+				accepted << "class $srcName $dstName"
+			}
+
+			@Override
+			void acceptMethod(IMappingProvider.Member method, String dstName) {
+				accepted << "method $method.owner $method.name$method.desc $dstName"
+			}
+
+			@Override
+			void acceptMethodArg(IMappingProvider.Member method, int lvIndex, String dstName) {
+				accepted << "arg $method.name $lvIndex $dstName"
+			}
+
+			@Override
+			void acceptMethodVar(IMappingProvider.Member method, int lvIndex, int startOpIdx, int asmIndex, String dstName) {
+				accepted << "var $method.name $lvIndex $dstName"
+			}
+
+			@Override
+			void acceptField(IMappingProvider.Member field, String dstName) {
+				accepted << "field $field.owner $field.name:$field.desc $dstName"
+			}
+		}
+
+		when:
+		lookup.accept(acceptor, true)
+
+		then:
+		accepted*.toString() == [
+			"class net/minecraft/class_1 net/minecraft/Example",
+			"class net/minecraft/class_2 net/minecraft/class_2",
+			"field net/minecraft/class_1 field_1:I value",
+			"method net/minecraft/class_1 method_1(I)V setValue",
+			"arg method_1 1 newValue",
+			"method net/minecraft/class_1 method_2(J)V setLong"
+		]
+	}
+
+	static MemoryMappingTree readMappings() {
+		def mappings = new MemoryMappingTree()
+		MappingReader.read(new StringReader(MAPPINGS), mappings)
+		return mappings
+	}
+}
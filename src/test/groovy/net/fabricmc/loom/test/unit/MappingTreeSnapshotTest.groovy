@@ -0,0 +1,120 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import net.fabricmc.loom.configuration.providers.mappings.MappingTreeSnapshot
+import net.fabricmc.mappingio.format.tiny.Tiny2FileWriter
+import net.fabricmc.mappingio.tree.MemoryMappingTree
+
+class MappingTreeSnapshotTest extends Specification {
+	static final String MAPPINGS = """tiny\t2\t0\tofficial\tintermediary\tnamed
+\tescaped-names
+c\ta\tnet/minecraft/class_1\tnet/minecraft/Example
+\tc\tAn example class
+\tf\tI\tb\tfield_1\tvalue
+\tm\t(I)V\tc\tmethod_1\tsetValue
+\t\tc\tSets the value
+\t\tp\t1\t\t\tnewValue
+\t\tv\t2\t3\t0\t\t\tlocal
+c\td\tnet/minecraft/class_2
+"""
+
+	@TempDir
+	Path tempDir
+
+	def "reads the mappings from the snapshot"() {
+		given:
+		def mappings = tempDir.resolve("loom-cache/mappings.tiny")
+		Files.createDirectories(mappings.parent)
+		Files.writeString(mappings, MAPPINGS)
+
+		when:
+		def read = MappingTreeSnapshot.read(mappings)
+		def snapshot = tempDir.resolve("loom-cache/mappings.tiny.snapshot")
+		def snapshotExists = Files.exists(snapshot)
+		// Prove that the second read is from the snapshot, the tiny file is invalid but has the same size and time
+		def modified = Files.getLastModifiedTime(mappings)
+		Files.writeString(mappings, "x" * MAPPINGS.length())
+		Files.setLastModifiedTime(mappings, modified)
+		def fromSnapshot = MappingTreeSnapshot.read(mappings)
+
+		then:
+		snapshotExists
+		write(fromSnapshot) == write(read)
+		fromSnapshot.getClass("a").getDstName(1) == "net/minecraft/Example"
+		fromSnapshot.getClass("a").getMethod("c", "(I)V").getArg(-1, 1, null).getDstName(1) == "newValue"
+	}
+
+	def "ignores outdated snapshots"() {
+		given:
+		def mappings = tempDir.resolve("loom-cache/mappings.tiny")
+		Files.createDirectories(mappings.parent)
+		Files.writeString(mappings, MAPPINGS)
+		MappingTreeSnapshot.read(mappings)
+		Files.writeString(mappings, MAPPINGS.replace("setValue", "updateValue"))
+
+		when:
+		def read = MappingTreeSnapshot.read(mappings)
+
+		then:
+		read.getClass("a").getMethod("c", "(I)V").getDstName(1) == "updateValue"
+	}
+
+	def "only snapshots mappings in the loom caches"() {
+		given:
+		def mappings = tempDir.resolve(path)
+		Files.createDirectories(mappings.parent)
+		Files.writeString(mappings, MAPPINGS)
+
+		when:
+		def read = MappingTreeSnapshot.read(mappings)
+
+		then:
+		read.getClass("a").getDstName(1) == "net/minecraft/Example"
+		Files.exists(tempDir.resolve(path + ".snapshot")) == snapshot
+
+		where:
+		path                                              | snapshot
+		"caches/fabric-loom/1.21/mappings.tiny"           | true
+		"project/.gradle/loom-cache/mappings.tiny"        | true
+		"project/build/loom-cache/mappings.tiny"          | true
+		"project/build/tmp/compileJava/mixin-map.tiny"    | false
+		"fabric-loom/mappings.tiny"                       | false
+		"mappings.tiny"                                   | false
+	}
+
+	static String write(MemoryMappingTree tree) {
+		def writer = new StringWriter()
+		tree.accept(new Tiny2FileWriter(writer, false))
+		return writer.toString()
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import org.objectweb.asm.tree.ClassNode
+import spock.lang.Specification
+
+import net.fabricmc.loom.configuration.providers.minecraft.MinecraftJarMerger
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.ZipUtils
+
+class MinecraftJarMergerTest extends Specification {
+	def "merges client and server jars"() {
+		given:
+		def client = ZipTestUtils.createZipFromBytes([
+			"net/minecraft/Client.class": createClass("net/minecraft/Client"),
+			"net/minecraft/Common.class": createClass("net/minecraft/Common"),
+			"assets/lang.json": "client".bytes
+		], ".jar")
+		def server = ZipTestUtils.createZipFromBytes([
+			"net/minecraft/Server.class": createClass("net/minecraft/Server"),
+			"net/minecraft/Common.class": createClass("net/minecraft/Common"),
+			"com/example/Library.class": createClass("com/example/Library"),
+			"assets/lang.json": "server".bytes
+		], ".jar")
+		def merged = Files.createTempFile("loom-test", ".jar")
+
+		when:
+		new MinecraftJarMerger(client.toFile(), server.toFile(), merged.toFile()).withCloseable {
+			it.merge()
+		}
+
+		then:
+		getEnvironment(ZipUtils.unpack(merged, "net/minecraft/Client.class")) == "CLIENT"
+		getEnvironment(ZipUtils.unpack(merged, "net/minecraft/Server.class")) == "SERVER"
+		getEnvironment(ZipUtils.unpack(merged, "net/minecraft/Common.class")) == null
+		!ZipUtils.contains(merged, "com/example/Library.class")
+		ZipUtils.unpack(merged, "assets/lang.json") == "client".bytes
+	}
+
+	static byte[] createClass(String name) {
+		def writer = new ClassWriter(0)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+		writer.visitEnd()
+		return writer.toByteArray()
+	}
+
+	static String getEnvironment(byte[] bytes) {
+		def node = new ClassNode()
+		new ClassReader(bytes).accept(node, 0)
+		def annotation = node.visibleAnnotations?.find { it.desc == "Lnet/fabricmc/api/Environment;" }
+		return annotation == null ? null : (annotation.values[1] as String[])[1]
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+import java.util.zip.ZipException
+import java.util.zip.ZipFile
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.RawZipFile
+import net.fabricmc.loom.util.RawZipWriter
+import net.fabricmc.loom.util.ZipReprocessorUtil
+import net.fabricmc.loom.util.ZipUtils
+
+class RawZipTest extends Specification {
+	def "read entries"() {
+		given:
+		def zip = ZipTestUtils.createZip(["a/file1.txt": "FILE1", "file2.txt": "FILE2"])
+
+		when:
+		def zipFile = RawZipFile.open(zip)
+		def entry = zipFile.getEntry("a/file1.txt")
+		def bytes = zipFile.readAllBytes(entry)
+		zipFile.close()
+
+		then:
+		entry != null
+		bytes == "FILE1".bytes
+		zipFile.getEntry("missing.txt") == null
+	}
+
+	def "copy and write entries"() {
+		given:
+		def input = ZipTestUtils.createZip(["a/file1.txt": "FILE1".repeat(100), "file2.txt": "FILE2"])
+		def output = Files.createTempFile("loom-raw-zip", ".zip")
+
+		when:
+		RawZipFile.open(input).withCloseable { zipFile ->
+			new RawZipWriter(output).withCloseable { writer ->
+				for (def entry : zipFile.entries()) {
+					if (entry.name() == "file2.txt") {
+						writer.write(entry, "CHANGED".bytes)
+					} else {
+						writer.writeParentDirectories(entry.name())
+						writer.copy(zipFile, entry)
+					}
+				}
+
+				writer.write("new.txt", "NEW".bytes)
+			}
+		}
+
+		then:
+		ZipUtils.unpack(output, "a/file1.txt") == "FILE1".repeat(100).bytes
+		ZipUtils.unpack(output, "file2.txt") == "CHANGED".bytes
+		ZipUtils.unpack(output, "new.txt") == "NEW".bytes
+		ZipUtils.contains(output, "a/")
+	}
+
+	def "new entries have a fixed time"() {
+		given:
+		def output = Files.createTempFile("loom-raw-zip", ".zip")
+
+		when:
+		new RawZipWriter(output).withCloseable { writer ->
+			writer.writeParentDirectories("a/b/file.txt")
+			writer.write("a/b/file.txt", "FILE".bytes)
+		}
+
+		def times = new ZipFile(output.toFile()).withCloseable { zipFile ->
+			zipFile.entries().toList().collect { it.time }
+		}
+
+		then:
+		times.size() == 3
+		times.every { it == ZipReprocessorUtil.CONSTANT_TIME }
+	}
+
+	def "zip64 entry count"() {
+		given:
+		def output = Files.createTempFile("loom-raw-zip", ".zip")
+		def count = 70000
+
+		when:
+		new RawZipWriter(output).withCloseable { writer ->
+			for (i in 0..<count) {
+				writer.write("file" + i + ".txt", ("FILE" + i).bytes)
+			}
+		}
+
+		def rawEntries = RawZipFile.open(output).withCloseable { zipFile ->
+			zipFile.entries().size()
+		}
+
+		def lastEntry = new ZipFile(output.toFile()).withCloseable { zipFile ->
+			[zipFile.size(), new String(zipFile.getInputStream(zipFile.getEntry("file" + (count - 1) + ".txt")).readAllBytes())]
+		}
+
+		then:
+		rawEntries == count
+		lastEntry == [count, "FILE" + (count - 1)]
+		ZipUtils.unpack(output, "file0.txt") == "FILE0".bytes
+	}
+
+	def "duplicate entry"() {
+		given:
+		def output = Files.createTempFile("loom-raw-zip", ".zip")
+		def writer = new RawZipWriter(output)
+
+		when:
+		writer.write("file.txt", "A".bytes)
+		writer.write("file.txt", "B".bytes)
+
+		then:
+		thrown(ZipException)
+
+		cleanup:
+		writer.close()
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import net.fabricmc.loom.configuration.mods.RemappedModCache
+
+class RemappedModCacheTest extends Specification {
+	@TempDir
+	Path tempDir
+
+	def "store and restore"() {
+		given:
+		def cache = new RemappedModCache(tempDir.resolve("cache"), "hash")
+		def input = write("input.jar", "INPUT")
+		def remapped = write("remapped.jar", "REMAPPED")
+
+		when:
+		def before = cache.getCachedJar(input)
+		cache.store(input, remapped)
+		def after = cache.getCachedJar(input)
+
+		then:
+		before == null
+		after != null
+		Files.readString(after) == "REMAPPED"
+		// The temporary file is moved into place
+		Files.list(after.parent).withCloseable { it.count() } == 1
+	}
+
+	def "batches with different indy bootstrap methods do not share entries"() {
+		given:
+		def cache = new RemappedModCache(tempDir.resolve("cache"), "hash")
+		def input = write("input.jar", "INPUT")
+		def remapped = write("remapped.jar", "REMAPPED")
+
+		when:
+		cache.forBatch(["a/Bsm"] as Set).store(input, remapped)
+
+		then:
+		cache.forBatch(["a/Bsm"] as Set).getCachedJar(input) != null
+		cache.forBatch(["a/Bsm", "b/Bsm"] as Set).getCachedJar(input) == null
+		cache.getCachedJar(input) == null
+	}
+
+	def "failing to store does not throw"() {
+		given:
+		// The cache root is a file, so the cache directory cannot be created
+		def cache = new RemappedModCache(write("cache", ""), "hash")
+		def input = write("input.jar", "INPUT")
+		def remapped = write("remapped.jar", "REMAPPED")
+
+		when:
+		cache.store(input, remapped)
+
+		then:
+		noExceptionThrown()
+		cache.getCachedJar(input) == null
+	}
+
+	private Path write(String name, String content) {
+		def path = tempDir.resolve(name)
+		Files.writeString(path, content)
+		return path
+	}
+}
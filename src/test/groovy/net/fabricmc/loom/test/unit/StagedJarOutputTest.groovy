@@ -0,0 +1,95 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.fabricmc.loom.test.unit
+
+import java.nio.charset.StandardCharsets
+import java.util.zip.ZipFile
+
+import com.google.gson.JsonObject
+import org.gradle.api.tasks.bundling.ZipEntryCompression
+import spock.lang.Specification
+
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.StagedJarOutput
+import net.fabricmc.loom.util.ZipUtils
+
+class StagedJarOutputTest extends Specification {
+	def "applies all staged edits in one write"() {
+		given:
+		def jar = ZipTestUtils.createZip([
+			"fabric.mod.json": '{"id":"test"}',
+			"keep.txt": "keep",
+			"remove.txt": "remove",
+			"replace.txt": "old"
+		], ".jar")
+		def output = new StagedJarOutput(jar)
+
+		when:
+		output.add("added.txt", "added".getBytes(StandardCharsets.UTF_8))
+		output.replace("replace.txt", "new".getBytes(StandardCharsets.UTF_8))
+		output.remove("remove.txt")
+		output.transformJson(JsonObject, "fabric.mod.json") { it.addProperty("first", true); it }
+		output.transformJson(JsonObject, "fabric.mod.json") { it.addProperty("second", it.has("first")); it }
+		def missingTransformed = output.transform("missing.txt") { it }
+		def staged = new String(output.read("added.txt"), StandardCharsets.UTF_8)
+		def untouched = ZipUtils.contains(jar, "added.txt")
+		output.write(false, true, ZipEntryCompression.DEFLATED)
+		def json = ZipUtils.unpackGson(jar, "fabric.mod.json", JsonObject)
+
+		then:
+		!missingTransformed
+		staged == "added"
+		!untouched
+		!output.contains("remove.txt")
+		!ZipUtils.contains(jar, "remove.txt")
+		ZipUtils.unpack(jar, "keep.txt") == "keep".bytes
+		ZipUtils.unpack(jar, "replace.txt") == "new".bytes
+		ZipUtils.unpack(jar, "added.txt") == "added".bytes
+		json.get("id").asString == "test"
+		json.get("second").asBoolean
+	}
+
+	def "writes a reproducible jar"() {
+		given:
+		def jar = ZipTestUtils.createZip([
+			"b.txt": "b",
+			"META-INF/MANIFEST.MF": ZipTestUtils.manifest("Test", "value")
+		], ".jar")
+		def output = new StagedJarOutput(jar)
+
+		when:
+		output.add("a.txt", "a".getBytes(StandardCharsets.UTF_8))
+		output.write(true, false, ZipEntryCompression.DEFLATED)
+		def zipFile = new ZipFile(jar.toFile())
+		def names = zipFile.entries()*.name
+		def times = zipFile.entries()*.time.unique()
+		zipFile.close()
+
+		then:
+		names == ["META-INF/MANIFEST.MF", "META-INF/", "a.txt", "b.txt"]
+		times.size() == 1
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.util.ThreadingUtils
+
+class ThreadingUtilsTest extends Specification {
+	def "task completer rethrows task failures"() {
+		given:
+		def completed = new AtomicInteger()
+		def completer = ThreadingUtils.taskCompleter()
+				.add { completed.incrementAndGet() }
+				.add { throw new IllegalStateException("Task failed") }
+				.add { completed.incrementAndGet() }
+
+		when:
+		completer.complete()
+
+		then:
+		def e = thrown(IllegalStateException)
+		e.message == "Task failed"
+		completed.get() == 2
+	}
+
+	def "task completer wraps checked exceptions"() {
+		given:
+		def completer = ThreadingUtils.taskCompleter()
+				.add { throw new IOException("Task failed") }
+
+		when:
+		completer.complete()
+
+		then:
+		def e = thrown(RuntimeException)
+		e.cause instanceof IOException
+	}
+
+	def "task completer rethrows listener failures"() {
+		given:
+		def completer = ThreadingUtils.taskCompleter()
+				.add { }
+				.onComplete { throw new IOException("Listener failed") }
+
+		when:
+		completer.complete()
+
+		then:
+		def e = thrown(RuntimeException)
+		e.cause instanceof IOException
+	}
+
+	def "task failures suppress listener failures"() {
+		given:
+		def completer = ThreadingUtils.taskCompleter()
+				.add { throw new IllegalStateException("Task failed") }
+				.onComplete { throw new IllegalArgumentException("Listener failed") }
+
+		when:
+		completer.complete()
+
+		then:
+		def e = thrown(IllegalStateException)
+		e.suppressed*.message == ["Listener failed"]
+	}
+}
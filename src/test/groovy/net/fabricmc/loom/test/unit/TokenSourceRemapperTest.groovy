@@ -0,0 +1,113 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.fabricmc.loom.test.unit
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.util.TokenSourceRemapper
+import net.fabricmc.mappingio.MappingReader
+import net.fabricmc.mappingio.tree.MemoryMappingTree
+
+class TokenSourceRemapperTest extends Specification {
+	static final String MAPPINGS = """tiny\t2\t0\tintermediary\tnamed
+c\tnet/minecraft/class_1\tnet/minecraft/entity/Entity
+\tm\t()V\tmethod_10\ttick
+\tf\tI\tfield_20\tage
+c\tnet/minecraft/class_1\$class_2\tnet/minecraft/entity/Entity\$RemovalReason
+c\tnet/minecraft/class_3\tnet/minecraft/world/World
+\tm\t()V\tmethod_11\ttick
+c\tnet/minecraft/class_4\tnet/minecraft/client/world/World
+c\tnet/minecraft/class_5\tnet/minecraft/item/Item
+\tm\t()V\tmethod_12\tuse
+c\tnet/minecraft/class_6\tnet/minecraft/item/BlockItem
+\tm\t()V\tmethod_12\tplace
+"""
+
+	def "remaps intermediary identifiers"() {
+		given:
+		def remapper = createRemapper()
+		def source = """package com.example;
+
+import net.minecraft.class_1;
+import net.minecraft.class_1.class_2;
+
+// class_1 is left alone in comments
+public class Example extends class_1 {
+	String name = "class_1";
+
+	@Override
+	public void method_10() {
+		this.field_20++;
+		class_2 reason = null;
+		net.minecraft.class_3 world = null;
+	}
+}
+"""
+
+		when:
+		def remapped = remapper.remap(source)
+
+		then:
+		remapped == """package com.example;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.Entity.RemovalReason;
+
+// class_1 is left alone in comments
+public class Example extends Entity {
+	String name = "class_1";
+
+	@Override
+	public void tick() {
+		this.age++;
+		RemovalReason reason = null;
+		net.minecraft.world.World world = null;
+	}
+}
+"""
+	}
+
+	def "rejects ambiguous sources"() {
+		given:
+		def remapper = createRemapper()
+
+		expect:
+		remapper.remap(source) == null
+
+		where:
+		source << [
+			"import net.minecraft.*;",
+			"class_3 a; class_4 b;",
+			"item.method_12();"
+		]
+	}
+
+	static TokenSourceRemapper createRemapper() {
+		def mappings = new MemoryMappingTree()
+		MappingReader.read(new StringReader(MAPPINGS), mappings)
+		return TokenSourceRemapper.create(mappings, "intermediary", "named")
+	}
+}
@@ -27,6 +27,7 @@ package net.fabricmc.loom.test.unit
 import java.nio.charset.StandardCharsets
 import java.nio.file.Files
 import java.time.ZoneId
+import java.util.zip.ZipFile
 
 import com.google.gson.JsonObject
 import org.gradle.api.tasks.bundling.ZipEntryCompression
@@ -258,4 +259,27 @@ class ZipUtilsTest extends Specification {
 		ZipUtils.unpack(zip, "text.txt") == "hello world".bytes
 		Checksum.sha1Hex(zip) == "e699fa52a520553241aac798f72255ac0a912b05"
 	}
+
+	def "reprocess adds parent directories of new entries"() {
+		given:
+		def dir = Files.createTempDirectory("loom-zip-test")
+		def zip = Files.createTempFile("loom-zip-test", ".zip")
+		Files.createDirectories(dir.resolve("META-INF"))
+		Files.writeString(dir.resolve("META-INF/MANIFEST.MF"), "Manifest-Version: 1.0\n")
+		ZipUtils.pack(dir, zip)
+
+		when:
+		ZipReprocessorUtil.reprocessZip(zip, true, false, ZipEntryCompression.DEFLATED, [
+			"META-INF/jars/a/nested.jar": "nested".bytes,
+			"META-INF/jarjar/metadata.json": "{}".bytes
+		])
+		def entries = new ZipFile(zip.toFile()).withCloseable { zipFile ->
+			zipFile.entries().toList().collectEntries { [it.name, it.time] }
+		}
+
+		then:
+		ZipUtils.unpack(zip, "META-INF/jars/a/nested.jar") == "nested".bytes
+		entries.keySet().containsAll(["META-INF/jarjar/", "META-INF/jars/", "META-INF/jars/a/"])
+		entries.values().every { it == ZipReprocessorUtil.CONSTANT_TIME }
+	}
 }
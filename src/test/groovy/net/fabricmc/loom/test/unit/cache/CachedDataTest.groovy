@@ -24,6 +24,7 @@
 
 package net.fabricmc.loom.test.unit.cache
 
+import java.nio.ByteBuffer
 import java.nio.channels.FileChannel
 import java.nio.file.Files
 import java.nio.file.Path
@@ -59,4 +60,24 @@ class CachedDataTest extends Specification {
 		then:
 		cachedData == readCachedData
 	}
+
+	def "Read + Write CachedData bytes"() {
+		given:
+		def lineNumberEntry = new ClassLineNumbers.Entry("net/test/TestClass", 1, 2, [1: 2, 4: 7])
+		def cachedData = new CachedData("net/test/TestClass", "Example sources", lineNumberEntry)
+		def path = testPath.resolve("cachedData.bin")
+		when:
+		def bytes = cachedData.toByteArray()
+
+		// Written with the file channel, to compare the layout
+		FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE).withCloseable {
+			cachedData.write(it)
+		}
+
+		def readCachedData = CachedData.read(ByteBuffer.wrap(bytes))
+
+		then:
+		bytes == Files.readAllBytes(path)
+		cachedData == readCachedData
+	}
 }
@@ -118,6 +118,52 @@ class CachedFileStoreTest extends Specification {
 		Files.notExists(root.resolve("test_300"))
 	}
 
+	def "pruneExcessFiles"() {
+		given:
+		def cacheRules = new CachedFileStoreImpl.CacheRules(250, Duration.ofDays(7))
+		def store = new CachedFileStoreImpl(root, BYTE_ARRAY_SERIALIZER, cacheRules)
+		when:
+		for (i in 0..<300) {
+			store.putEntry("test_" + i, "Hello world".bytes)
+		}
+
+		def stats = store.prune()
+		def remaining = (0..<300).count { Files.exists(root.resolve("test_" + it)) }
+
+		then:
+		// Only the excess entries are removed
+		stats.evictedCount() == 50
+		stats.evictedBytes() == 50 * "Hello world".bytes.length
+		remaining == 250
+	}
+
+	def "pruneToSize"() {
+		given:
+		def cacheRules = new CachedFileStoreImpl.CacheRules(1000, 100, Duration.ofDays(7))
+		def now = System.currentTimeMillis()
+
+		for (i in 0..<10) {
+			def path = root.resolve("test_" + i)
+			Files.write(path, new byte[20])
+			// Oldest first, the access index is built from the modification times
+			Files.setLastModifiedTime(path, FileTime.fromMillis(now - (10 - i) * 60_000))
+		}
+
+		def store = new CachedFileStoreImpl(root, BYTE_ARRAY_SERIALIZER, cacheRules)
+		when:
+		// Accessing an entry keeps it in the cache
+		store.getEntry("test_0")
+		def stats = store.prune()
+
+		then:
+		stats.evictedCount() == 5
+		stats.evictedBytes() == 100
+		Files.exists(root.resolve("test_0"))
+		Files.notExists(root.resolve("test_1"))
+		Files.exists(root.resolve("test_9"))
+		Files.exists(root.resolve(CachedFileStoreImpl.ACCESS_INDEX_NAME))
+	}
+
 	private static CachedFileStore.EntrySerializer<byte[]> BYTE_ARRAY_SERIALIZER = new CachedFileStore.EntrySerializer<byte[]>() {
 		@Override
 		byte[] read(Path path) throws IOException {
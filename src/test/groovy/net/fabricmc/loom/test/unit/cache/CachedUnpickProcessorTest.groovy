@@ -0,0 +1,143 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.cache
+
+import java.nio.ByteBuffer
+import java.nio.file.Path
+import java.time.Duration
+
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import net.fabricmc.loom.decompilers.cache.CachedFileStoreImpl
+import net.fabricmc.loom.decompilers.cache.CachedUnpickProcessor
+import net.fabricmc.loom.decompilers.cache.CachedUnpickedClasses
+import net.fabricmc.loom.decompilers.cache.PackedFileStore
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.RawZipFile
+import net.fabricmc.loom.util.ZipUtils
+
+class CachedUnpickProcessorTest extends Specification {
+	static Map<String, byte[]> jarEntries = [
+		"net/fabricmc/Example.class": newClass("net/fabricmc/Example"),
+		"net/fabricmc/other/Test.class": newClass("net/fabricmc/other/Test"),
+		"net/fabricmc/other/Test\$Inner.class": newInnerClass("net/fabricmc/other/Test\$Inner", "net/fabricmc/other/Test", "Inner"),
+		"resource.txt": "resource".bytes
+	]
+
+	@TempDir
+	Path testPath
+
+	def "only unpicks classes that are not cached"() {
+		given:
+		def jar = ZipTestUtils.createZipFromBytes(jarEntries)
+		def cacheRules = new CachedFileStoreImpl.CacheRules(50_000, Duration.ofDays(90))
+		def cacheFile = testPath.resolve("unpick.pack")
+
+		when:
+		// First run, nothing is cached
+		def firstJob = null
+		def firstOutput = testPath.resolve("first.jar")
+
+		PackedFileStore.open(cacheFile, CachedUnpickedClasses.BINARY_SERIALIZER, cacheRules).withCloseable { cache ->
+			def processor = new CachedUnpickProcessor(cache, "abc123")
+			firstJob = processor.prepareJob(jar)
+			processor.completeJob(firstJob, unpick(firstJob.incomplete()), firstOutput)
+		}
+
+		// Second run, everything is cached
+		def secondJob = null
+		def secondOutput = testPath.resolve("second.jar")
+
+		PackedFileStore.open(cacheFile, CachedUnpickedClasses.BINARY_SERIALIZER, cacheRules).withCloseable { cache ->
+			def processor = new CachedUnpickProcessor(cache, "abc123")
+			secondJob = processor.prepareJob(jar)
+			processor.completeJob(secondJob, null, secondOutput)
+		}
+
+		def inputTime = RawZipFile.open(jar).withCloseable { it.getEntry("net/fabricmc/Example.class").dosTime() }
+		def cachedTime = RawZipFile.open(secondOutput).withCloseable { it.getEntry("net/fabricmc/Example.class").dosTime() }
+
+		then:
+		firstJob.pending().size() == 2
+		firstJob.cached().isEmpty()
+		ZipUtils.unpack(firstOutput, "net/fabricmc/Example.class") == "unpicked net/fabricmc/Example.class".bytes
+		ZipUtils.unpack(firstOutput, "resource.txt") == "resource".bytes
+
+		secondJob.incomplete() == null
+		secondJob.pending().isEmpty()
+		secondJob.cached().size() == 2
+		ZipUtils.unpack(secondOutput, "net/fabricmc/Example.class") == "unpicked net/fabricmc/Example.class".bytes
+		ZipUtils.unpack(secondOutput, "net/fabricmc/other/Test\$Inner.class") == "unpicked net/fabricmc/other/Test\$Inner.class".bytes
+		ZipUtils.unpack(secondOutput, "resource.txt") == "resource".bytes
+		// Cached classes keep the time stamp of the input entry
+		cachedTime == inputTime
+	}
+
+	def "write and read cached classes"() {
+		given:
+		def classes = new CachedUnpickedClasses([
+			"net/fabricmc/Example.class": [1, 2, 3] as byte[],
+			"net/fabricmc/Example\$Inner.class": [4, 5] as byte[]
+		])
+
+		when:
+		def bytes = CachedUnpickedClasses.BINARY_SERIALIZER.write(classes)
+		def read = CachedUnpickedClasses.BINARY_SERIALIZER.read(ByteBuffer.wrap(bytes))
+
+		then:
+		read.classes().keySet() as List == ["net/fabricmc/Example.class", "net/fabricmc/Example\$Inner.class"]
+		read.classes()["net/fabricmc/Example.class"] == [1, 2, 3] as byte[]
+		read.classes()["net/fabricmc/Example\$Inner.class"] == [4, 5] as byte[]
+	}
+
+	// Stands in for unpick, replacing each class with a marker
+	private static Path unpick(Path incomplete) {
+		def entries = [:] as Map<String, byte[]>
+
+		RawZipFile.open(incomplete).withCloseable { zip ->
+			for (RawZipFile.Entry entry : zip.entries()) {
+				entries[entry.name()] = ("unpicked " + entry.name()).bytes
+			}
+		}
+
+		return ZipTestUtils.createZipFromBytes(entries)
+	}
+
+	private static byte[] newClass(String name) {
+		def writer = new ClassWriter(0)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+		return writer.toByteArray()
+	}
+
+	private static byte[] newInnerClass(String name, String outerClass, String innerName) {
+		def writer = new ClassWriter(0)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+		writer.visitInnerClass(name, outerClass, innerName, 0)
+		return writer.toByteArray()
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.cache
+
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import net.fabricmc.loom.decompilers.cache.CachedFileStore
+import net.fabricmc.loom.decompilers.cache.CachedFileStoreImpl
+import net.fabricmc.loom.decompilers.cache.PackedFileStore
+
+class PackedFileStoreTest extends Specification {
+	@TempDir
+	Path testPath
+
+	Path packPath
+
+	void setup() {
+		packPath = testPath.resolve("cache.pack")
+	}
+
+	def "putEntry + getEntry"() {
+		given:
+		def store = PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(100))
+		when:
+		store.putEntry("abc", "Hello world".bytes)
+		def entry = store.getEntry("abc")
+		def unknownEntry = store.getEntry("123")
+		store.close()
+		then:
+		entry == "Hello world".bytes
+		unknownEntry == null
+	}
+
+	def "entries persist"() {
+		given:
+		PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(100)).withCloseable {
+			it.putEntry("abc", "Hello world".bytes)
+			it.putEntry("def", "Hello again".bytes)
+			it.putEntry("abc", "Replaced".bytes)
+		}
+		when:
+		def store = PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(100))
+		def first = store.getEntry("abc")
+		def second = store.getEntry("def")
+		def size = store.size()
+		store.close()
+		then:
+		first == "Replaced".bytes
+		second == "Hello again".bytes
+		size == 2
+	}
+
+	def "truncated entry is discarded"() {
+		given:
+		PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(100)).withCloseable {
+			it.putEntry("abc", "Hello world".bytes)
+			it.putEntry("def", "Hello again".bytes)
+		}
+		// Simulate a process being killed while appending
+		def bytes = Files.readAllBytes(packPath)
+		Files.write(packPath, Arrays.copyOf(bytes, bytes.length - 3))
+		when:
+		def store = PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(100))
+		def first = store.getEntry("abc")
+		def second = store.getEntry("def")
+		store.close()
+		then:
+		first == "Hello world".bytes
+		second == null
+	}
+
+	def "invalid pack"() {
+		given:
+		Files.writeString(packPath, "Not a pack file")
+		when:
+		PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(100))
+		then:
+		thrown(IOException)
+	}
+
+	def "concurrent open waits for the open store"() {
+		given:
+		def store = PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(100))
+		store.putEntry("abc", "Hello world".bytes)
+		byte[] entry = null
+		def thread = Thread.start {
+			PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(100)).withCloseable {
+				entry = it.getEntry("abc")
+			}
+		}
+		when:
+		thread.join(100)
+		def waiting = thread.alive
+		store.close()
+		thread.join()
+		then:
+		waiting
+		entry == "Hello world".bytes
+	}
+
+	def "pruneManyFiles"() {
+		given:
+		PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(1000)).withCloseable {
+			for (i in 0..<500) {
+				it.putEntry("test_" + i, "Hello world".bytes)
+			}
+
+			// Access the lower entries, so the higher entries are the least recently used.
+			waitForClockTick()
+
+			for (i in 0..<250) {
+				it.getEntry("test_" + i)
+			}
+		}
+		when:
+		def store = PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(250))
+		def size = store.size()
+		def test0 = store.getEntry("test_0")
+		def test100 = store.getEntry("test_100")
+		def test300 = store.getEntry("test_300")
+		store.close()
+		then:
+		size == 250
+		test0 == "Hello world".bytes
+		test100 == "Hello world".bytes
+		test300 == null
+	}
+
+	def "pruneToSize"() {
+		given:
+		PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, rules(1000)).withCloseable {
+			for (i in 0..<10) {
+				it.putEntry("test_" + i, new byte[20])
+				waitForClockTick()
+			}
+		}
+		when:
+		// Each record is 8 bytes of lengths, the 6 byte key and 20 bytes of data
+		def store = PackedFileStore.open(packPath, BYTE_ARRAY_SERIALIZER, new CachedFileStoreImpl.CacheRules(1000, 34 * 4, Duration.ofDays(7)))
+		def stats = store.getPruneStats()
+		def size = store.size()
+		def test0 = store.getEntry("test_0")
+		def test9 = store.getEntry("test_9")
+		store.close()
+		then:
+		stats.evictedCount() == 6
+		stats.evictedBytes() == 34 * 6
+		size == 4
+		test0 == null
+		test9 == new byte[20]
+	}
+
+	// Access times come from the clock, which may not move on between entries written in a tight loop
+	private static void waitForClockTick() {
+		def start = System.currentTimeMillis()
+
+		while (System.currentTimeMillis() == start) {
+			Thread.onSpinWait()
+		}
+	}
+
+	private static CachedFileStoreImpl.CacheRules rules(long maxFiles) {
+		return new CachedFileStoreImpl.CacheRules(maxFiles, Duration.ofDays(7))
+	}
+
+	private static CachedFileStore.BinaryEntrySerializer<byte[]> BYTE_ARRAY_SERIALIZER = new CachedFileStore.BinaryEntrySerializer<byte[]>() {
+		@Override
+		byte[] read(ByteBuffer buffer) throws IOException {
+			byte[] bytes = new byte[buffer.remaining()]
+			buffer.get(bytes)
+			return bytes
+		}
+
+		@Override
+		byte[] write(byte[] entry) throws IOException {
+			return entry
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.forge
+
+import dev.architectury.at.io.AccessTransformFormats
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import org.objectweb.asm.tree.ClassNode
+import spock.lang.Specification
+
+import net.fabricmc.loom.configuration.accesstransformer.AccessTransformerClassTransformer
+import net.fabricmc.loom.configuration.processors.JarClassTransformer
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.ZipUtils
+
+class AccessTransformerClassTransformerTest extends Specification {
+	def "applies access transformers"() {
+		given:
+		def jar = ZipTestUtils.createZipFromBytes([
+			"test/Target.class": createClass("test/Target"),
+			"test/Other.class": createClass("test/Other")
+		], ".jar")
+		def accessTransformSet = AccessTransformFormats.FML.read(new StringReader('''
+public-f test.Target value
+public test.Target method()V
+protected test.Target exposed()V
+'''))
+
+		when:
+		def transformed = JarClassTransformer.apply(jar, [new AccessTransformerClassTransformer(accessTransformSet)])
+		def target = readClass(ZipUtils.unpack(jar, "test/Target.class"))
+		def other = readClass(ZipUtils.unpack(jar, "test/Other.class"))
+
+		then:
+		transformed == 1
+		target.fields.find { it.name == "value" }.access == Opcodes.ACC_PUBLIC
+		target.methods.find { it.name == "method" }.access == Opcodes.ACC_PUBLIC
+		// Visibility is never reduced
+		target.methods.find { it.name == "exposed" }.access == Opcodes.ACC_PUBLIC
+		other.fields.find { it.name == "value" }.access == (Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL)
+	}
+
+	static byte[] createClass(String name) {
+		def writer = new ClassWriter(0)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+		writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "value", "I", null, null).visitEnd()
+		writer.visitMethod(Opcodes.ACC_PRIVATE, "method", "()V", null, null).visitEnd()
+		writer.visitMethod(Opcodes.ACC_PUBLIC, "exposed", "()V", null, null).visitEnd()
+		writer.visitEnd()
+		return writer.toByteArray()
+	}
+
+	static ClassNode readClass(byte[] bytes) {
+		def node = new ClassNode()
+		new ClassReader(bytes).accept(node, 0)
+		return node
+	}
+}
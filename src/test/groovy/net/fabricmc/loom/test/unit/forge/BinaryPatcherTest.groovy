@@ -0,0 +1,78 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.forge
+
+import java.nio.charset.StandardCharsets
+
+import spock.lang.Specification
+
+import net.fabricmc.loom.configuration.providers.forge.BinaryPatcher
+
+class BinaryPatcherTest extends Specification {
+	def "applies gdiff patch"() {
+		given:
+		def source = "Hello, world!".getBytes(StandardCharsets.UTF_8)
+		def out = new ByteArrayOutputStream()
+		def data = new DataOutputStream(out)
+		data.writeInt(0xD1FFD1FF)
+		data.writeByte(4)
+		// Copy "Hello, "
+		data.writeByte(249)
+		data.writeShort(0)
+		data.writeByte(7)
+		// Insert "Loom"
+		data.writeByte(4)
+		data.write("Loom".getBytes(StandardCharsets.UTF_8))
+		// Copy "!"
+		data.writeByte(252)
+		data.writeInt(12)
+		data.writeByte(1)
+		data.writeByte(0)
+
+		when:
+		def result = BinaryPatcher.applyGdiff(source, out.toByteArray())
+
+		then:
+		new String(result, StandardCharsets.UTF_8) == "Hello, Loom!"
+	}
+
+	def "rejects copy outside of the source"() {
+		given:
+		def out = new ByteArrayOutputStream()
+		def data = new DataOutputStream(out)
+		data.writeInt(0xD1FFD1FF)
+		data.writeByte(4)
+		data.writeByte(249)
+		data.writeShort(10)
+		data.writeByte(10)
+		data.writeByte(0)
+
+		when:
+		BinaryPatcher.applyGdiff(new byte[5], out.toByteArray())
+
+		then:
+		thrown(IOException)
+	}
+}
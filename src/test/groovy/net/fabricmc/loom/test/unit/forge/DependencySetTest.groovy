@@ -99,4 +99,19 @@ class DependencySetTest extends Specification {
 			'childAB'
 		]
 	}
+
+	def "direct dependencies"() {
+		expect:
+		dependencySet.getDependencies('childAB') == ['childA2', 'childB'] as Set
+		dependencySet.getDependencies('childA1') == ['root'] as Set
+		dependencySet.getDependencies('root').isEmpty()
+		dependencySet.getDependencies('missing').isEmpty()
+	}
+
+	def "direct dependencies with ignore dependencies filter"() {
+		when:
+		dependencySet.ignoreDependenciesFilter = { it.name() == 'childA2' }
+		then:
+		dependencySet.getDependencies('childA2').isEmpty()
+	}
 }
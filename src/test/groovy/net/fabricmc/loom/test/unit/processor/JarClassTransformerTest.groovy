@@ -0,0 +1,145 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.processor
+
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import org.objectweb.asm.tree.ClassNode
+import spock.lang.Specification
+
+import net.fabricmc.loom.api.processor.ClassVisitorJarProcessor
+import net.fabricmc.loom.configuration.processors.JarClassTransformer
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.Constants
+import net.fabricmc.loom.util.RawZipFile
+import net.fabricmc.loom.util.ZipUtils
+
+class JarClassTransformerTest extends Specification {
+	def "chains transformers in order"() {
+		given:
+		def jar = ZipTestUtils.createZipFromBytes([
+			"test/Target.class": createClass("test/Target"),
+			"test/Other.class": createClass("test/Other"),
+			"resource.txt": "hello".bytes
+		], ".jar")
+
+		when:
+		def transformed = JarClassTransformer.apply(jar, [
+			new AddFieldTransformer("first"),
+			new AddFieldTransformer("second")
+		])
+
+		then:
+		transformed == 1
+		readFields(ZipUtils.unpack(jar, "test/Target.class")) == ["first", "second"]
+		readFields(ZipUtils.unpack(jar, "test/Other.class")) == []
+		ZipUtils.unpack(jar, "resource.txt") == "hello".bytes
+	}
+
+	def "copies reusable classes from the previous jar"() {
+		given:
+		def input = ZipTestUtils.createZipFromBytes([
+			"test/Target.class": createClass("test/Target"),
+			"test/Other.class": createClass("test/Other")
+		], ".jar")
+		def previous = ZipTestUtils.createZipFromBytes([
+			"test/Target.class": createClass("test/Target")
+		], ".jar")
+		def output = input.resolveSibling("output-" + input.fileName)
+
+		when:
+		def transformed = JarClassTransformer.apply(input, output, [new AddFieldTransformer("field")], previous, { className, applicable -> reuse })
+
+		then:
+		transformed == (reuse ? 0 : 1)
+		readFields(ZipUtils.unpack(output, "test/Target.class")) == (reuse ? [] : ["field"])
+		readFields(ZipUtils.unpack(output, "test/Other.class")) == []
+
+		where:
+		reuse << [true, false]
+	}
+
+	def "keeps the entry order when more classes are transformed than are pending"() {
+		given:
+		def entries = (0..<500).collectEntries { ["test/Class${it}.class".toString(), createClass("test/Class${it}")] }
+		def input = ZipTestUtils.createZipFromBytes(entries, ".jar")
+		def output = input.resolveSibling("output-" + input.fileName)
+		def transformer = new AddFieldTransformer("field") {
+			@Override
+			boolean shouldTransform(String className) {
+				return true
+			}
+		}
+
+		when:
+		def transformed = JarClassTransformer.apply(input, output, [transformer])
+		def inputNames = RawZipFile.open(input).withCloseable { it.entries()*.name() }
+		def outputNames = RawZipFile.open(output).withCloseable { it.entries()*.name() }
+
+		then:
+		transformed == 500
+		outputNames == inputNames
+		readFields(ZipUtils.unpack(output, "test/Class499.class")) == ["field"]
+	}
+
+	static byte[] createClass(String name) {
+		def writer = new ClassWriter(0)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+		writer.visitEnd()
+		return writer.toByteArray()
+	}
+
+	static List<String> readFields(byte[] bytes) {
+		def node = new ClassNode()
+		new ClassReader(bytes).accept(node, 0)
+		return node.fields*.name
+	}
+
+	private static class AddFieldTransformer implements ClassVisitorJarProcessor.ClassTransformer {
+		final String fieldName
+
+		AddFieldTransformer(String fieldName) {
+			this.fieldName = fieldName
+		}
+
+		@Override
+		boolean shouldTransform(String className) {
+			return className == "test/Target"
+		}
+
+		@Override
+		ClassVisitor createClassVisitor(String className, ClassVisitor next) {
+			return new ClassVisitor(Constants.ASM_VERSION, next) {
+				@Override
+				void visitEnd() {
+					super.visitField(Opcodes.ACC_PUBLIC, fieldName, "I", null, null)
+					super.visitEnd()
+				}
+			}
+		}
+	}
+}
@@ -24,11 +24,20 @@
 
 package net.fabricmc.loom.test.unit.processor
 
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.objectweb.asm.ClassVisitor
 import spock.lang.Specification
 
+import net.fabricmc.loom.api.processor.ClassVisitorJarProcessor
+import net.fabricmc.loom.api.processor.MinecraftJarProcessor
+import net.fabricmc.loom.api.processor.ProcessorContext
 import net.fabricmc.loom.api.processor.SpecContext
 import net.fabricmc.loom.configuration.processors.MinecraftJarProcessorManager
+import net.fabricmc.loom.test.util.ZipTestUtils
 import net.fabricmc.loom.test.util.processor.TestMinecraftJarProcessor
+import net.fabricmc.loom.util.ZipUtils
 
 class MinecraftJarProcessorManagerTest extends Specification {
 	def "Cache value matches"() {
@@ -59,4 +68,76 @@ class MinecraftJarProcessorManagerTest extends Specification {
 		manager1.jarHash == "a714eb2de6"
 		manager2.jarHash == "eb6faafa72"
 	}
+
+	def "Incremental processing reuses unchanged classes"() {
+		given:
+		def input = ZipTestUtils.createZipFromBytes([
+			"test/First.class": JarClassTransformerTest.createClass("test/First"),
+			"test/Second.class": JarClassTransformerTest.createClass("test/Second"),
+			"resource.txt": "hello".bytes
+		], ".jar")
+		def firstOutput = input.resolveSibling("first-" + input.fileName)
+		def secondOutput = input.resolveSibling("second-" + input.fileName)
+		def processor = new CountingProcessor()
+		def manager = MinecraftJarProcessorManager.create([processor], Mock(SpecContext))
+		def context = Mock(ProcessorContext)
+
+		when:
+		manager.processJarIncrementally(input, firstOutput, null, context)
+		def firstRun = processor.transformed.getAndSet(0)
+		manager.processJarIncrementally(input, secondOutput, firstOutput, context)
+
+		then:
+		firstRun == 2
+		processor.transformed.get() == 0
+		ZipUtils.unpack(secondOutput, "test/First.class") == ZipUtils.unpack(firstOutput, "test/First.class")
+		ZipUtils.unpack(secondOutput, "resource.txt") == "hello".bytes
+	}
+
+	private static class CountingProcessor implements ClassVisitorJarProcessor<CountingSpec> {
+		final AtomicInteger transformed = new AtomicInteger()
+
+		@Override
+		String getName() {
+			return "CountingProcessor"
+		}
+
+		@Override
+		CountingSpec buildSpec(SpecContext context) {
+			return new CountingSpec()
+		}
+
+		@Override
+		void processJar(Path jar, CountingSpec spec, ProcessorContext context) throws IOException {
+		}
+
+		@Override
+		ClassVisitorJarProcessor.ClassTransformer createClassTransformer(CountingSpec spec, ProcessorContext context) {
+			def counter = transformed
+			return new ClassVisitorJarProcessor.ClassTransformer() {
+				@Override
+				boolean shouldTransform(String className) {
+					return true
+				}
+
+				@Override
+				ClassVisitor createClassVisitor(String className, ClassVisitor next) {
+					counter.incrementAndGet()
+					return next
+				}
+
+				@Override
+				String getTransformKey(String className) {
+					return "1"
+				}
+			}
+		}
+	}
+
+	private static class CountingSpec implements MinecraftJarProcessor.Spec {
+		@Override
+		int hashCode() {
+			return 1
+		}
+	}
 }
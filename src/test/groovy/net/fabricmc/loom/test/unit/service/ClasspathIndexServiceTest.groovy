@@ -0,0 +1,164 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.service
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import org.objectweb.asm.tree.ClassNode
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.ZipUtils
+import net.fabricmc.tinyremapper.IMappingProvider
+import net.fabricmc.tinyremapper.TinyRemapper
+
+class ClasspathIndexServiceTest extends Specification {
+	@TempDir
+	Path tempDir
+
+	def "index contains the classes without code"() {
+		given:
+		def jar = createClasspathJar()
+		def service = new TinyRemapperServiceTest.TestClasspathIndexService(directory: tempDir.resolve("cache"))
+
+		when:
+		def index = service.getIndexes([jar])[0]
+		def node = new ClassNode()
+		new ClassReader(ZipUtils.unpack(index, "test/Base.class")).accept(node, 0)
+
+		then:
+		index != jar
+		index.startsWith(tempDir.resolve("cache"))
+		node.name == "test/Base"
+		node.methods*.name.toSet() == ["<init>", "foo"].toSet()
+		node.methods.every { it.instructions.size() == 0 }
+
+		cleanup:
+		service.close()
+	}
+
+	def "index is reused by later builds"() {
+		given:
+		def jar = createClasspathJar()
+		def service = new TinyRemapperServiceTest.TestClasspathIndexService(directory: tempDir.resolve("cache"))
+		def index = service.getIndexes([jar])[0]
+		service.close()
+		def bytes = Files.readAllBytes(index)
+
+		when:
+		def service2 = new TinyRemapperServiceTest.TestClasspathIndexService(directory: tempDir.resolve("cache"))
+		def index2 = service2.getIndexes([jar])[0]
+
+		then:
+		index2 == index
+		Files.readAllBytes(index2) == bytes
+
+		cleanup:
+		service2.close()
+	}
+
+	def "remapping against the index matches remapping against the jar"() {
+		given:
+		def jar = createClasspathJar()
+		def service = new TinyRemapperServiceTest.TestClasspathIndexService(directory: tempDir.resolve("cache"))
+		def index = service.getIndexes([jar])[0]
+		def input = ZipTestUtils.createZipFromBytes(["test/Child.class": createChildClass()], ".jar")
+
+		when:
+		def fromJar = remap(input, jar)
+		def fromIndex = remap(input, index)
+		def node = new ClassNode()
+		new ClassReader(fromIndex["test/Child"]).accept(node, 0)
+
+		then:
+		fromIndex.keySet() == fromJar.keySet()
+		fromIndex["test/Child"] == fromJar["test/Child"]
+		// The override is only renamed when the remapper sees the method in the classpath
+		node.methods*.name.contains("bar")
+
+		cleanup:
+		service.close()
+	}
+
+	private static Map<String, byte[]> remap(Path input, Path classpath) {
+		def remapper = TinyRemapper.newRemapper()
+				.withMappings({ IMappingProvider.MappingAcceptor acceptor ->
+					acceptor.acceptMethod(new IMappingProvider.Member("test/Base", "foo", "()V"), "bar")
+				} as IMappingProvider)
+				.build()
+		Map<String, byte[]> output = [:]
+
+		try {
+			remapper.readClassPath(classpath)
+			remapper.readInputs(input)
+			remapper.apply { name, bytes -> output[name] = bytes }
+		} finally {
+			remapper.finish()
+		}
+
+		return output
+	}
+
+	private static Path createClasspathJar() {
+		def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, "test/Base", null, "java/lang/Object", null)
+		addMethod(writer, "<init>") {
+			it.visitVarInsn(Opcodes.ALOAD, 0)
+			it.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false)
+		}
+		addMethod(writer, "foo") { }
+		writer.visitEnd()
+		return ZipTestUtils.createZipFromBytes(["test/Base.class": writer.toByteArray()], ".jar")
+	}
+
+	private static byte[] createChildClass() {
+		def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, "test/Child", null, "test/Base", null)
+		addMethod(writer, "<init>") {
+			it.visitVarInsn(Opcodes.ALOAD, 0)
+			it.visitMethodInsn(Opcodes.INVOKESPECIAL, "test/Base", "<init>", "()V", false)
+		}
+		addMethod(writer, "foo") {
+			it.visitVarInsn(Opcodes.ALOAD, 0)
+			it.visitMethodInsn(Opcodes.INVOKESPECIAL, "test/Base", "foo", "()V", false)
+		}
+		writer.visitEnd()
+		return writer.toByteArray()
+	}
+
+	private static void addMethod(ClassWriter writer, String name, Closure body) {
+		def method = writer.visitMethod(Opcodes.ACC_PUBLIC, name, "()V", null, null)
+		method.visitCode()
+		body(method)
+		method.visitInsn(Opcodes.RETURN)
+		method.visitMaxs(0, 0)
+		method.visitEnd()
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of fabric-loom, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2026 FabricMC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.fabricmc.loom.test.unit.service
+
+import java.nio.file.Path
+
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.Directory
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.Property
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.TempDir
+
+import net.fabricmc.loom.extension.RemapperExtensionHolder
+import net.fabricmc.loom.task.service.ClasspathIndexService
+import net.fabricmc.loom.task.service.MappingsService
+import net.fabricmc.loom.task.service.MixinAPMappingService
+import net.fabricmc.loom.task.service.TinyRemapperService
+import net.fabricmc.loom.test.util.GradleTestUtil
+import net.fabricmc.loom.test.util.ZipTestUtils
+import net.fabricmc.loom.util.kotlin.KotlinClasspathService
+
+import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
+
+class TinyRemapperServiceTest extends ServiceTestBase {
+	@TempDir
+	Path tempDir
+
+	def "get service and read the classpath through the index"() {
+		given:
+		def classpathJar = ZipTestUtils.createZipFromBytes(["test/Example.class": newClass("test/Example")], ".jar")
+		def classpathIndex = new TestClasspathIndexService(directory: tempDir)
+
+		when:
+		TinyRemapperService service = factory.get(new TestOptions(classpath: GradleTestUtil.mockConfigurableFileCollection(classpathJar.toFile())))
+		service.readClasspath(classpathIndex)
+		TinyRemapperService service2 = factory.get(new TestOptions(classpath: GradleTestUtil.mockConfigurableFileCollection(classpathJar.toFile())))
+
+		then:
+		// Equivalent options must produce the same key
+		service === service2
+		classpathIndex.indexed == [classpathJar]
+		service.tinyRemapperForRemapping != null
+
+		cleanup:
+		classpathIndex.close()
+	}
+
+	static byte[] newClass(String name) {
+		def writer = new ClassWriter(0)
+		writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+		return writer.toByteArray()
+	}
+
+	static <T> ListProperty<T> mockListProperty(List<T> value) {
+		def mock = mock(ListProperty.class)
+		when(mock.get()).thenReturn(value)
+		when(mock.isPresent()).thenReturn(true)
+		return mock
+	}
+
+	static <T> Property<T> mockEmptyProperty() {
+		def mock = mock(Property.class)
+		when(mock.isPresent()).thenReturn(false)
+		return mock
+	}
+
+	static class TestOptions implements TinyRemapperService.Options {
+		Property<String> from = GradleTestUtil.mockProperty("intermediary")
+		Property<String> to = GradleTestUtil.mockProperty("named")
+		ListProperty<MappingsService.Options> mappings = mockListProperty([
+			new MappingsServiceTest.TestOptions(
+					mappingsFile: GradleTestUtil.mockRegularFileProperty(new File("src/test/resources/mappings/PosInChunk.mappings")),
+					from: GradleTestUtil.mockProperty("intermediary"),
+					to: GradleTestUtil.mockProperty("named"),
+					)
+		])
+		Property<Boolean> ignoreConflicts = GradleTestUtil.mockProperty(false)
+		Property<Boolean> uselegacyMixinAP = GradleTestUtil.mockProperty(false)
+		ListProperty<MixinAPMappingService.Options> mixinApMappings = mockListProperty([])
+		Property<KotlinClasspathService.Options> kotlinClasspathService = mockEmptyProperty()
+		ConfigurableFileCollection classpath
+		ListProperty<String> knownIndyBsms = mockListProperty([])
+		ListProperty<RemapperExtensionHolder> remapperExtensions = mockListProperty([])
+		Property<String> serviceClass = serviceClassProperty(TinyRemapperService.TYPE)
+	}
+
+	static class TestClasspathIndexService extends ClasspathIndexService {
+		final List<Path> indexed = []
+		Path directory
+
+		@Override
+		List<Path> getIndexes(List<Path> classpath) throws IOException {
+			indexed.addAll(classpath)
+			return super.getIndexes(classpath)
+		}
+
+		@Override
+		ClasspathIndexService.Params getParameters() {
+			def dir = mock(Directory.class)
+			when(dir.getAsFile()).thenReturn(directory.toFile())
+			def property = mock(DirectoryProperty.class)
+			when(property.get()).thenReturn(dir)
+			def params = mock(ClasspathIndexService.Params.class)
+			when(params.getCacheDirectory()).thenReturn(property)
+			return params
+		}
+	}
+}